@@ -0,0 +1,36 @@
+package com.gastos.benchmark;
+
+import com.gastos.db.ConexaoBanco;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.sql.SQLException;
+
+/**
+ * Estado compartilhado dos benchmarks que acessam o banco: aponta o {@link ConexaoBanco}
+ * para um banco sintético com a quantidade de despesas do parâmetro.
+ */
+@State(Scope.Benchmark)
+public class BancoSintetico {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int quantidade;
+
+    @Setup(Level.Trial)
+    public void abrir() throws SQLException {
+        File arquivo = GeradorBancoSintetico.obterBanco(quantidade, GeradorBancoSintetico.SEMENTE_PADRAO);
+        System.setProperty("gastos.banco", arquivo.getPath());
+        ConexaoBanco.inicializarBancoDeDados();
+    }
+
+    @TearDown(Level.Trial)
+    public void fechar() {
+        ConexaoBanco.fecharConexao();
+        System.clearProperty("gastos.banco");
+    }
+}
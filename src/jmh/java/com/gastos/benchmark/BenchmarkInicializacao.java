@@ -0,0 +1,239 @@
+package com.gastos.benchmark;
+
+import com.gastos.GerenciadorFinanceiroApp;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark da partida a frio da aplicação, com e sem Class Data Sharing (AppCDS).
+ *
+ * Cada execução é uma JVM nova que abre a aplicação no modo "medir e encerrar"
+ * (-Dgastos.medirInicializacao=true) sobre uma cópia de um banco sintético, e lê a
+ * linha {@value GerenciadorFinanceiroApp#PREFIXO_MEDICAO} com o tempo até o primeiro
+ * quadro e até os dados do dashboard, medidos desde a partida da JVM. Antes das
+ * medições, uma execução de treino grava o arquivo CDS dinâmico
+ * (-XX:ArchiveClassesAtExit) com o mesmo classpath das execuções medidas, pois o
+ * arquivo só é aceito com o classpath com que foi gerado. Esse classpath é o do
+ * benchmark com os diretórios (target/classes) trocados por jars, já que o CDS não
+ * aceita diretórios não vazios no classpath. As execuções com e sem o
+ * arquivo são intercaladas, para que variações da máquina afetem as duas igualmente.
+ *
+ * Os tempos de cada execução são gravados em target/benchmark-inicializacao/resultados.csv
+ * e o resumo (mínimo, mediana, média e máximo) é impresso no console.
+ *
+ * As JVMs medidas rodam sem tela, com o Monocle (openjfx-monocle, no classpath do
+ * perfil benchmarks) e renderização por software. Os argumentos depois de "--"
+ * substituem essas opções e são repassados às JVMs medidas; um "--" sem nada depois
+ * usa a tela real.
+ *
+ * Uso: java ... com.gastos.benchmark.BenchmarkInicializacao [execuções] [despesas] [-- argumentos da JVM]
+ */
+public class BenchmarkInicializacao {
+
+    private static final File DIRETORIO = new File("target/benchmark-inicializacao");
+    private static final String CLASSE_PRINCIPAL = "com.gastos.ui.TelaPrincipal$Main";
+    private static final long TEMPO_LIMITE_SEGUNDOS = 120;
+
+    private static final int EXECUCOES_PADRAO = 10;
+    private static final int DESPESAS_PADRAO = 10000;
+    private static final List<String> ARGUMENTOS_JVM_PADRAO = List.of(
+            "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw");
+
+    public static void main(String[] args) throws Exception {
+        int execucoes = EXECUCOES_PADRAO;
+        int despesas = DESPESAS_PADRAO;
+        List<String> argumentosJvm = ARGUMENTOS_JVM_PADRAO;
+
+        int separador = Arrays.asList(args).indexOf("--");
+        int fim = separador >= 0 ? separador : args.length;
+        if (fim > 0) {
+            execucoes = Integer.parseInt(args[0]);
+        }
+        if (fim > 1) {
+            despesas = Integer.parseInt(args[1]);
+        }
+        if (separador >= 0) {
+            argumentosJvm = Arrays.asList(args).subList(separador + 1, args.length);
+        }
+
+        DIRETORIO.mkdirs();
+        File bancoOrigem = GeradorBancoSintetico.obterBanco(despesas, GeradorBancoSintetico.SEMENTE_PADRAO);
+        String classpath = prepararClasspath();
+        File arquivoCds = new File(DIRETORIO, "gerenciador-financeiro.jsa");
+        Files.deleteIfExists(arquivoCds.toPath());
+
+        System.out.printf("Execução de treino para gerar %s...%n", arquivoCds);
+        executar(bancoOrigem, classpath, argumentosJvm, "-XX:ArchiveClassesAtExit=" + arquivoCds.getPath());
+        if (!arquivoCds.exists()) {
+            throw new IllegalStateException("A execução de treino não gerou o arquivo CDS: " + arquivoCds);
+        }
+
+        List<Medicao> semCds = new ArrayList<>();
+        List<Medicao> comCds = new ArrayList<>();
+        for (int i = 1; i <= execucoes; i++) {
+            semCds.add(executar(bancoOrigem, classpath, argumentosJvm, "-Xshare:auto"));
+            comCds.add(executar(bancoOrigem, classpath, argumentosJvm, "-XX:SharedArchiveFile=" + arquivoCds.getPath()));
+            System.out.printf("Execução %d/%d: sem CDS %s | com CDS %s%n", i, execucoes,
+                    semCds.get(i - 1), comCds.get(i - 1));
+        }
+
+        gravarCsv(new File(DIRETORIO, "resultados.csv"), semCds, comCds);
+
+        System.out.printf("%n=== Inicialização (%d execuções, %d despesas, ms desde a partida da JVM) ===%n",
+                execucoes, despesas);
+        System.out.printf("  %-30s %8s %8s %8s %8s%n", "", "mínimo", "mediana", "média", "máximo");
+        imprimirResumo("Primeiro quadro, sem CDS", semCds, true);
+        imprimirResumo("Primeiro quadro, com CDS", comCds, true);
+        imprimirResumo("Dados do dashboard, sem CDS", semCds, false);
+        imprimirResumo("Dados do dashboard, com CDS", comCds, false);
+    }
+
+    /**
+     * Retorna o classpath do benchmark com cada diretório trocado por um jar do seu conteúdo.
+     */
+    private static String prepararClasspath() throws IOException {
+        List<String> entradas = new ArrayList<>();
+        int jars = 0;
+        for (String entrada : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File arquivo = new File(entrada);
+            if (arquivo.isDirectory()) {
+                File jar = new File(DIRETORIO, "classes-" + (++jars) + ".jar");
+                empacotar(arquivo.toPath(), jar);
+                entradas.add(jar.getPath());
+            } else {
+                entradas.add(entrada);
+            }
+        }
+        return String.join(File.pathSeparator, entradas);
+    }
+
+    private static void empacotar(Path diretorio, File jar) throws IOException {
+        try (JarOutputStream saida = new JarOutputStream(new FileOutputStream(jar));
+             Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : (Iterable<Path>) arquivos.filter(Files::isRegularFile)::iterator) {
+                saida.putNextEntry(new JarEntry(diretorio.relativize(arquivo).toString().replace(File.separatorChar, '/')));
+                Files.copy(arquivo, saida);
+                saida.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Executa a aplicação uma vez, em uma JVM nova, sobre uma cópia do banco.
+     */
+    private static Medicao executar(File bancoOrigem, String classpath, List<String> argumentosJvm, String opcaoCds)
+            throws IOException, InterruptedException {
+        File banco = new File(DIRETORIO, "inicializacao.db");
+        Files.copy(bancoOrigem.toPath(), banco.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(new File(banco.getPath() + "-wal").toPath());
+        Files.deleteIfExists(new File(banco.getPath() + "-shm").toPath());
+
+        List<String> comando = new ArrayList<>();
+        comando.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        comando.add(opcaoCds);
+        comando.addAll(argumentosJvm);
+        comando.add("-D" + GerenciadorFinanceiroApp.PROPRIEDADE_MEDIR + "=true");
+        comando.add("-Dgastos.banco=" + banco.getPath());
+        comando.add("-classpath");
+        comando.add(classpath);
+        comando.add(CLASSE_PRINCIPAL);
+
+        File log = new File(DIRETORIO, "ultima-execucao.log");
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log).start();
+        if (!processo.waitFor(TEMPO_LIMITE_SEGUNDOS, TimeUnit.SECONDS)) {
+            processo.destroyForcibly().waitFor();
+        }
+
+        List<String> saida = Files.readAllLines(log.toPath(), StandardCharsets.UTF_8);
+        Medicao medicao = null;
+        for (String linha : saida) {
+            if (linha.startsWith(GerenciadorFinanceiroApp.PREFIXO_MEDICAO)) {
+                medicao = Medicao.ler(linha);
+            }
+        }
+        if (medicao == null || !medicao.sucesso) {
+            saida.forEach(System.err::println);
+            throw new IllegalStateException("A aplicação não concluiu a inicialização (" + opcaoCds + ")");
+        }
+        return medicao;
+    }
+
+    private static void gravarCsv(File arquivo, List<Medicao> semCds, List<Medicao> comCds) throws IOException {
+        try (PrintWriter writer = new PrintWriter(arquivo, StandardCharsets.UTF_8)) {
+            writer.println("execucao,cds,primeiro_quadro_ms,dados_dashboard_ms");
+            for (int i = 0; i < semCds.size(); i++) {
+                writer.printf("%d,nao,%d,%d%n", i + 1, semCds.get(i).primeiroQuadroMs, semCds.get(i).dadosDashboardMs);
+                writer.printf("%d,sim,%d,%d%n", i + 1, comCds.get(i).primeiroQuadroMs, comCds.get(i).dadosDashboardMs);
+            }
+        }
+        System.out.println("Resultados gravados em " + arquivo);
+    }
+
+    private static void imprimirResumo(String nome, List<Medicao> medicoes, boolean primeiroQuadro) {
+        long[] tempos = new long[medicoes.size()];
+        long soma = 0;
+        for (int i = 0; i < tempos.length; i++) {
+            Medicao medicao = medicoes.get(i);
+            tempos[i] = primeiroQuadro ? medicao.primeiroQuadroMs : medicao.dadosDashboardMs;
+            soma += tempos[i];
+        }
+        Arrays.sort(tempos);
+        int meio = tempos.length / 2;
+        long mediana = tempos.length % 2 == 1 ? tempos[meio] : (tempos[meio - 1] + tempos[meio]) / 2;
+        System.out.printf("  %-30s %8d %8d %8d %8d%n", nome, tempos[0], mediana,
+                soma / tempos.length, tempos[tempos.length - 1]);
+    }
+
+    /**
+     * Tempos de uma execução, lidos da linha impressa pela aplicação.
+     */
+    private static final class Medicao {
+        private long primeiroQuadroMs = -1;
+        private long dadosDashboardMs = -1;
+        private boolean sucesso;
+
+        static Medicao ler(String linha) {
+            Medicao medicao = new Medicao();
+            for (String campo : linha.split(" ")) {
+                int igual = campo.indexOf('=');
+                if (igual < 0) {
+                    continue;
+                }
+                String valor = campo.substring(igual + 1);
+                switch (campo.substring(0, igual)) {
+                    case "primeiro_quadro_ms":
+                        medicao.primeiroQuadroMs = Long.parseLong(valor);
+                        break;
+                    case "dados_dashboard_ms":
+                        medicao.dadosDashboardMs = Long.parseLong(valor);
+                        break;
+                    case "sucesso":
+                        medicao.sucesso = Boolean.parseBoolean(valor);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return medicao;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("quadro %d ms, dados %d ms", primeiroQuadroMs, dadosDashboardMs);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.gastos.benchmark;
+
+import com.gastos.model.DashboardSnapshot;
+import com.gastos.service.DashboardService;
+import com.gastos.service.RepositorioDespesas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks dos totais do dashboard: o resumo do mês (geral e por responsável)
+ * e a carga completa usada pela tela principal, com o repositório de despesas já
+ * carregado e com o repositório relido do banco a cada chamada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardServiceBenchmark {
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void criar(BancoSintetico banco) {
+        dashboardService = new DashboardService();
+    }
+
+    @Benchmark
+    public DashboardSnapshot resumoDoMes(BancoSintetico banco) {
+        return dashboardService.obterResumoDoMes(null);
+    }
+
+    @Benchmark
+    public DashboardSnapshot resumoDoMesPorResponsavel(BancoSintetico banco) {
+        return dashboardService.obterResumoDoMes(1);
+    }
+
+    @Benchmark
+    public DashboardService.DadosDashboard carregarDados(BancoSintetico banco) throws SQLException {
+        return dashboardService.carregarDados(null);
+    }
+
+    @Benchmark
+    public DashboardService.DadosDashboard carregarDadosDoBanco(BancoSintetico banco) throws SQLException {
+        RepositorioDespesas.getInstancia().invalidar();
+        return dashboardService.carregarDados(null);
+    }
+}
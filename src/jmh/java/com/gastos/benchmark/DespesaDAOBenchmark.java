@@ -0,0 +1,42 @@
+package com.gastos.benchmark;
+
+import com.gastos.db.DespesaDAO;
+import com.gastos.model.Despesa;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks das listagens de despesas do {@link DespesaDAO}, incluindo a hidratação
+ * das entidades relacionadas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DespesaDAOBenchmark {
+
+    private final DespesaDAO despesaDAO = new DespesaDAO();
+
+    @Benchmark
+    public List<Despesa> listarTodas(BancoSintetico banco) throws SQLException {
+        return despesaDAO.listarTodas();
+    }
+
+    @Benchmark
+    public List<Despesa> listarDespesasDoMes(BancoSintetico banco) throws SQLException {
+        return despesaDAO.listarDespesasDoMes();
+    }
+}
@@ -0,0 +1,60 @@
+package com.gastos.benchmark;
+
+import com.gastos.model.Despesa;
+import com.gastos.model.FiltroDespesas;
+import com.gastos.service.DespesaFiltroService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da filtragem de despesas, pelos mesmos métodos usados pela tela de
+ * despesas: primeira página do mês atual com status, busca textual e a primeira
+ * página da listagem sem filtros.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DespesaFiltroServiceBenchmark {
+
+    private DespesaFiltroService filtroService;
+    private FiltroDespesas mesAPagar;
+    private FiltroDespesas porTexto;
+
+    @Setup
+    public void criar(BancoSintetico banco) {
+        filtroService = new DespesaFiltroService();
+        mesAPagar = new FiltroDespesas(YearMonth.now().atDay(1), YearMonth.now().atEndOfMonth(),
+                FiltroDespesas.TODOS, FiltroDespesas.STATUS_A_PAGAR, null);
+        porTexto = new FiltroDespesas(null, null, FiltroDespesas.TODOS, FiltroDespesas.TODOS, "farm");
+    }
+
+    @Benchmark
+    public List<Despesa> filtrarMesAPagar(BancoSintetico banco) {
+        return filtroService.buscarPagina(mesAPagar, null);
+    }
+
+    @Benchmark
+    public List<Despesa> filtrarPorTexto(BancoSintetico banco) {
+        return filtroService.buscarPorTexto(porTexto);
+    }
+
+    @Benchmark
+    public List<Despesa> primeiraPagina(BancoSintetico banco) {
+        return filtroService.buscarPagina(new FiltroDespesas(), null);
+    }
+}
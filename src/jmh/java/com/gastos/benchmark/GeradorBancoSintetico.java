@@ -0,0 +1,263 @@
+package com.gastos.benchmark;
+
+import com.gastos.db.ConexaoBanco;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Random;
+
+/**
+ * Gera bancos SQLite sintéticos para os benchmarks.
+ *
+ * O conteúdo é determinado pela quantidade de despesas, pela semente e pelo mês de
+ * geração: as datas se distribuem pelos 36 meses que terminam no mês atual, para que
+ * as consultas "do mês" encontrem dados. Os arquivos ficam em target/benchmark-dbs e
+ * são reaproveitados enquanto existirem. Os valores são gravados em centavos.
+ *
+ * Uso direto: java ... com.gastos.benchmark.GeradorBancoSintetico 1000 10000 100000 1000000
+ */
+public class GeradorBancoSintetico {
+
+    public static final long SEMENTE_PADRAO = 20240501L;
+
+    private static final File DIRETORIO = new File("target/benchmark-dbs");
+    private static final int TAMANHO_LOTE = 10000;
+    private static final int MESES = 36;
+
+    private static final String[] CATEGORIAS = {
+        "Alimentação", "Transporte", "Moradia", "Saúde", "Educação", "Lazer",
+        "Vestuário", "Serviços", "Impostos", "Presentes", "Viagem", "Outros"
+    };
+    private static final String[] RESPONSAVEIS = { "Ana", "Bruno", "Carla", "Davi" };
+    private static final String[] PALAVRAS = {
+        "mercado", "padaria", "farmácia", "posto", "aluguel", "energia", "água", "internet",
+        "restaurante", "cinema", "livraria", "academia", "uber", "ônibus", "consulta", "escola",
+        "roupa", "sapato", "presente", "hotel", "passagem", "assinatura", "conserto", "feira"
+    };
+
+    private static final String SQL_CATEGORIA = "INSERT INTO categorias (nome) VALUES (?)";
+    private static final String SQL_SUBCATEGORIA = "INSERT INTO subcategorias (nome, categoria_id) VALUES (?, ?)";
+    private static final String SQL_RESPONSAVEL = "INSERT INTO responsaveis (nome) VALUES (?)";
+    private static final String SQL_MEIO = "INSERT INTO meios_pagamento (nome, cartao_credito) VALUES (?, ?)";
+    private static final String SQL_CARTAO =
+        "INSERT INTO cartoes_credito (nome, bandeira, limite, dia_fechamento, dia_vencimento, cor) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_PARCELAMENTO =
+        "INSERT INTO parcelamentos (id, valor_total, total_parcelas, parcelas_restantes, data_inicio) VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_PARCELA =
+        "INSERT INTO parcelas (parcelamento_id, numero_parcela, valor, data_vencimento, paga) VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_DESPESA =
+        "INSERT INTO despesas (descricao, valor, data_compra, data_vencimento, pago, fixo, categoria_id, " +
+        "subcategoria_id, responsavel_id, meio_pagamento_id, cartao_id, parcelamento_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Retorna o arquivo do banco sintético, gerando-o se ainda não existir.
+     *
+     * @param quantidade número de despesas
+     * @param semente semente do gerador pseudoaleatório
+     * @return o arquivo do banco
+     * @throws SQLException se ocorrer um erro ao gerar o banco
+     */
+    public static File obterBanco(int quantidade, long semente) throws SQLException {
+        File arquivo = new File(DIRETORIO,
+                String.format("despesas-%d-%d-%s.db", quantidade, semente, YearMonth.now()));
+        if (arquivo.exists()) {
+            return arquivo;
+        }
+
+        DIRETORIO.mkdirs();
+        File temporario = new File(DIRETORIO, arquivo.getName() + ".tmp");
+        apagar(temporario);
+
+        String anterior = System.getProperty("gastos.banco");
+        System.setProperty("gastos.banco", temporario.getPath());
+        try {
+            ConexaoBanco.inicializarBancoDeDados();
+            long inicio = System.nanoTime();
+            gerar(quantidade, new Random(semente));
+            System.out.printf("Banco sintético com %d despesas gerado em %d ms.%n",
+                    quantidade, (System.nanoTime() - inicio) / 1_000_000);
+        } finally {
+            ConexaoBanco.fecharConexao();
+            if (anterior != null) {
+                System.setProperty("gastos.banco", anterior);
+            } else {
+                System.clearProperty("gastos.banco");
+            }
+        }
+
+        if (!temporario.renameTo(arquivo)) {
+            throw new SQLException("Não foi possível renomear " + temporario + " para " + arquivo);
+        }
+        return arquivo;
+    }
+
+    private static void gerar(int quantidade, Random random) throws SQLException {
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            conn.setAutoCommit(false);
+            try {
+                inserirCadastros(conn);
+                conn.commit();
+                inserirDespesas(conn, quantidade, random);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ANALYZE");
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void inserirCadastros(Connection conn) throws SQLException {
+        try (PreparedStatement categoria = conn.prepareStatement(SQL_CATEGORIA);
+             PreparedStatement subcategoria = conn.prepareStatement(SQL_SUBCATEGORIA)) {
+            for (int c = 0; c < CATEGORIAS.length; c++) {
+                categoria.setString(1, CATEGORIAS[c]);
+                categoria.executeUpdate();
+                for (int s = 1; s <= 3; s++) {
+                    subcategoria.setString(1, CATEGORIAS[c] + " " + s);
+                    subcategoria.setInt(2, c + 1);
+                    subcategoria.executeUpdate();
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_RESPONSAVEL)) {
+            for (String nome : RESPONSAVEIS) {
+                stmt.setString(1, nome);
+                stmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_MEIO)) {
+            String[] nomes = { "Dinheiro", "Pix", "Crédito", "Débito" };
+            for (int i = 0; i < nomes.length; i++) {
+                stmt.setString(1, nomes[i]);
+                stmt.setBoolean(2, i == 2);
+                stmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_CARTAO)) {
+            String[][] cartoes = { { "Roxinho", "Mastercard" }, { "Laranja", "Visa" }, { "Azul", "Elo" } };
+            for (int i = 0; i < cartoes.length; i++) {
+                stmt.setString(1, cartoes[i][0]);
+                stmt.setString(2, cartoes[i][1]);
+                stmt.setLong(3, (5000 + 2500 * i) * 100L);
+                stmt.setInt(4, 3 + 10 * i);
+                stmt.setInt(5, 10 + 10 * i);
+                stmt.setString(6, "#336699");
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static void inserirDespesas(Connection conn, int quantidade, Random random) throws SQLException {
+        LocalDate primeiroDia = YearMonth.now().minusMonths(MESES - 1).atDay(1);
+        int dias = (int) (YearMonth.now().atEndOfMonth().toEpochDay() - primeiroDia.toEpochDay()) + 1;
+        int proximoParcelamento = 1;
+
+        try (PreparedStatement despesa = conn.prepareStatement(SQL_DESPESA);
+             PreparedStatement parcelamento = conn.prepareStatement(SQL_PARCELAMENTO);
+             PreparedStatement parcela = conn.prepareStatement(SQL_PARCELA)) {
+
+            for (int i = 1; i <= quantidade; i++) {
+                LocalDate compra = primeiroDia.plusDays(random.nextInt(dias));
+                long valor = 500 + random.nextInt(99500);
+                int categoria = 1 + random.nextInt(CATEGORIAS.length);
+                int sorteio = random.nextInt(100);
+                boolean fixo = sorteio < 5;
+                boolean parcelada = sorteio >= 85;
+                boolean credito = parcelada || random.nextInt(3) == 0;
+                Integer cartao = credito ? 1 + random.nextInt(3) : null;
+                LocalDate vencimento = credito ? compra.plusMonths(1).withDayOfMonth(10) : null;
+
+                Integer parcelamentoId = null;
+                if (parcelada) {
+                    parcelamentoId = proximoParcelamento++;
+                    int parcelas = 2 + random.nextInt(11);
+                    inserirParcelamento(parcelamento, parcela, parcelamentoId, valor, parcelas, compra);
+                }
+
+                despesa.setString(1, PALAVRAS[random.nextInt(PALAVRAS.length)] + " "
+                        + PALAVRAS[random.nextInt(PALAVRAS.length)] + " " + i);
+                despesa.setLong(2, valor);
+                despesa.setString(3, compra.toString());
+                definirOuNulo(despesa, 4, vencimento != null ? vencimento.toString() : null);
+                despesa.setBoolean(5, compra.isBefore(LocalDate.now().minusDays(30)) || random.nextBoolean());
+                despesa.setBoolean(6, fixo);
+                despesa.setInt(7, categoria);
+                definirOuNulo(despesa, 8, random.nextBoolean() ? (categoria - 1) * 3 + 1 + random.nextInt(3) : null);
+                definirOuNulo(despesa, 9, random.nextInt(10) == 0 ? null : 1 + random.nextInt(RESPONSAVEIS.length));
+                despesa.setInt(10, credito ? 3 : 1 + random.nextInt(2) * 3);
+                definirOuNulo(despesa, 11, cartao);
+                definirOuNulo(despesa, 12, parcelamentoId);
+                despesa.addBatch();
+
+                if (i % TAMANHO_LOTE == 0) {
+                    parcelamento.executeBatch();
+                    parcela.executeBatch();
+                    despesa.executeBatch();
+                    conn.commit();
+                }
+            }
+            parcelamento.executeBatch();
+            parcela.executeBatch();
+            despesa.executeBatch();
+        }
+    }
+
+    private static void inserirParcelamento(PreparedStatement parcelamento, PreparedStatement parcela, int id,
+                                            long valorTotal, int totalParcelas, LocalDate inicio) throws SQLException {
+        int pagas = 0;
+        long valorParcela = valorTotal / totalParcelas;
+        for (int n = 1; n <= totalParcelas; n++) {
+            LocalDate vencimento = inicio.plusMonths(n - 1);
+            boolean paga = vencimento.isBefore(LocalDate.now());
+            if (paga) {
+                pagas++;
+            }
+            parcela.setInt(1, id);
+            parcela.setInt(2, n);
+            parcela.setLong(3, n == totalParcelas ? valorTotal - valorParcela * (totalParcelas - 1) : valorParcela);
+            parcela.setString(4, vencimento.toString());
+            parcela.setBoolean(5, paga);
+            parcela.addBatch();
+        }
+
+        parcelamento.setInt(1, id);
+        parcelamento.setLong(2, valorTotal);
+        parcelamento.setInt(3, totalParcelas);
+        parcelamento.setInt(4, totalParcelas - pagas);
+        parcelamento.setString(5, inicio.toString());
+        parcelamento.addBatch();
+    }
+
+    private static void definirOuNulo(PreparedStatement stmt, int indice, Object valor) throws SQLException {
+        if (valor == null) {
+            stmt.setNull(indice, Types.NULL);
+        } else {
+            stmt.setObject(indice, valor);
+        }
+    }
+
+    private static void apagar(File arquivo) {
+        for (String sufixo : new String[] { "", "-wal", "-shm" }) {
+            new File(arquivo.getPath() + sufixo).delete();
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        String[] quantidades = args.length > 0 ? args : new String[] { "1000", "10000", "100000", "1000000" };
+        for (String quantidade : quantidades) {
+            System.out.println(obterBanco(Integer.parseInt(quantidade), SEMENTE_PADRAO));
+        }
+    }
+}
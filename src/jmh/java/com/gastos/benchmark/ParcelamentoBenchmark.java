@@ -0,0 +1,59 @@
+package com.gastos.benchmark;
+
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Parcelamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da geração de parcelas em memória, com e sem as regras de vencimento do cartão.
+ * Não usa o banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParcelamentoBenchmark {
+
+    @Param({ "12", "60" })
+    public int totalParcelas;
+
+    private Parcelamento parcelamento;
+    private CartaoCredito cartao;
+
+    @Setup
+    public void criar() {
+        parcelamento = new Parcelamento(1, Dinheiro.deCentavos(123456), totalParcelas, LocalDate.of(2024, 1, 31));
+        cartao = new CartaoCredito();
+        cartao.setDiaFechamento(25);
+        cartao.setDiaVencimento(31);
+    }
+
+    @Benchmark
+    public List<Parcelamento.Parcela> semCartao() {
+        parcelamento.gerarParcelas(null);
+        return parcelamento.getParcelas();
+    }
+
+    @Benchmark
+    public List<Parcelamento.Parcela> comCartao() {
+        parcelamento.gerarParcelas(cartao);
+        return parcelamento.getParcelas();
+    }
+}
@@ -0,0 +1,36 @@
+package com.gastos.benchmark;
+
+import com.gastos.db.ParcelamentoDAO;
+import com.gastos.model.Parcelamento;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da listagem de parcelamentos com suas parcelas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParcelamentoDAOBenchmark {
+
+    private final ParcelamentoDAO parcelamentoDAO = new ParcelamentoDAO();
+
+    @Benchmark
+    public List<Parcelamento> listarTodos(BancoSintetico banco) throws SQLException {
+        return parcelamentoDAO.listarTodos();
+    }
+}
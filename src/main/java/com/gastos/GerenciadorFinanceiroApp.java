@@ -1,14 +1,29 @@
 package com.gastos;
 
 import com.gastos.db.ConexaoBanco;
+import com.gastos.db.PlanosConsulta;
+import com.gastos.service.CarregadorAssincrono;
+import com.gastos.service.GraficoService;
 import com.gastos.ui.TelaPrincipal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 /**
  * Classe principal do aplicativo de gerenciamento financeiro.
  * Responsável por inicializar o sistema e gerenciar o ciclo de vida da aplicação.
+ *
+ * Com -Dgastos.medirInicializacao=true a aplicação encerra sozinha assim que a
+ * inicialização termina, depois de imprimir uma linha iniciada por
+ * {@value #PREFIXO_MEDICAO} com o tempo até o primeiro quadro e até os dados do
+ * dashboard. É o modo usado pelo benchmark de inicialização e pela execução de
+ * treino que gera o arquivo CDS (perfil cds do pom.xml).
  */
 public class GerenciadorFinanceiroApp extends Application {
     
@@ -17,12 +32,30 @@ public class GerenciadorFinanceiroApp extends Application {
     private static final int MIN_WIDTH = 1024;
     private static final int MIN_HEIGHT = 768;
     
+    // Modo "medir e encerrar"
+    public static final String PROPRIEDADE_MEDIR = "gastos.medirInicializacao";
+    public static final String PREFIXO_MEDICAO = "MEDICAO_INICIALIZACAO";
+    private static final String FASE_PRIMEIRO_QUADRO = "Primeiro quadro";
+    private static final String FASE_DADOS_DASHBOARD = "Dados do dashboard";
+    
+    // Tempos das fases da inicialização, medidos desde a partida da JVM
+    private static final TemposInicializacao TEMPOS = new TemposInicializacao();
+    
+    // Threads da inicialização em paralelo (banco e gráficos)
+    private static final AtomicInteger THREADS_INICIALIZACAO = new AtomicInteger();
+    private static final ExecutorService EXECUTOR_INICIALIZACAO = Executors.newFixedThreadPool(2, r -> {
+        Thread thread = new Thread(r, "inicializacao-" + THREADS_INICIALIZACAO.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    
     /**
      * Método de inicialização da interface gráfica.
      * @param primaryStage o palco principal da aplicação
      */
     @Override
     public void start(Stage primaryStage) {
+        TEMPOS.registrarDesdePartida("JVM e toolkit JavaFX");
         try {
             inicializarAplicacao(primaryStage);
         } catch (Exception e) {
@@ -32,31 +65,118 @@ public class GerenciadorFinanceiroApp extends Application {
     
     /**
      * Inicializa os componentes da aplicação.
+     * A janela é exibida primeiro, ainda sem dados; o banco de dados (conexão e
+     * verificação do esquema) e as classes dos gráficos são preparados em paralelo,
+     * fora da thread FX, e o dashboard é carregado assim que o banco fica pronto.
+     * Ao final, os tempos de cada fase são exibidos no console.
      * @param primaryStage o palco principal da aplicação
      * @throws Exception se ocorrer um erro durante a inicialização
      */
     private void inicializarAplicacao(Stage primaryStage) throws Exception {
+        // Configurar e exibir a tela principal
+        CompletableFuture<Void> primeiroQuadro = new CompletableFuture<>();
+        TelaPrincipal telaPrincipal = configurarTelaPrincipal(primaryStage, primeiroQuadro);
+        
         // Inicializar o banco de dados
-        ConexaoBanco.inicializarBancoDeDados();
+        CompletableFuture<Void> banco = executarFase("Banco de dados (conexão e esquema)",
+            ConexaoBanco::inicializarBancoDeDados);
         
-        // Configurar e exibir a tela principal
-        configurarTelaPrincipal(primaryStage);
+        // Carregar as classes do JFreeChart antes do primeiro gráfico
+        CompletableFuture<Void> graficos = executarFase("Classes dos gráficos", GraficoService::aquecer);
+        
+        // Registrar os planos das consultas para detectar regressões de índices
+        CompletableFuture<Void> planos = banco.thenCompose(ok ->
+            executarFase("Planos de consulta", PlanosConsulta::registrarPlanos));
+        
+        // Carregar o dashboard assim que o banco estiver pronto
+        CompletableFuture<Void> dashboard = new CompletableFuture<>();
+        banco.whenComplete((ok, erro) -> Platform.runLater(() -> {
+            if (erro != null) {
+                dashboard.completeExceptionally(erro);
+                tratarErroInicializacao(erro.getCause() instanceof Exception ? (Exception) erro.getCause() : new Exception(erro));
+                return;
+            }
+            long inicio = TEMPOS.agora();
+            // Uma carga que falhou não tem tempo registrado e a medição sai com sucesso=false
+            telaPrincipal.carregarDadosIniciais(() -> {
+                TEMPOS.registrar(FASE_DADOS_DASHBOARD, inicio);
+                dashboard.complete(null);
+            }, dashboard::completeExceptionally);
+        }));
+        
+        CompletableFuture.allOf(primeiroQuadro, graficos, planos, dashboard)
+            .whenComplete((ok, erro) -> {
+                System.out.println(TEMPOS.getRelatorio());
+                if (erro != null) {
+                    System.err.println("Inicialização concluída com erro: " + erro.getMessage());
+                }
+                if (Boolean.getBoolean(PROPRIEDADE_MEDIR)) {
+                    encerrarMedicao(erro == null);
+                }
+            });
+    }
+    
+    /**
+     * Imprime a linha da medição, lida pelo benchmark de inicialização, e encerra a
+     * aplicação. Os tempos são em milissegundos desde a partida da JVM. Uma falha
+     * encerra a JVM com código 1, para que a execução de treino do CDS falhe o build.
+     * @param sucesso se todas as fases da inicialização terminaram sem erro
+     */
+    private static void encerrarMedicao(boolean sucesso) {
+        System.out.printf("%s primeiro_quadro_ms=%d dados_dashboard_ms=%d sucesso=%b%n", PREFIXO_MEDICAO,
+            TEMPOS.getFimMs(FASE_PRIMEIRO_QUADRO), TEMPOS.getFimMs(FASE_DADOS_DASHBOARD), sucesso);
+        Platform.exit();
+        if (!sucesso) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Executa uma fase da inicialização em segundo plano, registrando o seu tempo.
+     */
+    private static CompletableFuture<Void> executarFase(String nome, TemposInicializacao.Acao acao) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                TEMPOS.medir(nome, acao);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR_INICIALIZACAO);
     }
     
     /**
      * Configura a tela principal da aplicação.
      * @param primaryStage o palco principal da aplicação
+     * @param primeiroQuadro concluído no primeiro pulso da cena, quando ela é
+     *                       desenhada pela primeira vez
+     * @return a tela principal, já exibida
      */
-    private void configurarTelaPrincipal(Stage primaryStage) {
+    private TelaPrincipal configurarTelaPrincipal(Stage primaryStage, CompletableFuture<Void> primeiroQuadro) {
         // Criar a tela principal
+        long inicio = TEMPOS.agora();
         TelaPrincipal telaPrincipal = new TelaPrincipal();
+        TEMPOS.registrar("Construção da tela principal", inicio);
+        
+        // Registrar o primeiro pulso da cena, que é seguido pelo primeiro desenho
+        Scene cena = telaPrincipal.getScene();
+        cena.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                cena.removePostLayoutPulseListener(this);
+                TEMPOS.registrarDesdePartida(FASE_PRIMEIRO_QUADRO);
+                primeiroQuadro.complete(null);
+            }
+        });
         
         // Configurar o palco principal
+        inicio = TEMPOS.agora();
         primaryStage.setTitle(APP_TITLE);
-        primaryStage.setScene(telaPrincipal.getScene());
+        primaryStage.setScene(cena);
         primaryStage.setMinWidth(MIN_WIDTH);
         primaryStage.setMinHeight(MIN_HEIGHT);
         primaryStage.show();
+        TEMPOS.registrar("Exibição da janela", inicio);
+        return telaPrincipal;
     }
     
     /**
@@ -86,6 +206,10 @@ public class GerenciadorFinanceiroApp extends Application {
     @Override
     public void stop() {
         try {
+            // Interrompe os carregamentos em segundo plano antes de fechar o banco
+            EXECUTOR_INICIALIZACAO.shutdownNow();
+            CarregadorAssincrono.encerrar();
+            
             // Fecha a conexão com o banco de dados ao encerrar o aplicativo
             ConexaoBanco.fecharConexao();
             System.out.println("Aplicação encerrada com sucesso.");
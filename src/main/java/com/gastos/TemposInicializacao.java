@@ -0,0 +1,135 @@
+package com.gastos;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra a duração de cada fase da inicialização da aplicação, para identificar o
+ * que pesa na partida a frio. As fases podem ocorrer em paralelo, em threads
+ * diferentes; cada uma guarda o início e o fim medidos a partir da partida da JVM,
+ * e o relatório as lista em ordem de início, com a thread em que rodaram.
+ *
+ * Os métodos são sincronizados e podem ser chamados de qualquer thread.
+ */
+public final class TemposInicializacao {
+
+    private final long origemNanos;
+    private final List<Fase> fases = new ArrayList<>();
+
+    /**
+     * Cria o registro, com a origem dos tempos na partida da JVM.
+     */
+    public TemposInicializacao() {
+        long desdePartidaMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        this.origemNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(desdePartidaMs);
+    }
+
+    /**
+     * Retorna o instante atual, para marcar o início de uma fase registrada depois
+     * com {@link #registrar(String, long)}.
+     */
+    public long agora() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra uma fase que começou na partida da JVM e termina agora.
+     *
+     * @param nome o nome da fase
+     */
+    public void registrarDesdePartida(String nome) {
+        registrar(nome, origemNanos);
+    }
+
+    /**
+     * Registra uma fase que termina agora.
+     *
+     * @param nome o nome da fase
+     * @param inicioNanos o início da fase, obtido com {@link #agora()}
+     */
+    public synchronized void registrar(String nome, long inicioNanos) {
+        fases.add(new Fase(nome, inicioNanos - origemNanos, System.nanoTime() - origemNanos,
+                Thread.currentThread().getName()));
+    }
+
+    /**
+     * Executa uma fase e registra a sua duração, mesmo que ela falhe.
+     *
+     * @param nome o nome da fase
+     * @param acao o trabalho da fase
+     * @throws Exception o erro lançado pela fase
+     */
+    public void medir(String nome, Acao acao) throws Exception {
+        long inicio = agora();
+        try {
+            acao.executar();
+        } finally {
+            registrar(nome, inicio);
+        }
+    }
+
+    /**
+     * Retorna o tempo decorrido desde a partida da JVM, em milissegundos.
+     */
+    public long getDecorridoMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origemNanos);
+    }
+
+    /**
+     * Retorna o instante em que a fase terminou, em milissegundos desde a partida da JVM.
+     *
+     * @param nome o nome da fase
+     * @return o fim da primeira fase registrada com esse nome, ou -1 se não houver
+     */
+    public synchronized long getFimMs(String nome) {
+        for (Fase fase : fases) {
+            if (fase.nome.equals(nome)) {
+                return TimeUnit.NANOSECONDS.toMillis(fase.fimNanos);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retorna o relatório das fases, em ordem de início.
+     */
+    public synchronized String getRelatorio() {
+        List<Fase> ordenadas = new ArrayList<>(fases);
+        ordenadas.sort(Comparator.comparingLong(fase -> fase.inicioNanos));
+
+        StringBuilder sb = new StringBuilder("=== Tempos de inicialização (ms desde a partida da JVM) ===");
+        for (Fase fase : ordenadas) {
+            sb.append(String.format("%n  %-40s %6d ms  [%6d - %6d]  %s", fase.nome,
+                    TimeUnit.NANOSECONDS.toMillis(fase.fimNanos - fase.inicioNanos),
+                    TimeUnit.NANOSECONDS.toMillis(fase.inicioNanos),
+                    TimeUnit.NANOSECONDS.toMillis(fase.fimNanos), fase.thread));
+        }
+        sb.append(String.format("%n  %-40s %6d ms", "Total", getDecorridoMs()));
+        return sb.toString();
+    }
+
+    /**
+     * Trabalho de uma fase.
+     */
+    @FunctionalInterface
+    public interface Acao {
+        void executar() throws Exception;
+    }
+
+    private static final class Fase {
+        private final String nome;
+        private final long inicioNanos;
+        private final long fimNanos;
+        private final String thread;
+
+        Fase(String nome, long inicioNanos, long fimNanos, String thread) {
+            this.nome = nome;
+            this.inicioNanos = inicioNanos;
+            this.fimNanos = fimNanos;
+            this.thread = thread;
+        }
+    }
+}
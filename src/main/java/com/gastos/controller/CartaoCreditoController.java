@@ -1,17 +1,23 @@
 package com.gastos.controller;
 
 import java.sql.SQLException;
+import java.time.YearMonth;
 
 import com.gastos.db.CartaoCreditoDAO;
+import com.gastos.db.FaturaDAO;
 import com.gastos.model.CartaoCredito;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Fatura;
 import javafx.collections.ObservableList;
 
 public class CartaoCreditoController extends BaseController<CartaoCredito> {
     
     private final CartaoCreditoDAO cartaoDAO;
+    private final FaturaDAO faturaDAO;
 
     public CartaoCreditoController() {
         this.cartaoDAO = new CartaoCreditoDAO();
+        this.faturaDAO = new FaturaDAO();
     }
 
     public ObservableList<CartaoCredito> listarTodosCartoes() {
@@ -46,4 +52,20 @@ public class CartaoCreditoController extends BaseController<CartaoCredito> {
             return false;
         }
     }
+
+    public Fatura buscarFatura(CartaoCredito cartao, YearMonth mesFechamento) {
+        return executarOperacaoUnico(() -> faturaDAO.buscarFatura(cartao, mesFechamento));
+    }
+
+    public Fatura buscarFaturaAtual(CartaoCredito cartao) {
+        return executarOperacaoUnico(() -> faturaDAO.buscarFaturaAtual(cartao));
+    }
+
+    public ObservableList<Fatura> listarProximasFaturas(CartaoCredito cartao, int quantidade) {
+        return executarOperacaoLista(() -> faturaDAO.listarProximasFaturas(cartao, quantidade));
+    }
+
+    public Dinheiro calcularLimiteDisponivel(int cartaoId) {
+        return executarOperacaoUnico(() -> faturaDAO.calcularLimiteDisponivel(cartaoId));
+    }
 }
@@ -4,26 +4,38 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.gastos.db.ConexaoBanco;
 import com.gastos.db.DespesaDAO;
+import com.gastos.db.ResumoMensalDAO;
+import com.gastos.model.DashboardSnapshot;
 import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.FiltroDespesas;
 import com.gastos.model.Parcelamento.Parcela;
+import com.gastos.service.RepositorioDespesas;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 /**
  * Controlador para gerenciar as despesas no sistema.
+ * Cada inclusão, alteração ou exclusão é comunicada ao {@link RepositorioDespesas},
+ * que atualiza as telas abertas.
  */
 public class DespesaController {
     private final DespesaDAO despesaDAO;
+    private final ResumoMensalDAO resumoMensalDAO;
+    private final RepositorioDespesas repositorio;
 
     public DespesaController() {
         this.despesaDAO = new DespesaDAO();
+        this.resumoMensalDAO = new ResumoMensalDAO();
+        this.repositorio = RepositorioDespesas.getInstancia();
     }
 
     /**
@@ -43,8 +55,10 @@ public class DespesaController {
             if (despesa.getId() == 0) {
                 int id = despesaDAO.inserir(despesa);
                 despesa.setId(id);
+                repositorio.despesaIncluida(lerDespesaSalva(despesa));
             } else {
                 despesaDAO.atualizar(despesa);
+                repositorio.despesaAlterada(lerDespesaSalva(despesa));
             }
             return new Resultado(true, "Despesa salva com sucesso!");
         } catch (SQLException e) {
@@ -52,6 +66,20 @@ public class DespesaController {
         }
     }
 
+    /**
+     * Relê a despesa salva, para que as telas recebam uma cópia própria, como está no
+     * banco, e não o objeto do formulário. Se a leitura falhar, usa o próprio objeto.
+     */
+    private Despesa lerDespesaSalva(Despesa despesa) {
+        try {
+            Despesa salva = despesaDAO.buscarPorId(despesa.getId());
+            return salva != null ? salva : despesa;
+        } catch (SQLException e) {
+            System.err.println("Erro ao reler a despesa salva: " + e.getMessage());
+            return despesa;
+        }
+    }
+
     /**
      * Constrói mensagem de erro a partir da lista de erros
      */
@@ -72,7 +100,7 @@ public class DespesaController {
         // Adicionar informações sobre parcelamento se houver
         if (despesa.getParcelamento() != null) {
             mensagemErro += "\n\nDetalhes do parcelamento:\n" +
-                          "- Valor total: R$ " + despesa.getParcelamento().getValorTotal() + "\n" +
+                          "- Valor total: " + despesa.getParcelamento().getValorTotal().formatar() + "\n" +
                           "- Número de parcelas: " + despesa.getParcelamento().getTotalParcelas() + "\n" +
                           "- Data de início: " + despesa.getParcelamento().getDataInicio();
         }
@@ -95,7 +123,7 @@ public class DespesaController {
             erros.add("A descrição da despesa é obrigatória");
         }
 
-        if (despesa.getValor() <= 0) {
+        if (despesa.getValor() == null || !despesa.getValor().isPositivo()) {
             erros.add("O valor da despesa deve ser maior que zero");
         }
 
@@ -126,7 +154,7 @@ public class DespesaController {
                 erros.add("O número de parcelas deve ser maior que zero");
             }
 
-            if (despesa.getParcelamento().getValorTotal() <= 0) {
+            if (despesa.getParcelamento().getValorTotal() == null || !despesa.getParcelamento().getValorTotal().isPositivo()) {
                 erros.add("O valor total do parcelamento deve ser maior que zero");
             }
 
@@ -169,6 +197,7 @@ public class DespesaController {
             
             // Agora podemos excluir a despesa com segurança
             despesaDAO.excluir(id);
+            repositorio.despesaExcluida(id, despesa);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -200,6 +229,37 @@ public class DespesaController {
         }
     }
 
+    /**
+     * Lista uma página de despesas filtradas, ordenada da compra mais recente para a mais antiga.
+     * 
+     * @param filtro critérios de filtragem
+     * @param ultima última despesa da página anterior, ou null para a primeira página
+     * @param tamanhoPagina quantidade máxima de despesas
+     */
+    public List<Despesa> listarPaginaDespesas(FiltroDespesas filtro, Despesa ultima, int tamanhoPagina) {
+        try {
+            return despesaDAO.listarPagina(filtro, ultima, tamanhoPagina);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Busca despesas pelo índice textual, ordenadas por relevância.
+     * 
+     * @param filtro critérios de filtragem, incluindo o termo de busca
+     * @param limite quantidade máxima de despesas
+     */
+    public List<Despesa> buscarDespesasPorTexto(FiltroDespesas filtro, int limite) {
+        try {
+            return despesaDAO.buscarPorTexto(filtro, limite);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
     /**
      * Lista as despesas do mês atual.
      */
@@ -299,53 +359,50 @@ public class DespesaController {
      * Obtém dados para o gráfico de despesas por categoria.
      */
     public List<Object[]> obterDadosGraficoPorCategoria() {
-        try {
-            return despesaDAO.calcularTotalPorCategoria();
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
+        return obterResumoDoMes(null).getDadosGraficoPorCategoria();
     }
 
     /**
      * Obtém dados para o gráfico de despesas por responsável.
      */
     public List<Object[]> obterDadosGraficoPorResponsavel() {
+        return obterResumoDoMes(null).getDadosGraficoPorResponsavel();
+    }
+
+    /**
+     * Obtém o resumo do mês atual (totais gerais, por categoria e por responsável)
+     * a partir do resumo mensal materializado.
+     * 
+     * @param responsavelId ID do responsável para filtro, ou null para todos
+     */
+    public DashboardSnapshot obterResumoDoMes(Integer responsavelId) {
         try {
-            return despesaDAO.calcularTotalPorResponsavel();
+            return resumoMensalDAO.obterResumo(YearMonth.now(), responsavelId);
         } catch (SQLException e) {
             e.printStackTrace();
-            return new ArrayList<>();
+            return new DashboardSnapshot(responsavelId);
         }
     }
 
     /**
      * Calcula o total de despesas do mês atual.
      */
-    public double calcularTotalDespesasDoMes() {
-        return listarDespesasDoMes().stream()
-                .mapToDouble(Despesa::getValor)
-                .sum();
+    public Dinheiro calcularTotalDespesasDoMes() {
+        return obterResumoDoMes(null).getTotal();
     }
 
     /**
      * Calcula o total de despesas pagas do mês atual.
      */
-    public double calcularTotalDespesasPagasDoMes() {
-        return listarDespesasDoMes().stream()
-                .filter(Despesa::isPago)
-                .mapToDouble(Despesa::getValor)
-                .sum();
+    public Dinheiro calcularTotalDespesasPagasDoMes() {
+        return obterResumoDoMes(null).getTotalPago();
     }
 
     /**
      * Calcula o total de despesas a pagar do mês atual.
      */
-    public double calcularTotalDespesasAPagarDoMes() {
-        return listarDespesasDoMes().stream()
-                .filter(d -> !d.isPago())
-                .mapToDouble(Despesa::getValor)
-                .sum();
+    public Dinheiro calcularTotalDespesasAPagarDoMes() {
+        return obterResumoDoMes(null).getTotalAPagar();
     }
 
     /**
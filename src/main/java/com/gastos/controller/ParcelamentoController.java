@@ -3,23 +3,31 @@ package com.gastos.controller;
 import com.gastos.db.ParcelamentoDAO;
 import com.gastos.model.Parcelamento;
 import com.gastos.model.Parcelamento.Parcela;
+import com.gastos.service.RepositorioDespesas;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Controlador para gerenciar os parcelamentos no sistema.
+ * As alterações de parcelas são comunicadas ao {@link RepositorioDespesas}, que
+ * atualiza as telas abertas.
  */
 public class ParcelamentoController {
     private final ParcelamentoDAO parcelamentoDAO;
+    private final RepositorioDespesas repositorio;
     
     /**
      * Construtor padrão.
      */
     public ParcelamentoController() {
         this.parcelamentoDAO = new ParcelamentoDAO();
+        this.repositorio = RepositorioDespesas.getInstancia();
     }
     
     /**
@@ -66,7 +74,8 @@ public class ParcelamentoController {
     }
     
     /**
-     * Marca uma parcela como paga ou não paga.
+     * Marca uma parcela como paga ou não paga. As parcelas restantes do parcelamento
+     * são atualizadas pelo banco no mesmo comando.
      * @param parcelaId o ID da parcela
      * @param paga o novo status de pagamento
      * @throws SQLException se ocorrer um erro de SQL
@@ -74,19 +83,56 @@ public class ParcelamentoController {
     public void marcarParcelaPaga(int parcelaId, boolean paga) throws SQLException {
         try {
             parcelamentoDAO.marcarParcelaPaga(parcelaId, paga);
-            
-            // Buscar o parcelamento_id da parcela
-            int parcelamentoId = parcelamentoDAO.buscarParcelamentoIdDaParcela(parcelaId);
-            if (parcelamentoId > 0) {
-                // Atualizar o número de parcelas restantes
-                parcelamentoDAO.atualizarParcelasRestantes(parcelamentoId);
-            }
+            repositorio.parcelasAlteradas(Collections.singleton(parcelamentoDAO.buscarParcelamentoIdDaParcela(parcelaId)));
         } catch (SQLException e) {
             System.err.println("Erro ao marcar parcela como paga: " + e.getMessage());
             throw e;
         }
     }
     
+    /**
+     * Marca várias parcelas como pagas ou não pagas, em uma única transação.
+     * @param parcelaIds os IDs das parcelas
+     * @param paga o novo status de pagamento
+     * @return o número de parcelas alteradas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int marcarParcelasPagas(Collection<Integer> parcelaIds, boolean paga) throws SQLException {
+        try {
+            int alteradas = parcelamentoDAO.marcarParcelasPagas(parcelaIds, paga);
+            if (alteradas > 0) {
+                repositorio.parcelasAlteradas(parcelamentoDAO.buscarParcelamentoIdsDasParcelas(parcelaIds));
+            }
+            return alteradas;
+        } catch (SQLException e) {
+            System.err.println("Erro ao marcar parcelas como pagas: " + e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Marca como pagas (ou não pagas) as parcelas de um cartão que entram na fatura
+     * que fecha no mês.
+     * @param cartaoId o ID do cartão de crédito
+     * @param mesFechamento o mês de fechamento da fatura
+     * @param paga o novo status de pagamento
+     * @return o número de parcelas alteradas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int marcarParcelasDoCartaoPagas(int cartaoId, YearMonth mesFechamento, boolean paga) throws SQLException {
+        try {
+            int alteradas = parcelamentoDAO.marcarParcelasDoCartaoPagas(cartaoId, mesFechamento, paga);
+            if (alteradas > 0) {
+                // Os parcelamentos afetados não são conhecidos aqui
+                repositorio.parcelasAlteradas(Collections.emptySet());
+            }
+            return alteradas;
+        } catch (SQLException e) {
+            System.err.println("Erro ao marcar parcelas do cartão como pagas: " + e.getMessage());
+            throw e;
+        }
+    }
+    
     /**
      * Atualiza o número de parcelas restantes de um parcelamento.
      * @param parcelamentoId o ID do parcelamento
@@ -95,6 +141,7 @@ public class ParcelamentoController {
     public void atualizarParcelasRestantes(int parcelamentoId) throws SQLException {
         try {
             parcelamentoDAO.atualizarParcelasRestantes(parcelamentoId);
+            repositorio.parcelasAlteradas(Collections.singleton(parcelamentoId));
         } catch (SQLException e) {
             System.err.println("Erro ao atualizar parcelas restantes: " + e.getMessage());
             throw e;
@@ -123,6 +170,7 @@ public class ParcelamentoController {
     public boolean atualizarParcelamento(Parcelamento parcelamento) {
         try {
             parcelamentoDAO.atualizar(parcelamento);
+            repositorio.parcelasAlteradas(Collections.singleton(parcelamento.getId()));
             return true;
         } catch (SQLException e) {
             System.err.println("Erro ao atualizar parcelamento: " + e.getMessage());
@@ -139,6 +187,7 @@ public class ParcelamentoController {
     public boolean excluirParcelamento(int id) {
         try {
             parcelamentoDAO.excluir(id);
+            repositorio.parcelasAlteradas(Collections.singleton(id));
             return true;
         } catch (SQLException e) {
             System.err.println("Erro ao excluir parcelamento: " + e.getMessage());
@@ -1,13 +1,16 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
 import com.gastos.db.util.DAOTemplate;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.CartaoCredito;
+import com.gastos.model.Dinheiro;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,18 +26,15 @@ public class CartaoCreditoDAO {
             "UPDATE cartoes_credito SET nome = ?, bandeira = ?, limite = ?, dia_fechamento = ?, dia_vencimento = ?, cor = ? WHERE id = ?";
     private static final String SQL_DELETE = 
             "DELETE FROM cartoes_credito WHERE id = ?";
-    private static final String SQL_FIND_BY_ID = 
-            "SELECT * FROM cartoes_credito WHERE id = ?";
     private static final String SQL_FIND_ALL = 
             "SELECT * FROM cartoes_credito ORDER BY nome";
-    private static final String SQL_CALC_GASTOS_MES = 
-            "SELECT SUM(valor) as total FROM despesas " +
-            "WHERE cartao_id = ? AND " +
-            "((data_vencimento BETWEEN ? AND ?) OR " +
-            "(data_vencimento IS NULL AND data_compra BETWEEN ? AND ?))";
+    
+    // Cache compartilhado por todas as instâncias do DAO
+    private static final CacheEntidades<CartaoCredito> CACHE = new CacheEntidades<>("cartões", CartaoCredito::getId, CartaoCredito::copiar);
     
     private final DAOTemplate daoTemplate;
     private final RowMapper<CartaoCredito> rowMapper;
+    private final FaturaDAO faturaDAO;
     
     /**
      * Construtor padrão que inicializa o DAOTemplate e o RowMapper.
@@ -42,6 +42,7 @@ public class CartaoCreditoDAO {
     public CartaoCreditoDAO() {
         this.daoTemplate = new DAOTemplate();
         this.rowMapper = this::construirCartao;
+        this.faturaDAO = new FaturaDAO();
     }
     
     /**
@@ -58,6 +59,7 @@ public class CartaoCreditoDAO {
                 cartao.getDiaFechamento(), 
                 cartao.getDiaVencimento(), 
                 cartao.getCor());
+        CACHE.invalidar();
         
         return id.orElseThrow(() -> new SQLException("Falha ao inserir cartão, nenhum ID foi retornado."));
     }
@@ -76,6 +78,7 @@ public class CartaoCreditoDAO {
                 cartao.getDiaVencimento(), 
                 cartao.getCor(), 
                 cartao.getId());
+        CACHE.invalidar();
     }
     
     /**
@@ -85,6 +88,7 @@ public class CartaoCreditoDAO {
      */
     public void excluir(int id) throws SQLException {
         daoTemplate.executarUpdate(SQL_DELETE, id);
+        CACHE.invalidar();
     }
     
     /**
@@ -94,8 +98,17 @@ public class CartaoCreditoDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public CartaoCredito buscarPorId(int id) throws SQLException {
-        Optional<CartaoCredito> cartao = daoTemplate.buscar(SQL_FIND_BY_ID, rowMapper, id);
-        return cartao.orElse(null);
+        return CACHE.buscar(id, this::carregarTodos);
+    }
+    
+    /**
+     * Busca vários cartões de uma vez, a partir do cache.
+     * @param ids os IDs a serem buscados
+     * @return mapa de ID para entidade; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, CartaoCredito> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return CACHE.buscarPorIds(ids, this::carregarTodos);
     }
     
     /**
@@ -104,6 +117,13 @@ public class CartaoCreditoDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<CartaoCredito> listarTodos() throws SQLException {
+        return CACHE.listarTodos(this::carregarTodos);
+    }
+    
+    /**
+     * Carrega todos os registros da tabela, para o cache.
+     */
+    private List<CartaoCredito> carregarTodos() throws SQLException {
         return daoTemplate.listar(SQL_FIND_ALL, rowMapper);
     }
     
@@ -119,7 +139,7 @@ public class CartaoCreditoDAO {
         cartao.setId(rs.getInt("id"));
         cartao.setNome(rs.getString("nome"));
         cartao.setBandeira(rs.getString("bandeira"));
-        cartao.setLimite(rs.getDouble("limite"));
+        cartao.setLimite(Dinheiro.deCentavos(rs.getLong("limite")));
         cartao.setDiaFechamento(rs.getInt("dia_fechamento"));
         cartao.setDiaVencimento(rs.getInt("dia_vencimento"));
         cartao.setCor(rs.getString("cor"));
@@ -128,25 +148,17 @@ public class CartaoCreditoDAO {
     }
     
     /**
-     * Calcula o total de gastos em um cartão específico para o mês atual.
+     * Calcula o total de gastos em um cartão específico na fatura atual, isto é, no
+     * ciclo de cobrança que recebe as compras de hoje, a partir da tabela faturas.
      * @param cartaoId o ID do cartão
-     * @return o valor total gasto no cartão no mês atual
+     * @return o valor total da fatura atual do cartão
      * @throws SQLException se ocorrer um erro de SQL
      */
-    public double calcularGastosNoMes(int cartaoId) throws SQLException {
-        LocalDate inicio = LocalDate.now().withDayOfMonth(1);
-        LocalDate fim = inicio.plusMonths(1).minusDays(1);
-        
-        Optional<Double> total = daoTemplate.buscar(
-            SQL_CALC_GASTOS_MES,
-            rs -> rs.wasNull() ? 0.0 : rs.getDouble("total"),
-            cartaoId,
-            inicio.toString(),
-            fim.toString(),
-            inicio.toString(),
-            fim.toString()
-        );
-        
-        return total.orElse(0.0);
+    public Dinheiro calcularGastosNoMes(int cartaoId) throws SQLException {
+        CartaoCredito cartao = buscarPorId(cartaoId);
+        if (cartao == null) {
+            return Dinheiro.ZERO;
+        }
+        return faturaDAO.buscarFaturaAtual(cartao).getTotal();
     }
 }
\ No newline at end of file
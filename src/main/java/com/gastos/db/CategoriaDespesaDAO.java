@@ -1,5 +1,6 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
 import com.gastos.db.util.DAOTemplate;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.CategoriaDespesa;
@@ -8,8 +9,10 @@ import com.gastos.model.SubCategoria;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,13 +26,15 @@ public class CategoriaDespesaDAO {
     private static final String SQL_UPDATE_CATEGORIA = "UPDATE categorias SET nome = ? WHERE id = ?";
     private static final String SQL_DELETE_SUBCATEGORIAS = "DELETE FROM subcategorias WHERE categoria_id = ?";
     private static final String SQL_DELETE_CATEGORIA = "DELETE FROM categorias WHERE id = ?";
-    private static final String SQL_FIND_CATEGORIA_BY_ID = "SELECT * FROM categorias WHERE id = ?";
     private static final String SQL_FIND_ALL_CATEGORIAS = "SELECT * FROM categorias ORDER BY nome";
-    private static final String SQL_FIND_SUBCATEGORIAS = "SELECT * FROM subcategorias WHERE categoria_id = ? ORDER BY nome";
+    private static final String SQL_FIND_ALL_SUBCATEGORIAS = "SELECT * FROM subcategorias ORDER BY nome";
     private static final String SQL_INSERT_SUBCATEGORIA = "INSERT INTO subcategorias (nome, categoria_id) VALUES (?, ?)";
     private static final String SQL_UPDATE_SUBCATEGORIA = "UPDATE subcategorias SET nome = ?, categoria_id = ? WHERE id = ?";
     private static final String SQL_DELETE_SUBCATEGORIA = "DELETE FROM subcategorias WHERE id = ?";
     
+    // Cache compartilhado por todas as instâncias do DAO; as categorias vêm com as subcategorias
+    private static final CacheEntidades<CategoriaDespesa> CACHE = new CacheEntidades<>("categorias", CategoriaDespesa::getId, CategoriaDespesa::copiar);
+    
     private final DAOTemplate daoTemplate;
     private final RowMapper<CategoriaDespesa> categoriaMapper;
     private final RowMapper<SubCategoria> subcategoriaMapper;
@@ -58,6 +63,7 @@ public class CategoriaDespesaDAO {
             new SQLException("Falha ao inserir categoria, nenhum ID foi retornado."));
         
         categoria.setId(categoriaId);
+        invalidarCache();
         System.out.println("Categoria inserida com ID: " + categoriaId);
         
         return categoriaId;
@@ -73,6 +79,7 @@ public class CategoriaDespesaDAO {
         
         int linhasAfetadas = daoTemplate.executarUpdate(SQL_UPDATE_CATEGORIA, 
                 categoria.getNome(), categoria.getId());
+        invalidarCache();
         
         System.out.println("Linhas afetadas na atualização: " + linhasAfetadas);
         
@@ -102,6 +109,16 @@ public class CategoriaDespesaDAO {
                 throw new RuntimeException(e);
             }
         });
+        invalidarCache();
+        SubCategoriaDAO.invalidarCache();
+    }
+    
+    /**
+     * Invalida o cache de categorias. Usado também pelo SubCategoriaDAO, pois as
+     * categorias em cache contêm as subcategorias.
+     */
+    static void invalidarCache() {
+        CACHE.invalidar();
     }
     
     /**
@@ -133,15 +150,17 @@ public class CategoriaDespesaDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public CategoriaDespesa buscarPorId(int id) throws SQLException {
-        Optional<CategoriaDespesa> categoriaOpt = daoTemplate.buscar(SQL_FIND_CATEGORIA_BY_ID, categoriaMapper, id);
-        
-        if (categoriaOpt.isPresent()) {
-            CategoriaDespesa categoria = categoriaOpt.get();
-            categoria.setSubCategorias(buscarSubcategorias(categoria.getId()));
-            return categoria;
-        }
-        
-        return null;
+        return CACHE.buscar(id, this::carregarTodas);
+    }
+    
+    /**
+     * Busca várias categorias de uma vez, já com suas subcategorias, a partir do cache.
+     * @param ids os IDs das categorias
+     * @return mapa de ID para categoria; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, CategoriaDespesa> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return CACHE.buscarPorIds(ids, this::carregarTodas);
     }
     
     /**
@@ -150,20 +169,28 @@ public class CategoriaDespesaDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<CategoriaDespesa> listarTodas() throws SQLException {
-        System.out.println("Buscando todas as categorias...");
-        
+        return CACHE.listarTodos(this::carregarTodas);
+    }
+    
+    /**
+     * Carrega todas as categorias com suas subcategorias, para o cache.
+     * Usa uma consulta para as categorias e outra para todas as subcategorias.
+     */
+    private List<CategoriaDespesa> carregarTodas() throws SQLException {
         List<CategoriaDespesa> categorias = daoTemplate.listar(SQL_FIND_ALL_CATEGORIAS, categoriaMapper);
         
-        // Carregar subcategorias para cada categoria
+        Map<Integer, CategoriaDespesa> porId = new HashMap<>();
         for (CategoriaDespesa categoria : categorias) {
-            List<SubCategoria> subcategorias = buscarSubcategorias(categoria.getId());
-            categoria.setSubCategorias(subcategorias);
-            
-            System.out.println("Categoria encontrada: " + categoria.getId() + " - " + categoria.getNome() + 
-                               " com " + categoria.getSubCategorias().size() + " subcategorias");
+            porId.put(categoria.getId(), categoria);
+        }
+        for (SubCategoria subcategoria : daoTemplate.listar(SQL_FIND_ALL_SUBCATEGORIAS, subcategoriaMapper)) {
+            CategoriaDespesa categoria = porId.get(subcategoria.getCategoriaId());
+            if (categoria != null) {
+                categoria.adicionarSubCategoria(subcategoria);
+            }
         }
         
-        System.out.println("Total de categorias encontradas: " + categorias.size());
+        System.out.println("Categorias carregadas: " + categorias.size());
         return categorias;
     }
     
@@ -192,13 +219,6 @@ public class CategoriaDespesaDAO {
         return subcategoria;
     }
     
-    /**
-     * Busca todas as subcategorias de uma categoria específica.
-     */
-    private List<SubCategoria> buscarSubcategorias(int categoriaId) throws SQLException {
-        return daoTemplate.listar(SQL_FIND_SUBCATEGORIAS, subcategoriaMapper, categoriaId);
-    }
-    
     /**
      * Insere uma nova subcategoria no banco de dados.
      */
@@ -216,6 +236,8 @@ public class CategoriaDespesaDAO {
             new SQLException("Falha ao inserir subcategoria, nenhum ID foi retornado."));
         
         subcategoria.setId(subcategoriaId);
+        invalidarCache();
+        SubCategoriaDAO.invalidarCache();
         System.out.println("Subcategoria inserida com ID: " + subcategoriaId);
         
         return subcategoriaId;
@@ -234,6 +256,8 @@ public class CategoriaDespesaDAO {
             subcategoria.getCategoriaId(), 
             subcategoria.getId()
         );
+        invalidarCache();
+        SubCategoriaDAO.invalidarCache();
         
         System.out.println("Linhas afetadas na atualização da subcategoria: " + linhasAfetadas);
         
@@ -249,6 +273,8 @@ public class CategoriaDespesaDAO {
         System.out.println("Excluindo subcategoria ID: " + id);
         
         int linhasAfetadas = daoTemplate.executarUpdate(SQL_DELETE_SUBCATEGORIA, id);
+        invalidarCache();
+        SubCategoriaDAO.invalidarCache();
         
         System.out.println("Linhas afetadas na exclusão da subcategoria: " + linhasAfetadas);
         
@@ -1,72 +1,107 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
+
 import java.sql.*;
 import java.io.File;
 
 /**
  * Classe responsável por gerenciar a conexão com o banco de dados SQLite.
+ * As conexões são emprestadas de um {@link PoolConexoes}: uma conexão de escrita
+ * fixa e um pequeno conjunto de leitores WAL. Fechar a conexão obtida apenas a
+ * devolve ao pool.
  */
 public class ConexaoBanco {
-    private static final String URL = "jdbc:sqlite:gerenciador_financeiro.db";
-    private static Connection conexao;
+    private static final String ARQUIVO_PADRAO = "gerenciador_financeiro.db";
+    // Permite apontar para outro arquivo (por exemplo, bancos sintéticos dos benchmarks)
+    private static final String PROPRIEDADE_ARQUIVO = "gastos.banco";
+    private static final int MAX_LEITORES = 4;
+    private static PoolConexoes pool;
 
     /**
-     * Obtém uma conexão com o banco de dados.
-     * @return uma conexão com o banco de dados
+     * Obtém a conexão de escrita do banco de dados.
+     * @return uma conexão emprestada; close() a devolve ao pool
      * @throws SQLException se ocorrer um erro de SQL
      */
-    public static synchronized Connection getConexao() throws SQLException {
-        if (conexao == null || conexao.isClosed()) {
+    public static Connection getConexao() throws SQLException {
+        return getPool().obterEscrita();
+    }
+
+    /**
+     * Obtém uma conexão somente leitura do banco de dados.
+     * Se a thread atual já estiver usando a conexão de escrita, ela é reutilizada.
+     * @return uma conexão emprestada; close() a devolve ao pool
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public static Connection getConexaoLeitura() throws SQLException {
+        return getPool().obterLeitura();
+    }
+
+    /**
+     * Retorna as estatísticas de uso do pool de conexões.
+     * @return as estatísticas ou null se o banco ainda não foi inicializado
+     */
+    public static synchronized PoolConexoes.EstatisticasPool getEstatisticasPool() {
+        return pool != null ? pool.getEstatisticas() : null;
+    }
+
+    /**
+     * Retorna o arquivo do banco: o valor da propriedade de sistema "gastos.banco",
+     * se definida, ou gerenciador_financeiro.db no diretório atual.
+     */
+    public static File getArquivoBanco() {
+        return new File(System.getProperty(PROPRIEDADE_ARQUIVO, ARQUIVO_PADRAO));
+    }
+
+    /**
+     * Obtém o pool de conexões, inicializando o banco se necessário.
+     */
+    private static synchronized PoolConexoes getPool() throws SQLException {
+        if (pool == null) {
             inicializarBancoDeDados();
         }
-        return conexao;
+        return pool;
     }
 
     /**
-     * Fecha a conexão com o banco de dados.
+     * Fecha todas as conexões com o banco de dados.
      */
     public static synchronized void fecharConexao() {
-        if (conexao != null) {
-            try {
-                if (!conexao.isClosed()) {
-                    if (!conexao.getAutoCommit()) {
-                        conexao.commit();
-                        conexao.setAutoCommit(true);
-                    }
-                    conexao.close();
-                    System.out.println("Conexão com o banco de dados fechada.");
-                }
-                conexao = null;
-            } catch (SQLException e) {
-                System.err.println("Erro ao fechar a conexão: " + e.getMessage());
-            }
+        if (pool != null) {
+            System.out.println(pool.getEstatisticas());
+            System.out.println(CacheEntidades.getEstatisticasTodos());
+            // Os caches refletem este banco; o próximo pode ser outro arquivo
+            CacheEntidades.invalidarTodos();
+            pool.fechar();
+            pool = null;
+            System.out.println("Conexão com o banco de dados fechada.");
         }
     }
 
     /**
-     * Inicializa o banco de dados criando as tabelas necessárias.
+     * Inicializa o banco de dados e aplica as migrações de esquema pendentes.
      */
-    public static void inicializarBancoDeDados() throws SQLException {
+    public static synchronized void inicializarBancoDeDados() throws SQLException {
+        if (pool != null) {
+            return;
+        }
+
         // Verificar se o banco de dados já existe
-        File dbFile = new File("gerenciador_financeiro.db");
+        File dbFile = getArquivoBanco();
         boolean dbExistia = dbFile.exists();
 
         try {
             // Registrar driver JDBC do SQLite
             Class.forName("org.sqlite.JDBC");
-            conexao = DriverManager.getConnection(URL);
-            conexao.setAutoCommit(false);
 
-            // Ativar PRAGMAs para melhorar o desempenho e integridade
-            ativarPragmas();
+            // O pool abre a conexão de escrita e ativa os PRAGMAs
+            pool = new PoolConexoes("jdbc:sqlite:" + dbFile.getPath(), MAX_LEITORES);
 
             // Log de status
             System.out.println(dbExistia ? "Usando banco existente." : "Criando novo banco.");
 
-            // Se o banco for novo, inicialize o banco de dados com as tabelas e dados iniciais
-            if (!dbExistia) {
-                inicializarTabelas();
-            }
+            // Criar as tabelas (banco novo) e aplicar migrações pendentes (banco existente)
+            new MigracoesBanco().aplicarPendentes();
 
         } catch (ClassNotFoundException | SQLException e) {
             System.err.println("Erro ao inicializar o banco de dados: " + e.getMessage());
@@ -74,48 +109,13 @@ public class ConexaoBanco {
         }
     }
 
-    /**
-     * Ativa configurações do banco (PRAGMAs) para otimizar o desempenho.
-     */
-    private static void ativarPragmas() throws SQLException {
-        try (Statement stmt = conexao.createStatement()) {
-            stmt.execute("PRAGMA foreign_keys = ON");
-            stmt.execute("PRAGMA journal_mode = WAL");
-            stmt.execute("PRAGMA busy_timeout = 30000");
-        }
-    }
-
-    /**
-     * Inicializa as tabelas no banco de dados, caso sejam necessárias.
-     */
-    private static void inicializarTabelas() throws SQLException {
-        String[] tabelas = {
-            "CREATE TABLE IF NOT EXISTS categorias (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL)",
-            "CREATE TABLE IF NOT EXISTS subcategorias (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, categoria_id INTEGER NOT NULL, FOREIGN KEY (categoria_id) REFERENCES categorias(id))",
-            "CREATE TABLE IF NOT EXISTS responsaveis (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL)",
-            "CREATE TABLE IF NOT EXISTS meios_pagamento (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, cartao_credito BOOLEAN NOT NULL)",
-            "CREATE TABLE IF NOT EXISTS cartoes_credito (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, bandeira TEXT NOT NULL, limite REAL NOT NULL, dia_fechamento INTEGER NOT NULL, dia_vencimento INTEGER NOT NULL, cor TEXT)",
-            "CREATE TABLE IF NOT EXISTS parcelamentos (id INTEGER PRIMARY KEY AUTOINCREMENT, valor_total REAL NOT NULL, total_parcelas INTEGER NOT NULL, parcelas_restantes INTEGER NOT NULL, data_inicio TEXT NOT NULL)",
-            "CREATE TABLE IF NOT EXISTS parcelas (id INTEGER PRIMARY KEY AUTOINCREMENT, parcelamento_id INTEGER NOT NULL, numero_parcela INTEGER NOT NULL, valor REAL NOT NULL, data_vencimento TEXT NOT NULL, paga BOOLEAN NOT NULL, FOREIGN KEY (parcelamento_id) REFERENCES parcelamentos(id))",
-            "CREATE TABLE IF NOT EXISTS despesas (id INTEGER PRIMARY KEY AUTOINCREMENT, descricao TEXT NOT NULL, valor REAL NOT NULL, data_compra TEXT NOT NULL, data_vencimento TEXT, pago BOOLEAN NOT NULL, fixo BOOLEAN NOT NULL, categoria_id INTEGER NOT NULL, subcategoria_id INTEGER, responsavel_id INTEGER, meio_pagamento_id INTEGER, cartao_id INTEGER, parcelamento_id INTEGER, FOREIGN KEY (categoria_id) REFERENCES categorias(id), FOREIGN KEY (subcategoria_id) REFERENCES subcategorias(id), FOREIGN KEY (responsavel_id) REFERENCES responsaveis(id), FOREIGN KEY (meio_pagamento_id) REFERENCES meios_pagamento(id), FOREIGN KEY (cartao_id) REFERENCES cartoes_credito(id), FOREIGN KEY (parcelamento_id) REFERENCES parcelamentos(id))"
-        };
-
-        try (Statement stmt = conexao.createStatement()) {
-            for (String tabela : tabelas) {
-                stmt.execute(tabela);
-            }
-            conexao.commit();
-            System.out.println("Tabelas criadas/verificadas com sucesso!");
-        }
-    }
-
     /**
      * Reseta o banco de dados (para fins de depuração ou reinicialização).
      */
     public static void resetarBancoDados() {
         try {
             fecharConexao();
-            File dbFile = new File("gerenciador_financeiro.db");
+            File dbFile = getArquivoBanco();
 
             if (dbFile.exists()) {
                 if (dbFile.delete()) {
@@ -125,7 +125,7 @@ public class ConexaoBanco {
                 }
             }
 
-            getConexao(); // Reinicializa a conexão com um banco vazio
+            inicializarBancoDeDados(); // Reinicializa a conexão com um banco vazio
         } catch (SQLException e) {
             System.err.println("Erro ao reiniciar o banco de dados: " + e.getMessage());
         }
@@ -135,7 +135,8 @@ public class ConexaoBanco {
      * Verifica a integridade do banco de dados.
      */
     public static void verificarIntegridadeBanco() {
-        try (Statement stmt = conexao.createStatement()) {
+        try (Connection conexao = getConexaoLeitura();
+             Statement stmt = conexao.createStatement()) {
             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type='table';");
             System.out.println("Tabelas no banco de dados:");
             while (rs.next()) {
@@ -1,10 +1,13 @@
 package com.gastos.db;
 
 import com.gastos.db.util.DAOTemplate;
+import com.gastos.db.util.RowCallbackHandler;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.CartaoCredito;
 import com.gastos.model.CategoriaDespesa;
 import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.FiltroDespesas;
 import com.gastos.model.MeioPagamento;
 import com.gastos.model.Parcelamento;
 import com.gastos.model.Responsavel;
@@ -19,7 +22,6 @@ import java.sql.Types;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Classe DAO para a entidade Despesa. Refatorada para usar DAOTemplate.
@@ -45,6 +47,21 @@ public class DespesaDAO {
 	private static final String SQL_FIND_BY_CARTAO = "SELECT * FROM despesas WHERE cartao_id = ? ORDER BY data_vencimento DESC";
 	private static final String SQL_FIND_FIXED = "SELECT * FROM despesas WHERE fixo = 1 ORDER BY data_vencimento DESC";
 	private static final String SQL_FIND_INSTALLMENT = "SELECT * FROM despesas WHERE parcelamento_id IS NOT NULL ORDER BY data_compra DESC";
+	// Base da consulta paginada; filtros e cursor são acrescentados em listarPagina
+	private static final String SQL_FIND_PAGE = "SELECT * FROM despesas d WHERE 1 = 1";
+	private static final String SQL_PAGE_ORDER = " ORDER BY d.data_compra DESC, d.id DESC LIMIT ?";
+	// Busca textual ordenada por relevância (bm25); filtros são acrescentados em buscarPorTexto
+	private static final String SQL_SEARCH = "SELECT d.* FROM despesas_busca b JOIN despesas d ON d.id = b.rowid "
+			+ "WHERE despesas_busca MATCH ?";
+	private static final String SQL_SEARCH_ORDER = " ORDER BY b.rank LIMIT ?";
+	// Exportação: colunas de despesas com os nomes relacionados; filtros acrescentados em percorrerParaExportacao
+	private static final String SQL_EXPORT = "SELECT d.id, d.descricao, d.valor, d.data_compra, d.data_vencimento, d.pago, d.fixo, "
+			+ "c.nome AS categoria, s.nome AS subcategoria, r.nome AS responsavel, m.nome AS meio_pagamento, "
+			+ "cc.nome AS cartao, d.parcelamento_id FROM despesas d "
+			+ "LEFT JOIN categorias c ON c.id = d.categoria_id LEFT JOIN subcategorias s ON s.id = d.subcategoria_id "
+			+ "LEFT JOIN responsaveis r ON r.id = d.responsavel_id LEFT JOIN meios_pagamento m ON m.id = d.meio_pagamento_id "
+			+ "LEFT JOIN cartoes_credito cc ON cc.id = d.cartao_id WHERE 1 = 1";
+	private static final String SQL_EXPORT_ORDER = " ORDER BY d.data_compra, d.id";
 	private static final String SQL_SUM_BY_CATEGORY = "SELECT c.nome, SUM(d.valor) as total " + "FROM despesas d "
 			+ "JOIN categorias c ON d.categoria_id = c.id " + "WHERE (d.data_vencimento BETWEEN ? AND ?) OR "
 			+ "(d.data_vencimento IS NULL AND d.data_compra BETWEEN ? AND ?) " + "GROUP BY c.nome "
@@ -56,13 +73,15 @@ public class DespesaDAO {
 
 	private final DAOTemplate daoTemplate;
 	private final RowMapper<Despesa> despesaMapper;
+	private final HidratadorDespesas hidratador;
 
 	/**
-	 * Construtor padrão que inicializa o DAOTemplate e o RowMapper.
+	 * Construtor padrão que inicializa o DAOTemplate, o RowMapper e o hidratador.
 	 */
 	public DespesaDAO() {
 		this.daoTemplate = new DAOTemplate();
 		this.despesaMapper = this::construirDespesa;
+		this.hidratador = new HidratadorDespesas();
 	}
 
 	/**
@@ -145,12 +164,52 @@ public class DespesaDAO {
 		});
 	}
 
+	/**
+	 * Insere um lote de despesas em uma única transação, com addBatch/executeBatch.
+	 * Usado pela importação de extratos; as despesas não podem ter parcelamento e os
+	 * IDs gerados não são lidos de volta.
+	 *
+	 * @return o número de despesas inseridas
+	 */
+	public int inserirEmLote(List<Despesa> despesas) throws SQLException {
+		if (despesas.isEmpty()) {
+			return 0;
+		}
+		for (Despesa despesa : despesas) {
+			if (despesa.getCategoria() == null || despesa.getCategoria().getId() <= 0) {
+				throw new SQLException("É necessário informar uma categoria válida para a despesa: "
+						+ despesa.getDescricao());
+			}
+			if (despesa.getParcelamento() != null) {
+				throw new SQLException("Despesas parceladas não podem ser inseridas em lote: "
+						+ despesa.getDescricao());
+			}
+		}
+
+		final int[] inseridas = new int[1];
+		daoTemplate.executarEmTransacao(conn -> {
+			try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT)) {
+				for (Despesa despesa : despesas) {
+					preencherStatement(stmt, despesa);
+					stmt.addBatch();
+				}
+				for (int afetadas : stmt.executeBatch()) {
+					// SUCCESS_NO_INFO conta como uma linha inserida
+					inseridas[0] += afetadas == Statement.SUCCESS_NO_INFO ? 1 : afetadas;
+				}
+			} catch (SQLException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		return inseridas[0];
+	}
+
 	/**
 	 * Preenche um PreparedStatement com os dados da despesa.
 	 */
 	private void preencherStatement(PreparedStatement stmt, Despesa despesa) throws SQLException {
 		stmt.setString(1, despesa.getDescricao());
-		stmt.setDouble(2, despesa.getValor());
+		stmt.setLong(2, despesa.getValor().getCentavos());
 		stmt.setString(3, despesa.getDataCompra().toString());
 
 		if (despesa.getDataVencimento() != null) {
@@ -208,7 +267,13 @@ public class DespesaDAO {
 	        rs.close();
 	        checkStmt.close();
 
-	        // 2. Se tem parcelamento, excluir parcelas e parcelamento
+	        // 2. Excluir a despesa, que referencia o parcelamento
+	        PreparedStatement deleteStmt = conn.prepareStatement(SQL_DELETE);
+	        deleteStmt.setInt(1, id);
+	        deleteStmt.executeUpdate();
+	        deleteStmt.close();
+
+	        // 3. Se tinha parcelamento, excluir parcelas e parcelamento
 	        if (parcelamentoId != null) {
 	            // Excluir parcelas
 	            PreparedStatement deleteParcelasStmt = conn
@@ -225,12 +290,6 @@ public class DespesaDAO {
 	            deleteParcelamentoStmt.close();
 	        }
 
-	        // 3. Excluir a despesa
-	        PreparedStatement deleteStmt = conn.prepareStatement(SQL_DELETE);
-	        deleteStmt.setInt(1, id);
-	        deleteStmt.executeUpdate();
-	        deleteStmt.close();
-
 	        // Confirmar transação
 	        conn.commit();
 
@@ -250,6 +309,7 @@ public class DespesaDAO {
 	            } catch (SQLException e) {
 	                System.err.println("Erro ao restaurar autocommit: " + e.getMessage());
 	            }
+	            conn.close(); // Devolve a conexão ao pool
 	        }
 	    }
 	}
@@ -258,15 +318,15 @@ public class DespesaDAO {
 	 * Busca uma despesa pelo ID.
 	 */
 	public Despesa buscarPorId(int id) throws SQLException {
-		Optional<Despesa> despesa = daoTemplate.buscar(SQL_FIND_BY_ID, despesaMapper, id);
-		return despesa.orElse(null);
+		List<Despesa> despesas = listarHidratadas(SQL_FIND_BY_ID, id);
+		return despesas.isEmpty() ? null : despesas.get(0);
 	}
 
 	/**
 	 * Lista todas as despesas do banco de dados.
 	 */
 	public List<Despesa> listarTodas() throws SQLException {
-		return daoTemplate.listar(SQL_FIND_ALL, despesaMapper);
+		return listarHidratadas(SQL_FIND_ALL);
 	}
 
 	/**
@@ -277,54 +337,218 @@ public class DespesaDAO {
 		LocalDate inicio = LocalDate.now().withDayOfMonth(1);
 		LocalDate fim = inicio.plusMonths(1).minusDays(1);
 
-		return daoTemplate.listar(SQL_FIND_BY_MONTH, despesaMapper, inicio.toString(), fim.toString(),
-				inicio.toString(), fim.toString());
+		return listarHidratadas(SQL_FIND_BY_MONTH, inicio.toString(), fim.toString(), inicio.toString(),
+				fim.toString());
 	}
 
 	/**
 	 * Lista despesas por categoria.
 	 */
 	public List<Despesa> listarPorCategoria(int categoriaId) throws SQLException {
-		return daoTemplate.listar(SQL_FIND_BY_CATEGORIA, despesaMapper, categoriaId);
+		return listarHidratadas(SQL_FIND_BY_CATEGORIA, categoriaId);
 	}
 
 	/**
 	 * Lista despesas por responsável.
 	 */
 	public List<Despesa> listarPorResponsavel(int responsavelId) throws SQLException {
-		return daoTemplate.listar(SQL_FIND_BY_RESPONSAVEL, despesaMapper, responsavelId);
+		return listarHidratadas(SQL_FIND_BY_RESPONSAVEL, responsavelId);
 	}
 
 	/**
 	 * Lista despesas por cartão de crédito.
 	 */
 	public List<Despesa> listarPorCartao(int cartaoId) throws SQLException {
-		return daoTemplate.listar(SQL_FIND_BY_CARTAO, despesaMapper, cartaoId);
+		return listarHidratadas(SQL_FIND_BY_CARTAO, cartaoId);
 	}
 
 	/**
 	 * Lista despesas fixas.
 	 */
 	public List<Despesa> listarDespesasFixas() throws SQLException {
-		return daoTemplate.listar(SQL_FIND_FIXED, despesaMapper);
+		return listarHidratadas(SQL_FIND_FIXED);
 	}
 
 	/**
 	 * Lista despesas parceladas.
 	 */
 	public List<Despesa> listarDespesasParceladas() throws SQLException {
-		return daoTemplate.listar(SQL_FIND_INSTALLMENT, despesaMapper);
+		return listarHidratadas(SQL_FIND_INSTALLMENT);
+	}
+
+	/**
+	 * Lista uma página de despesas filtradas, em ordem decrescente de data de compra.
+	 *
+	 * A paginação é por chave (keyset) sobre (data_compra, id): a próxima página começa
+	 * logo após a última despesa da página anterior, sem OFFSET, de modo que o custo de
+	 * cada página não cresce com a posição na lista. Os filtros são aplicados no SQL.
+	 *
+	 * @param filtro critérios de filtragem (pode ser null)
+	 * @param ultima última despesa da página anterior, ou null para a primeira página
+	 * @param tamanhoPagina quantidade máxima de despesas da página
+	 */
+	public List<Despesa> listarPagina(FiltroDespesas filtro, Despesa ultima, int tamanhoPagina) throws SQLException {
+		StringBuilder sql = new StringBuilder(SQL_FIND_PAGE);
+		List<Object> params = new ArrayList<>();
+
+		if (filtro != null) {
+			adicionarFiltros(sql, params, filtro);
+		}
+
+		if (ultima != null) {
+			sql.append(" AND (d.data_compra, d.id) < (?, ?)");
+			params.add(ultima.getDataCompra().toString());
+			params.add(ultima.getId());
+		}
+
+		sql.append(SQL_PAGE_ORDER);
+		params.add(tamanhoPagina);
+
+		return listarHidratadas(sql.toString(), params.toArray());
+	}
+
+	/**
+	 * Acrescenta à consulta os predicados do filtro de despesas.
+	 */
+	private void adicionarFiltros(StringBuilder sql, List<Object> params, FiltroDespesas filtro) {
+		if (filtro.getDataInicio() != null && filtro.getDataFim() != null) {
+			sql.append(" AND ((d.data_compra BETWEEN ? AND ?) OR (d.data_vencimento BETWEEN ? AND ?))");
+			params.add(filtro.getDataInicio().toString());
+			params.add(filtro.getDataFim().toString());
+			params.add(filtro.getDataInicio().toString());
+			params.add(filtro.getDataFim().toString());
+		}
+
+		if (FiltroDespesas.TIPO_NORMAL.equals(filtro.getTipo())) {
+			sql.append(" AND d.fixo = 0 AND d.parcelamento_id IS NULL");
+		} else if (FiltroDespesas.TIPO_FIXA.equals(filtro.getTipo())) {
+			sql.append(" AND d.fixo = 1");
+		} else if (FiltroDespesas.TIPO_PARCELADA.equals(filtro.getTipo())) {
+			sql.append(" AND d.parcelamento_id IS NOT NULL");
+		}
+
+		if (FiltroDespesas.STATUS_PAGO.equals(filtro.getStatus())) {
+			sql.append(" AND d.pago = 1");
+		} else if (FiltroDespesas.STATUS_A_PAGAR.equals(filtro.getStatus())) {
+			sql.append(" AND d.pago = 0");
+		}
+
+		if (filtro.getResponsavelId() != null) {
+			sql.append(" AND d.responsavel_id = ?");
+			params.add(filtro.getResponsavelId());
+		}
+
+		if (filtro.getCartaoId() != null) {
+			sql.append(" AND d.cartao_id = ?");
+			params.add(filtro.getCartaoId());
+		}
+
+		String consultaBusca = montarConsultaBusca(filtro.getTermoBusca());
+		if (consultaBusca != null) {
+			sql.append(" AND d.id IN (SELECT rowid FROM despesas_busca WHERE despesas_busca MATCH ?)");
+			params.add(consultaBusca);
+		}
+	}
+
+	/**
+	 * Busca despesas pelo índice textual, das mais relevantes para as menos relevantes.
+	 *
+	 * Cada palavra do termo é buscada como prefixo na descrição e nos nomes da
+	 * categoria, subcategoria e responsável, sem diferenciar acentos nem maiúsculas.
+	 * Os demais critérios do filtro também são aplicados.
+	 *
+	 * @param filtro critérios de filtragem, incluindo o termo de busca
+	 * @param limite quantidade máxima de despesas
+	 */
+	public List<Despesa> buscarPorTexto(FiltroDespesas filtro, int limite) throws SQLException {
+		String consultaBusca = montarConsultaBusca(filtro.getTermoBusca());
+		if (consultaBusca == null) {
+			return listarPagina(filtro, null, limite);
+		}
+
+		StringBuilder sql = new StringBuilder(SQL_SEARCH);
+		List<Object> params = new ArrayList<>();
+		params.add(consultaBusca);
+
+		FiltroDespesas semTermo = new FiltroDespesas(filtro.getDataInicio(), filtro.getDataFim(), filtro.getTipo(),
+				filtro.getStatus(), null, filtro.getResponsavelId(), filtro.getCartaoId());
+		adicionarFiltros(sql, params, semTermo);
+
+		sql.append(SQL_SEARCH_ORDER);
+		params.add(limite);
+
+		return listarHidratadas(sql.toString(), params.toArray());
+	}
+
+	/**
+	 * Percorre as despesas do filtro em ordem de compra, entregando cada linha ao
+	 * handler sem montar objetos Despesa. As colunas são as de {@code despesas}
+	 * (valor em centavos, datas ISO), com as chaves estrangeiras trocadas pelos nomes:
+	 * id, descricao, valor, data_compra, data_vencimento, pago, fixo, categoria,
+	 * subcategoria, responsavel, meio_pagamento, cartao e parcelamento_id.
+	 *
+	 * @param filtro critérios de filtragem (pode ser null)
+	 * @param handler recebe cada linha
+	 * @return o número de despesas percorridas
+	 */
+	public long percorrerParaExportacao(FiltroDespesas filtro, RowCallbackHandler handler) throws SQLException {
+		StringBuilder sql = new StringBuilder(SQL_EXPORT);
+		List<Object> params = new ArrayList<>();
+
+		if (filtro != null) {
+			adicionarFiltros(sql, params, filtro);
+		}
+		sql.append(SQL_EXPORT_ORDER);
+
+		return daoTemplate.percorrer(sql.toString(), handler, params.toArray());
+	}
+
+	/**
+	 * Converte o texto digitado em uma consulta FTS5: cada palavra vira um prefixo
+	 * entre aspas ("pala"*), combinadas com E. Caracteres que não são letras nem
+	 * dígitos são descartados, para que o texto nunca seja interpretado como sintaxe.
+	 *
+	 * @return a consulta, ou null se o texto não tiver nenhuma palavra
+	 */
+	static String montarConsultaBusca(String termo) {
+		if (termo == null) {
+			return null;
+		}
+
+		StringBuilder consulta = new StringBuilder();
+		for (String palavra : termo.split("[^\\p{L}\\p{N}]+")) {
+			if (!palavra.isEmpty()) {
+				if (consulta.length() > 0) {
+					consulta.append(' ');
+				}
+				consulta.append('"').append(palavra).append("\"*");
+			}
+		}
+
+		return consulta.length() > 0 ? consulta.toString() : null;
+	}
+
+	/**
+	 * Executa a consulta e carrega os objetos relacionados de todas as despesas em lote.
+	 * O custo é de uma consulta para as despesas mais uma por tipo de entidade
+	 * relacionada, independente do número de linhas.
+	 */
+	private List<Despesa> listarHidratadas(String sql, Object... params) throws SQLException {
+		List<Despesa> despesas = daoTemplate.listar(sql, despesaMapper, params);
+		hidratador.hidratar(despesas);
+		return despesas;
 	}
 
 	/**
 	 * Constrói um objeto Despesa a partir de um ResultSet.
+	 * Os objetos relacionados recebem apenas o ID; o HidratadorDespesas os completa.
 	 */
 	private Despesa construirDespesa(ResultSet rs) throws SQLException {
 		Despesa despesa = new Despesa();
 
 		despesa.setId(rs.getInt("id"));
 		despesa.setDescricao(rs.getString("descricao"));
-		despesa.setValor(rs.getDouble("valor"));
+		despesa.setValor(Dinheiro.deCentavos(rs.getLong("valor")));
 
 		String dataCompraStr = rs.getString("data_compra");
 		despesa.setDataCompra(
@@ -342,87 +566,61 @@ public class DespesaDAO {
 		despesa.setPago(rs.getBoolean("pago"));
 		despesa.setFixo(rs.getBoolean("fixo"));
 
-		// Carregar objetos relacionados
-		carregarObjetosRelacionados(despesa, rs);
+		// Referências aos objetos relacionados
+		definirReferenciasRelacionadas(despesa, rs);
 
 		return despesa;
 	}
 
 	/**
-	 * Carrega os objetos relacionados a uma despesa.
+	 * Define os objetos relacionados da despesa contendo apenas o ID lido do ResultSet.
 	 */
-	private void carregarObjetosRelacionados(Despesa despesa, ResultSet rs) throws SQLException {
+	private void definirReferenciasRelacionadas(Despesa despesa, ResultSet rs) throws SQLException {
 		// Categoria
 		int categoriaId = rs.getInt("categoria_id");
 		if (!rs.wasNull()) {
-			try {
-				CategoriaDespesaDAO categoriaDAO = new CategoriaDespesaDAO();
-				despesa.setCategoria(categoriaDAO.buscarPorId(categoriaId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			despesa.setCategoria(new CategoriaDespesa(categoriaId, null));
 		}
 
 		// Subcategoria
 		int subcategoriaId = rs.getInt("subcategoria_id");
 		if (!rs.wasNull()) {
-			try {
-				SubCategoriaDAO subcategoriaDAO = new SubCategoriaDAO();
-				despesa.setSubCategoria(subcategoriaDAO.buscarPorId(subcategoriaId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			despesa.setSubCategoria(new SubCategoria(subcategoriaId, null, categoriaId));
 		}
 
 		// Responsável
 		int responsavelId = rs.getInt("responsavel_id");
 		if (!rs.wasNull()) {
-			try {
-				ResponsavelDAO responsavelDAO = new ResponsavelDAO();
-				despesa.setResponsavel(responsavelDAO.buscarPorId(responsavelId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			despesa.setResponsavel(new Responsavel(responsavelId, null));
 		}
 
 		// Meio de Pagamento
 		int meioPagamentoId = rs.getInt("meio_pagamento_id");
 		if (!rs.wasNull()) {
-			try {
-				MeioPagamentoDAO meioPagamentoDAO = new MeioPagamentoDAO();
-				despesa.setMeioPagamento(meioPagamentoDAO.buscarPorId(meioPagamentoId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			despesa.setMeioPagamento(new MeioPagamento(meioPagamentoId, null, false));
 		}
 
 		// Cartão de Crédito
 		int cartaoId = rs.getInt("cartao_id");
 		if (!rs.wasNull()) {
-			try {
-				CartaoCreditoDAO cartaoDAO = new CartaoCreditoDAO();
-				despesa.setCartaoCredito(cartaoDAO.buscarPorId(cartaoId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			CartaoCredito cartao = new CartaoCredito();
+			cartao.setId(cartaoId);
+			despesa.setCartaoCredito(cartao);
 		}
 
 		// Parcelamento
 		int parcelamentoId = rs.getInt("parcelamento_id");
 		if (!rs.wasNull()) {
-			try {
-				ParcelamentoDAO parcelamentoDAO = new ParcelamentoDAO();
-				despesa.setParcelamento(parcelamentoDAO.buscarPorId(parcelamentoId));
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
+			Parcelamento parcelamento = new Parcelamento();
+			parcelamento.setId(parcelamentoId);
+			despesa.setParcelamento(parcelamento);
 		}
 	}
 
 	/**
 	 * RowMapper para objetos Object[] contendo nome e total.
 	 */
-	private final RowMapper<Object[]> totalRowMapper = rs -> new Object[] { rs.getString(1), rs.getDouble("total") };
+	private final RowMapper<Object[]> totalRowMapper = rs -> new Object[] { rs.getString(1), Dinheiro.deCentavos(rs.getLong("total")).paraDouble() };
 
 	/**
 	 * Calcula o total de despesas do mês por categoria.
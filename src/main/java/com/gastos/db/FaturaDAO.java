@@ -0,0 +1,155 @@
+package com.gastos.db;
+
+import com.gastos.db.util.DAOTemplate;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Fatura;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Classe DAO para as faturas de cartão materializadas (tabela faturas).
+ *
+ * Cada despesa à vista e cada parcela lançadas em um cartão entram na fatura do
+ * ciclo de cobrança definido pelo dia de fechamento do cartão. Os gatilhos das
+ * tabelas despesas, parcelas e cartoes_credito mantêm os totais de cada fatura e o
+ * limite utilizado de cada cartão na mesma transação de cada alteração, de modo que
+ * a fatura atual, as próximas faturas e o limite disponível são lidos pela chave
+ * primária, sem percorrer as despesas. Os valores são guardados em centavos.
+ */
+public class FaturaDAO {
+
+    private static final String SQL_FIND =
+        "SELECT quantidade, total, total_pago FROM faturas WHERE cartao_id = ? AND mes_fechamento = ?";
+
+    private static final String SQL_FIND_PERIODO =
+        "SELECT mes_fechamento, quantidade, total, total_pago FROM faturas " +
+        "WHERE cartao_id = ? AND mes_fechamento BETWEEN ? AND ? ORDER BY mes_fechamento";
+
+    private static final String SQL_LIMITE_DISPONIVEL =
+        "SELECT limite - limite_utilizado AS disponivel FROM cartoes_credito WHERE id = ?";
+
+    private static final String SQL_LIMPAR = "DELETE FROM faturas";
+
+    private static final String SQL_PREENCHER = MigracoesBanco.preencherFaturas("");
+
+    private static final String SQL_RECALCULAR_LIMITES =
+        "UPDATE cartoes_credito SET limite_utilizado = " +
+        "(SELECT IFNULL(SUM(l.valor), 0) FROM lancamentos_cartao l WHERE l.cartao_id = cartoes_credito.id AND NOT l.pago)";
+
+    private final DAOTemplate daoTemplate;
+
+    /**
+     * Construtor padrão que inicializa o DAOTemplate.
+     */
+    public FaturaDAO() {
+        this.daoTemplate = new DAOTemplate();
+    }
+
+    /**
+     * Busca a fatura de um cartão que fecha no mês informado.
+     *
+     * @param cartao o cartão de crédito
+     * @param mesFechamento o mês de fechamento da fatura
+     * @return a fatura, vazia se não houver lançamentos no ciclo
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Fatura buscarFatura(CartaoCredito cartao, YearMonth mesFechamento) throws SQLException {
+        Optional<Fatura> fatura = daoTemplate.buscar(SQL_FIND,
+            rs -> new Fatura(cartao, mesFechamento, rs.getInt("quantidade"),
+                    Dinheiro.deCentavos(rs.getLong("total")), Dinheiro.deCentavos(rs.getLong("total_pago"))),
+            cartao.getId(), mesFechamento.toString());
+
+        return fatura.orElseGet(() -> Fatura.vazia(cartao, mesFechamento));
+    }
+
+    /**
+     * Busca a fatura atual do cartão, isto é, a que recebe as compras feitas hoje.
+     *
+     * @param cartao o cartão de crédito
+     * @return a fatura atual
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Fatura buscarFaturaAtual(CartaoCredito cartao) throws SQLException {
+        return buscarFatura(cartao, cartao.calcularMesFatura(LocalDate.now()));
+    }
+
+    /**
+     * Lista as próximas faturas do cartão, a partir da atual, com uma única consulta
+     * pela chave primária. Meses sem lançamentos aparecem como faturas vazias.
+     *
+     * @param cartao o cartão de crédito
+     * @param quantidade o número de faturas
+     * @return as faturas em ordem de fechamento
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public List<Fatura> listarProximasFaturas(CartaoCredito cartao, int quantidade) throws SQLException {
+        List<Fatura> faturas = new ArrayList<>(quantidade);
+        if (quantidade <= 0) {
+            return faturas;
+        }
+
+        YearMonth primeiro = cartao.calcularMesFatura(LocalDate.now());
+        YearMonth ultimo = primeiro.plusMonths(quantidade - 1L);
+
+        Map<YearMonth, Fatura> existentes = new HashMap<>();
+        for (Fatura fatura : daoTemplate.listar(SQL_FIND_PERIODO,
+                rs -> new Fatura(cartao, YearMonth.parse(rs.getString("mes_fechamento")), rs.getInt("quantidade"),
+                        Dinheiro.deCentavos(rs.getLong("total")), Dinheiro.deCentavos(rs.getLong("total_pago"))),
+                cartao.getId(), primeiro.toString(), ultimo.toString())) {
+            existentes.put(fatura.getMesFechamento(), fatura);
+        }
+
+        for (YearMonth mes = primeiro; !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+            Fatura fatura = existentes.get(mes);
+            faturas.add(fatura != null ? fatura : Fatura.vazia(cartao, mes));
+        }
+        return faturas;
+    }
+
+    /**
+     * Calcula o limite disponível do cartão: o limite menos os lançamentos ainda não
+     * pagos, em todas as faturas.
+     *
+     * @param cartaoId o ID do cartão
+     * @return o limite disponível, ou zero se o cartão não existir
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Dinheiro calcularLimiteDisponivel(int cartaoId) throws SQLException {
+        Optional<Dinheiro> disponivel = daoTemplate.buscar(SQL_LIMITE_DISPONIVEL,
+            rs -> Dinheiro.deCentavos(rs.getLong("disponivel")), cartaoId);
+        return disponivel.orElse(Dinheiro.ZERO);
+    }
+
+    /**
+     * Reconstrói as faturas e o limite utilizado dos cartões a partir das despesas e
+     * parcelas, em uma única transação. Necessário apenas se as tabelas tiverem sido
+     * alteradas sem os gatilhos.
+     *
+     * @return o número de faturas geradas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int reconstruir() throws SQLException {
+        final int[] faturas = new int[1];
+
+        daoTemplate.executarEmTransacao(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(SQL_LIMPAR);
+                faturas[0] = stmt.executeUpdate(SQL_PREENCHER);
+                stmt.executeUpdate(SQL_RECALCULAR_LIMITES);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        return faturas[0];
+    }
+}
@@ -0,0 +1,102 @@
+package com.gastos.db;
+
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.CategoriaDespesa;
+import com.gastos.model.Despesa;
+import com.gastos.model.MeioPagamento;
+import com.gastos.model.Parcelamento;
+import com.gastos.model.Responsavel;
+import com.gastos.model.SubCategoria;
+
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Carrega os objetos relacionados de uma lista de despesas em lote.
+ *
+ * O DespesaDAO constrói cada despesa apenas com os IDs das entidades relacionadas
+ * (objetos "vazios" contendo só o ID). Este hidratador reúne os IDs distintos de
+ * toda a lista e resolve cada tipo de entidade com uma única consulta IN (...),
+ * de modo que o número de consultas não depende da quantidade de despesas.
+ */
+public class HidratadorDespesas {
+
+    private final CategoriaDespesaDAO categoriaDAO;
+    private final SubCategoriaDAO subCategoriaDAO;
+    private final ResponsavelDAO responsavelDAO;
+    private final MeioPagamentoDAO meioPagamentoDAO;
+    private final CartaoCreditoDAO cartaoDAO;
+    private final ParcelamentoDAO parcelamentoDAO;
+
+    /**
+     * Construtor padrão que inicializa os DAOs das entidades relacionadas.
+     */
+    public HidratadorDespesas() {
+        this.categoriaDAO = new CategoriaDespesaDAO();
+        this.subCategoriaDAO = new SubCategoriaDAO();
+        this.responsavelDAO = new ResponsavelDAO();
+        this.meioPagamentoDAO = new MeioPagamentoDAO();
+        this.cartaoDAO = new CartaoCreditoDAO();
+        this.parcelamentoDAO = new ParcelamentoDAO();
+    }
+
+    /**
+     * Substitui os objetos relacionados (que contêm apenas o ID) pelas entidades completas.
+     * Relações cujo ID não existe mais no banco ficam nulas.
+     *
+     * @param despesas as despesas a serem hidratadas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public void hidratar(List<Despesa> despesas) throws SQLException {
+        if (despesas == null || despesas.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> categoriaIds = new HashSet<>();
+        Set<Integer> subCategoriaIds = new HashSet<>();
+        Set<Integer> responsavelIds = new HashSet<>();
+        Set<Integer> meioPagamentoIds = new HashSet<>();
+        Set<Integer> cartaoIds = new HashSet<>();
+        Set<Integer> parcelamentoIds = new HashSet<>();
+
+        for (Despesa despesa : despesas) {
+            if (despesa.getCategoria() != null) categoriaIds.add(despesa.getCategoria().getId());
+            if (despesa.getSubCategoria() != null) subCategoriaIds.add(despesa.getSubCategoria().getId());
+            if (despesa.getResponsavel() != null) responsavelIds.add(despesa.getResponsavel().getId());
+            if (despesa.getMeioPagamento() != null) meioPagamentoIds.add(despesa.getMeioPagamento().getId());
+            if (despesa.getCartaoCredito() != null) cartaoIds.add(despesa.getCartaoCredito().getId());
+            if (despesa.getParcelamento() != null) parcelamentoIds.add(despesa.getParcelamento().getId());
+        }
+
+        Map<Integer, CategoriaDespesa> categorias = categoriaDAO.buscarPorIds(categoriaIds);
+        Map<Integer, SubCategoria> subCategorias = subCategoriaDAO.buscarPorIds(subCategoriaIds);
+        Map<Integer, Responsavel> responsaveis = responsavelDAO.buscarPorIds(responsavelIds);
+        Map<Integer, MeioPagamento> meiosPagamento = meioPagamentoDAO.buscarPorIds(meioPagamentoIds);
+        Map<Integer, CartaoCredito> cartoes = cartaoDAO.buscarPorIds(cartaoIds);
+        Map<Integer, Parcelamento> parcelamentos = parcelamentoDAO.buscarPorIds(parcelamentoIds);
+
+        for (Despesa despesa : despesas) {
+            if (despesa.getCategoria() != null) {
+                despesa.setCategoria(categorias.get(despesa.getCategoria().getId()));
+            }
+            if (despesa.getSubCategoria() != null) {
+                despesa.setSubCategoria(subCategorias.get(despesa.getSubCategoria().getId()));
+            }
+            if (despesa.getResponsavel() != null) {
+                despesa.setResponsavel(responsaveis.get(despesa.getResponsavel().getId()));
+            }
+            if (despesa.getMeioPagamento() != null) {
+                despesa.setMeioPagamento(meiosPagamento.get(despesa.getMeioPagamento().getId()));
+            }
+            if (despesa.getCartaoCredito() != null) {
+                despesa.setCartaoCredito(cartoes.get(despesa.getCartaoCredito().getId()));
+            }
+            if (despesa.getParcelamento() != null) {
+                despesa.setParcelamento(parcelamentos.get(despesa.getParcelamento().getId()));
+            }
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
 import com.gastos.db.util.DAOTemplate;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.MeioPagamento;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,9 +22,11 @@ public class MeioPagamentoDAO {
     private static final String SQL_INSERT = "INSERT INTO meios_pagamento (nome, cartao_credito) VALUES (?, ?)";
     private static final String SQL_UPDATE = "UPDATE meios_pagamento SET nome = ?, cartao_credito = ? WHERE id = ?";
     private static final String SQL_DELETE = "DELETE FROM meios_pagamento WHERE id = ?";
-    private static final String SQL_FIND_BY_ID = "SELECT * FROM meios_pagamento WHERE id = ?";
     private static final String SQL_FIND_ALL = "SELECT * FROM meios_pagamento ORDER BY nome";
     
+    // Cache compartilhado por todas as instâncias do DAO
+    private static final CacheEntidades<MeioPagamento> CACHE = new CacheEntidades<>("meios de pagamento", MeioPagamento::getId, MeioPagamento::copiar);
+    
     private final DAOTemplate daoTemplate;
     private final RowMapper<MeioPagamento> rowMapper;
     
@@ -45,6 +50,7 @@ public class MeioPagamentoDAO {
             meioPagamento.getNome(), 
             meioPagamento.isCartaoCredito()
         );
+        CACHE.invalidar();
         
         return id.orElseThrow(() -> new SQLException("Falha ao inserir meio de pagamento, nenhum ID foi retornado."));
     }
@@ -61,6 +67,7 @@ public class MeioPagamentoDAO {
             meioPagamento.isCartaoCredito(), 
             meioPagamento.getId()
         );
+        CACHE.invalidar();
     }
     
     /**
@@ -70,6 +77,7 @@ public class MeioPagamentoDAO {
      */
     public void excluir(int id) throws SQLException {
         daoTemplate.executarUpdate(SQL_DELETE, id);
+        CACHE.invalidar();
     }
     
     /**
@@ -79,8 +87,17 @@ public class MeioPagamentoDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public MeioPagamento buscarPorId(int id) throws SQLException {
-        Optional<MeioPagamento> meioPagamento = daoTemplate.buscar(SQL_FIND_BY_ID, rowMapper, id);
-        return meioPagamento.orElse(null);
+        return CACHE.buscar(id, this::carregarTodos);
+    }
+    
+    /**
+     * Busca vários meios de pagamento de uma vez, a partir do cache.
+     * @param ids os IDs a serem buscados
+     * @return mapa de ID para entidade; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, MeioPagamento> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return CACHE.buscarPorIds(ids, this::carregarTodos);
     }
     
     /**
@@ -89,6 +106,13 @@ public class MeioPagamentoDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<MeioPagamento> listarTodos() throws SQLException {
+        return CACHE.listarTodos(this::carregarTodos);
+    }
+    
+    /**
+     * Carrega todos os registros da tabela, para o cache.
+     */
+    private List<MeioPagamento> carregarTodos() throws SQLException {
         return daoTemplate.listar(SQL_FIND_ALL, rowMapper);
     }
     
@@ -0,0 +1,447 @@
+package com.gastos.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Executor de migrações versionadas do esquema do banco de dados.
+ *
+ * Cada migração tem um número de versão e uma lista de comandos SQL. A tabela
+ * schema_version registra as versões já aplicadas; na inicialização, as migrações
+ * pendentes são aplicadas em ordem, cada uma em sua própria transação. Isso vale
+ * tanto para bancos novos quanto para bancos já existentes.
+ */
+public class MigracoesBanco {
+
+    private static final String SQL_CRIAR_SCHEMA_VERSION =
+        "CREATE TABLE IF NOT EXISTS schema_version (versao INTEGER PRIMARY KEY, descricao TEXT NOT NULL, aplicada_em TEXT NOT NULL)";
+
+    private static final String SQL_VERSAO_ATUAL =
+        "SELECT COALESCE(MAX(versao), 0) FROM schema_version";
+
+    private static final String SQL_REGISTRAR_VERSAO =
+        "INSERT INTO schema_version (versao, descricao, aplicada_em) VALUES (?, ?, ?)";
+
+    private final List<Migracao> migracoes = new ArrayList<>();
+
+    /**
+     * Construtor padrão que registra todas as migrações conhecidas, em ordem.
+     */
+    public MigracoesBanco() {
+        registrar(1, "Tabelas iniciais",
+            "CREATE TABLE IF NOT EXISTS categorias (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS subcategorias (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, categoria_id INTEGER NOT NULL, FOREIGN KEY (categoria_id) REFERENCES categorias(id))",
+            "CREATE TABLE IF NOT EXISTS responsaveis (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS meios_pagamento (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, cartao_credito BOOLEAN NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS cartoes_credito (id INTEGER PRIMARY KEY AUTOINCREMENT, nome TEXT NOT NULL, bandeira TEXT NOT NULL, limite REAL NOT NULL, dia_fechamento INTEGER NOT NULL, dia_vencimento INTEGER NOT NULL, cor TEXT)",
+            "CREATE TABLE IF NOT EXISTS parcelamentos (id INTEGER PRIMARY KEY AUTOINCREMENT, valor_total REAL NOT NULL, total_parcelas INTEGER NOT NULL, parcelas_restantes INTEGER NOT NULL, data_inicio TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS parcelas (id INTEGER PRIMARY KEY AUTOINCREMENT, parcelamento_id INTEGER NOT NULL, numero_parcela INTEGER NOT NULL, valor REAL NOT NULL, data_vencimento TEXT NOT NULL, paga BOOLEAN NOT NULL, FOREIGN KEY (parcelamento_id) REFERENCES parcelamentos(id))",
+            "CREATE TABLE IF NOT EXISTS despesas (id INTEGER PRIMARY KEY AUTOINCREMENT, descricao TEXT NOT NULL, valor REAL NOT NULL, data_compra TEXT NOT NULL, data_vencimento TEXT, pago BOOLEAN NOT NULL, fixo BOOLEAN NOT NULL, categoria_id INTEGER NOT NULL, subcategoria_id INTEGER, responsavel_id INTEGER, meio_pagamento_id INTEGER, cartao_id INTEGER, parcelamento_id INTEGER, FOREIGN KEY (categoria_id) REFERENCES categorias(id), FOREIGN KEY (subcategoria_id) REFERENCES subcategorias(id), FOREIGN KEY (responsavel_id) REFERENCES responsaveis(id), FOREIGN KEY (meio_pagamento_id) REFERENCES meios_pagamento(id), FOREIGN KEY (cartao_id) REFERENCES cartoes_credito(id), FOREIGN KEY (parcelamento_id) REFERENCES parcelamentos(id))"
+        );
+
+        registrar(2, "Índices das consultas de despesas por data, responsável e cartão",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_data_vencimento ON despesas(data_vencimento)",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_data_compra ON despesas(data_compra)",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_responsavel_vencimento ON despesas(responsavel_id, data_vencimento)",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_cartao_vencimento ON despesas(cartao_id, data_vencimento)",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_categoria ON despesas(categoria_id)",
+            "CREATE INDEX IF NOT EXISTS idx_despesas_parcelamento ON despesas(parcelamento_id)"
+        );
+
+        registrar(3, "Índices de parcelas e subcategorias",
+            "CREATE INDEX IF NOT EXISTS idx_parcelas_parcelamento_paga ON parcelas(parcelamento_id, paga)",
+            "CREATE INDEX IF NOT EXISTS idx_parcelas_paga_vencimento ON parcelas(paga, data_vencimento)",
+            "CREATE INDEX IF NOT EXISTS idx_subcategorias_categoria ON subcategorias(categoria_id)",
+            "ANALYZE"
+        );
+
+        registrar(4, "Resumo mensal materializado, mantido por gatilhos",
+            "CREATE TABLE IF NOT EXISTS resumo_mensal (mes TEXT NOT NULL, categoria_id INTEGER NOT NULL, responsavel_id INTEGER NOT NULL, cartao_id INTEGER NOT NULL, pago INTEGER NOT NULL, quantidade INTEGER NOT NULL, total REAL NOT NULL, PRIMARY KEY (mes, categoria_id, responsavel_id, cartao_id, pago)) WITHOUT ROWID",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_resumo_insert AFTER INSERT ON despesas BEGIN "
+                + somarAoResumo("NEW") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_resumo_delete AFTER DELETE ON despesas BEGIN "
+                + subtrairDoResumo("OLD") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_resumo_update AFTER UPDATE OF valor, data_compra, data_vencimento, pago, categoria_id, responsavel_id, cartao_id ON despesas BEGIN "
+                + subtrairDoResumo("OLD") + " " + somarAoResumo("NEW") + " END",
+            "DELETE FROM resumo_mensal",
+            preencherResumo()
+        );
+
+        registrar(5, "Índice de busca textual (FTS5) das despesas",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS despesas_busca USING fts5(descricao, categoria, subcategoria, responsavel, tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_busca_insert AFTER INSERT ON despesas BEGIN "
+                + indexarBusca("NEW") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_busca_delete AFTER DELETE ON despesas BEGIN "
+                + "DELETE FROM despesas_busca WHERE rowid = OLD.id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_busca_update AFTER UPDATE OF descricao, categoria_id, subcategoria_id, responsavel_id ON despesas BEGIN "
+                + "DELETE FROM despesas_busca WHERE rowid = OLD.id; " + indexarBusca("NEW") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_categorias_busca_update AFTER UPDATE OF nome ON categorias BEGIN "
+                + "UPDATE despesas_busca SET categoria = NEW.nome WHERE rowid IN (SELECT id FROM despesas WHERE categoria_id = NEW.id); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_subcategorias_busca_update AFTER UPDATE OF nome ON subcategorias BEGIN "
+                + "UPDATE despesas_busca SET subcategoria = NEW.nome WHERE rowid IN (SELECT id FROM despesas WHERE subcategoria_id = NEW.id); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_responsaveis_busca_update AFTER UPDATE OF nome ON responsaveis BEGIN "
+                + "UPDATE despesas_busca SET responsavel = NEW.nome WHERE rowid IN (SELECT id FROM despesas WHERE responsavel_id = NEW.id); END",
+            "DELETE FROM despesas_busca",
+            "INSERT INTO despesas_busca (rowid, descricao, categoria, subcategoria, responsavel) "
+                + "SELECT d.id, d.descricao, c.nome, s.nome, r.nome FROM despesas d "
+                + "LEFT JOIN categorias c ON d.categoria_id = c.id "
+                + "LEFT JOIN subcategorias s ON d.subcategoria_id = s.id "
+                + "LEFT JOIN responsaveis r ON d.responsavel_id = r.id"
+        );
+
+        // Os gatilhos do resumo referenciam despesas.valor e impedem o DROP COLUMN;
+        // são removidos antes da conversão e recriados em seguida, já em centavos.
+        registrar(6, "Valores monetários em centavos (INTEGER)", concatenar(
+            new String[] {
+                "DROP TRIGGER IF EXISTS trg_despesas_resumo_insert",
+                "DROP TRIGGER IF EXISTS trg_despesas_resumo_delete",
+                "DROP TRIGGER IF EXISTS trg_despesas_resumo_update",
+                "DROP TABLE IF EXISTS resumo_mensal"
+            },
+            converterParaCentavos("despesas", "valor"),
+            converterParaCentavos("parcelamentos", "valor_total"),
+            converterParaCentavos("parcelas", "valor"),
+            converterParaCentavos("cartoes_credito", "limite"),
+            new String[] {
+                "CREATE TABLE resumo_mensal (mes TEXT NOT NULL, categoria_id INTEGER NOT NULL, responsavel_id INTEGER NOT NULL, cartao_id INTEGER NOT NULL, pago INTEGER NOT NULL, quantidade INTEGER NOT NULL, total INTEGER NOT NULL, PRIMARY KEY (mes, categoria_id, responsavel_id, cartao_id, pago)) WITHOUT ROWID",
+                "CREATE TRIGGER trg_despesas_resumo_insert AFTER INSERT ON despesas BEGIN "
+                    + somarAoResumo("NEW") + " END",
+                "CREATE TRIGGER trg_despesas_resumo_delete AFTER DELETE ON despesas BEGIN "
+                    + subtrairDoResumo("OLD") + " END",
+                "CREATE TRIGGER trg_despesas_resumo_update AFTER UPDATE OF valor, data_compra, data_vencimento, pago, categoria_id, responsavel_id, cartao_id ON despesas BEGIN "
+                    + subtrairDoResumo("OLD") + " " + somarAoResumo("NEW") + " END",
+                preencherResumo()
+            }
+        ));
+
+        // Mudanças de status ajustam o contador em uma unidade; inserções, exclusões e
+        // trocas de parcelamento recontam pelo índice (parcelamento_id, paga), o que
+        // também corrige o valor inicial gravado com o cabeçalho do parcelamento.
+        registrar(7, "Parcelas restantes mantidas por gatilhos",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_restantes_insert AFTER INSERT ON parcelas BEGIN "
+                + recontarParcelasRestantes("NEW") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_restantes_delete AFTER DELETE ON parcelas BEGIN "
+                + recontarParcelasRestantes("OLD") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_restantes_paga AFTER UPDATE OF paga ON parcelas "
+                + "WHEN (OLD.paga != 0) != (NEW.paga != 0) AND OLD.parcelamento_id IS NEW.parcelamento_id BEGIN "
+                + "UPDATE parcelamentos SET parcelas_restantes = parcelas_restantes + CASE WHEN NEW.paga != 0 THEN -1 ELSE 1 END "
+                + "WHERE id = NEW.parcelamento_id; END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_restantes_mover AFTER UPDATE OF parcelamento_id ON parcelas "
+                + "WHEN OLD.parcelamento_id IS NOT NEW.parcelamento_id BEGIN "
+                + recontarParcelasRestantes("OLD") + " " + recontarParcelasRestantes("NEW") + " END",
+            "UPDATE parcelamentos SET parcelas_restantes = "
+                + "(SELECT COUNT(*) FROM parcelas p WHERE p.parcelamento_id = parcelamentos.id AND p.paga = 0) "
+                + "WHERE EXISTS (SELECT 1 FROM parcelas p WHERE p.parcelamento_id = parcelamentos.id)"
+        );
+
+        // Cada lançamento de cartão (despesa à vista ou parcela) entra na fatura pelo mês
+        // de fechamento do ciclo; os gatilhos retiram o lançamento antigo e somam o novo,
+        // como no resumo mensal. O limite utilizado é a soma dos lançamentos não pagos.
+        registrar(8, "Faturas de cartão materializadas, mantidas por gatilhos",
+            "ALTER TABLE cartoes_credito ADD COLUMN limite_utilizado INTEGER NOT NULL DEFAULT 0",
+            "CREATE TABLE IF NOT EXISTS faturas (cartao_id INTEGER NOT NULL, mes_fechamento TEXT NOT NULL, quantidade INTEGER NOT NULL, total INTEGER NOT NULL, total_pago INTEGER NOT NULL, PRIMARY KEY (cartao_id, mes_fechamento)) WITHOUT ROWID",
+            "CREATE VIEW IF NOT EXISTS lancamentos_cartao AS "
+                + "SELECT d.cartao_id, d.data_compra AS data, 0 AS deslocamento, d.valor, d.pago FROM despesas d "
+                + "WHERE d.cartao_id IS NOT NULL AND d.parcelamento_id IS NULL "
+                + "UNION ALL "
+                + "SELECT d.cartao_id, d.data_compra, p.numero_parcela - 1, p.valor, p.paga FROM despesas d "
+                + "JOIN parcelas p ON p.parcelamento_id = d.parcelamento_id WHERE d.cartao_id IS NOT NULL",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_fatura_insert AFTER INSERT ON despesas "
+                + "WHEN NEW.cartao_id IS NOT NULL BEGIN "
+                + lancarNasFaturas(lancamentosDaDespesa("NEW"), 1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_fatura_delete AFTER DELETE ON despesas "
+                + "WHEN OLD.cartao_id IS NOT NULL BEGIN "
+                + lancarNasFaturas(lancamentosDaDespesa("OLD"), -1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_despesas_fatura_update AFTER UPDATE OF valor, data_compra, pago, cartao_id, parcelamento_id ON despesas "
+                + "WHEN OLD.cartao_id IS NOT NULL OR NEW.cartao_id IS NOT NULL BEGIN "
+                + lancarNasFaturas(lancamentosDaDespesa("OLD"), -1) + " "
+                + lancarNasFaturas(lancamentosDaDespesa("NEW"), 1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_fatura_insert AFTER INSERT ON parcelas BEGIN "
+                + lancarNasFaturas(lancamentosDaParcela("NEW"), 1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_fatura_delete AFTER DELETE ON parcelas BEGIN "
+                + lancarNasFaturas(lancamentosDaParcela("OLD"), -1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_parcelas_fatura_update AFTER UPDATE OF valor, paga, numero_parcela, parcelamento_id ON parcelas BEGIN "
+                + lancarNasFaturas(lancamentosDaParcela("OLD"), -1) + " "
+                + lancarNasFaturas(lancamentosDaParcela("NEW"), 1) + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_cartoes_fatura_fechamento AFTER UPDATE OF dia_fechamento ON cartoes_credito "
+                + "WHEN OLD.dia_fechamento != NEW.dia_fechamento BEGIN "
+                + "DELETE FROM faturas WHERE cartao_id = NEW.id; "
+                + preencherFaturas("WHERE l.cartao_id = NEW.id") + " END",
+            "CREATE TRIGGER IF NOT EXISTS trg_cartoes_fatura_delete AFTER DELETE ON cartoes_credito BEGIN "
+                + "DELETE FROM faturas WHERE cartao_id = OLD.id; END",
+            preencherFaturas("WHERE true"),
+            "UPDATE cartoes_credito SET limite_utilizado = "
+                + "(SELECT IFNULL(SUM(l.valor), 0) FROM lancamentos_cartao l WHERE l.cartao_id = cartoes_credito.id AND NOT l.pago)"
+        );
+
+        // Versões antigas regeravam as parcelas sem apagar as anteriores, deixando cada
+        // número repetido. Fica uma parcela por número: a paga, se houver, ou a mais
+        // recente. Os gatilhos das parcelas retiram as cópias das faturas e recontam as
+        // parcelas restantes; o índice único impede novas repetições.
+        registrar(9, "Parcelas repetidas removidas e número de parcela único",
+            "DELETE FROM parcelas WHERE id IN (SELECT id FROM (SELECT id, ROW_NUMBER() OVER ("
+                + "PARTITION BY parcelamento_id, numero_parcela ORDER BY paga DESC, id DESC) AS ordem FROM parcelas) "
+                + "WHERE ordem > 1)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_parcelas_numero ON parcelas(parcelamento_id, numero_parcela)"
+        );
+    }
+
+    /**
+     * Comandos que trocam uma coluna REAL em reais por uma coluna INTEGER em centavos,
+     * com o mesmo nome. O SQLite não altera o tipo de uma coluna, então o valor é
+     * copiado para uma coluna nova, a antiga é removida e a nova é renomeada.
+     */
+    private static String[] converterParaCentavos(String tabela, String coluna) {
+        String temporaria = coluna + "_centavos";
+        return new String[] {
+            "ALTER TABLE " + tabela + " ADD COLUMN " + temporaria + " INTEGER NOT NULL DEFAULT 0",
+            "UPDATE " + tabela + " SET " + temporaria + " = CAST(ROUND(" + coluna + " * 100) AS INTEGER)",
+            "ALTER TABLE " + tabela + " DROP COLUMN " + coluna,
+            "ALTER TABLE " + tabela + " RENAME COLUMN " + temporaria + " TO " + coluna
+        };
+    }
+
+    private static String[] concatenar(String[]... partes) {
+        List<String> comandos = new ArrayList<>();
+        for (String[] parte : partes) {
+            comandos.addAll(Arrays.asList(parte));
+        }
+        return comandos.toArray(new String[0]);
+    }
+
+    /**
+     * Expressões da chave do resumo mensal (mês, categoria, responsável, cartão, pago)
+     * para uma linha de despesas. IDs nulos viram 0 para que a chave primária agrupe
+     * corretamente; o mês é o do vencimento ou, na falta dele, o da compra.
+     */
+    private static String chaveResumo(String linha) {
+        return "substr(COALESCE(NULLIF(" + linha + ".data_vencimento, ''), " + linha + ".data_compra), 1, 7), "
+            + "IFNULL(" + linha + ".categoria_id, 0), IFNULL(" + linha + ".responsavel_id, 0), "
+            + "IFNULL(" + linha + ".cartao_id, 0), CASE WHEN " + linha + ".pago THEN 1 ELSE 0 END";
+    }
+
+    /**
+     * Comando que preenche o resumo mensal a partir de todas as despesas, com a mesma
+     * chave dos gatilhos. Também usado por {@link ResumoMensalDAO#reconstruir()}.
+     */
+    static String preencherResumo() {
+        return "INSERT INTO resumo_mensal (mes, categoria_id, responsavel_id, cartao_id, pago, quantidade, total) "
+            + "SELECT " + chaveResumo("d") + ", COUNT(*), SUM(d.valor) FROM despesas d GROUP BY 1, 2, 3, 4, 5";
+    }
+
+    /**
+     * Comando de gatilho que soma uma despesa ao seu grupo do resumo mensal.
+     */
+    private static String somarAoResumo(String linha) {
+        return "INSERT INTO resumo_mensal (mes, categoria_id, responsavel_id, cartao_id, pago, quantidade, total) "
+            + "VALUES (" + chaveResumo(linha) + ", 1, " + linha + ".valor) "
+            + "ON CONFLICT (mes, categoria_id, responsavel_id, cartao_id, pago) "
+            + "DO UPDATE SET quantidade = quantidade + 1, total = total + excluded.total;";
+    }
+
+    /**
+     * Comandos de gatilho que retiram uma despesa do seu grupo do resumo mensal,
+     * removendo o grupo quando ele fica vazio.
+     */
+    private static String subtrairDoResumo(String linha) {
+        String chave = "(mes, categoria_id, responsavel_id, cartao_id, pago) = (" + chaveResumo(linha) + ")";
+        return "UPDATE resumo_mensal SET quantidade = quantidade - 1, total = total - " + linha + ".valor WHERE " + chave + "; "
+            + "DELETE FROM resumo_mensal WHERE quantidade <= 0 AND " + chave + ";";
+    }
+
+    /**
+     * Comando de gatilho que recalcula as parcelas não pagas do parcelamento da linha.
+     */
+    private static String recontarParcelasRestantes(String linha) {
+        return "UPDATE parcelamentos SET parcelas_restantes = (SELECT COUNT(*) FROM parcelas "
+            + "WHERE parcelamento_id = " + linha + ".parcelamento_id AND paga = 0) WHERE id = " + linha + ".parcelamento_id;";
+    }
+
+    /**
+     * Expressão do mês de fechamento (AAAA-MM) da fatura de um lançamento. Compras
+     * feitas antes do dia de fechamento entram na fatura que fecha no mesmo mês; a
+     * partir dele, na do mês seguinte. O deslocamento avança a fatura em meses, para
+     * as parcelas posteriores à primeira. Um dia de fechamento maior que o mês
+     * equivale ao último dia, como em {@code CartaoCredito.calcularMesFatura}.
+     * Também usada por {@link ParcelamentoDAO} para achar as parcelas de uma fatura.
+     */
+    static String cicloFatura(String data, String diaFechamento, String deslocamento) {
+        String ultimoDia = "CAST(strftime('%d', " + data + ", 'start of month', '+1 month', '-1 day') AS INTEGER)";
+        return "strftime('%Y-%m', " + data + ", 'start of month', "
+            + "(CASE WHEN CAST(strftime('%d', " + data + ") AS INTEGER) < MIN(" + diaFechamento + ", " + ultimoDia + ") "
+            + "THEN 0 ELSE 1 END + " + deslocamento + ") || ' months')";
+    }
+
+    /**
+     * Lançamentos de cartão de uma linha de despesas: a própria despesa, se for à vista,
+     * ou as parcelas do seu parcelamento, a partir da data da compra.
+     */
+    private static String lancamentosDaDespesa(String linha) {
+        return "SELECT " + linha + ".cartao_id AS cartao_id, " + linha + ".data_compra AS data, 0 AS deslocamento, "
+            + linha + ".valor AS valor, " + linha + ".pago AS pago "
+            + "WHERE " + linha + ".cartao_id IS NOT NULL AND " + linha + ".parcelamento_id IS NULL "
+            + "UNION ALL SELECT " + linha + ".cartao_id, " + linha + ".data_compra, p.numero_parcela - 1, p.valor, p.paga "
+            + "FROM parcelas p WHERE " + linha + ".cartao_id IS NOT NULL AND p.parcelamento_id = " + linha + ".parcelamento_id";
+    }
+
+    /**
+     * Lançamento de cartão de uma linha de parcelas, se a despesa do parcelamento
+     * tiver cartão.
+     */
+    private static String lancamentosDaParcela(String linha) {
+        return "SELECT d.cartao_id AS cartao_id, d.data_compra AS data, " + linha + ".numero_parcela - 1 AS deslocamento, "
+            + linha + ".valor AS valor, " + linha + ".paga AS pago FROM despesas d "
+            + "WHERE d.parcelamento_id = " + linha + ".parcelamento_id AND d.cartao_id IS NOT NULL";
+    }
+
+    /**
+     * Comandos de gatilho que somam (sinal 1) ou retiram (sinal -1) lançamentos das
+     * faturas e do limite utilizado dos cartões, removendo as faturas que ficam vazias.
+     */
+    private static String lancarNasFaturas(String lancamentos, int sinal) {
+        String comandos = "INSERT INTO faturas (cartao_id, mes_fechamento, quantidade, total, total_pago) "
+            + "SELECT l.cartao_id, " + cicloFatura("l.data", "c.dia_fechamento", "l.deslocamento") + ", "
+            + sinal + " * COUNT(*), " + sinal + " * SUM(l.valor), "
+            + sinal + " * SUM(CASE WHEN l.pago THEN l.valor ELSE 0 END) "
+            + "FROM (" + lancamentos + ") l JOIN cartoes_credito c ON c.id = l.cartao_id WHERE true GROUP BY 1, 2 "
+            + "ON CONFLICT (cartao_id, mes_fechamento) DO UPDATE SET quantidade = quantidade + excluded.quantidade, "
+            + "total = total + excluded.total, total_pago = total_pago + excluded.total_pago; "
+            + "UPDATE cartoes_credito SET limite_utilizado = limite_utilizado + " + sinal + " * "
+            + "(SELECT IFNULL(SUM(l.valor), 0) FROM (" + lancamentos + ") l WHERE l.cartao_id = cartoes_credito.id AND NOT l.pago) "
+            + "WHERE id IN (SELECT l.cartao_id FROM (" + lancamentos + ") l);";
+        if (sinal < 0) {
+            comandos += " DELETE FROM faturas WHERE quantidade <= 0 "
+                + "AND cartao_id IN (SELECT l.cartao_id FROM (" + lancamentos + ") l);";
+        }
+        return comandos;
+    }
+
+    /**
+     * Comando que preenche as faturas a partir da visão lancamentos_cartao. Também
+     * usado por {@link FaturaDAO#reconstruir()}.
+     */
+    static String preencherFaturas(String filtro) {
+        return "INSERT INTO faturas (cartao_id, mes_fechamento, quantidade, total, total_pago) "
+            + "SELECT l.cartao_id, " + cicloFatura("l.data", "c.dia_fechamento", "l.deslocamento") + ", "
+            + "COUNT(*), SUM(l.valor), SUM(CASE WHEN l.pago THEN l.valor ELSE 0 END) "
+            + "FROM lancamentos_cartao l JOIN cartoes_credito c ON c.id = l.cartao_id " + filtro + " GROUP BY 1, 2;";
+    }
+
+    /**
+     * Comando de gatilho que indexa uma despesa na busca textual, com os nomes
+     * atuais da categoria, subcategoria e responsável.
+     */
+    private static String indexarBusca(String linha) {
+        return "INSERT INTO despesas_busca (rowid, descricao, categoria, subcategoria, responsavel) VALUES ("
+            + linha + ".id, " + linha + ".descricao, "
+            + "(SELECT nome FROM categorias WHERE id = " + linha + ".categoria_id), "
+            + "(SELECT nome FROM subcategorias WHERE id = " + linha + ".subcategoria_id), "
+            + "(SELECT nome FROM responsaveis WHERE id = " + linha + ".responsavel_id));";
+    }
+
+    /**
+     * Registra uma migração. As versões devem ser registradas em ordem crescente.
+     */
+    private void registrar(int versao, String descricao, String... comandos) {
+        migracoes.add(new Migracao(versao, descricao, comandos));
+    }
+
+    /**
+     * Aplica todas as migrações ainda não registradas em schema_version.
+     *
+     * @return o número de migrações aplicadas
+     * @throws SQLException se alguma migração falhar (ela é revertida)
+     */
+    public int aplicarPendentes() throws SQLException {
+        int aplicadas = 0;
+
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(SQL_CRIAR_SCHEMA_VERSION);
+            }
+
+            int versaoAtual = obterVersaoAtual(conn);
+
+            for (Migracao migracao : migracoes) {
+                if (migracao.versao <= versaoAtual) {
+                    continue;
+                }
+                aplicar(conn, migracao);
+                aplicadas++;
+            }
+
+            if (aplicadas > 0) {
+                System.out.println("Esquema atualizado para a versão " + obterVersaoAtual(conn)
+                        + " (" + aplicadas + " migração(ões) aplicada(s)).");
+            } else {
+                System.out.println("Esquema na versão " + versaoAtual + ", nenhuma migração pendente.");
+            }
+        }
+
+        return aplicadas;
+    }
+
+    /**
+     * Aplica uma migração dentro de uma transação e registra sua versão.
+     */
+    private void aplicar(Connection conn, Migracao migracao) throws SQLException {
+        boolean autoCommitOriginal = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String comando : migracao.comandos) {
+                    stmt.execute(comando);
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_REGISTRAR_VERSAO)) {
+                stmt.setInt(1, migracao.versao);
+                stmt.setString(2, migracao.descricao);
+                stmt.setString(3, LocalDateTime.now().toString());
+                stmt.executeUpdate();
+            }
+
+            conn.commit();
+            System.out.println("Migração " + migracao.versao + " aplicada: " + migracao.descricao);
+        } catch (SQLException e) {
+            conn.rollback();
+            System.err.println("Erro ao aplicar a migração " + migracao.versao + ": " + e.getMessage());
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommitOriginal);
+        }
+    }
+
+    /**
+     * Obtém a maior versão já aplicada.
+     */
+    private int obterVersaoAtual(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SQL_VERSAO_ATUAL)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Representa uma migração do esquema.
+     */
+    private static class Migracao {
+        private final int versao;
+        private final String descricao;
+        private final String[] comandos;
+
+        Migracao(int versao, String descricao, String[] comandos) {
+            this.versao = versao;
+            this.descricao = descricao;
+            this.comandos = comandos;
+        }
+    }
+}
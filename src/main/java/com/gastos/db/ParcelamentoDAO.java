@@ -1,7 +1,11 @@
 package com.gastos.db;
 
 import com.gastos.db.util.DAOTemplate;
+import com.gastos.db.util.RowCallbackHandler;
 import com.gastos.db.util.RowMapper;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.FiltroDespesas;
 import com.gastos.model.Parcelamento;
 import com.gastos.model.Parcelamento.Parcela;
 
@@ -11,9 +15,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Classe DAO (Data Access Object) para a entidade Parcelamento.
@@ -25,11 +37,22 @@ public class ParcelamentoDAO {
     private static final String SQL_INSERT_PARCELAMENTO = 
         "INSERT INTO parcelamentos (valor_total, total_parcelas, parcelas_restantes, data_inicio) VALUES (?, ?, ?, ?)";
     
-    private static final String SQL_INSERT_PARCELA = 
-        "INSERT INTO parcelas (parcelamento_id, numero_parcela, valor, data_vencimento, paga) VALUES (?, ?, ?, ?, ?)";
+    // Inserção de várias parcelas em um único INSERT; os grupos "(?, ?, ?, ?, ?)" são acrescentados em inserirParcelas
+    private static final String SQL_INSERT_PARCELAS = 
+        "INSERT INTO parcelas (parcelamento_id, numero_parcela, valor, data_vencimento, paga) VALUES ";
     
+    private static final String SQL_INSERT_PARCELAS_RETURNING = 
+        " RETURNING id, parcelamento_id, numero_parcela";
+    
+    private static final String SQL_UPDATE_PARCELA = 
+        "UPDATE parcelas SET valor = ?, data_vencimento = ?, paga = ? WHERE id = ?";
+    
+    private static final String SQL_DELETE_PARCELA = 
+        "DELETE FROM parcelas WHERE id = ?";
+    
+    // parcelas_restantes é mantido pelos gatilhos de parcelas
     private static final String SQL_UPDATE_PARCELAMENTO = 
-        "UPDATE parcelamentos SET valor_total = ?, total_parcelas = ?, parcelas_restantes = ?, data_inicio = ? WHERE id = ?";
+        "UPDATE parcelamentos SET valor_total = ?, total_parcelas = ?, data_inicio = ? WHERE id = ?";
     
     private static final String SQL_DELETE_PARCELAS = 
         "DELETE FROM parcelas WHERE parcelamento_id = ?";
@@ -40,18 +63,36 @@ public class ParcelamentoDAO {
     private static final String SQL_FIND_BY_ID = 
         "SELECT * FROM parcelamentos WHERE id = ?";
     
+    private static final String SQL_FIND_BY_IDS = 
+        "SELECT * FROM parcelamentos WHERE id IN (%s)";
+    
     private static final String SQL_FIND_ALL = 
         "SELECT * FROM parcelamentos ORDER BY data_inicio DESC";
     
     private static final String SQL_FIND_PARCELAS_BY_PARCELAMENTO = 
         "SELECT * FROM parcelas WHERE parcelamento_id = ? ORDER BY numero_parcela";
     
+    private static final String SQL_FIND_PARCELAS_BY_PARCELAMENTOS = 
+        "SELECT * FROM parcelas WHERE parcelamento_id IN (%s) ORDER BY parcelamento_id, numero_parcela";
+    
     private static final String SQL_FIND_ACTIVE = 
         "SELECT * FROM parcelamentos WHERE parcelas_restantes > 0 ORDER BY data_inicio DESC";
     
     private static final String SQL_UPDATE_PARCELA_STATUS = 
         "UPDATE parcelas SET paga = ? WHERE id = ?";
     
+    // Status de várias parcelas; a lista de IDs é acrescentada em marcarParcelasPagas
+    private static final String SQL_UPDATE_PARCELAS_STATUS = 
+        "UPDATE parcelas SET paga = ? WHERE paga != ? AND id IN (%s)";
+    
+    // Parcelas de um cartão que entram na fatura do mês, pelo mesmo ciclo dos gatilhos das faturas:
+    // a parcela n de uma compra entra n - 1 faturas depois da fatura da data da compra
+    private static final String SQL_UPDATE_PARCELAS_STATUS_CARTAO = 
+        "UPDATE parcelas SET paga = ? WHERE paga != ? AND id IN (" +
+        "SELECT p.id FROM despesas d JOIN parcelas p ON p.parcelamento_id = d.parcelamento_id " +
+        "JOIN cartoes_credito c ON c.id = d.cartao_id WHERE d.cartao_id = ? " +
+        "AND " + MigracoesBanco.cicloFatura("d.data_compra", "c.dia_fechamento", "p.numero_parcela - 1") + " = ?)";
+    
     private static final String SQL_FIND_PARCELAS_NEXT_MONTH = 
         "SELECT p.*, par.id as parcelamento_id FROM parcelas p " +
         "JOIN parcelamentos par ON p.parcelamento_id = par.id " +
@@ -61,11 +102,30 @@ public class ParcelamentoDAO {
     private static final String SQL_GET_PARCELAMENTO_ID_FROM_PARCELA = 
         "SELECT parcelamento_id FROM parcelas WHERE id = ?";
     
-    private static final String SQL_COUNT_UNPAID_PARCELAS = 
-        "SELECT COUNT(*) as restantes FROM parcelas WHERE parcelamento_id = ? AND paga = 0";
+    private static final String SQL_GET_PARCELAMENTO_IDS_FROM_PARCELAS = 
+        "SELECT DISTINCT parcelamento_id FROM parcelas WHERE id IN (%s)";
     
     private static final String SQL_UPDATE_PARCELAS_RESTANTES = 
-        "UPDATE parcelamentos SET parcelas_restantes = ? WHERE id = ?";
+        "UPDATE parcelamentos SET parcelas_restantes = " +
+        "(SELECT COUNT(*) FROM parcelas WHERE parcelamento_id = ? AND paga = 0) WHERE id = ?";
+    
+    // Exportação: parcelas com a despesa de origem; filtros acrescentados em percorrerParcelasParaExportacao
+    private static final String SQL_EXPORT_PARCELAS = 
+        "SELECT p.parcelamento_id, p.numero_parcela, par.total_parcelas, p.valor, p.data_vencimento, p.paga, " +
+        "d.id AS despesa_id, d.descricao, r.nome AS responsavel, cc.nome AS cartao FROM parcelas p " +
+        "JOIN parcelamentos par ON par.id = p.parcelamento_id " +
+        "LEFT JOIN despesas d ON d.parcelamento_id = p.parcelamento_id " +
+        "LEFT JOIN responsaveis r ON r.id = d.responsavel_id " +
+        "LEFT JOIN cartoes_credito cc ON cc.id = d.cartao_id WHERE 1 = 1";
+    
+    private static final String SQL_EXPORT_PARCELAS_ORDER = 
+        " ORDER BY p.data_vencimento, p.parcelamento_id, p.numero_parcela";
+    
+    // Parcelas por INSERT (5 parâmetros cada), bem abaixo do limite de parâmetros do SQLite
+    private static final int MAX_PARCELAS_POR_INSERT = 200;
+    
+    // IDs por UPDATE ... IN em marcarParcelasPagas
+    private static final int MAX_IDS_POR_UPDATE = 500;
     
     private final DAOTemplate daoTemplate;
     private final RowMapper<Parcelamento> parcelamentoMapper;
@@ -81,57 +141,84 @@ public class ParcelamentoDAO {
     }
     
     /**
-     * Insere um novo parcelamento no banco de dados.
+     * Insere um novo parcelamento no banco de dados. As parcelas são gravadas em um
+     * único INSERT com várias linhas (em blocos de {@value #MAX_PARCELAS_POR_INSERT}).
      * @param parcelamento o parcelamento a ser inserido
      * @return o ID do parcelamento inserido
      * @throws SQLException se ocorrer um erro de SQL
      */
     public int inserir(Parcelamento parcelamento) throws SQLException {
-        validarParcelamento(parcelamento);
-        
-        final List<Integer> idGerado = new ArrayList<>();
+        inserirTodos(List.of(parcelamento));
+        return parcelamento.getId();
+    }
+    
+    /**
+     * Insere vários parcelamentos em uma única transação. Os cabeçalhos são inseridos
+     * um a um (para obter os IDs) e as parcelas de todos eles em INSERTs com várias
+     * linhas, reaproveitando blocos entre parcelamentos.
+     * @param parcelamentos os parcelamentos a serem inseridos
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public void inserirTodos(List<Parcelamento> parcelamentos) throws SQLException {
+        for (Parcelamento parcelamento : parcelamentos) {
+            validarParcelamento(parcelamento);
+        }
         
         daoTemplate.executarEmTransacao(conn -> {
-            try {
-                // Inserir parcelamento
-                PreparedStatement stmt = conn.prepareStatement(SQL_INSERT_PARCELAMENTO, 
-                        Statement.RETURN_GENERATED_KEYS);
-                
-                stmt.setDouble(1, parcelamento.getValorTotal());
-                stmt.setInt(2, parcelamento.getTotalParcelas());
-                stmt.setInt(3, parcelamento.getParcelasRestantes());
-                stmt.setString(4, parcelamento.getDataInicio().toString());
-                
-                int affectedRows = stmt.executeUpdate();
-                if (affectedRows == 0) {
-                    throw new SQLException("Falha ao inserir parcelamento, nenhuma linha afetada.");
-                }
-                
-                // Obter ID gerado
-                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        int id = generatedKeys.getInt(1);
-                        idGerado.add(id);
-                        parcelamento.setId(id);
-                        
-                        // Inserir parcelas
-                        for (Parcela parcela : parcelamento.getParcelas()) {
-                            inserirParcela(conn, parcela, id);
+            try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT_PARCELAMENTO, 
+                    Statement.RETURN_GENERATED_KEYS)) {
+                List<Parcela> parcelas = new ArrayList<>();
+                for (Parcelamento parcelamento : parcelamentos) {
+                    stmt.setLong(1, parcelamento.getValorTotal().getCentavos());
+                    stmt.setInt(2, parcelamento.getTotalParcelas());
+                    stmt.setInt(3, parcelamento.getParcelasRestantes());
+                    stmt.setString(4, parcelamento.getDataInicio().toString());
+                    
+                    int affectedRows = stmt.executeUpdate();
+                    if (affectedRows == 0) {
+                        throw new SQLException("Falha ao inserir parcelamento, nenhuma linha afetada.");
+                    }
+                    
+                    // Obter ID gerado
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Falha ao inserir parcelamento, nenhum ID foi retornado.");
                         }
-                    } else {
-                        throw new SQLException("Falha ao inserir parcelamento, nenhum ID foi retornado.");
+                        parcelamento.setId(generatedKeys.getInt(1));
+                    }
+                    
+                    for (Parcela parcela : parcelamento.getParcelas()) {
+                        parcela.setParcelamentoId(parcelamento.getId());
+                        parcelas.add(parcela);
                     }
                 }
+                
+                inserirParcelas(conn, parcelas);
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         });
-        
-        if (idGerado.isEmpty()) {
-            throw new SQLException("Não foi possível obter o ID do parcelamento inserido");
+    }
+    
+    /**
+     * Gera e insere um parcelamento recorrente: uma parcela de mesmo valor por mês,
+     * durante o número de anos informado, gravadas em um único lote.
+     * @param valorMensal o valor de cada parcela
+     * @param dataInicio o vencimento da primeira parcela
+     * @param anos a duração da recorrência
+     * @param cartao o cartão usado, para o cálculo dos vencimentos (pode ser null)
+     * @return o parcelamento inserido, com as parcelas e os IDs preenchidos
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Parcelamento inserirRecorrente(Dinheiro valorMensal, LocalDate dataInicio, int anos, 
+                                          CartaoCredito cartao) throws SQLException {
+        if (anos <= 0) {
+            throw new SQLException("A recorrência deve durar pelo menos um ano");
         }
         
-        return parcelamento.getId();
+        Parcelamento parcelamento = Parcelamento.recorrente(valorMensal, dataInicio, anos * 12, cartao);
+        inserir(parcelamento);
+        return parcelamento;
     }
     
     /**
@@ -142,7 +229,7 @@ public class ParcelamentoDAO {
             throw new SQLException("O número de parcelas deve ser maior que zero");
         }
         
-        if (parcelamento.getValorTotal() <= 0) {
+        if (!parcelamento.getValorTotal().isPositivo()) {
             throw new SQLException("O valor total deve ser maior que zero");
         }
         
@@ -153,46 +240,74 @@ public class ParcelamentoDAO {
         if (parcelamento.getParcelas() == null || parcelamento.getParcelas().isEmpty()) {
             throw new SQLException("O parcelamento deve ter parcelas geradas antes de ser salvo");
         }
+        
+        Set<Integer> numeros = new HashSet<>();
+        for (Parcela parcela : parcelamento.getParcelas()) {
+            if (parcela.getDataVencimento() == null) {
+                throw new SQLException("A data de vencimento da parcela não pode ser nula");
+            }
+            if (!parcela.getValor().isPositivo()) {
+                throw new SQLException("O valor da parcela deve ser maior que zero");
+            }
+            if (!numeros.add(parcela.getNumeroParcela())) {
+                throw new SQLException("Número de parcela repetido: " + parcela.getNumeroParcela());
+            }
+        }
     }
     
     /**
-     * Insere uma nova parcela no banco de dados.
+     * Insere parcelas com INSERTs de várias linhas e preenche os IDs gerados, lidos
+     * pelo RETURNING. As parcelas devem ter o parcelamentoId definido.
      */
-    private void inserirParcela(Connection conn, Parcela parcela, int parcelamentoId) throws SQLException {
-        // Validar dados da parcela
-        if (parcela.getDataVencimento() == null) {
-            throw new SQLException("A data de vencimento da parcela não pode ser nula");
-        }
-        
-        if (parcela.getValor() <= 0) {
-            throw new SQLException("O valor da parcela deve ser maior que zero");
-        }
-        
-        try (PreparedStatement stmt = conn.prepareStatement(SQL_INSERT_PARCELA, 
-                Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, parcelamentoId);
-            stmt.setInt(2, parcela.getNumeroParcela());
-            stmt.setDouble(3, parcela.getValor());
-            stmt.setString(4, parcela.getDataVencimento().toString());
-            stmt.setBoolean(5, parcela.isPaga());
+    private void inserirParcelas(Connection conn, List<Parcela> parcelas) throws SQLException {
+        for (int inicio = 0; inicio < parcelas.size(); inicio += MAX_PARCELAS_POR_INSERT) {
+            List<Parcela> bloco = parcelas.subList(inicio, Math.min(inicio + MAX_PARCELAS_POR_INSERT, parcelas.size()));
             
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Falha ao inserir parcela, nenhuma linha afetada.");
+            StringBuilder sql = new StringBuilder(SQL_INSERT_PARCELAS);
+            for (int i = 0; i < bloco.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
             }
+            sql.append(SQL_INSERT_PARCELAS_RETURNING);
             
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    parcela.setId(generatedKeys.getInt(1));
-                } else {
-                    throw new SQLException("Falha ao obter ID da parcela inserida.");
+            // A ordem das linhas do RETURNING não é garantida; as parcelas são
+            // localizadas pelo par (parcelamento, número), que é único
+            Map<Long, Parcela> porChave = new HashMap<>();
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int indice = 1;
+                for (Parcela parcela : bloco) {
+                    stmt.setInt(indice++, parcela.getParcelamentoId());
+                    stmt.setInt(indice++, parcela.getNumeroParcela());
+                    stmt.setLong(indice++, parcela.getValor().getCentavos());
+                    stmt.setString(indice++, parcela.getDataVencimento().toString());
+                    stmt.setBoolean(indice++, parcela.isPaga());
+                    porChave.put(chaveParcela(parcela.getParcelamentoId(), parcela.getNumeroParcela()), parcela);
+                }
+                
+                int inseridas = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Parcela parcela = porChave.get(chaveParcela(rs.getInt(2), rs.getInt(3)));
+                        if (parcela != null) {
+                            parcela.setId(rs.getInt(1));
+                        }
+                        inseridas++;
+                    }
+                }
+                if (inseridas != bloco.size()) {
+                    throw new SQLException("Falha ao inserir parcelas: " + inseridas + " de " + bloco.size() + " inseridas.");
                 }
             }
         }
     }
     
+    private static long chaveParcela(int parcelamentoId, int numeroParcela) {
+        return ((long) parcelamentoId << 32) | (numeroParcela & 0xFFFFFFFFL);
+    }
+    
     /**
-     * Atualiza um parcelamento existente no banco de dados.
+     * Atualiza um parcelamento existente no banco de dados. As parcelas são comparadas
+     * com as gravadas pelo número: só as alteradas são atualizadas, as novas inseridas e
+     * as que deixaram de existir excluídas, cada grupo em um único lote.
      */
     public void atualizar(Parcelamento parcelamento) throws SQLException {
         validarParcelamento(parcelamento);
@@ -205,30 +320,87 @@ public class ParcelamentoDAO {
             try {
                 // Atualizar parcelamento
                 PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE_PARCELAMENTO);
-                stmt.setDouble(1, parcelamento.getValorTotal());
+                stmt.setLong(1, parcelamento.getValorTotal().getCentavos());
                 stmt.setInt(2, parcelamento.getTotalParcelas());
-                stmt.setInt(3, parcelamento.getParcelasRestantes());
-                stmt.setString(4, parcelamento.getDataInicio().toString());
-                stmt.setInt(5, parcelamento.getId());
+                stmt.setString(3, parcelamento.getDataInicio().toString());
+                stmt.setInt(4, parcelamento.getId());
                 
                 int affectedRows = stmt.executeUpdate();
                 if (affectedRows == 0) {
                     throw new SQLException("Falha ao atualizar parcelamento, nenhuma linha afetada.");
                 }
                 
-                // Excluir parcelas antigas
-                excluirParcelas(conn, parcelamento.getId());
-                
-                // Inserir novas parcelas
-                for (Parcela parcela : parcelamento.getParcelas()) {
-                    inserirParcela(conn, parcela, parcelamento.getId());
-                }
+                // Gravar apenas as parcelas que mudaram
+                sincronizarParcelas(conn, parcelamento);
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
         });
     }
     
+    /**
+     * Compara as parcelas do parcelamento com as gravadas e aplica só as diferenças.
+     */
+    private void sincronizarParcelas(Connection conn, Parcelamento parcelamento) throws SQLException {
+        Map<Integer, Parcela> gravadas = new HashMap<>();
+        List<Parcela> repetidas = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_FIND_PARCELAS_BY_PARCELAMENTO)) {
+            stmt.setInt(1, parcelamento.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Parcela parcela = construirParcela(rs);
+                    // Um número repetido (anterior à migração 9) é excluído em vez de ignorado
+                    Parcela anterior = gravadas.put(parcela.getNumeroParcela(), parcela);
+                    if (anterior != null) {
+                        repetidas.add(anterior);
+                    }
+                }
+            }
+        }
+        
+        List<Parcela> novas = new ArrayList<>();
+        int alteradas = 0;
+        try (PreparedStatement update = conn.prepareStatement(SQL_UPDATE_PARCELA)) {
+            for (Parcela parcela : parcelamento.getParcelas()) {
+                parcela.setParcelamentoId(parcelamento.getId());
+                Parcela gravada = gravadas.remove(parcela.getNumeroParcela());
+                if (gravada == null) {
+                    novas.add(parcela);
+                    continue;
+                }
+                
+                parcela.setId(gravada.getId());
+                if (!parcela.getValor().equals(gravada.getValor())
+                        || !parcela.getDataVencimento().equals(gravada.getDataVencimento())
+                        || parcela.isPaga() != gravada.isPaga()) {
+                    update.setLong(1, parcela.getValor().getCentavos());
+                    update.setString(2, parcela.getDataVencimento().toString());
+                    update.setBoolean(3, parcela.isPaga());
+                    update.setInt(4, parcela.getId());
+                    update.addBatch();
+                    alteradas++;
+                }
+            }
+            if (alteradas > 0) {
+                update.executeBatch();
+            }
+        }
+        
+        // As que sobraram não fazem mais parte do parcelamento
+        repetidas.addAll(gravadas.values());
+        if (!repetidas.isEmpty()) {
+            try (PreparedStatement delete = conn.prepareStatement(SQL_DELETE_PARCELA)) {
+                for (Parcela removida : repetidas) {
+                    delete.setInt(1, removida.getId());
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+            }
+        }
+        
+        inserirParcelas(conn, novas);
+    }
+    
     /**
      * Exclui as parcelas de um parcelamento.
      */
@@ -274,17 +446,24 @@ public class ParcelamentoDAO {
         return null;
     }
     
+    /**
+     * Busca vários parcelamentos de uma vez, já com suas parcelas.
+     * Usa uma consulta para os parcelamentos e outra para todas as parcelas.
+     * @param ids os IDs dos parcelamentos
+     * @return mapa de ID para parcelamento; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, Parcelamento> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        List<Parcelamento> parcelamentos = daoTemplate.listarPorIds(SQL_FIND_BY_IDS, parcelamentoMapper, ids);
+        return carregarParcelas(parcelamentos);
+    }
+    
     /**
      * Lista todos os parcelamentos do banco de dados.
      */
     public List<Parcelamento> listarTodos() throws SQLException {
         List<Parcelamento> parcelamentos = daoTemplate.listar(SQL_FIND_ALL, parcelamentoMapper);
-        
-        // Carregar parcelas para cada parcelamento
-        for (Parcelamento p : parcelamentos) {
-            p.setParcelas(buscarParcelas(p.getId()));
-        }
-        
+        carregarParcelas(parcelamentos);
         return parcelamentos;
     }
     
@@ -293,13 +472,39 @@ public class ParcelamentoDAO {
      */
     public List<Parcelamento> listarParcelamentosAtivos() throws SQLException {
         List<Parcelamento> parcelamentos = daoTemplate.listar(SQL_FIND_ACTIVE, parcelamentoMapper);
-        
-        // Carregar parcelas para cada parcelamento
+        carregarParcelas(parcelamentos);
+        return parcelamentos;
+    }
+    
+    /**
+     * Carrega as parcelas de uma lista de parcelamentos com uma única consulta.
+     * @return mapa de ID para parcelamento
+     */
+    private Map<Integer, Parcelamento> carregarParcelas(List<Parcelamento> parcelamentos) throws SQLException {
+        Map<Integer, Parcelamento> porId = new LinkedHashMap<>();
         for (Parcelamento p : parcelamentos) {
-            p.setParcelas(buscarParcelas(p.getId()));
+            p.setParcelas(new ArrayList<>());
+            porId.put(p.getId(), p);
         }
         
-        return parcelamentos;
+        if (porId.isEmpty()) {
+            return porId;
+        }
+        
+        List<Parcela> parcelas = daoTemplate.listarPorIds(SQL_FIND_PARCELAS_BY_PARCELAMENTOS, rs -> {
+            Parcela parcela = construirParcela(rs);
+            parcela.setParcelamentoId(rs.getInt("parcelamento_id"));
+            return parcela;
+        }, porId.keySet());
+        
+        for (Parcela parcela : parcelas) {
+            Parcelamento parcelamento = porId.get(parcela.getParcelamentoId());
+            if (parcelamento != null) {
+                parcelamento.adicionarParcela(parcela);
+            }
+        }
+        
+        return porId;
     }
     
     /**
@@ -323,7 +528,7 @@ public class ParcelamentoDAO {
         Parcela parcela = new Parcela();
         parcela.setId(rs.getInt("id"));
         parcela.setNumeroParcela(rs.getInt("numero_parcela"));
-        parcela.setValor(rs.getDouble("valor"));
+        parcela.setValor(Dinheiro.deCentavos(rs.getLong("valor")));
         
         String dataVencimentoStr = rs.getString("data_vencimento");
         if (dataVencimentoStr != null && !dataVencimentoStr.isEmpty()) {
@@ -342,7 +547,7 @@ public class ParcelamentoDAO {
         Parcelamento parcelamento = new Parcelamento();
         
         parcelamento.setId(rs.getInt("id"));
-        parcelamento.setValorTotal(rs.getDouble("valor_total"));
+        parcelamento.setValorTotal(Dinheiro.deCentavos(rs.getLong("valor_total")));
         parcelamento.setTotalParcelas(rs.getInt("total_parcelas"));
         parcelamento.setParcelasRestantes(rs.getInt("parcelas_restantes"));
         
@@ -357,12 +562,67 @@ public class ParcelamentoDAO {
     }
     
     /**
-     * Atualiza o status de pagamento de uma parcela.
+     * Atualiza o status de pagamento de uma parcela. As parcelas restantes do
+     * parcelamento são ajustadas pelo gatilho, no mesmo comando.
      */
     public void marcarParcelaPaga(int parcelaId, boolean paga) throws SQLException {
         daoTemplate.executarUpdate(SQL_UPDATE_PARCELA_STATUS, paga, parcelaId);
     }
     
+    /**
+     * Atualiza o status de pagamento de várias parcelas em uma única transação, com um
+     * UPDATE por bloco de {@value #MAX_IDS_POR_UPDATE} IDs. Parcelas que já têm o
+     * status pedido não são alteradas.
+     * @param parcelaIds os IDs das parcelas
+     * @param paga o novo status de pagamento
+     * @return o número de parcelas alteradas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int marcarParcelasPagas(Collection<Integer> parcelaIds, boolean paga) throws SQLException {
+        if (parcelaIds.isEmpty()) {
+            return 0;
+        }
+        
+        List<Integer> ids = new ArrayList<>(parcelaIds);
+        final int[] alteradas = new int[1];
+        daoTemplate.executarEmTransacao(conn -> {
+            try {
+                for (int inicio = 0; inicio < ids.size(); inicio += MAX_IDS_POR_UPDATE) {
+                    List<Integer> bloco = ids.subList(inicio, Math.min(inicio + MAX_IDS_POR_UPDATE, ids.size()));
+                    String sql = String.format(SQL_UPDATE_PARCELAS_STATUS, 
+                            String.join(", ", Collections.nCopies(bloco.size(), "?")));
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setBoolean(1, paga);
+                        stmt.setBoolean(2, paga);
+                        for (int i = 0; i < bloco.size(); i++) {
+                            stmt.setInt(i + 3, bloco.get(i));
+                        }
+                        alteradas[0] += stmt.executeUpdate();
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        return alteradas[0];
+    }
+    
+    /**
+     * Marca como pagas (ou não pagas) as parcelas de um cartão que entram na fatura
+     * que fecha no mês, com um único UPDATE. A fatura de cada parcela segue o dia de
+     * fechamento do cartão e a data da compra, como na tabela faturas, e não a data
+     * de vencimento gravada na parcela.
+     * @param cartaoId o ID do cartão de crédito
+     * @param mesFechamento o mês de fechamento da fatura
+     * @param paga o novo status de pagamento
+     * @return o número de parcelas alteradas
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int marcarParcelasDoCartaoPagas(int cartaoId, YearMonth mesFechamento, boolean paga) throws SQLException {
+        return daoTemplate.executarUpdate(SQL_UPDATE_PARCELAS_STATUS_CARTAO, paga, paga,
+                cartaoId, mesFechamento.toString());
+    }
+    
     /**
      * Busca o ID do parcelamento associado a uma parcela.
      */
@@ -377,20 +637,22 @@ public class ParcelamentoDAO {
     }
     
     /**
-     * Atualiza o número de parcelas restantes do parcelamento.
+     * Busca os IDs dos parcelamentos a que pertencem as parcelas informadas.
+     */
+    public Set<Integer> buscarParcelamentoIdsDasParcelas(Collection<Integer> parcelaIds) throws SQLException {
+        return new HashSet<>(daoTemplate.listarPorIds(
+            SQL_GET_PARCELAMENTO_IDS_FROM_PARCELAS,
+            rs -> rs.getInt("parcelamento_id"),
+            parcelaIds
+        ));
+    }
+    
+    /**
+     * Recalcula o número de parcelas restantes do parcelamento em um único UPDATE.
+     * Normalmente não é necessário, pois os gatilhos de parcelas mantêm o valor.
      */
     public void atualizarParcelasRestantes(int parcelamentoId) throws SQLException {
-        Optional<Integer> parcelasRestantes = daoTemplate.buscar(
-            SQL_COUNT_UNPAID_PARCELAS,
-            rs -> rs.getInt("restantes"),
-            parcelamentoId
-        );
-        
-        daoTemplate.executarUpdate(
-            SQL_UPDATE_PARCELAS_RESTANTES, 
-            parcelasRestantes.orElse(0), 
-            parcelamentoId
-        );
+        daoTemplate.executarUpdate(SQL_UPDATE_PARCELAS_RESTANTES, parcelamentoId, parcelamentoId);
     }
     
     /**
@@ -414,4 +676,38 @@ public class ParcelamentoDAO {
         
         return parcelas;
     }
+    
+    /**
+     * Percorre as parcelas em ordem de vencimento, entregando cada linha ao handler
+     * sem montar objetos. Colunas: parcelamento_id, numero_parcela, total_parcelas,
+     * valor (centavos), data_vencimento, paga, despesa_id, descricao, responsavel e cartao.
+     * 
+     * @param filtro usa apenas o período (sobre o vencimento da parcela), o responsável
+     *        e o cartão da despesa de origem (pode ser null)
+     * @param handler recebe cada linha
+     * @return o número de parcelas percorridas
+     */
+    public long percorrerParcelasParaExportacao(FiltroDespesas filtro, RowCallbackHandler handler) throws SQLException {
+        StringBuilder sql = new StringBuilder(SQL_EXPORT_PARCELAS);
+        List<Object> params = new ArrayList<>();
+        
+        if (filtro != null) {
+            if (filtro.getDataInicio() != null && filtro.getDataFim() != null) {
+                sql.append(" AND p.data_vencimento BETWEEN ? AND ?");
+                params.add(filtro.getDataInicio().toString());
+                params.add(filtro.getDataFim().toString());
+            }
+            if (filtro.getResponsavelId() != null) {
+                sql.append(" AND d.responsavel_id = ?");
+                params.add(filtro.getResponsavelId());
+            }
+            if (filtro.getCartaoId() != null) {
+                sql.append(" AND d.cartao_id = ?");
+                params.add(filtro.getCartaoId());
+            }
+        }
+        sql.append(SQL_EXPORT_PARCELAS_ORDER);
+        
+        return daoTemplate.percorrer(sql.toString(), handler, params.toArray());
+    }
 }
\ No newline at end of file
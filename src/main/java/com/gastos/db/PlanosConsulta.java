@@ -0,0 +1,104 @@
+package com.gastos.db;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Registra no log o EXPLAIN QUERY PLAN das consultas dos DAOs.
+ *
+ * As consultas são descobertas pelas constantes SQL_* de cada DAO que começam
+ * com SELECT. Planos que fazem varredura completa de uma tabela (SCAN sem índice)
+ * são destacados para facilitar a identificação de regressões.
+ */
+public class PlanosConsulta {
+
+    private static final Class<?>[] DAOS = {
+        DespesaDAO.class,
+        ParcelamentoDAO.class,
+        CategoriaDespesaDAO.class,
+        SubCategoriaDAO.class,
+        ResponsavelDAO.class,
+        MeioPagamentoDAO.class,
+        CartaoCreditoDAO.class,
+        ResumoMensalDAO.class
+    };
+
+    /**
+     * Registra o plano de execução de todas as consultas conhecidas.
+     *
+     * @return o número de consultas com varredura completa de tabela
+     */
+    public static int registrarPlanos() {
+        int varreduras = 0;
+
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
+            System.out.println("=== Planos de consulta dos DAOs ===");
+            for (Class<?> dao : DAOS) {
+                for (Field campo : dao.getDeclaredFields()) {
+                    String sql = lerConsulta(campo);
+                    if (sql != null) {
+                        varreduras += registrarPlano(conn, dao.getSimpleName() + "." + campo.getName(), sql);
+                    }
+                }
+            }
+            System.out.println("=== " + varreduras + " consulta(s) com varredura completa ===");
+        } catch (SQLException e) {
+            System.err.println("Erro ao obter planos de consulta: " + e.getMessage());
+        }
+
+        return varreduras;
+    }
+
+    /**
+     * Lê o texto de uma constante SQL_* de consulta, ou null se o campo não for uma.
+     */
+    private static String lerConsulta(Field campo) {
+        int mod = campo.getModifiers();
+        if (!Modifier.isStatic(mod) || campo.getType() != String.class || !campo.getName().startsWith("SQL_")) {
+            return null;
+        }
+
+        try {
+            campo.setAccessible(true);
+            String sql = (String) campo.get(null);
+            if (sql == null || !sql.trim().toUpperCase().startsWith("SELECT")) {
+                return null;
+            }
+            // Consultas com lista IN (%s) são analisadas com um único parâmetro
+            return sql.replace("%s", "?");
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executa o EXPLAIN QUERY PLAN de uma consulta e imprime o resultado.
+     *
+     * @return 1 se o plano contém varredura completa de tabela, 0 caso contrário
+     */
+    private static int registrarPlano(Connection conn, String nome, String sql) {
+        StringBuilder plano = new StringBuilder();
+        boolean varredura = false;
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + sql)) {
+            while (rs.next()) {
+                String detalhe = rs.getString("detail");
+                plano.append("    ").append(detalhe).append("\n");
+                if (detalhe.startsWith("SCAN") && !detalhe.contains("USING")) {
+                    varredura = true;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("[PLANO] " + nome + ": erro - " + e.getMessage());
+            return 0;
+        }
+
+        System.out.print((varredura ? "[PLANO][SCAN] " : "[PLANO] ") + nome + "\n" + plano);
+        return varredura ? 1 : 0;
+    }
+}
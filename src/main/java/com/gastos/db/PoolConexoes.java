@@ -0,0 +1,509 @@
+package com.gastos.db;
+
+import com.gastos.db.util.CacheStatements;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de conexões SQLite com uma conexão de escrita fixa e um pequeno
+ * conjunto de conexões somente leitura (WAL permite leitores concorrentes).
+ *
+ * As conexões são entregues como "empréstimos": o método close() da conexão
+ * emprestada apenas a devolve ao pool, sem fechar a conexão física.
+ * Empréstimos feitos pela mesma thread são reentrantes, de modo que DAOs
+ * aninhados reutilizam a mesma conexão física.
+ *
+ * Cada conexão física tem um {@link CacheStatements}, acessível pela conexão
+ * emprestada com {@code unwrap(CacheStatements.class)}. Os statements do cache
+ * sobrevivem à devolução e são fechados junto com a conexão física.
+ */
+public class PoolConexoes {
+
+    private static final long TIMEOUT_EMPRESTIMO_MS = 30000;
+
+    private final String url;
+    private final int maxLeitores;
+
+    // Conexão de escrita (única, fixa)
+    private final ReentrantLock lockEscrita = new ReentrantLock(true);
+    private Connection escritor;
+
+    // Conexões de leitura
+    private final BlockingQueue<Connection> leitoresLivres;
+    private final List<Connection> todosLeitores = new ArrayList<>();
+    private final AtomicInteger leitoresCriados = new AtomicInteger();
+    private final ThreadLocal<LeituraEmCurso> leituraDaThread = new ThreadLocal<>();
+
+    // Cache de statements por conexão física
+    private final Map<Connection, CacheStatements> caches = new ConcurrentHashMap<>();
+
+    // Estatísticas
+    private final AtomicLong emprestimosEscrita = new AtomicLong();
+    private final AtomicLong emprestimosLeitura = new AtomicLong();
+    private final AtomicLong tempoEsperaNanos = new AtomicLong();
+    private final AtomicLong reconexoes = new AtomicLong();
+    private final AtomicLong acertosStatements = new AtomicLong();
+    private final AtomicLong faltasStatements = new AtomicLong();
+
+    private volatile boolean fechado = false;
+
+    /**
+     * Cria o pool e abre a conexão de escrita.
+     *
+     * @param url URL JDBC do banco
+     * @param maxLeitores número máximo de conexões de leitura
+     * @throws SQLException se não for possível abrir a conexão de escrita
+     */
+    public PoolConexoes(String url, int maxLeitores) throws SQLException {
+        this.url = url;
+        this.maxLeitores = Math.max(1, maxLeitores);
+        this.leitoresLivres = new ArrayBlockingQueue<>(this.maxLeitores);
+        this.escritor = abrirEscritor();
+    }
+
+    /**
+     * Empresta a conexão de escrita. Bloqueia enquanto outra thread a estiver usando.
+     *
+     * @return conexão emprestada; close() devolve ao pool
+     * @throws SQLException se o pool estiver fechado ou o tempo de espera esgotar
+     */
+    public Connection obterEscrita() throws SQLException {
+        verificarAberto();
+        long inicio = System.nanoTime();
+        try {
+            if (!lockEscrita.tryLock(TIMEOUT_EMPRESTIMO_MS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Tempo esgotado aguardando a conexão de escrita.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrompido aguardando a conexão de escrita.", e);
+        }
+        tempoEsperaNanos.addAndGet(System.nanoTime() - inicio);
+        emprestimosEscrita.incrementAndGet();
+
+        try {
+            if (escritor == null || escritor.isClosed()) {
+                descartarCache(escritor);
+                escritor = abrirEscritor();
+                reconexoes.incrementAndGet();
+            }
+        } catch (SQLException e) {
+            lockEscrita.unlock();
+            throw e;
+        }
+
+        return criarEmprestimo(escritor, this::devolverEscrita);
+    }
+
+    /**
+     * Empresta uma conexão de leitura. Se a thread atual já segura a conexão de
+     * escrita, ela é reutilizada para que a leitura enxergue a transação em andamento.
+     *
+     * @return conexão emprestada; close() devolve ao pool
+     * @throws SQLException se o pool estiver fechado ou o tempo de espera esgotar
+     */
+    public Connection obterLeitura() throws SQLException {
+        verificarAberto();
+
+        if (lockEscrita.isHeldByCurrentThread()) {
+            return obterEscrita();
+        }
+
+        LeituraEmCurso emCurso = leituraDaThread.get();
+        if (emCurso != null) {
+            emCurso.profundidade++;
+            emprestimosLeitura.incrementAndGet();
+            return criarEmprestimo(emCurso.conexao, this::devolverLeitura);
+        }
+
+        long inicio = System.nanoTime();
+        Connection leitor = leitoresLivres.poll();
+        if (leitor == null) {
+            leitor = criarLeitorSePossivel();
+        }
+        if (leitor == null) {
+            try {
+                leitor = leitoresLivres.poll(TIMEOUT_EMPRESTIMO_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrompido aguardando uma conexão de leitura.", e);
+            }
+            if (leitor == null) {
+                throw new SQLException("Tempo esgotado aguardando uma conexão de leitura.");
+            }
+        }
+        tempoEsperaNanos.addAndGet(System.nanoTime() - inicio);
+        emprestimosLeitura.incrementAndGet();
+
+        if (leitor.isClosed()) {
+            leitor = substituirLeitor(leitor);
+        }
+
+        leituraDaThread.set(new LeituraEmCurso(leitor));
+        return criarEmprestimo(leitor, this::devolverLeitura);
+    }
+
+    /**
+     * Retorna um retrato das estatísticas de uso do pool.
+     */
+    public EstatisticasPool getEstatisticas() {
+        return new EstatisticasPool(
+            emprestimosEscrita.get(),
+            emprestimosLeitura.get(),
+            tempoEsperaNanos.get(),
+            reconexoes.get(),
+            leitoresCriados.get(),
+            leitoresLivres.size(),
+            acertosStatements.get(),
+            faltasStatements.get()
+        );
+    }
+
+    /**
+     * Fecha todas as conexões físicas do pool.
+     */
+    public synchronized void fechar() {
+        fechado = true;
+
+        for (CacheStatements cache : caches.values()) {
+            cache.fechar();
+        }
+        caches.clear();
+
+        if (escritor != null) {
+            try {
+                if (!escritor.isClosed()) {
+                    if (!escritor.getAutoCommit()) {
+                        escritor.commit();
+                        escritor.setAutoCommit(true);
+                    }
+                    escritor.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Erro ao fechar a conexão de escrita: " + e.getMessage());
+            }
+            escritor = null;
+        }
+
+        for (Connection leitor : todosLeitores) {
+            try {
+                leitor.close();
+            } catch (SQLException e) {
+                System.err.println("Erro ao fechar conexão de leitura: " + e.getMessage());
+            }
+        }
+        todosLeitores.clear();
+        leitoresLivres.clear();
+    }
+
+    // ------------------------------------------------------------------
+    // Devolução de conexões
+    // ------------------------------------------------------------------
+
+    private void devolverEscrita(Connection conexao) {
+        try {
+            // Último empréstimo da thread: garantir que nenhuma transação fique pendente
+            if (lockEscrita.getHoldCount() == 1 && !conexao.isClosed() && !conexao.getAutoCommit()) {
+                System.err.println("AVISO: conexão de escrita devolvida com transação aberta. Revertendo.");
+                conexao.rollback();
+                conexao.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Erro ao restaurar a conexão de escrita: " + e.getMessage());
+        } finally {
+            lockEscrita.unlock();
+        }
+    }
+
+    private void devolverLeitura(Connection conexao) {
+        LeituraEmCurso emCurso = leituraDaThread.get();
+        if (emCurso == null) {
+            return;
+        }
+        if (--emCurso.profundidade > 0) {
+            return;
+        }
+
+        leituraDaThread.remove();
+        if (fechado) {
+            return;
+        }
+        if (!leitoresLivres.offer(emCurso.conexao)) {
+            descartarCache(emCurso.conexao);
+            try {
+                emCurso.conexao.close();
+            } catch (SQLException e) {
+                System.err.println("Erro ao descartar conexão de leitura: " + e.getMessage());
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Abertura de conexões físicas
+    // ------------------------------------------------------------------
+
+    private Connection abrirEscritor() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA busy_timeout = 30000");
+        }
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    private Connection abrirLeitor() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 30000");
+            stmt.execute("PRAGMA query_only = ON");
+        }
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    private synchronized Connection criarLeitorSePossivel() throws SQLException {
+        if (leitoresCriados.get() >= maxLeitores) {
+            return null;
+        }
+        Connection leitor = abrirLeitor();
+        todosLeitores.add(leitor);
+        leitoresCriados.incrementAndGet();
+        return leitor;
+    }
+
+    private synchronized Connection substituirLeitor(Connection antigo) throws SQLException {
+        todosLeitores.remove(antigo);
+        descartarCache(antigo);
+        Connection novo = abrirLeitor();
+        todosLeitores.add(novo);
+        reconexoes.incrementAndGet();
+        return novo;
+    }
+
+    private void descartarCache(Connection fisica) {
+        if (fisica == null) {
+            return;
+        }
+        CacheStatements cache = caches.remove(fisica);
+        if (cache != null) {
+            cache.fechar();
+        }
+    }
+
+    private void verificarAberto() throws SQLException {
+        if (fechado) {
+            throw new SQLException("O pool de conexões já foi fechado.");
+        }
+    }
+
+    // ------------------------------------------------------------------
+    // Conexão emprestada
+    // ------------------------------------------------------------------
+
+    /**
+     * Cria um proxy da conexão física cujo close() devolve a conexão ao pool.
+     * Statements abertos durante o empréstimo e não fechados pelo chamador
+     * são fechados na devolução; os do cache da conexão física são mantidos.
+     */
+    private Connection criarEmprestimo(Connection fisica, Devolucao devolucao) {
+        CacheStatements cache = caches.computeIfAbsent(fisica,
+            c -> new CacheStatements(c, CacheStatements.CAPACIDADE_PADRAO, acertosStatements, faltasStatements));
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new ConexaoEmprestada(fisica, cache, devolucao)
+        );
+    }
+
+    @FunctionalInterface
+    private interface Devolucao {
+        void devolver(Connection conexao);
+    }
+
+    private static class LeituraEmCurso {
+        private final Connection conexao;
+        private int profundidade = 1;
+
+        LeituraEmCurso(Connection conexao) {
+            this.conexao = conexao;
+        }
+    }
+
+    private static class ConexaoEmprestada implements InvocationHandler {
+        private final Connection fisica;
+        private final CacheStatements cache;
+        private final Devolucao devolucao;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean devolvida = false;
+
+        ConexaoEmprestada(Connection fisica, CacheStatements cache, Devolucao devolucao) {
+            this.fisica = fisica;
+            this.cache = cache;
+            this.devolucao = devolucao;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!devolvida) {
+                        devolvida = true;
+                        fecharStatements();
+                        devolucao.devolver(fisica);
+                    }
+                    return null;
+                case "isClosed":
+                    return devolvida || fisica.isClosed();
+                case "unwrap":
+                    if (args[0] == CacheStatements.class && !devolvida) {
+                        return cache;
+                    }
+                    if (((Class<?>) args[0]).isInstance(fisica)) {
+                        return fisica;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (args[0] == CacheStatements.class) {
+                        return !devolvida;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexaoEmprestada[" + fisica + "]";
+                default:
+                    break;
+            }
+
+            if (devolvida) {
+                throw new SQLException("A conexão emprestada já foi devolvida ao pool.");
+            }
+
+            try {
+                Object resultado = method.invoke(fisica, args);
+                if (resultado instanceof Statement) {
+                    statements.add((Statement) resultado);
+                }
+                return resultado;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void fecharStatements() {
+            for (Statement stmt : statements) {
+                try {
+                    if (!stmt.isClosed()) {
+                        stmt.close();
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Erro ao fechar statement: " + e.getMessage());
+                }
+            }
+            statements.clear();
+        }
+    }
+
+    /**
+     * Retrato imutável das estatísticas do pool.
+     */
+    public static class EstatisticasPool {
+        private final long emprestimosEscrita;
+        private final long emprestimosLeitura;
+        private final long tempoEsperaNanos;
+        private final long reconexoes;
+        private final int leitoresAbertos;
+        private final int leitoresLivres;
+        private final long acertosStatements;
+        private final long faltasStatements;
+
+        public EstatisticasPool(long emprestimosEscrita, long emprestimosLeitura, long tempoEsperaNanos,
+                                long reconexoes, int leitoresAbertos, int leitoresLivres,
+                                long acertosStatements, long faltasStatements) {
+            this.emprestimosEscrita = emprestimosEscrita;
+            this.emprestimosLeitura = emprestimosLeitura;
+            this.tempoEsperaNanos = tempoEsperaNanos;
+            this.reconexoes = reconexoes;
+            this.leitoresAbertos = leitoresAbertos;
+            this.leitoresLivres = leitoresLivres;
+            this.acertosStatements = acertosStatements;
+            this.faltasStatements = faltasStatements;
+        }
+
+        public long getEmprestimosEscrita() {
+            return emprestimosEscrita;
+        }
+
+        public long getEmprestimosLeitura() {
+            return emprestimosLeitura;
+        }
+
+        public long getTotalEmprestimos() {
+            return emprestimosEscrita + emprestimosLeitura;
+        }
+
+        public long getTempoEsperaNanos() {
+            return tempoEsperaNanos;
+        }
+
+        public double getTempoEsperaMedioMs() {
+            long total = getTotalEmprestimos();
+            return total == 0 ? 0.0 : (tempoEsperaNanos / 1_000_000.0) / total;
+        }
+
+        public long getReconexoes() {
+            return reconexoes;
+        }
+
+        public int getLeitoresAbertos() {
+            return leitoresAbertos;
+        }
+
+        public int getLeitoresLivres() {
+            return leitoresLivres;
+        }
+
+        public long getAcertosStatements() {
+            return acertosStatements;
+        }
+
+        public long getFaltasStatements() {
+            return faltasStatements;
+        }
+
+        public double getTaxaAcertoStatements() {
+            long total = acertosStatements + faltasStatements;
+            return total == 0 ? 0.0 : (double) acertosStatements / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool: %d empréstimos (%d escrita, %d leitura), espera média %.3f ms, "
+                    + "%d reconexões, %d/%d leitores livres, statements em cache: %d acertos, %d faltas (%.1f%%)",
+                    getTotalEmprestimos(), emprestimosEscrita, emprestimosLeitura, getTempoEsperaMedioMs(),
+                    reconexoes, leitoresLivres, leitoresAbertos,
+                    acertosStatements, faltasStatements, getTaxaAcertoStatements() * 100);
+        }
+    }
+}
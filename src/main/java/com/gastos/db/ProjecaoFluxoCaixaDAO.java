@@ -0,0 +1,99 @@
+package com.gastos.db;
+
+import com.gastos.db.util.DAOTemplate;
+import com.gastos.db.util.RowCallbackHandler;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Classe DAO com as consultas da projeção de fluxo de caixa.
+ *
+ * As linhas são entregues a um {@link RowCallbackHandler}, sem montar objetos, para
+ * que a projeção acumule os valores diretamente em vetores por mês. Despesas e
+ * parcelas lançadas em cartão não aparecem aqui individualmente: entram pela
+ * tabela faturas.
+ */
+public class ProjecaoFluxoCaixaDAO {
+
+    // Colunas comuns às consultas de despesas: id, valor, data_compra, data_vencimento,
+    // pago, fixo, cartao_id e parcelamento_id
+    private static final String COLUNAS_DESPESA =
+        "SELECT id, valor, data_compra, data_vencimento, pago, fixo, cartao_id, parcelamento_id FROM despesas ";
+
+    private static final String SQL_DESPESAS_FIXAS =
+        COLUNAS_DESPESA + "WHERE fixo = 1 AND parcelamento_id IS NULL";
+
+    private static final String SQL_DESPESA = COLUNAS_DESPESA + "WHERE id = ?";
+
+    private static final String SQL_PARCELAS_A_PAGAR =
+        "SELECT d.id AS despesa_id, p.valor, p.data_vencimento FROM parcelas p " +
+        "JOIN despesas d ON d.parcelamento_id = p.parcelamento_id " +
+        "WHERE p.paga = 0 AND p.data_vencimento <= ? AND d.cartao_id IS NULL";
+
+    private static final String SQL_PARCELAS_A_PAGAR_DA_DESPESA =
+        SQL_PARCELAS_A_PAGAR + " AND d.id = ?";
+
+    private static final String SQL_DESPESAS_DO_PARCELAMENTO =
+        "SELECT id FROM despesas WHERE parcelamento_id = ?";
+
+    private static final String SQL_FATURAS_EM_ABERTO =
+        "SELECT cartao_id, mes_fechamento, total - total_pago AS em_aberto FROM faturas " +
+        "WHERE mes_fechamento BETWEEN ? AND ? AND total != total_pago";
+
+    private final DAOTemplate daoTemplate;
+
+    /**
+     * Construtor padrão que inicializa o DAOTemplate.
+     */
+    public ProjecaoFluxoCaixaDAO() {
+        this.daoTemplate = new DAOTemplate();
+    }
+
+    /**
+     * Percorre as despesas fixas que não são parceladas.
+     */
+    public long percorrerDespesasFixas(RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_DESPESAS_FIXAS, handler);
+    }
+
+    /**
+     * Percorre uma única despesa, com as mesmas colunas de {@link #percorrerDespesasFixas}.
+     *
+     * @return 1 se a despesa existir, 0 caso contrário
+     */
+    public long percorrerDespesa(int despesaId, RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_DESPESA, handler, despesaId);
+    }
+
+    /**
+     * Percorre as parcelas não pagas, fora de cartão, que vencem até a data limite
+     * (incluindo as atrasadas). Colunas: despesa_id, valor e data_vencimento.
+     */
+    public long percorrerParcelasAPagar(LocalDate limite, RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_PARCELAS_A_PAGAR, handler, limite.toString());
+    }
+
+    /**
+     * Percorre as parcelas não pagas de uma única despesa, como em {@link #percorrerParcelasAPagar}.
+     */
+    public long percorrerParcelasAPagar(int despesaId, LocalDate limite, RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_PARCELAS_A_PAGAR_DA_DESPESA, handler, limite.toString(), despesaId);
+    }
+
+    /**
+     * Percorre as despesas de um parcelamento. Coluna: id.
+     */
+    public long percorrerDespesasDoParcelamento(int parcelamentoId, RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_DESPESAS_DO_PARCELAMENTO, handler, parcelamentoId);
+    }
+
+    /**
+     * Percorre as faturas com valor em aberto que fecham no período.
+     * Colunas: cartao_id, mes_fechamento e em_aberto.
+     */
+    public long percorrerFaturasEmAberto(YearMonth de, YearMonth ate, RowCallbackHandler handler) throws SQLException {
+        return daoTemplate.percorrer(SQL_FATURAS_EM_ABERTO, handler, de.toString(), ate.toString());
+    }
+}
@@ -1,12 +1,15 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
 import com.gastos.db.util.DAOTemplate;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.Responsavel;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,9 +22,11 @@ public class ResponsavelDAO {
     private static final String SQL_INSERT = "INSERT INTO responsaveis (nome) VALUES (?)";
     private static final String SQL_UPDATE = "UPDATE responsaveis SET nome = ? WHERE id = ?";
     private static final String SQL_DELETE = "DELETE FROM responsaveis WHERE id = ?";
-    private static final String SQL_FIND_BY_ID = "SELECT * FROM responsaveis WHERE id = ?";
     private static final String SQL_FIND_ALL = "SELECT * FROM responsaveis ORDER BY nome";
     
+    // Cache compartilhado por todas as instâncias do DAO
+    private static final CacheEntidades<Responsavel> CACHE = new CacheEntidades<>("responsáveis", Responsavel::getId, Responsavel::copiar);
+    
     private final DAOTemplate daoTemplate;
     private final RowMapper<Responsavel> rowMapper;
     
@@ -41,6 +46,7 @@ public class ResponsavelDAO {
      */
     public int inserir(Responsavel responsavel) throws SQLException {
         Optional<Integer> id = daoTemplate.inserirEObterChave(SQL_INSERT, responsavel.getNome());
+        CACHE.invalidar();
         return id.orElseThrow(() -> new SQLException("Falha ao inserir responsável, nenhum ID foi retornado."));
     }
     
@@ -51,6 +57,7 @@ public class ResponsavelDAO {
      */
     public void atualizar(Responsavel responsavel) throws SQLException {
         daoTemplate.executarUpdate(SQL_UPDATE, responsavel.getNome(), responsavel.getId());
+        CACHE.invalidar();
     }
     
     /**
@@ -60,6 +67,7 @@ public class ResponsavelDAO {
      */
     public void excluir(int id) throws SQLException {
         daoTemplate.executarUpdate(SQL_DELETE, id);
+        CACHE.invalidar();
     }
     
     /**
@@ -69,8 +77,17 @@ public class ResponsavelDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public Responsavel buscarPorId(int id) throws SQLException {
-        Optional<Responsavel> responsavel = daoTemplate.buscar(SQL_FIND_BY_ID, rowMapper, id);
-        return responsavel.orElse(null);
+        return CACHE.buscar(id, this::carregarTodos);
+    }
+    
+    /**
+     * Busca vários responsáveis de uma vez, a partir do cache.
+     * @param ids os IDs a serem buscados
+     * @return mapa de ID para entidade; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, Responsavel> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return CACHE.buscarPorIds(ids, this::carregarTodos);
     }
     
     /**
@@ -79,6 +96,13 @@ public class ResponsavelDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<Responsavel> listarTodos() throws SQLException {
+        return CACHE.listarTodos(this::carregarTodos);
+    }
+    
+    /**
+     * Carrega todos os registros da tabela, para o cache.
+     */
+    private List<Responsavel> carregarTodos() throws SQLException {
         return daoTemplate.listar(SQL_FIND_ALL, rowMapper);
     }
     
@@ -0,0 +1,134 @@
+package com.gastos.db;
+
+import com.gastos.db.util.DAOTemplate;
+import com.gastos.model.DashboardSnapshot;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe DAO para o resumo mensal materializado (tabela resumo_mensal).
+ *
+ * A tabela guarda a quantidade e o total das despesas agrupados por mês, categoria,
+ * responsável, cartão e status de pagamento. Ela é mantida por gatilhos na tabela
+ * despesas, dentro da mesma transação de cada INSERT, UPDATE ou DELETE, de modo que
+ * as leituras do dashboard dependem do número de grupos e não do número de despesas.
+ * Os totais são guardados em centavos (INTEGER), como os valores das despesas.
+ */
+public class ResumoMensalDAO {
+
+    private static final String SQL_RESUMO_MES =
+        "SELECT rm.categoria_id, c.nome AS categoria_nome, rm.responsavel_id, r.nome AS responsavel_nome, " +
+        "SUM(rm.quantidade) AS quantidade, SUM(rm.total) AS total, " +
+        "SUM(CASE WHEN rm.pago = 1 THEN rm.total ELSE 0 END) AS total_pago " +
+        "FROM resumo_mensal rm " +
+        "LEFT JOIN categorias c ON rm.categoria_id = c.id " +
+        "LEFT JOIN responsaveis r ON rm.responsavel_id = r.id " +
+        "WHERE rm.mes = ? AND (? IS NULL OR rm.responsavel_id = ?) " +
+        "GROUP BY rm.categoria_id, rm.responsavel_id";
+
+    private static final String SQL_TOTAIS_POR_MES =
+        "SELECT mes, SUM(total) AS total FROM resumo_mensal " +
+        "WHERE mes BETWEEN ? AND ? AND (? IS NULL OR responsavel_id = ?) " +
+        "GROUP BY mes";
+
+    private static final String SQL_LIMPAR = "DELETE FROM resumo_mensal";
+
+    // Mesmo comando das migrações, para que a chave do mês não divirja da dos gatilhos
+    private static final String SQL_PREENCHER = MigracoesBanco.preencherResumo();
+
+    private final DAOTemplate daoTemplate;
+
+    /**
+     * Construtor padrão que inicializa o DAOTemplate.
+     */
+    public ResumoMensalDAO() {
+        this.daoTemplate = new DAOTemplate();
+    }
+
+    /**
+     * Obtém o resumo de um mês a partir da tabela materializada.
+     *
+     * @param mes o mês do resumo
+     * @param responsavelId responsável para filtro, ou null para todos
+     * @return o resumo do mês
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public DashboardSnapshot obterResumo(YearMonth mes, Integer responsavelId) throws SQLException {
+        DashboardSnapshot snapshot = new DashboardSnapshot(responsavelId);
+
+        List<Object[]> grupos = daoTemplate.listar(SQL_RESUMO_MES,
+            rs -> new Object[] {
+                idOuNulo(rs, "categoria_id"), rs.getString("categoria_nome"),
+                idOuNulo(rs, "responsavel_id"), rs.getString("responsavel_nome"),
+                rs.getInt("quantidade"), rs.getLong("total"), rs.getLong("total_pago")
+            },
+            mes.toString(), responsavelId, responsavelId);
+
+        for (Object[] g : grupos) {
+            snapshot.acumular((Integer) g[0], (String) g[1], (Integer) g[2], (String) g[3],
+                    (Integer) g[4], (Long) g[5], (Long) g[6]);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Obtém o total das despesas de cada mês de um intervalo, para o gráfico de tendência.
+     * A consulta percorre só o intervalo de meses da chave primária da tabela.
+     *
+     * @param de primeiro mês do intervalo
+     * @param ate último mês do intervalo
+     * @param responsavelId responsável para filtro, ou null para todos
+     * @return mapa de mês para total em centavos, com todos os meses do intervalo em ordem
+     *         (os meses sem despesas ficam com zero)
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<YearMonth, Long> obterTotaisPorMes(YearMonth de, YearMonth ate, Integer responsavelId) throws SQLException {
+        Map<YearMonth, Long> totais = new LinkedHashMap<>();
+        for (YearMonth mes = de; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            totais.put(mes, 0L);
+        }
+
+        daoTemplate.percorrer(SQL_TOTAIS_POR_MES,
+            rs -> totais.put(YearMonth.parse(rs.getString("mes")), rs.getLong("total")),
+            de.toString(), ate.toString(), responsavelId, responsavelId);
+
+        return totais;
+    }
+
+    /**
+     * Reconstrói o resumo mensal a partir da tabela despesas, em uma única transação.
+     * Necessário apenas se a tabela tiver sido alterada sem os gatilhos.
+     *
+     * @return o número de grupos gerados
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public int reconstruir() throws SQLException {
+        final int[] grupos = new int[1];
+
+        daoTemplate.executarEmTransacao(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(SQL_LIMPAR);
+                grupos[0] = stmt.executeUpdate(SQL_PREENCHER);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        return grupos[0];
+    }
+
+    /**
+     * Lê um ID do resumo; o valor 0 representa a ausência da relação.
+     */
+    private Integer idOuNulo(ResultSet rs, String coluna) throws SQLException {
+        int id = rs.getInt(coluna);
+        return id == 0 ? null : id;
+    }
+}
@@ -1,12 +1,16 @@
 package com.gastos.db;
 
+import com.gastos.db.util.CacheEntidades;
 import com.gastos.db.util.DAOTemplate;
 import com.gastos.db.util.RowMapper;
 import com.gastos.model.SubCategoria;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,9 +23,10 @@ public class SubCategoriaDAO {
     private static final String SQL_INSERT = "INSERT INTO subcategorias (nome, categoria_id) VALUES (?, ?)";
     private static final String SQL_UPDATE = "UPDATE subcategorias SET nome = ?, categoria_id = ? WHERE id = ?";
     private static final String SQL_DELETE = "DELETE FROM subcategorias WHERE id = ?";
-    private static final String SQL_FIND_BY_ID = "SELECT * FROM subcategorias WHERE id = ?";
     private static final String SQL_FIND_ALL = "SELECT * FROM subcategorias ORDER BY nome";
-    private static final String SQL_FIND_BY_CATEGORIA = "SELECT * FROM subcategorias WHERE categoria_id = ? ORDER BY nome";
+    
+    // Cache compartilhado por todas as instâncias do DAO
+    private static final CacheEntidades<SubCategoria> CACHE = new CacheEntidades<>("subcategorias", SubCategoria::getId, SubCategoria::copiar);
     
     private final DAOTemplate daoTemplate;
     private final RowMapper<SubCategoria> rowMapper;
@@ -46,6 +51,7 @@ public class SubCategoriaDAO {
             subCategoria.getNome(), 
             subCategoria.getCategoriaId()
         );
+        invalidarCache();
         
         return id.orElseThrow(() -> new SQLException("Falha ao inserir subcategoria, nenhum ID foi retornado."));
     }
@@ -62,6 +68,7 @@ public class SubCategoriaDAO {
             subCategoria.getCategoriaId(), 
             subCategoria.getId()
         );
+        invalidarCache();
     }
     
     /**
@@ -71,6 +78,15 @@ public class SubCategoriaDAO {
      */
     public void excluir(int id) throws SQLException {
         daoTemplate.executarUpdate(SQL_DELETE, id);
+        invalidarCache();
+    }
+    
+    /**
+     * Invalida o cache de subcategorias e o de categorias, que as contém.
+     */
+    static void invalidarCache() {
+        CACHE.invalidar();
+        CategoriaDespesaDAO.invalidarCache();
     }
     
     /**
@@ -80,8 +96,17 @@ public class SubCategoriaDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public SubCategoria buscarPorId(int id) throws SQLException {
-        Optional<SubCategoria> subCategoria = daoTemplate.buscar(SQL_FIND_BY_ID, rowMapper, id);
-        return subCategoria.orElse(null);
+        return CACHE.buscar(id, this::carregarTodos);
+    }
+    
+    /**
+     * Busca vários subcategorias de uma vez, a partir do cache.
+     * @param ids os IDs a serem buscados
+     * @return mapa de ID para entidade; IDs inexistentes ficam de fora
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public Map<Integer, SubCategoria> buscarPorIds(Collection<Integer> ids) throws SQLException {
+        return CACHE.buscarPorIds(ids, this::carregarTodos);
     }
     
     /**
@@ -90,6 +115,13 @@ public class SubCategoriaDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<SubCategoria> listarTodas() throws SQLException {
+        return CACHE.listarTodos(this::carregarTodos);
+    }
+    
+    /**
+     * Carrega todos os registros da tabela, para o cache.
+     */
+    private List<SubCategoria> carregarTodos() throws SQLException {
         return daoTemplate.listar(SQL_FIND_ALL, rowMapper);
     }
     
@@ -100,7 +132,13 @@ public class SubCategoriaDAO {
      * @throws SQLException se ocorrer um erro de SQL
      */
     public List<SubCategoria> listarPorCategoria(int categoriaId) throws SQLException {
-        return daoTemplate.listar(SQL_FIND_BY_CATEGORIA, rowMapper, categoriaId);
+        List<SubCategoria> subCategorias = new ArrayList<>();
+        for (SubCategoria subCategoria : listarTodas()) {
+            if (subCategoria.getCategoriaId() == categoriaId) {
+                subCategorias.add(subCategoria);
+            }
+        }
+        return subCategorias;
     }
     
     /**
@@ -0,0 +1,208 @@
+package com.gastos.db.util;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache de leitura das entidades de cadastro (categorias, subcategorias, responsáveis,
+ * meios de pagamento e cartões), tabelas pequenas que quase nunca mudam.
+ *
+ * Na primeira leitura, o cache carrega a tabela inteira com o carregador do DAO e
+ * guarda um instantâneo imutável: a lista na ordem da consulta e um {@link MapaInt}
+ * de ID para entidade. As leituras seguintes, por ID, por lista de IDs ou da lista
+ * completa, não acessam o banco. O DAO dono do cache chama {@link #invalidar()}
+ * depois de cada inserção, alteração ou exclusão, e o próximo acesso recarrega a
+ * tabela. Uma carga que termina depois de uma invalidação é descartada, para não
+ * publicar dados anteriores à escrita.
+ *
+ * Cada leitura devolve cópias das entidades do instantâneo. Assim, uma tela que
+ * altera a entidade antes de gravá-la não muda o que as outras leituras veem, nem
+ * quando a gravação falha.
+ *
+ * @param <T> o tipo da entidade
+ */
+public final class CacheEntidades<T> {
+
+    private static final List<CacheEntidades<?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private final String nome;
+    private final ToIntFunction<T> chave;
+    private final UnaryOperator<T> copia;
+    private final AtomicLong acertos = new AtomicLong();
+    private final AtomicLong faltas = new AtomicLong();
+    private final AtomicLong invalidacoes = new AtomicLong();
+    private final AtomicLong versao = new AtomicLong();
+    private volatile Instantaneo<T> atual;
+
+    /**
+     * Cria um cache e o registra para as estatísticas e a invalidação geral.
+     *
+     * @param nome nome usado nas estatísticas
+     * @param chave função que extrai o ID da entidade
+     * @param copia função que cria uma cópia independente da entidade
+     */
+    public CacheEntidades(String nome, ToIntFunction<T> chave, UnaryOperator<T> copia) {
+        this.nome = nome;
+        this.chave = chave;
+        this.copia = copia;
+        CACHES.add(this);
+    }
+
+    /**
+     * Busca uma entidade pelo ID.
+     *
+     * @param id o ID
+     * @param carregador carrega a tabela inteira, se o cache estiver vazio
+     * @return uma cópia da entidade, ou null se não existir
+     * @throws SQLException se a carga falhar
+     */
+    public T buscar(int id, Carregador<T> carregador) throws SQLException {
+        T entidade = obter(carregador).porId.get(id);
+        return entidade != null ? copia.apply(entidade) : null;
+    }
+
+    /**
+     * Busca várias entidades pelos IDs.
+     *
+     * @return mapa de ID para uma cópia da entidade; IDs inexistentes ficam de fora
+     * @throws SQLException se a carga falhar
+     */
+    public Map<Integer, T> buscarPorIds(Collection<Integer> ids, Carregador<T> carregador) throws SQLException {
+        if (ids == null || ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        Instantaneo<T> instantaneo = obter(carregador);
+        Map<Integer, T> resultado = new HashMap<>();
+        for (Integer id : ids) {
+            T entidade = id != null ? instantaneo.porId.get(id) : null;
+            if (entidade != null && !resultado.containsKey(id)) {
+                resultado.put(id, copia.apply(entidade));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Lista todas as entidades, na ordem do carregador.
+     *
+     * @return uma lista de cópias, que pode ser alterada por quem chamou
+     * @throws SQLException se a carga falhar
+     */
+    public List<T> listarTodos(Carregador<T> carregador) throws SQLException {
+        List<T> todos = obter(carregador).todos;
+        List<T> copias = new ArrayList<>(todos.size());
+        for (T entidade : todos) {
+            copias.add(copia.apply(entidade));
+        }
+        return copias;
+    }
+
+    /**
+     * Descarta o instantâneo atual. Chamado pelo DAO depois de cada escrita.
+     */
+    public void invalidar() {
+        synchronized (this) {
+            versao.incrementAndGet();
+            atual = null;
+        }
+        invalidacoes.incrementAndGet();
+    }
+
+    /**
+     * Invalida todos os caches, por exemplo ao fechar ou trocar o banco de dados.
+     */
+    public static void invalidarTodos() {
+        for (CacheEntidades<?> cache : CACHES) {
+            cache.invalidar();
+        }
+    }
+
+    /**
+     * Retorna as estatísticas de todos os caches, uma linha por cache.
+     */
+    public static String getEstatisticasTodos() {
+        StringBuilder sb = new StringBuilder("Cache de cadastros:");
+        for (CacheEntidades<?> cache : CACHES) {
+            sb.append("\n  ").append(cache.getEstatisticas());
+        }
+        return sb.toString();
+    }
+
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    public long getFaltas() {
+        return faltas.get();
+    }
+
+    /**
+     * Retorna a fração das leituras atendidas sem acessar o banco, entre 0 e 1.
+     */
+    public double getTaxaAcerto() {
+        long total = acertos.get() + faltas.get();
+        return total == 0 ? 0.0 : (double) acertos.get() / total;
+    }
+
+    /**
+     * Retorna um resumo das estatísticas deste cache.
+     */
+    public String getEstatisticas() {
+        Instantaneo<T> instantaneo = atual;
+        return String.format("%s: %d acertos, %d faltas (%.1f%%), %d invalidações, %d entidades em cache",
+                nome, acertos.get(), faltas.get(), getTaxaAcerto() * 100, invalidacoes.get(),
+                instantaneo != null ? instantaneo.todos.size() : 0);
+    }
+
+    private Instantaneo<T> obter(Carregador<T> carregador) throws SQLException {
+        Instantaneo<T> instantaneo = atual;
+        if (instantaneo != null) {
+            acertos.incrementAndGet();
+            return instantaneo;
+        }
+
+        faltas.incrementAndGet();
+        long versaoInicial = versao.get();
+        List<T> todos = carregador.carregar();
+        MapaInt<T> porId = new MapaInt<>(todos.size());
+        for (T entidade : todos) {
+            porId.put(chave.applyAsInt(entidade), entidade);
+        }
+        instantaneo = new Instantaneo<>(Collections.unmodifiableList(new ArrayList<>(todos)), porId);
+
+        // Só publica se nenhuma escrita invalidou o cache durante a carga
+        synchronized (this) {
+            if (versao.get() == versaoInicial) {
+                atual = instantaneo;
+            }
+        }
+        return instantaneo;
+    }
+
+    /**
+     * Carrega todas as entidades da tabela.
+     */
+    @FunctionalInterface
+    public interface Carregador<T> {
+        List<T> carregar() throws SQLException;
+    }
+
+    private static final class Instantaneo<T> {
+        private final List<T> todos;
+        private final MapaInt<T> porId;
+
+        Instantaneo(List<T> todos, MapaInt<T> porId) {
+            this.todos = todos;
+            this.porId = porId;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.gastos.db.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU de PreparedStatements de uma conexão física, indexado pelo texto SQL.
+ *
+ * O pool cria um cache por conexão física e o expõe pela conexão emprestada
+ * (via {@code unwrap(CacheStatements.class)}). Um statement é retirado do cache
+ * enquanto está em uso e volta a ele na devolução; assim uma consulta aninhada com
+ * o mesmo SQL na mesma thread prepara um statement próprio em vez de reiniciar o
+ * que ainda está sendo lido. Os métodos são sincronizados porque o fechamento do
+ * pool pode ocorrer em outra thread; no uso normal só a thread que segura a
+ * conexão acessa o cache, de modo que não há disputa.
+ */
+public class CacheStatements {
+
+    public static final int CAPACIDADE_PADRAO = 64;
+
+    private final Connection conexao;
+    private final int capacidade;
+    private final AtomicLong acertos;
+    private final AtomicLong faltas;
+    private final LinkedHashMap<Chave, StatementCacheado> livres;
+    private boolean fechado = false;
+
+    /**
+     * Cria o cache de uma conexão física.
+     *
+     * @param conexao a conexão física (não emprestada)
+     * @param capacidade número máximo de statements mantidos abertos
+     * @param acertos contador de statements reutilizados
+     * @param faltas contador de statements preparados
+     */
+    public CacheStatements(Connection conexao, int capacidade, AtomicLong acertos, AtomicLong faltas) {
+        this.conexao = conexao;
+        this.capacidade = Math.max(1, capacidade);
+        this.acertos = acertos;
+        this.faltas = faltas;
+        this.livres = new LinkedHashMap<Chave, StatementCacheado>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chave, StatementCacheado> maisAntigo) {
+                if (size() > CacheStatements.this.capacidade) {
+                    maisAntigo.getValue().fechar();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtém o cache de statements de uma conexão emprestada do pool.
+     *
+     * @param conn a conexão emprestada
+     * @return o cache, ou null se a conexão não vier do pool
+     * @throws SQLException em caso de erro ao consultar a conexão
+     */
+    public static CacheStatements de(Connection conn) throws SQLException {
+        return conn.isWrapperFor(CacheStatements.class) ? conn.unwrap(CacheStatements.class) : null;
+    }
+
+    /**
+     * Retira um statement do cache ou prepara um novo se não houver um livre.
+     * O statement deve voltar ao cache com {@link #devolver(StatementCacheado)}.
+     *
+     * @param sql o texto SQL
+     * @param retornarChaves se o statement deve retornar as chaves geradas
+     * @return o statement pronto para receber parâmetros
+     * @throws SQLException em caso de erro ao preparar o statement
+     */
+    public synchronized StatementCacheado emprestar(String sql, boolean retornarChaves) throws SQLException {
+        if (fechado) {
+            throw new SQLException("O cache de statements já foi fechado.");
+        }
+
+        Chave chave = new Chave(sql, retornarChaves);
+        StatementCacheado cacheado = livres.remove(chave);
+        if (cacheado != null) {
+            acertos.incrementAndGet();
+            return cacheado;
+        }
+
+        faltas.incrementAndGet();
+        PreparedStatement stmt = retornarChaves
+                ? conexao.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conexao.prepareStatement(sql);
+        return new StatementCacheado(chave, stmt);
+    }
+
+    /**
+     * Devolve um statement ao cache. O ResultSet aberto pelo statement já deve ter
+     * sido fechado, o que reinicia o statement no SQLite.
+     */
+    public synchronized void devolver(StatementCacheado cacheado) {
+        if (fechado || cacheado.isFechado() || !cacheado.limpar()) {
+            cacheado.fechar();
+            return;
+        }
+        // Uma consulta aninhada pode ter devolvido outro statement com o mesmo SQL
+        StatementCacheado anterior = livres.put(cacheado.chave, cacheado);
+        if (anterior != null && anterior != cacheado) {
+            anterior.fechar();
+        }
+    }
+
+    /**
+     * Retorna o número de statements livres no cache.
+     */
+    public synchronized int getTamanho() {
+        return livres.size();
+    }
+
+    /**
+     * Fecha todos os statements em cache. Chamado antes de fechar a conexão física.
+     */
+    public synchronized void fechar() {
+        fechado = true;
+        List<StatementCacheado> abertos = new ArrayList<>(livres.values());
+        livres.clear();
+        for (StatementCacheado cacheado : abertos) {
+            cacheado.fechar();
+        }
+    }
+
+    /**
+     * Statement mantido pelo cache, com o vinculador de parâmetros do último formato usado.
+     */
+    public static final class StatementCacheado {
+        private final Chave chave;
+        private final PreparedStatement stmt;
+        private VinculadorParametros vinculador;
+
+        private StatementCacheado(Chave chave, PreparedStatement stmt) {
+            this.chave = chave;
+            this.stmt = stmt;
+        }
+
+        public PreparedStatement getStatement() {
+            return stmt;
+        }
+
+        /**
+         * Define os parâmetros, reaproveitando o vinculador se o formato não mudou.
+         */
+        public void vincular(Object[] params) throws SQLException {
+            if (vinculador == null || !vinculador.aceita(params)) {
+                vinculador = VinculadorParametros.para(params);
+            }
+            vinculador.vincular(stmt, params);
+        }
+
+        private boolean isFechado() {
+            try {
+                return stmt.isClosed();
+            } catch (SQLException e) {
+                return true;
+            }
+        }
+
+        private boolean limpar() {
+            try {
+                stmt.clearParameters();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void fechar() {
+            try {
+                stmt.close();
+            } catch (SQLException e) {
+                System.err.println("Erro ao fechar statement em cache: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Chave {
+        private final String sql;
+        private final boolean retornarChaves;
+
+        Chave(String sql, boolean retornarChaves) {
+            this.sql = sql;
+            this.retornarChaves = retornarChaves;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Chave)) return false;
+            Chave outra = (Chave) o;
+            return retornarChaves == outra.retornarChaves && sql.equals(outra.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, retornarChaves);
+        }
+    }
+}
@@ -2,8 +2,9 @@ package com.gastos.db.util;
 
 import com.gastos.db.ConexaoBanco;
 import java.sql.*;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -11,9 +12,13 @@ import java.util.function.Consumer;
 /**
  * Classe utilitária para operações comuns de banco de dados.
  * Reduz a duplicação de código em classes DAO.
+ * Consultas usam conexões de leitura do pool; atualizações usam a conexão de escrita.
  */
 public class DAOTemplate {
 
+    // Quantidade máxima de parâmetros por cláusula IN
+    private static final int TAMANHO_LOTE_IN = 500;
+
     /**
      * Executa uma operação de atualização (INSERT, UPDATE, DELETE).
      * 
@@ -23,13 +28,9 @@ public class DAOTemplate {
      * @throws SQLException em caso de erro no banco de dados
      */
     public int executarUpdate(String sql, Object... params) throws SQLException {
-        try (Connection conn = ConexaoBanco.getConexao();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            definirParametros(stmt, params);
-            
-            // Garantir commit se a conexão estiver em modo manual
-            if (!conn.getAutoCommit()) conn.setAutoCommit(true);
-            return stmt.executeUpdate();
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            // Dentro de uma transação da thread, a alteração entra nela
+            return comStatement(conn, sql, false, params, PreparedStatement::executeUpdate);
         }
     }
 
@@ -42,21 +43,19 @@ public class DAOTemplate {
      * @throws SQLException em caso de erro no banco de dados
      */
     public Optional<Integer> inserirEObterChave(String sql, Object... params) throws SQLException {
-        try (Connection conn = ConexaoBanco.getConexao();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            definirParametros(stmt, params);
-            
-            // Garantir commit
-            if (!conn.getAutoCommit()) conn.setAutoCommit(true);
-            stmt.executeUpdate();
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return Optional.of(generatedKeys.getInt(1));
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            // Dentro de uma transação da thread, a inserção entra nela
+            return comStatement(conn, sql, true, params, stmt -> {
+                stmt.executeUpdate();
+                
+                try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return Optional.of(generatedKeys.getInt(1));
+                    }
                 }
-            }
+                return Optional.<Integer>empty();
+            });
         }
-        return Optional.empty();
     }
 
     /**
@@ -71,14 +70,74 @@ public class DAOTemplate {
      */
     public <T> List<T> listar(String sql, RowMapper<T> rowMapper, Object... params) throws SQLException {
         List<T> resultados = new ArrayList<>();
-        try (Connection conn = ConexaoBanco.getConexao();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            definirParametros(stmt, params);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    resultados.add(rowMapper.mapRow(rs));
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
+            comStatement(conn, sql, false, params, stmt -> mapearTodos(stmt, rowMapper, resultados));
+        }
+        return resultados;
+    }
+
+    /**
+     * Executa uma query e entrega cada linha ao handler, na ordem do ResultSet,
+     * sem montar uma lista. O ResultSet é somente de avanço; o handler não deve
+     * guardar referências a ele. A conexão de leitura fica ocupada até o fim.
+     * 
+     * @param sql Query SQL a ser executada
+     * @param handler Função chamada para cada linha
+     * @param params Parâmetros para a query
+     * @return Número de linhas processadas
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public long percorrer(String sql, RowCallbackHandler handler, Object... params) throws SQLException {
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
+            return comStatement(conn, sql, false, params, stmt -> {
+                long linhas = 0;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.processRow(rs);
+                        linhas++;
+                    }
                 }
+                return linhas;
+            });
+        }
+    }
+
+    /**
+     * Executa uma query com cláusula IN sobre uma coleção de IDs.
+     * A query deve conter um "%s" no lugar da lista de parâmetros, por exemplo
+     * "SELECT * FROM categorias WHERE id IN (%s)". Coleções grandes são divididas
+     * em lotes para respeitar o limite de parâmetros do SQLite.
+     * 
+     * @param <T> Tipo do objeto retornado
+     * @param sqlComIn Query SQL com "%s" no lugar dos parâmetros do IN
+     * @param rowMapper Função para mapear ResultSet para objeto
+     * @param ids IDs a serem buscados
+     * @return Lista de objetos do tipo T
+     * @throws SQLException em caso de erro no banco de dados
+     */
+    public <T> List<T> listarPorIds(String sqlComIn, RowMapper<T> rowMapper, Collection<Integer> ids) throws SQLException {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<T> resultados = new ArrayList<>();
+        List<Integer> todos = new ArrayList<>(ids);
+        
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
+            for (int inicio = 0; inicio < todos.size(); inicio += TAMANHO_LOTE_IN) {
+                List<Integer> lote = todos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_IN, todos.size()));
+                
+                // Lotes são arredondados para poucos tamanhos fixos (repetindo o último ID,
+                // o que não altera o resultado do IN), para que o cache de statements
+                // reutilize as mesmas consultas em vez de guardar uma por tamanho de lote.
+                int tamanho = tamanhoLote(lote.size());
+                Object[] params = new Object[tamanho];
+                for (int i = 0; i < tamanho; i++) {
+                    params[i] = lote.get(Math.min(i, lote.size() - 1));
+                }
+                String sql = String.format(sqlComIn, String.join(", ", Collections.nCopies(tamanho, "?")));
+                
+                comStatement(conn, sql, false, params, stmt -> mapearTodos(stmt, rowMapper, resultados));
             }
         }
         return resultados;
@@ -95,83 +154,138 @@ public class DAOTemplate {
      * @throws SQLException em caso de erro no banco de dados
      */
     public <T> Optional<T> buscar(String sql, RowMapper<T> rowMapper, Object... params) throws SQLException {
-        try (Connection conn = ConexaoBanco.getConexao();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            definirParametros(stmt, params);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(rowMapper.mapRow(rs));
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
+            return comStatement(conn, sql, false, params, stmt -> {
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(rowMapper.mapRow(rs));
+                    }
                 }
-            }
+                return Optional.<T>empty();
+            });
         }
-        return Optional.empty();
     }
 
     /**
      * Executa operações dentro de uma transação.
      * 
+     * A conexão de escrita é reentrante na mesma thread, então um DAO chamado dentro
+     * da transação de outro recebe a mesma conexão física, já com o autocommit
+     * desligado. Nesse caso a ação roda em um SAVEPOINT da transação em andamento:
+     * um erro desfaz só o que ela fez, e a confirmação fica com a transação externa.
+     * 
      * @param acao Função que contém as operações a serem executadas na transação
      * @throws SQLException em caso de erro no banco de dados
      */
     public void executarEmTransacao(Consumer<Connection> acao) throws SQLException {
-        Connection conn = null;
-        boolean autoCommitOriginal = true;
-        
-        try {
-            conn = ConexaoBanco.getConexao();
-            autoCommitOriginal = conn.getAutoCommit();
-            conn.setAutoCommit(false); // Inicia transação
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            if (conn.getAutoCommit()) {
+                executarTransacao(conn, acao);
+            } else {
+                executarEmSavepoint(conn, acao);
+            }
+        }
+    }
 
+    private void executarTransacao(Connection conn, Consumer<Connection> acao) throws SQLException {
+        conn.setAutoCommit(false); // Inicia transação
+        try {
             acao.accept(conn); // Executa as operações
-
             conn.commit(); // Confirma a transação
-        } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Reverte em caso de erro
-                } catch (SQLException ex) {
-                    System.err.println("Erro ao reverter transação: " + ex.getMessage());
-                }
+        } catch (SQLException | RuntimeException e) {
+            // A ação costuma embrulhar SQLException em RuntimeException; em ambos os
+            // casos a transação precisa ser revertida antes de restaurar o autocommit,
+            // que do contrário confirmaria as alterações parciais.
+            try {
+                conn.rollback(); // Reverte em caso de erro
+            } catch (SQLException ex) {
+                System.err.println("Erro ao reverter transação: " + ex.getMessage());
             }
-            throw e; // Propaga a exceção original
+            throw desembrulhar(e);
         } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(autoCommitOriginal); // Restaura autoCommit
-                } catch (SQLException e) {
-                    System.err.println("Erro ao restaurar autocommit: " + e.getMessage());
-                }
+            try {
+                conn.setAutoCommit(true); // Restaura autoCommit
+            } catch (SQLException e) {
+                System.err.println("Erro ao restaurar autocommit: " + e.getMessage());
+            }
+        }
+    }
+
+    private void executarEmSavepoint(Connection conn, Consumer<Connection> acao) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            acao.accept(conn);
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                conn.rollback(savepoint); // Desfaz só a parte aninhada
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException ex) {
+                System.err.println("Erro ao reverter até o savepoint: " + ex.getMessage());
             }
+            throw desembrulhar(e);
+        }
+    }
+
+    private static SQLException desembrulhar(Exception e) {
+        if (e instanceof SQLException) {
+            return (SQLException) e;
         }
+        if (e.getCause() instanceof SQLException) {
+            return (SQLException) e.getCause();
+        }
+        throw (RuntimeException) e; // Propaga a exceção original
     }
 
     /**
-     * Define os parâmetros em um PreparedStatement.
-     * 
-     * @param stmt O PreparedStatement
-     * @param params Os valores dos parâmetros
-     * @throws SQLException em caso de erro ao definir parâmetros
+     * Executa uma operação com um PreparedStatement do cache da conexão.
+     * O statement volta ao cache ao final; se a conexão não vier do pool,
+     * é preparado e fechado normalmente.
      */
-    private void definirParametros(PreparedStatement stmt, Object... params) throws SQLException {
-        for (int i = 0; i < params.length; i++) {
-            Object param = params[i];
-            
-            if (param == null) {
-                stmt.setNull(i + 1, Types.VARCHAR);
-            } else if (param instanceof String) {
-                stmt.setString(i + 1, (String) param);
-            } else if (param instanceof Integer) {
-                stmt.setInt(i + 1, (Integer) param);
-            } else if (param instanceof Double) {
-                stmt.setDouble(i + 1, (Double) param);
-            } else if (param instanceof Boolean) {
-                stmt.setBoolean(i + 1, (Boolean) param);
-            } else if (param instanceof LocalDate) {
-                stmt.setString(i + 1, ((LocalDate) param).toString());
-            } else {
-                stmt.setObject(i + 1, param);
+    private <R> R comStatement(Connection conn, String sql, boolean retornarChaves, Object[] params,
+                               OperacaoStatement<R> operacao) throws SQLException {
+        CacheStatements cache = CacheStatements.de(conn);
+        if (cache == null) {
+            try (PreparedStatement stmt = retornarChaves
+                    ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : conn.prepareStatement(sql)) {
+                VinculadorParametros.para(params).vincular(stmt, params);
+                return operacao.executar(stmt);
+            }
+        }
+
+        CacheStatements.StatementCacheado cacheado = cache.emprestar(sql, retornarChaves);
+        try {
+            cacheado.vincular(params);
+            return operacao.executar(cacheado.getStatement());
+        } finally {
+            cache.devolver(cacheado);
+        }
+    }
+
+    private <T> Void mapearTodos(PreparedStatement stmt, RowMapper<T> rowMapper, List<T> resultados) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                resultados.add(rowMapper.mapRow(rs));
             }
         }
+        return null;
+    }
+
+    /**
+     * Arredonda o tamanho de um lote do IN para a próxima potência de dois,
+     * limitada a {@link #TAMANHO_LOTE_IN}.
+     */
+    private static int tamanhoLote(int quantidade) {
+        int tamanho = Integer.highestOneBit(quantidade);
+        if (tamanho < quantidade) {
+            tamanho <<= 1;
+        }
+        return Math.min(tamanho, TAMANHO_LOTE_IN);
+    }
+
+    @FunctionalInterface
+    private interface OperacaoStatement<R> {
+        R executar(PreparedStatement stmt) throws SQLException;
     }
 }
\ No newline at end of file
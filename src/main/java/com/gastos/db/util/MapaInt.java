@@ -0,0 +1,93 @@
+package com.gastos.db.util;
+
+/**
+ * Mapa de chaves int positivas para valores, com endereçamento aberto em vetores
+ * primitivos. Evita o Integer de cada chave e as entradas de um HashMap; é usado
+ * pelos instantâneos do {@link CacheEntidades}, que são montados uma vez e depois
+ * apenas lidos. Não suporta remoção.
+ *
+ * @param <V> o tipo dos valores
+ */
+public final class MapaInt<V> {
+
+    // A chave 0 marca posição livre; os IDs do SQLite começam em 1
+    private int[] chaves;
+    private Object[] valores;
+    private int tamanho;
+
+    /**
+     * Cria um mapa com espaço para a quantidade esperada de entradas.
+     */
+    public MapaInt(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(4, capacidadeEsperada * 2 - 1)) << 1;
+        this.chaves = new int[capacidade];
+        this.valores = new Object[capacidade];
+    }
+
+    /**
+     * Associa o valor à chave, substituindo o anterior.
+     *
+     * @param chave a chave (maior que zero)
+     * @param valor o valor
+     */
+    public void put(int chave, V valor) {
+        if (chave <= 0) {
+            throw new IllegalArgumentException("Chave deve ser maior que zero: " + chave);
+        }
+        if ((tamanho + 1) * 2 > chaves.length) {
+            crescer();
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (chaves[i] != 0 && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        if (chaves[i] == 0) {
+            chaves[i] = chave;
+            tamanho++;
+        }
+        valores[i] = valor;
+    }
+
+    /**
+     * Retorna o valor associado à chave, ou null se não houver.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int chave) {
+        if (chave <= 0) {
+            return null;
+        }
+        int mascara = chaves.length - 1;
+        int i = espalhar(chave) & mascara;
+        while (chaves[i] != 0) {
+            if (chaves[i] == chave) {
+                return (V) valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void crescer() {
+        int[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        chaves = new int[chavesAntigas.length * 2];
+        valores = new Object[valoresAntigos.length * 2];
+        tamanho = 0;
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                put(chavesAntigas[i], (V) valoresAntigos[i]);
+            }
+        }
+    }
+
+    private static int espalhar(int chave) {
+        int h = chave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,19 @@
+package com.gastos.db.util;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Interface funcional para processar as linhas de um ResultSet uma a uma, sem
+ * acumulá-las em uma lista.
+ */
+@FunctionalInterface
+public interface RowCallbackHandler {
+    /**
+     * Processa a linha atual do ResultSet.
+     * 
+     * @param rs O ResultSet posicionado na linha a ser processada
+     * @throws SQLException em caso de erro no acesso ao ResultSet
+     */
+    void processRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,108 @@
+package com.gastos.db.util;
+
+import com.gastos.model.Dinheiro;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Define os parâmetros de um PreparedStatement com setters escolhidos uma única vez
+ * a partir dos tipos dos parâmetros. Um statement em cache guarda o vinculador da
+ * última execução e só monta outro quando o formato (quantidade e tipos) muda,
+ * evitando a cadeia de instanceof a cada parâmetro de cada chamada.
+ * Valores {@link Dinheiro} são gravados como INTEGER em centavos.
+ */
+public final class VinculadorParametros {
+
+    private static final Object[] SEM_PARAMETROS = new Object[0];
+
+    private final Class<?>[] tipos;
+    private final Setter[] setters;
+
+    private VinculadorParametros(Class<?>[] tipos, Setter[] setters) {
+        this.tipos = tipos;
+        this.setters = setters;
+    }
+
+    /**
+     * Monta um vinculador para o formato dos parâmetros informados.
+     *
+     * @param params os valores dos parâmetros (null é aceito e tratado como "sem parâmetros")
+     * @return o vinculador correspondente aos tipos dos parâmetros
+     */
+    public static VinculadorParametros para(Object[] params) {
+        Object[] valores = params != null ? params : SEM_PARAMETROS;
+        Class<?>[] tipos = new Class<?>[valores.length];
+        Setter[] setters = new Setter[valores.length];
+
+        for (int i = 0; i < valores.length; i++) {
+            tipos[i] = valores[i] != null ? valores[i].getClass() : null;
+            setters[i] = setterPara(tipos[i]);
+        }
+        return new VinculadorParametros(tipos, setters);
+    }
+
+    /**
+     * Verifica se os parâmetros têm o mesmo formato usado para montar este vinculador.
+     */
+    public boolean aceita(Object[] params) {
+        Object[] valores = params != null ? params : SEM_PARAMETROS;
+        if (valores.length != tipos.length) {
+            return false;
+        }
+        for (int i = 0; i < valores.length; i++) {
+            Class<?> tipo = valores[i] != null ? valores[i].getClass() : null;
+            if (tipo != tipos[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Define os parâmetros no statement. Os parâmetros devem ter o formato aceito.
+     *
+     * @param stmt o PreparedStatement
+     * @param params os valores dos parâmetros
+     * @throws SQLException em caso de erro ao definir parâmetros
+     */
+    public void vincular(PreparedStatement stmt, Object[] params) throws SQLException {
+        for (int i = 0; i < setters.length; i++) {
+            setters[i].definir(stmt, i + 1, params[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VinculadorParametros" + Arrays.toString(tipos);
+    }
+
+    private static Setter setterPara(Class<?> tipo) {
+        if (tipo == null) {
+            return (stmt, i, valor) -> stmt.setNull(i, Types.VARCHAR);
+        } else if (tipo == String.class) {
+            return (stmt, i, valor) -> stmt.setString(i, (String) valor);
+        } else if (tipo == Integer.class) {
+            return (stmt, i, valor) -> stmt.setInt(i, (Integer) valor);
+        } else if (tipo == Long.class) {
+            return (stmt, i, valor) -> stmt.setLong(i, (Long) valor);
+        } else if (tipo == Double.class) {
+            return (stmt, i, valor) -> stmt.setDouble(i, (Double) valor);
+        } else if (tipo == Boolean.class) {
+            return (stmt, i, valor) -> stmt.setBoolean(i, (Boolean) valor);
+        } else if (tipo == Dinheiro.class) {
+            return (stmt, i, valor) -> stmt.setLong(i, ((Dinheiro) valor).getCentavos());
+        } else if (tipo == LocalDate.class) {
+            return (stmt, i, valor) -> stmt.setString(i, valor.toString());
+        }
+        return (stmt, i, valor) -> stmt.setObject(i, valor);
+    }
+
+    @FunctionalInterface
+    private interface Setter {
+        void definir(PreparedStatement stmt, int indice, Object valor) throws SQLException;
+    }
+}
@@ -0,0 +1,54 @@
+package com.gastos.exportacao;
+
+/**
+ * Classe que descreve uma coluna exportada: o nome (igual ao rótulo da coluna na
+ * consulta) e o tipo, que define como o valor é lido e gravado.
+ */
+public final class ColunaExportacao {
+
+    /**
+     * Tipos de coluna. Todos, exceto TEXTO, são entregues aos escritores como long:
+     * DINHEIRO em centavos, DATA em dias desde 1970-01-01 e BOOLEANO como 0 ou 1.
+     */
+    public enum Tipo {
+        INTEIRO, DINHEIRO, DATA, BOOLEANO, TEXTO
+    }
+
+    private final String nome;
+    private final Tipo tipo;
+
+    public ColunaExportacao(String nome, Tipo tipo) {
+        this.nome = nome;
+        this.tipo = tipo;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Acrescenta um valor em centavos no formato decimal com ponto, por exemplo
+     * "-1234.05", sem criar objetos intermediários.
+     */
+    static void anexarCentavos(StringBuilder destino, long centavos) {
+        if (centavos < 0) {
+            destino.append('-');
+            centavos = -centavos;
+        }
+        long restos = centavos % 100;
+        destino.append(centavos / 100).append('.');
+        if (restos < 10) {
+            destino.append('0');
+        }
+        destino.append(restos);
+    }
+
+    @Override
+    public String toString() {
+        return nome + " (" + tipo + ")";
+    }
+}
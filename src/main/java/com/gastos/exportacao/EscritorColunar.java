@@ -0,0 +1,300 @@
+package com.gastos.exportacao;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escreve um formato binário colunar compacto, inspirado no Parquet: as linhas são
+ * agrupadas em grupos de até {@link #LINHAS_POR_GRUPO} e, dentro de cada grupo, os
+ * valores de uma coluna ficam contíguos. Só um grupo é mantido em memória.
+ *
+ * Estrutura (inteiros "var" são varints LEB128; "zz" indica codificação zigzag):
+ * <pre>
+ * arquivo   = "GFC1" versao:byte colunas:var { nome:texto tipo:byte } grupo* rodape
+ * grupo     = linhas:var { coluna }
+ * coluna    = temNulos:byte [bitmap de nulos] valores    (bit 1 = nulo)
+ * valores   = INTEIRO, DINHEIRO, DATA: diferença para o valor anterior, zz var
+ *             BOOLEANO: bitmap dos valores não nulos
+ *             TEXTO: 0 { texto } | 1 tamanho:var { texto } { indice:var }  (dicionário)
+ * texto     = bytes:var UTF-8
+ * rodape    = grupos:var { posicao:var linhas:var } total:var tamanhoRodape:int32 "GFC1"
+ * </pre>
+ * A posição de cada grupo é contada a partir do início do arquivo; o rodapé pode ser
+ * lido a partir do fim, como no Parquet. Os tipos seguem a ordem de
+ * {@link ColunaExportacao.Tipo}.
+ */
+public class EscritorColunar implements EscritorExportacao {
+
+    public static final byte[] ASSINATURA = { 'G', 'F', 'C', '1' };
+    public static final byte VERSAO = 1;
+    public static final int LINHAS_POR_GRUPO = 8192;
+
+    private static final byte TEXTO_SIMPLES = 0;
+    private static final byte TEXTO_DICIONARIO = 1;
+
+    private final SaidaContada saida;
+    private final byte[] varint = new byte[10];
+    private List<ColunaExportacao> colunas;
+    private long[][] numeros;
+    private String[][] textos;
+    private boolean[][] nulos;
+    private int linhas = 0;
+    private int coluna = 0;
+    private long totalLinhas = 0;
+
+    // Rodapé: posição e número de linhas de cada grupo
+    private long[] posicoesGrupos = new long[16];
+    private int[] linhasGrupos = new int[16];
+    private int grupos = 0;
+
+    public EscritorColunar(OutputStream saida) {
+        this.saida = new SaidaContada(new BufferedOutputStream(saida, 1 << 16));
+    }
+
+    @Override
+    public void iniciar(List<ColunaExportacao> colunas) throws IOException {
+        this.colunas = colunas;
+        int n = colunas.size();
+        numeros = new long[n][];
+        textos = new String[n][];
+        nulos = new boolean[n][LINHAS_POR_GRUPO];
+        for (int i = 0; i < n; i++) {
+            if (colunas.get(i).getTipo() == ColunaExportacao.Tipo.TEXTO) {
+                textos[i] = new String[LINHAS_POR_GRUPO];
+            } else {
+                numeros[i] = new long[LINHAS_POR_GRUPO];
+            }
+        }
+
+        saida.write(ASSINATURA);
+        saida.write(VERSAO);
+        escreverVar(n);
+        for (ColunaExportacao c : colunas) {
+            escreverTextoBruto(c.getNome());
+            saida.write(c.getTipo().ordinal());
+        }
+    }
+
+    @Override
+    public void escreverNulo() {
+        nulos[coluna][linhas] = true;
+        coluna++;
+    }
+
+    @Override
+    public void escreverNumero(long valor) {
+        nulos[coluna][linhas] = false;
+        numeros[coluna][linhas] = valor;
+        coluna++;
+    }
+
+    @Override
+    public void escreverTexto(String valor) {
+        nulos[coluna][linhas] = false;
+        textos[coluna][linhas] = valor;
+        coluna++;
+    }
+
+    @Override
+    public void fimLinha() throws IOException {
+        coluna = 0;
+        linhas++;
+        totalLinhas++;
+        if (linhas == LINHAS_POR_GRUPO) {
+            gravarGrupo();
+        }
+    }
+
+    @Override
+    public void concluir() throws IOException {
+        if (linhas > 0) {
+            gravarGrupo();
+        }
+
+        long inicioRodape = saida.getPosicao();
+        escreverVar(grupos);
+        for (int g = 0; g < grupos; g++) {
+            escreverVar(posicoesGrupos[g]);
+            escreverVar(linhasGrupos[g]);
+        }
+        escreverVar(totalLinhas);
+        int tamanhoRodape = (int) (saida.getPosicao() - inicioRodape);
+        saida.write(tamanhoRodape >>> 24);
+        saida.write(tamanhoRodape >>> 16);
+        saida.write(tamanhoRodape >>> 8);
+        saida.write(tamanhoRodape);
+        saida.write(ASSINATURA);
+        saida.flush();
+    }
+
+    private void gravarGrupo() throws IOException {
+        if (grupos == posicoesGrupos.length) {
+            posicoesGrupos = Arrays.copyOf(posicoesGrupos, grupos * 2);
+            linhasGrupos = Arrays.copyOf(linhasGrupos, grupos * 2);
+        }
+        posicoesGrupos[grupos] = saida.getPosicao();
+        linhasGrupos[grupos] = linhas;
+        grupos++;
+
+        escreverVar(linhas);
+        for (int c = 0; c < colunas.size(); c++) {
+            boolean[] nulosColuna = nulos[c];
+            boolean temNulos = false;
+            for (int i = 0; i < linhas && !temNulos; i++) {
+                temNulos = nulosColuna[i];
+            }
+            saida.write(temNulos ? 1 : 0);
+            if (temNulos) {
+                escreverBitmapNulos(nulosColuna);
+            }
+
+            switch (colunas.get(c).getTipo()) {
+                case TEXTO: gravarTextos(textos[c], nulosColuna); break;
+                case BOOLEANO: escreverBitmapBooleanos(numeros[c], nulosColuna); break;
+                default: gravarNumeros(numeros[c], nulosColuna); break;
+            }
+        }
+        linhas = 0;
+    }
+
+    private void gravarNumeros(long[] valores, boolean[] nulosColuna) throws IOException {
+        long anterior = 0;
+        for (int i = 0; i < linhas; i++) {
+            if (!nulosColuna[i]) {
+                long delta = valores[i] - anterior;
+                escreverVar((delta << 1) ^ (delta >> 63));
+                anterior = valores[i];
+            }
+        }
+    }
+
+    private void gravarTextos(String[] valores, boolean[] nulosColuna) throws IOException {
+        // Usa dicionário quando os valores se repetem (categorias, responsáveis, cartões)
+        Map<String, Integer> dicionario = new HashMap<>();
+        int naoNulos = 0;
+        for (int i = 0; i < linhas; i++) {
+            if (!nulosColuna[i]) {
+                naoNulos++;
+                dicionario.putIfAbsent(valores[i], dicionario.size());
+            }
+        }
+
+        if (dicionario.size() * 2 > naoNulos) {
+            saida.write(TEXTO_SIMPLES);
+            for (int i = 0; i < linhas; i++) {
+                if (!nulosColuna[i]) {
+                    escreverTextoBruto(valores[i]);
+                }
+            }
+        } else {
+            saida.write(TEXTO_DICIONARIO);
+            String[] entradas = new String[dicionario.size()];
+            dicionario.forEach((texto, indice) -> entradas[indice] = texto);
+            escreverVar(entradas.length);
+            for (String entrada : entradas) {
+                escreverTextoBruto(entrada);
+            }
+            for (int i = 0; i < linhas; i++) {
+                if (!nulosColuna[i]) {
+                    escreverVar(dicionario.get(valores[i]));
+                }
+            }
+        }
+        Arrays.fill(valores, 0, linhas, null);
+    }
+
+    /**
+     * Grava o bitmap de nulos da coluna, um bit por linha do grupo.
+     */
+    private void escreverBitmapNulos(boolean[] nulosColuna) throws IOException {
+        int atual = 0;
+        int bits = 0;
+        for (int i = 0; i < linhas; i++) {
+            if (nulosColuna[i]) {
+                atual |= 1 << bits;
+            }
+            if (++bits == 8) {
+                saida.write(atual);
+                atual = 0;
+                bits = 0;
+            }
+        }
+        if (bits > 0) {
+            saida.write(atual);
+        }
+    }
+
+    /**
+     * Grava os valores booleanos das linhas não nulas, um bit por valor.
+     */
+    private void escreverBitmapBooleanos(long[] valores, boolean[] nulosColuna) throws IOException {
+        int atual = 0;
+        int bits = 0;
+        for (int i = 0; i < linhas; i++) {
+            if (nulosColuna[i]) {
+                continue;
+            }
+            if (valores[i] != 0) {
+                atual |= 1 << bits;
+            }
+            if (++bits == 8) {
+                saida.write(atual);
+                atual = 0;
+                bits = 0;
+            }
+        }
+        if (bits > 0) {
+            saida.write(atual);
+        }
+    }
+
+    private void escreverTextoBruto(String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreverVar(bytes.length);
+        saida.write(bytes);
+    }
+
+    private void escreverVar(long valor) throws IOException {
+        int n = 0;
+        while ((valor & ~0x7FL) != 0) {
+            varint[n++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        varint[n++] = (byte) valor;
+        saida.write(varint, 0, n);
+    }
+
+    /**
+     * Saída que conta os bytes gravados, para as posições do rodapé.
+     */
+    private static final class SaidaContada extends FilterOutputStream {
+        private long posicao = 0;
+
+        SaidaContada(OutputStream saida) {
+            super(saida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicao++;
+        }
+
+        @Override
+        public void write(byte[] b, int inicio, int tamanho) throws IOException {
+            out.write(b, inicio, tamanho);
+            posicao += tamanho;
+        }
+
+        long getPosicao() {
+            return posicao;
+        }
+    }
+}
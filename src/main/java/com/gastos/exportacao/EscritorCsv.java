@@ -0,0 +1,94 @@
+package com.gastos.exportacao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Escreve CSV separado por ponto e vírgula, com cabeçalho. Valores monetários usam
+ * ponto decimal, datas o formato ISO e booleanos 1 ou 0, de modo que o arquivo pode
+ * ser lido de volta pelo importador de extratos.
+ */
+public class EscritorCsv implements EscritorExportacao {
+
+    private static final char SEPARADOR = ';';
+
+    private final BufferedWriter saida;
+    private final StringBuilder linha = new StringBuilder(256);
+    private List<ColunaExportacao> colunas;
+    private int coluna = 0;
+
+    public EscritorCsv(Writer saida) {
+        this.saida = saida instanceof BufferedWriter ? (BufferedWriter) saida : new BufferedWriter(saida, 1 << 16);
+    }
+
+    @Override
+    public void iniciar(List<ColunaExportacao> colunas) throws IOException {
+        this.colunas = colunas;
+        for (ColunaExportacao c : colunas) {
+            escreverTexto(c.getNome());
+        }
+        fimLinha();
+    }
+
+    @Override
+    public void escreverNulo() {
+        separar();
+    }
+
+    @Override
+    public void escreverNumero(long valor) {
+        separar();
+        switch (colunas.get(coluna - 1).getTipo()) {
+            case DINHEIRO: ColunaExportacao.anexarCentavos(linha, valor); break;
+            case DATA: linha.append(LocalDate.ofEpochDay(valor)); break;
+            case BOOLEANO: linha.append(valor != 0 ? '1' : '0'); break;
+            default: linha.append(valor); break;
+        }
+    }
+
+    @Override
+    public void escreverTexto(String valor) {
+        separar();
+        boolean aspas = false;
+        for (int i = 0; i < valor.length() && !aspas; i++) {
+            char c = valor.charAt(i);
+            aspas = c == SEPARADOR || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!aspas) {
+            linha.append(valor);
+            return;
+        }
+        linha.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linha.append('"');
+            }
+            // Quebras de linha viram espaço: o leitor de CSV trabalha linha a linha
+            linha.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        linha.append('"');
+    }
+
+    @Override
+    public void fimLinha() throws IOException {
+        linha.append('\n');
+        saida.append(linha);
+        linha.setLength(0);
+        coluna = 0;
+    }
+
+    @Override
+    public void concluir() throws IOException {
+        saida.flush();
+    }
+
+    private void separar() {
+        if (coluna++ > 0) {
+            linha.append(SEPARADOR);
+        }
+    }
+}
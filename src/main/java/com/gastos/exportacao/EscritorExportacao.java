@@ -0,0 +1,42 @@
+package com.gastos.exportacao;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escritor de um formato de exportação. Recebe os valores de cada linha, coluna a
+ * coluna e na ordem declarada em {@link #iniciar(List)}, sem que a linha seja
+ * materializada em um objeto; a memória usada não depende do número de linhas.
+ */
+public interface EscritorExportacao {
+
+    /**
+     * Grava o cabeçalho do arquivo.
+     */
+    void iniciar(List<ColunaExportacao> colunas) throws IOException;
+
+    /**
+     * Grava um valor nulo na coluna atual.
+     */
+    void escreverNulo() throws IOException;
+
+    /**
+     * Grava um valor numérico na coluna atual (ver {@link ColunaExportacao.Tipo}).
+     */
+    void escreverNumero(long valor) throws IOException;
+
+    /**
+     * Grava um texto na coluna atual.
+     */
+    void escreverTexto(String valor) throws IOException;
+
+    /**
+     * Encerra a linha atual.
+     */
+    void fimLinha() throws IOException;
+
+    /**
+     * Grava o que estiver pendente (rodapé, buffers). Não fecha a saída.
+     */
+    void concluir() throws IOException;
+}
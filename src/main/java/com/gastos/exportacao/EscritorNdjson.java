@@ -0,0 +1,95 @@
+package com.gastos.exportacao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Escreve JSON delimitado por linhas (NDJSON): um objeto por linha, com as colunas
+ * como campos. Valores monetários são números em reais com duas casas, datas são
+ * textos ISO e booleanos são true/false.
+ */
+public class EscritorNdjson implements EscritorExportacao {
+
+    private final BufferedWriter saida;
+    private final StringBuilder linha = new StringBuilder(256);
+    private List<ColunaExportacao> colunas;
+    private String[] chaves;
+    private int coluna = 0;
+
+    public EscritorNdjson(Writer saida) {
+        this.saida = saida instanceof BufferedWriter ? (BufferedWriter) saida : new BufferedWriter(saida, 1 << 16);
+    }
+
+    @Override
+    public void iniciar(List<ColunaExportacao> colunas) {
+        this.colunas = colunas;
+        // As chaves já escapadas são montadas uma vez e reaproveitadas em todas as linhas
+        this.chaves = new String[colunas.size()];
+        for (int i = 0; i < chaves.length; i++) {
+            StringBuilder chave = new StringBuilder();
+            chave.append(i == 0 ? '{' : ',');
+            anexarTexto(chave, colunas.get(i).getNome());
+            chaves[i] = chave.append(':').toString();
+        }
+    }
+
+    @Override
+    public void escreverNulo() {
+        linha.append(chaves[coluna++]).append("null");
+    }
+
+    @Override
+    public void escreverNumero(long valor) {
+        linha.append(chaves[coluna]);
+        switch (colunas.get(coluna).getTipo()) {
+            case DINHEIRO: ColunaExportacao.anexarCentavos(linha, valor); break;
+            case DATA: linha.append('"').append(LocalDate.ofEpochDay(valor)).append('"'); break;
+            case BOOLEANO: linha.append(valor != 0); break;
+            default: linha.append(valor); break;
+        }
+        coluna++;
+    }
+
+    @Override
+    public void escreverTexto(String valor) {
+        linha.append(chaves[coluna++]);
+        anexarTexto(linha, valor);
+    }
+
+    @Override
+    public void fimLinha() throws IOException {
+        linha.append(colunas.isEmpty() ? "{}\n" : "}\n");
+        saida.append(linha);
+        linha.setLength(0);
+        coluna = 0;
+    }
+
+    @Override
+    public void concluir() throws IOException {
+        saida.flush();
+    }
+
+    private static void anexarTexto(StringBuilder destino, String valor) {
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"': destino.append("\\\""); break;
+                case '\\': destino.append("\\\\"); break;
+                case '\n': destino.append("\\n"); break;
+                case '\r': destino.append("\\r"); break;
+                case '\t': destino.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+            }
+        }
+        destino.append('"');
+    }
+}
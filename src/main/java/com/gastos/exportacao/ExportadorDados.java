@@ -0,0 +1,169 @@
+package com.gastos.exportacao;
+
+import com.gastos.db.DespesaDAO;
+import com.gastos.db.ParcelamentoDAO;
+import com.gastos.db.util.RowCallbackHandler;
+import com.gastos.exportacao.ColunaExportacao.Tipo;
+import com.gastos.model.FiltroDespesas;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Exporta despesas e parcelas diretamente do ResultSet para o escritor do formato
+ * escolhido, linha a linha, sem montar listas nem objetos de modelo. A memória usada
+ * é constante, qualquer que seja o tamanho do histórico.
+ */
+public class ExportadorDados {
+
+    /**
+     * Conjuntos de dados exportáveis.
+     */
+    public enum Conjunto {
+        DESPESAS, PARCELAS
+    }
+
+    public static final List<ColunaExportacao> COLUNAS_DESPESAS = List.of(
+        new ColunaExportacao("id", Tipo.INTEIRO),
+        new ColunaExportacao("descricao", Tipo.TEXTO),
+        new ColunaExportacao("valor", Tipo.DINHEIRO),
+        new ColunaExportacao("data_compra", Tipo.DATA),
+        new ColunaExportacao("data_vencimento", Tipo.DATA),
+        new ColunaExportacao("pago", Tipo.BOOLEANO),
+        new ColunaExportacao("fixo", Tipo.BOOLEANO),
+        new ColunaExportacao("categoria", Tipo.TEXTO),
+        new ColunaExportacao("subcategoria", Tipo.TEXTO),
+        new ColunaExportacao("responsavel", Tipo.TEXTO),
+        new ColunaExportacao("meio_pagamento", Tipo.TEXTO),
+        new ColunaExportacao("cartao", Tipo.TEXTO),
+        new ColunaExportacao("parcelamento_id", Tipo.INTEIRO)
+    );
+
+    public static final List<ColunaExportacao> COLUNAS_PARCELAS = List.of(
+        new ColunaExportacao("parcelamento_id", Tipo.INTEIRO),
+        new ColunaExportacao("numero_parcela", Tipo.INTEIRO),
+        new ColunaExportacao("total_parcelas", Tipo.INTEIRO),
+        new ColunaExportacao("valor", Tipo.DINHEIRO),
+        new ColunaExportacao("data_vencimento", Tipo.DATA),
+        new ColunaExportacao("paga", Tipo.BOOLEANO),
+        new ColunaExportacao("despesa_id", Tipo.INTEIRO),
+        new ColunaExportacao("descricao", Tipo.TEXTO),
+        new ColunaExportacao("responsavel", Tipo.TEXTO),
+        new ColunaExportacao("cartao", Tipo.TEXTO)
+    );
+
+    private final DespesaDAO despesaDAO;
+    private final ParcelamentoDAO parcelamentoDAO;
+
+    public ExportadorDados() {
+        this.despesaDAO = new DespesaDAO();
+        this.parcelamentoDAO = new ParcelamentoDAO();
+    }
+
+    /**
+     * Exporta um conjunto de dados. A saída não é fechada.
+     *
+     * @param conjunto despesas ou parcelas
+     * @param filtro período, responsável e cartão (pode ser null); nas parcelas o
+     *        período se aplica ao vencimento da parcela
+     * @param formato o formato do arquivo
+     * @param saida onde os dados são gravados
+     * @return o número de linhas exportadas
+     * @throws IOException em caso de erro de escrita
+     * @throws SQLException em caso de erro na consulta
+     */
+    public long exportar(Conjunto conjunto, FiltroDespesas filtro, FormatoExportacao formato, OutputStream saida)
+            throws IOException, SQLException {
+        List<ColunaExportacao> colunas = conjunto == Conjunto.DESPESAS ? COLUNAS_DESPESAS : COLUNAS_PARCELAS;
+        EscritorExportacao escritor = formato.criarEscritor(saida);
+        escritor.iniciar(colunas);
+
+        long inicio = System.nanoTime();
+        ProcessadorLinhas processador = new ProcessadorLinhas(colunas, escritor);
+        long linhas;
+        try {
+            linhas = conjunto == Conjunto.DESPESAS
+                    ? despesaDAO.percorrerParaExportacao(filtro, processador)
+                    : parcelamentoDAO.percorrerParcelasParaExportacao(filtro, processador);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        escritor.concluir();
+
+        System.out.println("Exportação de " + conjunto + " em " + formato + ": " + linhas + " linha(s) em "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms");
+        return linhas;
+    }
+
+    /**
+     * Repassa cada linha do ResultSet ao escritor, coluna a coluna.
+     */
+    private static final class ProcessadorLinhas implements RowCallbackHandler {
+        private final List<ColunaExportacao> colunas;
+        private final EscritorExportacao escritor;
+        private int[] indices;
+
+        ProcessadorLinhas(List<ColunaExportacao> colunas, EscritorExportacao escritor) {
+            this.colunas = colunas;
+            this.escritor = escritor;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (indices == null) {
+                indices = new int[colunas.size()];
+                for (int i = 0; i < indices.length; i++) {
+                    indices[i] = rs.findColumn(colunas.get(i).getNome());
+                }
+            }
+
+            try {
+                for (int i = 0; i < indices.length; i++) {
+                    escreverValor(rs, indices[i], colunas.get(i).getTipo());
+                }
+                escritor.fimLinha();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void escreverValor(ResultSet rs, int indice, Tipo tipo) throws SQLException, IOException {
+            if (tipo == Tipo.TEXTO) {
+                String texto = rs.getString(indice);
+                if (texto != null) {
+                    escritor.escreverTexto(texto);
+                } else {
+                    escritor.escreverNulo();
+                }
+            } else if (tipo == Tipo.DATA) {
+                String data = rs.getString(indice);
+                LocalDate convertida = null;
+                if (data != null && !data.isEmpty()) {
+                    try {
+                        convertida = LocalDate.parse(data);
+                    } catch (DateTimeParseException e) {
+                        // Datas inválidas são exportadas como nulas, como na leitura das despesas
+                    }
+                }
+                if (convertida != null) {
+                    escritor.escreverNumero(convertida.toEpochDay());
+                } else {
+                    escritor.escreverNulo();
+                }
+            } else {
+                long valor = rs.getLong(indice);
+                if (rs.wasNull()) {
+                    escritor.escreverNulo();
+                } else {
+                    escritor.escreverNumero(valor);
+                }
+            }
+        }
+    }
+}
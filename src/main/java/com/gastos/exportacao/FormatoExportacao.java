@@ -0,0 +1,63 @@
+package com.gastos.exportacao;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formatos de exportação suportados.
+ */
+public enum FormatoExportacao {
+    CSV("csv") {
+        @Override
+        public EscritorExportacao criarEscritor(OutputStream saida) {
+            return new EscritorCsv(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        }
+    },
+    NDJSON("ndjson") {
+        @Override
+        public EscritorExportacao criarEscritor(OutputStream saida) {
+            return new EscritorNdjson(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        }
+    },
+    COLUNAR("gfc") {
+        @Override
+        public EscritorExportacao criarEscritor(OutputStream saida) {
+            return new EscritorColunar(saida);
+        }
+    };
+
+    private final String extensao;
+
+    FormatoExportacao(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    /**
+     * Cria o escritor do formato sobre a saída informada.
+     */
+    public abstract EscritorExportacao criarEscritor(OutputStream saida);
+
+    /**
+     * Obtém o formato pela extensão do arquivo (csv, ndjson/jsonl ou gfc).
+     *
+     * @throws IllegalArgumentException se a extensão não for reconhecida
+     */
+    public static FormatoExportacao porArquivo(String nomeArquivo) {
+        String nome = nomeArquivo.toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        for (FormatoExportacao formato : values()) {
+            if (nome.endsWith("." + formato.extensao)) {
+                return formato;
+            }
+        }
+        throw new IllegalArgumentException("Formato de exportação não reconhecido: " + nomeArquivo);
+    }
+}
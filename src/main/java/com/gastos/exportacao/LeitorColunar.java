@@ -0,0 +1,341 @@
+package com.gastos.exportacao;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lê os arquivos gravados pelo {@link EscritorColunar}, um grupo de linhas por vez,
+ * de modo que a memória usada não depende do tamanho do arquivo.
+ *
+ * O rodapé é lido primeiro, a partir do fim do arquivo, para saber quantos grupos
+ * há; os grupos são então lidos em sequência logo após o cabeçalho. Os valores são
+ * entregues como na gravação: TEXTO como String e os demais tipos como long
+ * (ver {@link ColunaExportacao.Tipo}).
+ *
+ * Uso:
+ * <pre>
+ * try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+ *     while (leitor.proximaLinha()) {
+ *         long id = leitor.getNumero(0);
+ *         String descricao = leitor.isNulo(1) ? null : leitor.getTexto(1);
+ *     }
+ * }
+ * </pre>
+ */
+public class LeitorColunar implements Closeable {
+
+    // Tamanho do rodapé (int32) seguido da assinatura
+    private static final int TAMANHO_FIM = 8;
+
+    private final SeekableByteChannel canal;
+    private final DataInputStream entrada;
+    private final List<ColunaExportacao> colunas;
+    private final int[] linhasGrupos;
+    private final long totalLinhas;
+
+    private final long[][] numeros;
+    private final String[][] textos;
+    private final boolean[][] nulos;
+    private int grupo = 0;
+    private int linhasGrupo = 0;
+    private int linha = -1;
+
+    /**
+     * Abre o arquivo e lê o cabeçalho e o rodapé.
+     *
+     * @throws IOException se o arquivo não puder ser lido ou não for do formato
+     */
+    public LeitorColunar(Path arquivo) throws IOException {
+        this.canal = Files.newByteChannel(arquivo);
+        try {
+            long tamanho = canal.size();
+            if (tamanho < EscritorColunar.ASSINATURA.length + 1 + TAMANHO_FIM) {
+                throw new IOException("Arquivo colunar truncado: " + arquivo);
+            }
+
+            // Rodapé, a partir do fim
+            ByteBuffer fim = ler(tamanho - TAMANHO_FIM, TAMANHO_FIM);
+            int tamanhoRodape = fim.getInt();
+            verificarAssinatura(fim, arquivo);
+            ByteBuffer rodape = ler(tamanho - TAMANHO_FIM - tamanhoRodape, tamanhoRodape);
+            int grupos = (int) lerVar(rodape);
+            this.linhasGrupos = new int[grupos];
+            for (int g = 0; g < grupos; g++) {
+                lerVar(rodape); // posição do grupo: os grupos são lidos em sequência
+                linhasGrupos[g] = (int) lerVar(rodape);
+            }
+            this.totalLinhas = lerVar(rodape);
+
+            // Cabeçalho e grupos, em sequência desde o início
+            canal.position(0);
+            this.entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+            byte[] assinatura = new byte[EscritorColunar.ASSINATURA.length];
+            entrada.readFully(assinatura);
+            verificarAssinatura(ByteBuffer.wrap(assinatura), arquivo);
+            int versao = entrada.readUnsignedByte();
+            if (versao != EscritorColunar.VERSAO) {
+                throw new IOException("Versão " + versao + " do formato colunar não suportada: " + arquivo);
+            }
+
+            int n = (int) lerVar();
+            ColunaExportacao.Tipo[] tipos = ColunaExportacao.Tipo.values();
+            List<ColunaExportacao> lidas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                String nome = lerTexto();
+                int tipo = entrada.readUnsignedByte();
+                if (tipo >= tipos.length) {
+                    throw new IOException("Tipo de coluna inválido (" + tipo + ") em " + arquivo);
+                }
+                lidas.add(new ColunaExportacao(nome, tipos[tipo]));
+            }
+            this.colunas = Collections.unmodifiableList(lidas);
+
+            int maiorGrupo = 0;
+            for (int linhas : linhasGrupos) {
+                maiorGrupo = Math.max(maiorGrupo, linhas);
+            }
+            numeros = new long[n][];
+            textos = new String[n][];
+            nulos = new boolean[n][maiorGrupo];
+            for (int i = 0; i < n; i++) {
+                if (colunas.get(i).getTipo() == ColunaExportacao.Tipo.TEXTO) {
+                    textos[i] = new String[maiorGrupo];
+                } else {
+                    numeros[i] = new long[maiorGrupo];
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retorna as colunas do arquivo, na ordem de gravação.
+     */
+    public List<ColunaExportacao> getColunas() {
+        return colunas;
+    }
+
+    /**
+     * Retorna o número de linhas do arquivo, lido do rodapé.
+     */
+    public long getTotalLinhas() {
+        return totalLinhas;
+    }
+
+    /**
+     * Avança para a próxima linha, lendo o grupo seguinte quando o atual acaba.
+     *
+     * @return false se não houver mais linhas
+     */
+    public boolean proximaLinha() throws IOException {
+        while (++linha >= linhasGrupo) {
+            if (grupo == linhasGrupos.length) {
+                linha = linhasGrupo;
+                return false;
+            }
+            lerGrupo();
+        }
+        return true;
+    }
+
+    public boolean isNulo(int coluna) {
+        return nulos[coluna][linha];
+    }
+
+    /**
+     * Retorna o valor de uma coluna que não é TEXTO (ver {@link ColunaExportacao.Tipo}).
+     */
+    public long getNumero(int coluna) {
+        return numeros[coluna][linha];
+    }
+
+    public String getTexto(int coluna) {
+        return textos[coluna][linha];
+    }
+
+    /**
+     * Regrava as linhas restantes em outro formato, por exemplo para converter um
+     * arquivo colunar em CSV. Não fecha a saída do escritor.
+     *
+     * @return o número de linhas copiadas
+     */
+    public long copiarPara(EscritorExportacao escritor) throws IOException {
+        escritor.iniciar(colunas);
+        long copiadas = 0;
+        while (proximaLinha()) {
+            for (int c = 0; c < colunas.size(); c++) {
+                if (isNulo(c)) {
+                    escritor.escreverNulo();
+                } else if (colunas.get(c).getTipo() == ColunaExportacao.Tipo.TEXTO) {
+                    escritor.escreverTexto(getTexto(c));
+                } else {
+                    escritor.escreverNumero(getNumero(c));
+                }
+            }
+            escritor.fimLinha();
+            copiadas++;
+        }
+        escritor.concluir();
+        return copiadas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void lerGrupo() throws IOException {
+        int linhas = (int) lerVar();
+        if (linhas != linhasGrupos[grupo]) {
+            throw new IOException("Grupo " + grupo + " com " + linhas + " linha(s), mas o rodapé indica "
+                    + linhasGrupos[grupo]);
+        }
+        linhasGrupo = linhas;
+        linha = -1;
+        grupo++;
+
+        for (int c = 0; c < colunas.size(); c++) {
+            boolean[] nulosColuna = nulos[c];
+            if (entrada.readUnsignedByte() != 0) {
+                lerBitmap(nulosColuna, linhas);
+            } else {
+                Arrays.fill(nulosColuna, 0, linhas, false);
+            }
+
+            switch (colunas.get(c).getTipo()) {
+                case TEXTO: lerTextos(textos[c], nulosColuna); break;
+                case BOOLEANO: lerBooleanos(numeros[c], nulosColuna); break;
+                default: lerNumeros(numeros[c], nulosColuna); break;
+            }
+        }
+    }
+
+    private void lerNumeros(long[] valores, boolean[] nulosColuna) throws IOException {
+        long anterior = 0;
+        for (int i = 0; i < linhasGrupo; i++) {
+            if (!nulosColuna[i]) {
+                long zigzag = lerVar();
+                anterior += (zigzag >>> 1) ^ -(zigzag & 1);
+                valores[i] = anterior;
+            }
+        }
+    }
+
+    private void lerTextos(String[] valores, boolean[] nulosColuna) throws IOException {
+        int modo = entrada.readUnsignedByte();
+        if (modo == 0) {
+            for (int i = 0; i < linhasGrupo; i++) {
+                valores[i] = nulosColuna[i] ? null : lerTexto();
+            }
+        } else {
+            String[] dicionario = new String[(int) lerVar()];
+            for (int d = 0; d < dicionario.length; d++) {
+                dicionario[d] = lerTexto();
+            }
+            for (int i = 0; i < linhasGrupo; i++) {
+                valores[i] = nulosColuna[i] ? null : dicionario[(int) lerVar()];
+            }
+        }
+    }
+
+    private void lerBooleanos(long[] valores, boolean[] nulosColuna) throws IOException {
+        int naoNulos = 0;
+        for (int i = 0; i < linhasGrupo; i++) {
+            if (!nulosColuna[i]) {
+                naoNulos++;
+            }
+        }
+        boolean[] bits = new boolean[naoNulos];
+        lerBitmap(bits, naoNulos);
+        int b = 0;
+        for (int i = 0; i < linhasGrupo; i++) {
+            if (!nulosColuna[i]) {
+                valores[i] = bits[b++] ? 1 : 0;
+            }
+        }
+    }
+
+    /**
+     * Lê um bitmap de {@code quantidade} bits, o primeiro no bit menos significativo.
+     */
+    private void lerBitmap(boolean[] destino, int quantidade) throws IOException {
+        int atual = 0;
+        for (int i = 0; i < quantidade; i++) {
+            if ((i & 7) == 0) {
+                atual = entrada.readUnsignedByte();
+            }
+            destino[i] = (atual & (1 << (i & 7))) != 0;
+        }
+    }
+
+    private String lerTexto() throws IOException {
+        byte[] bytes = new byte[(int) lerVar()];
+        entrada.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long lerVar() throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = entrada.read();
+            if (b < 0) {
+                throw new EOFException("Fim inesperado do arquivo colunar");
+            }
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Inteiro variável inválido no arquivo colunar");
+    }
+
+    private static long lerVar(ByteBuffer buffer) throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64 && buffer.hasRemaining(); deslocamento += 7) {
+            int b = buffer.get() & 0xFF;
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Rodapé do arquivo colunar inválido");
+    }
+
+    private ByteBuffer ler(long posicao, int tamanho) throws IOException {
+        if (posicao < 0 || tamanho < 0) {
+            throw new IOException("Rodapé do arquivo colunar inválido");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        canal.position(posicao);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) {
+                throw new EOFException("Fim inesperado do arquivo colunar");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void verificarAssinatura(ByteBuffer buffer, Path arquivo) throws IOException {
+        for (byte esperado : EscritorColunar.ASSINATURA) {
+            if (buffer.get() != esperado) {
+                throw new IOException("Arquivo não está no formato colunar (GFC1): " + arquivo);
+            }
+        }
+    }
+}
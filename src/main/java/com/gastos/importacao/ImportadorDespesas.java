@@ -0,0 +1,208 @@
+package com.gastos.importacao;
+
+import com.gastos.db.CartaoCreditoDAO;
+import com.gastos.db.CategoriaDespesaDAO;
+import com.gastos.db.DespesaDAO;
+import com.gastos.db.MeioPagamentoDAO;
+import com.gastos.db.ResponsavelDAO;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.CategoriaDespesa;
+import com.gastos.model.Despesa;
+import com.gastos.model.MeioPagamento;
+import com.gastos.model.Responsavel;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Importa despesas de extratos em CSV ou OFX.
+ *
+ * Categorias, responsáveis e cartões são resolvidos pelo nome (sem diferenciar
+ * maiúsculas nem acentos) em mapas carregados uma única vez no início. Categorias
+ * desconhecidas são criadas; lançamentos sem categoria vão para
+ * {@link #CATEGORIA_PADRAO}. Responsáveis e cartões desconhecidos ficam em branco.
+ *
+ * As despesas são gravadas em lotes, cada um em sua própria transação com
+ * addBatch/executeBatch, de modo que a conexão de escrita é liberada entre os lotes
+ * e uma falha perde no máximo o lote corrente. Créditos do extrato (estornos,
+ * pagamentos da fatura) são contados, mas não viram despesa.
+ */
+public class ImportadorDespesas {
+
+    public static final int TAMANHO_LOTE_PADRAO = 1000;
+    public static final String CATEGORIA_PADRAO = "Importadas";
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private final DespesaDAO despesaDAO;
+    private final CategoriaDespesaDAO categoriaDAO;
+    private final ResponsavelDAO responsavelDAO;
+    private final CartaoCreditoDAO cartaoDAO;
+    private final MeioPagamentoDAO meioPagamentoDAO;
+    private final int tamanhoLote;
+
+    private final Map<String, CategoriaDespesa> categorias = new HashMap<>();
+    private final Map<String, Responsavel> responsaveis = new HashMap<>();
+    private final Map<String, CartaoCredito> cartoes = new HashMap<>();
+    private MeioPagamento meioCartao;
+
+    /**
+     * Construtor padrão, com lotes de {@link #TAMANHO_LOTE_PADRAO} despesas.
+     */
+    public ImportadorDespesas() {
+        this(TAMANHO_LOTE_PADRAO);
+    }
+
+    /**
+     * @param tamanhoLote número de despesas gravadas por transação
+     */
+    public ImportadorDespesas(int tamanhoLote) {
+        this.despesaDAO = new DespesaDAO();
+        this.categoriaDAO = new CategoriaDespesaDAO();
+        this.responsavelDAO = new ResponsavelDAO();
+        this.cartaoDAO = new CartaoCreditoDAO();
+        this.meioPagamentoDAO = new MeioPagamentoDAO();
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+    }
+
+    /**
+     * Importa todos os lançamentos do leitor. O leitor não é fechado.
+     *
+     * @param leitor o leitor do extrato
+     * @param ouvinte recebe o andamento a cada lote gravado (opcional)
+     * @return o resultado da importação
+     * @throws IOException em caso de erro de leitura do extrato
+     * @throws SQLException em caso de erro ao gravar; os lotes anteriores permanecem gravados
+     */
+    public ResultadoImportacao importar(LeitorExtrato leitor, OuvinteProgresso ouvinte)
+            throws IOException, SQLException {
+        carregarMapas();
+
+        ResultadoImportacao resultado = new ResultadoImportacao();
+        List<Despesa> lote = new ArrayList<>(tamanhoLote);
+        long centavosLote = 0;
+
+        while (true) {
+            LancamentoExtrato lancamento;
+            try {
+                lancamento = leitor.proximo();
+            } catch (LinhaInvalidaException e) {
+                resultado.lancamentoLido();
+                resultado.lancamentoIgnorado(e.getMessage());
+                continue;
+            }
+            if (lancamento == null) {
+                break;
+            }
+
+            resultado.lancamentoLido();
+            if (lancamento.isCredito()) {
+                resultado.creditoIgnorado();
+                continue;
+            }
+
+            Despesa despesa = converter(lancamento, resultado);
+            lote.add(despesa);
+            centavosLote += despesa.getValor().getCentavos();
+
+            if (lote.size() >= tamanhoLote) {
+                gravar(lote, centavosLote, resultado, ouvinte);
+                centavosLote = 0;
+            }
+        }
+        gravar(lote, centavosLote, resultado, ouvinte);
+
+        resultado.concluir();
+        System.out.println("Importação concluída: " + resultado);
+        return resultado;
+    }
+
+    /**
+     * Normaliza um nome para comparação: sem acentos, em minúsculas e sem espaços extras.
+     */
+    static String normalizar(String nome) {
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(nome.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void carregarMapas() throws SQLException {
+        categorias.clear();
+        for (CategoriaDespesa categoria : categoriaDAO.listarTodas()) {
+            categorias.putIfAbsent(normalizar(categoria.getNome()), categoria);
+        }
+        responsaveis.clear();
+        for (Responsavel responsavel : responsavelDAO.listarTodos()) {
+            responsaveis.putIfAbsent(normalizar(responsavel.getNome()), responsavel);
+        }
+        cartoes.clear();
+        for (CartaoCredito cartao : cartaoDAO.listarTodos()) {
+            cartoes.putIfAbsent(normalizar(cartao.getNome()), cartao);
+        }
+        meioCartao = null;
+        for (MeioPagamento meio : meioPagamentoDAO.listarTodos()) {
+            if (meio.isCartaoCredito()) {
+                meioCartao = meio;
+                break;
+            }
+        }
+    }
+
+    private Despesa converter(LancamentoExtrato lancamento, ResultadoImportacao resultado) throws SQLException {
+        Despesa despesa = new Despesa();
+        despesa.setDescricao(lancamento.getDescricao());
+        despesa.setValor(lancamento.getValor());
+        despesa.setDataCompra(lancamento.getData());
+        despesa.setDataVencimento(lancamento.getDataVencimento());
+        despesa.setPago(lancamento.getPago() != null ? lancamento.getPago() : lancamento.getDataVencimento() == null);
+        despesa.setCategoria(resolverCategoria(lancamento.getCategoria(), resultado));
+
+        if (lancamento.getResponsavel() != null) {
+            despesa.setResponsavel(responsaveis.get(normalizar(lancamento.getResponsavel())));
+        }
+        if (lancamento.getCartao() != null) {
+            CartaoCredito cartao = cartoes.get(normalizar(lancamento.getCartao()));
+            despesa.setCartaoCredito(cartao);
+            if (cartao != null) {
+                despesa.setMeioPagamento(meioCartao);
+            }
+        }
+        return despesa;
+    }
+
+    /**
+     * Obtém a categoria pelo nome, criando-a na primeira ocorrência se não existir.
+     */
+    private CategoriaDespesa resolverCategoria(String nome, ResultadoImportacao resultado) throws SQLException {
+        String nomeCategoria = nome != null ? nome.trim() : CATEGORIA_PADRAO;
+        String chave = normalizar(nomeCategoria);
+        CategoriaDespesa categoria = categorias.get(chave);
+        if (categoria == null) {
+            categoria = new CategoriaDespesa();
+            categoria.setNome(nomeCategoria);
+            categoriaDAO.inserir(categoria);
+            categorias.put(chave, categoria);
+            resultado.categoriaCriada(nomeCategoria);
+        }
+        return categoria;
+    }
+
+    private void gravar(List<Despesa> lote, long centavos, ResultadoImportacao resultado,
+                        OuvinteProgresso ouvinte) throws SQLException {
+        if (lote.isEmpty()) {
+            return;
+        }
+        int inseridas = despesaDAO.inserirEmLote(lote);
+        lote.clear();
+        resultado.loteImportado(inseridas, centavos);
+        if (ouvinte != null) {
+            ouvinte.progresso(resultado);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.gastos.importacao;
+
+import com.gastos.model.Dinheiro;
+
+import java.time.LocalDate;
+
+/**
+ * Classe que representa uma linha lida de um extrato (CSV ou OFX), antes de ser
+ * convertida em despesa. Os nomes de categoria, responsável e cartão são opcionais e
+ * são resolvidos pelo importador.
+ */
+public class LancamentoExtrato {
+    private final int linha;
+    private final LocalDate data;
+    private final String descricao;
+    private final Dinheiro valor;
+    private final boolean credito;
+    private String categoria;
+    private String responsavel;
+    private String cartao;
+    private LocalDate dataVencimento;
+    private Boolean pago;
+
+    /**
+     * @param linha número da linha (ou da transação, no OFX) de origem, para mensagens
+     * @param data data da compra
+     * @param descricao descrição do lançamento
+     * @param valor valor absoluto do lançamento
+     * @param credito se o lançamento é um crédito (estorno, pagamento da fatura etc.)
+     */
+    public LancamentoExtrato(int linha, LocalDate data, String descricao, Dinheiro valor, boolean credito) {
+        this.linha = linha;
+        this.data = data;
+        this.descricao = descricao;
+        this.valor = valor;
+        this.credito = credito;
+    }
+
+    public int getLinha() {
+        return linha;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public Dinheiro getValor() {
+        return valor;
+    }
+
+    public boolean isCredito() {
+        return credito;
+    }
+
+    public String getCategoria() {
+        return categoria;
+    }
+
+    public void setCategoria(String categoria) {
+        this.categoria = categoria;
+    }
+
+    public String getResponsavel() {
+        return responsavel;
+    }
+
+    public void setResponsavel(String responsavel) {
+        this.responsavel = responsavel;
+    }
+
+    public String getCartao() {
+        return cartao;
+    }
+
+    public void setCartao(String cartao) {
+        this.cartao = cartao;
+    }
+
+    public LocalDate getDataVencimento() {
+        return dataVencimento;
+    }
+
+    public void setDataVencimento(LocalDate dataVencimento) {
+        this.dataVencimento = dataVencimento;
+    }
+
+    /**
+     * Retorna se o lançamento está pago, ou null se o extrato não informar.
+     */
+    public Boolean getPago() {
+        return pago;
+    }
+
+    public void setPago(Boolean pago) {
+        this.pago = pago;
+    }
+
+    @Override
+    public String toString() {
+        return "Linha " + linha + ": " + data + " " + descricao + " " + valor;
+    }
+}
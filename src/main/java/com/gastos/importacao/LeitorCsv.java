@@ -0,0 +1,246 @@
+package com.gastos.importacao;
+
+import com.gastos.model.Dinheiro;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitor de extratos em CSV. A primeira linha não vazia é o cabeçalho, que define a
+ * posição das colunas; o separador (ponto e vírgula ou vírgula) é detectado por ela.
+ *
+ * Colunas reconhecidas (sem diferenciar maiúsculas nem acentos):
+ * data, descricao, valor (obrigatórias) e categoria, responsavel, cartao,
+ * vencimento, pago, tipo (opcionais). Campos entre aspas são aceitos, mas não podem
+ * conter quebras de linha.
+ *
+ * As despesas são os valores positivos, como nas faturas de cartão: valores
+ * negativos (estornos, pagamentos da fatura) são créditos, que o importador ignora,
+ * assim como faz com os créditos do OFX. Se houver a coluna tipo (C/D, crédito/débito),
+ * ela decide, e o valor é lido em módulo.
+ */
+public class LeitorCsv implements LeitorExtrato {
+
+    // Estritos: 31/02 é inválido, em vez de virar o último dia do mês
+    private static final DateTimeFormatter DATA_BR =
+            DateTimeFormatter.ofPattern("d/M/uuuu").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter DATA_BR_CURTA =
+            DateTimeFormatter.ofPattern("d/M/uu").withResolverStyle(ResolverStyle.STRICT);
+
+    private static final Map<String, String> SINONIMOS = new HashMap<>();
+
+    static {
+        sinonimos("data", "data", "data_compra", "data compra", "date", "dt");
+        sinonimos("descricao", "descricao", "historico", "lancamento", "estabelecimento", "description");
+        sinonimos("valor", "valor", "valor (r$)", "quantia", "amount", "value");
+        sinonimos("categoria", "categoria", "category");
+        sinonimos("responsavel", "responsavel", "pessoa", "titular");
+        sinonimos("cartao", "cartao", "cartao de credito", "card");
+        sinonimos("vencimento", "vencimento", "data_vencimento", "data vencimento");
+        sinonimos("pago", "pago", "paga", "status");
+        sinonimos("tipo", "tipo", "natureza", "d/c", "c/d", "type");
+    }
+
+    private final BufferedReader leitor;
+    private final char separador;
+    private final Map<String, Integer> colunas = new HashMap<>();
+    private final List<String> campos = new ArrayList<>();
+    private final StringBuilder campo = new StringBuilder();
+    private int numeroLinha = 0;
+
+    /**
+     * Cria o leitor e interpreta o cabeçalho.
+     *
+     * @throws IOException se o cabeçalho estiver ausente ou não tiver as colunas obrigatórias
+     */
+    public LeitorCsv(Reader reader) throws IOException {
+        this.leitor = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+
+        String cabecalho = proximaLinha();
+        if (cabecalho == null) {
+            throw new IOException("Arquivo CSV vazio.");
+        }
+        if (cabecalho.startsWith("\uFEFF")) {
+            cabecalho = cabecalho.substring(1);
+        }
+        this.separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+
+        List<String> nomes = dividir(cabecalho);
+        for (int i = 0; i < nomes.size(); i++) {
+            String coluna = SINONIMOS.get(ImportadorDespesas.normalizar(nomes.get(i)));
+            if (coluna != null) {
+                colunas.putIfAbsent(coluna, i);
+            }
+        }
+        for (String obrigatoria : new String[] { "data", "descricao", "valor" }) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new IOException("Cabeçalho do CSV sem a coluna obrigatória '" + obrigatoria + "': " + cabecalho);
+            }
+        }
+    }
+
+    @Override
+    public LancamentoExtrato proximo() throws LinhaInvalidaException, IOException {
+        String linha = proximaLinha();
+        if (linha == null) {
+            return null;
+        }
+
+        List<String> valores = dividir(linha);
+        LocalDate data = lerData(valores, "data", true);
+        String descricao = texto(valores, "descricao");
+        if (descricao == null) {
+            throw new LinhaInvalidaException(numeroLinha, "descrição vazia");
+        }
+
+        String textoValor = texto(valores, "valor");
+        Dinheiro valor;
+        try {
+            valor = Dinheiro.parse(textoValor != null ? textoValor : "");
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new LinhaInvalidaException(numeroLinha, "valor inválido '" + textoValor + "'");
+        }
+        if (valor.isZero()) {
+            throw new LinhaInvalidaException(numeroLinha, "valor zerado");
+        }
+        boolean credito = lerCredito(valores, valor);
+        if (valor.isNegativo()) {
+            valor = Dinheiro.ZERO.subtrair(valor);
+        }
+
+        LancamentoExtrato lancamento = new LancamentoExtrato(numeroLinha, data, descricao, valor, credito);
+        lancamento.setCategoria(texto(valores, "categoria"));
+        lancamento.setResponsavel(texto(valores, "responsavel"));
+        lancamento.setCartao(texto(valores, "cartao"));
+        lancamento.setDataVencimento(lerData(valores, "vencimento", false));
+        String pago = texto(valores, "pago");
+        if (pago != null) {
+            String normalizado = ImportadorDespesas.normalizar(pago);
+            lancamento.setPago(normalizado.equals("sim") || normalizado.equals("s") || normalizado.equals("1")
+                    || normalizado.equals("true") || normalizado.equals("pago") || normalizado.equals("paga"));
+        }
+        return lancamento;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    /**
+     * Lê a próxima linha não vazia, contando as linhas do arquivo.
+     */
+    private String proximaLinha() throws IOException {
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            numeroLinha++;
+            if (!linha.isBlank()) {
+                return linha;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Divide uma linha nos campos, tratando aspas duplas e aspas escapadas ("").
+     * A lista devolvida é reaproveitada entre as linhas.
+     */
+    private List<String> dividir(String linha) {
+        campos.clear();
+        campo.setLength(0);
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private String texto(List<String> valores, String coluna) {
+        Integer indice = colunas.get(coluna);
+        if (indice == null || indice >= valores.size()) {
+            return null;
+        }
+        String valor = valores.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private LocalDate lerData(List<String> valores, String coluna, boolean obrigatoria) throws LinhaInvalidaException {
+        String texto = texto(valores, coluna);
+        if (texto == null) {
+            if (obrigatoria) {
+                throw new LinhaInvalidaException(numeroLinha, "coluna '" + coluna + "' vazia");
+            }
+            return null;
+        }
+        try {
+            if (texto.indexOf('/') < 0) {
+                return LocalDate.parse(texto);
+            }
+            boolean anoCurto = texto.length() - texto.lastIndexOf('/') <= 3;
+            return LocalDate.parse(texto, anoCurto ? DATA_BR_CURTA : DATA_BR);
+        } catch (DateTimeParseException e) {
+            throw new LinhaInvalidaException(numeroLinha, "data inválida '" + texto + "'");
+        }
+    }
+
+    /**
+     * Indica se o lançamento é um crédito: pela coluna tipo, se preenchida, ou pelo
+     * sinal do valor.
+     */
+    private boolean lerCredito(List<String> valores, Dinheiro valor) throws LinhaInvalidaException {
+        String tipo = texto(valores, "tipo");
+        if (tipo == null) {
+            return valor.isNegativo();
+        }
+        switch (ImportadorDespesas.normalizar(tipo)) {
+            case "c":
+            case "cr":
+            case "credito":
+            case "credit":
+                return true;
+            case "d":
+            case "db":
+            case "debito":
+            case "debit":
+                return false;
+            default:
+                throw new LinhaInvalidaException(numeroLinha, "tipo inválido '" + tipo + "'");
+        }
+    }
+
+    private static void sinonimos(String coluna, String... nomes) {
+        for (String nome : nomes) {
+            SINONIMOS.put(nome, coluna);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.gastos.importacao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Leitor sequencial de lançamentos de um extrato. Os leitores processam o arquivo
+ * em fluxo, sem carregá-lo inteiro na memória.
+ */
+public interface LeitorExtrato extends Closeable {
+
+    /**
+     * Lê o próximo lançamento.
+     *
+     * @return o lançamento, ou null ao fim do extrato
+     * @throws LinhaInvalidaException se a linha atual não puder ser interpretada
+     *         (a leitura pode continuar com a próxima chamada)
+     * @throws IOException em caso de erro de leitura
+     */
+    LancamentoExtrato proximo() throws LinhaInvalidaException, IOException;
+
+    /**
+     * Abre o leitor adequado à extensão do arquivo (.ofx ou .csv).
+     *
+     * @param arquivo o arquivo do extrato
+     * @param charset a codificação do arquivo
+     * @return o leitor aberto
+     * @throws IOException se o arquivo não puder ser aberto ou o cabeçalho for inválido
+     */
+    static LeitorExtrato abrir(Path arquivo, Charset charset) throws IOException {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".ofx")) {
+            return new LeitorOfx(Files.newBufferedReader(arquivo, charset));
+        }
+        return new LeitorCsv(Files.newBufferedReader(arquivo, charset));
+    }
+}
@@ -0,0 +1,153 @@
+package com.gastos.importacao;
+
+import com.gastos.model.Dinheiro;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Leitor de extratos OFX (versões 1.x em SGML e 2.x em XML). O arquivo é percorrido
+ * marcação a marcação; cada bloco STMTTRN vira um lançamento, com data DTPOSTED,
+ * valor TRNAMT e descrição MEMO (ou NAME). Valores positivos são créditos.
+ */
+public class LeitorOfx implements LeitorExtrato {
+
+    private static final DateTimeFormatter DATA_OFX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final BufferedReader leitor;
+    private final StringBuilder buffer = new StringBuilder();
+    private int transacao = 0;
+    private boolean fim = false;
+
+    // Campos do bloco STMTTRN corrente
+    private String dataPostagem;
+    private String valor;
+    private String memo;
+    private String nome;
+
+    public LeitorOfx(Reader reader) {
+        this.leitor = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public LancamentoExtrato proximo() throws LinhaInvalidaException, IOException {
+        boolean dentroTransacao = false;
+        String marcacao;
+        while ((marcacao = proximaMarcacao()) != null) {
+            if (marcacao.equals("STMTTRN")) {
+                dentroTransacao = true;
+                transacao++;
+                dataPostagem = valor = memo = nome = null;
+            } else if (dentroTransacao) {
+                if (marcacao.equals("/STMTTRN")) {
+                    return montar();
+                }
+                switch (marcacao) {
+                    case "DTPOSTED": dataPostagem = lerConteudo(); break;
+                    case "TRNAMT": valor = lerConteudo(); break;
+                    case "MEMO": memo = lerConteudo(); break;
+                    case "NAME": nome = lerConteudo(); break;
+                    default: break;
+                }
+            }
+        }
+        // OFX em SGML pode terminar o arquivo sem fechar o último bloco
+        return dentroTransacao ? montar() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        leitor.close();
+    }
+
+    private LancamentoExtrato montar() throws LinhaInvalidaException {
+        if (dataPostagem == null || dataPostagem.length() < 8) {
+            throw new LinhaInvalidaException(transacao, "transação sem DTPOSTED válido");
+        }
+        LocalDate data;
+        try {
+            data = LocalDate.parse(dataPostagem.substring(0, 8), DATA_OFX);
+        } catch (DateTimeParseException e) {
+            throw new LinhaInvalidaException(transacao, "data inválida '" + dataPostagem + "'");
+        }
+
+        Dinheiro quantia;
+        try {
+            // No OFX o valor não tem separador de milhares; o decimal pode ser ponto ou vírgula
+            quantia = Dinheiro.de(new BigDecimal(valor != null ? valor.trim().replace(',', '.') : ""));
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new LinhaInvalidaException(transacao, "valor inválido '" + valor + "'");
+        }
+
+        String descricao = memo != null && !memo.isEmpty() ? memo : nome;
+        if (descricao == null || descricao.isEmpty()) {
+            throw new LinhaInvalidaException(transacao, "transação sem MEMO nem NAME");
+        }
+
+        boolean credito = quantia.isPositivo();
+        Dinheiro absoluto = quantia.isNegativo() ? Dinheiro.ZERO.subtrair(quantia) : quantia;
+        return new LancamentoExtrato(transacao, data, descricao, absoluto, credito);
+    }
+
+    /**
+     * Avança até a próxima marcação e retorna o seu nome em maiúsculas (com a barra,
+     * se for de fechamento), ou null ao fim do arquivo.
+     */
+    private String proximaMarcacao() throws IOException {
+        int c;
+        while ((c = lerCaractere()) != -1 && c != '<') {
+            // ignora o conteúdo fora das marcações de interesse
+        }
+        if (c == -1) {
+            return null;
+        }
+        buffer.setLength(0);
+        while ((c = lerCaractere()) != -1 && c != '>') {
+            buffer.append((char) c);
+        }
+        return buffer.toString().trim().toUpperCase();
+    }
+
+    /**
+     * Lê o conteúdo de um elemento até a próxima marcação, que é devolvida ao fluxo.
+     */
+    private String lerConteudo() throws IOException {
+        buffer.setLength(0);
+        leitor.mark(1);
+        int c;
+        while ((c = leitor.read()) != -1 && c != '<') {
+            buffer.append((char) c);
+            leitor.mark(1);
+        }
+        if (c == '<') {
+            leitor.reset();
+        } else {
+            fim = true;
+        }
+        return desfazerEntidades(buffer.toString().trim());
+    }
+
+    private int lerCaractere() throws IOException {
+        if (fim) {
+            return -1;
+        }
+        int c = leitor.read();
+        if (c == -1) {
+            fim = true;
+        }
+        return c;
+    }
+
+    private static String desfazerEntidades(String texto) {
+        if (texto.indexOf('&') < 0) {
+            return texto;
+        }
+        return texto.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+}
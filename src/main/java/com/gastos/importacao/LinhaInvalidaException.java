@@ -0,0 +1,20 @@
+package com.gastos.importacao;
+
+/**
+ * Indica que uma linha do extrato não pôde ser interpretada. O leitor já avançou
+ * para a linha seguinte, de modo que a importação pode continuar.
+ */
+public class LinhaInvalidaException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int linha;
+
+    public LinhaInvalidaException(int linha, String mensagem) {
+        super("Linha " + linha + ": " + mensagem);
+        this.linha = linha;
+    }
+
+    public int getLinha() {
+        return linha;
+    }
+}
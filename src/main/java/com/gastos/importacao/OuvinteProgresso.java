@@ -0,0 +1,14 @@
+package com.gastos.importacao;
+
+/**
+ * Recebe o andamento de uma importação a cada lote gravado. É chamado na thread
+ * que executa a importação; telas devem repassar a atualização para a thread FX.
+ */
+@FunctionalInterface
+public interface OuvinteProgresso {
+
+    /**
+     * @param resultado o resultado parcial, com os contadores acumulados até aqui
+     */
+    void progresso(ResultadoImportacao resultado);
+}
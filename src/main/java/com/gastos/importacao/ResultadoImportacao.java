@@ -0,0 +1,104 @@
+package com.gastos.importacao;
+
+import com.gastos.model.Dinheiro;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe que acumula o andamento e o resultado de uma importação de extrato.
+ */
+public class ResultadoImportacao {
+
+    // Limite de avisos guardados, para que um arquivo inteiro inválido não ocupe memória
+    private static final int MAX_AVISOS = 100;
+
+    private int lidas;
+    private int importadas;
+    private int ignoradas;
+    private int creditos;
+    private long totalCentavos;
+    private final List<String> categoriasCriadas = new ArrayList<>();
+    private final List<String> avisos = new ArrayList<>();
+    private long inicio = System.nanoTime();
+    private long duracaoMs;
+
+    void lancamentoLido() {
+        lidas++;
+    }
+
+    void lancamentoIgnorado(String aviso) {
+        ignoradas++;
+        if (avisos.size() < MAX_AVISOS) {
+            avisos.add(aviso);
+        }
+    }
+
+    void creditoIgnorado() {
+        creditos++;
+    }
+
+    void loteImportado(int quantidade, long centavos) {
+        importadas += quantidade;
+        totalCentavos += centavos;
+    }
+
+    void categoriaCriada(String nome) {
+        categoriasCriadas.add(nome);
+    }
+
+    void concluir() {
+        duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    /**
+     * Retorna o número de lançamentos lidos do extrato, inclusive os ignorados.
+     */
+    public int getLidas() {
+        return lidas;
+    }
+
+    public int getImportadas() {
+        return importadas;
+    }
+
+    /**
+     * Retorna o número de linhas que não puderam ser interpretadas.
+     */
+    public int getIgnoradas() {
+        return ignoradas;
+    }
+
+    /**
+     * Retorna o número de créditos (estornos, pagamentos) que não viraram despesa.
+     */
+    public int getCreditos() {
+        return creditos;
+    }
+
+    public Dinheiro getTotalImportado() {
+        return Dinheiro.deCentavos(totalCentavos);
+    }
+
+    public List<String> getCategoriasCriadas() {
+        return Collections.unmodifiableList(categoriasCriadas);
+    }
+
+    /**
+     * Retorna as mensagens das primeiras linhas ignoradas.
+     */
+    public List<String> getAvisos() {
+        return Collections.unmodifiableList(avisos);
+    }
+
+    public long getDuracaoMs() {
+        return duracaoMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lançamento(s) lido(s): %d importado(s) (%s), %d ignorado(s), %d crédito(s) em %d ms",
+                lidas, importadas, getTotalImportado().formatar(), ignoradas, creditos, duracaoMs);
+    }
+}
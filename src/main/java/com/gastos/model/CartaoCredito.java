@@ -1,6 +1,7 @@
 package com.gastos.model;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 
 /**
  * Classe que representa um cartão de crédito no sistema.
@@ -9,7 +10,7 @@ public class CartaoCredito {
     private int id;
     private String nome;
     private String bandeira;
-    private double limite;
+    private Dinheiro limite = Dinheiro.ZERO;
     private int diaFechamento;
     private int diaVencimento;
     private String cor; // Para personalização visual
@@ -17,7 +18,7 @@ public class CartaoCredito {
     public CartaoCredito() {
     }
     
-    public CartaoCredito(int id, String nome, String bandeira, double limite, 
+    public CartaoCredito(int id, String nome, String bandeira, Dinheiro limite, 
                          int diaFechamento, int diaVencimento, String cor) {
         this.id = id;
         this.nome = nome;
@@ -53,11 +54,11 @@ public class CartaoCredito {
         this.bandeira = bandeira;
     }
     
-    public double getLimite() {
+    public Dinheiro getLimite() {
         return limite;
     }
     
-    public void setLimite(double limite) {
+    public void setLimite(Dinheiro limite) {
         this.limite = limite;
     }
     
@@ -90,14 +91,7 @@ public class CartaoCredito {
      * @return A data de fechamento da próxima fatura
      */
     public LocalDate calcularProximoFechamento() {
-        LocalDate hoje = LocalDate.now();
-        LocalDate dataFechamento = LocalDate.of(hoje.getYear(), hoje.getMonth(), diaFechamento);
-        
-        if (hoje.isAfter(dataFechamento) || hoje.isEqual(dataFechamento)) {
-            return dataFechamento.plusMonths(1);
-        } else {
-            return dataFechamento;
-        }
+        return calcularFechamento(calcularMesFatura(LocalDate.now()));
     }
     
     /**
@@ -105,17 +99,46 @@ public class CartaoCredito {
      * @return A data de vencimento da próxima fatura
      */
     public LocalDate calcularProximoVencimento() {
-        LocalDate proximoFechamento = calcularProximoFechamento();
-        LocalDate dataVencimento = LocalDate.of(
-            proximoFechamento.getYear(), 
-            proximoFechamento.getMonth(), 
-            diaVencimento);
-        
-        if (diaVencimento < diaFechamento) {
-            return dataVencimento.plusMonths(1);
-        } else {
-            return dataVencimento;
-        }
+        return calcularVencimento(calcularMesFatura(LocalDate.now()));
+    }
+    
+    /**
+     * Calcula o mês de fechamento da fatura em que entra uma compra. Compras feitas
+     * a partir do dia de fechamento entram na fatura do mês seguinte.
+     * @param dataCompra a data da compra
+     * @return o mês de fechamento da fatura
+     */
+    public YearMonth calcularMesFatura(LocalDate dataCompra) {
+        YearMonth mes = YearMonth.from(dataCompra);
+        return dataCompra.isBefore(calcularFechamento(mes)) ? mes : mes.plusMonths(1);
+    }
+    
+    /**
+     * Calcula a data de fechamento da fatura que fecha no mês informado. Se o dia de
+     * fechamento não existir no mês, usa o último dia.
+     * @param mesFechamento o mês de fechamento da fatura
+     * @return a data de fechamento
+     */
+    public LocalDate calcularFechamento(YearMonth mesFechamento) {
+        return mesFechamento.atDay(Math.min(diaFechamento, mesFechamento.lengthOfMonth()));
+    }
+    
+    /**
+     * Calcula a data de vencimento da fatura que fecha no mês informado. Se o dia de
+     * vencimento for anterior ao de fechamento, a fatura vence no mês seguinte.
+     * @param mesFechamento o mês de fechamento da fatura
+     * @return a data de vencimento
+     */
+    public LocalDate calcularVencimento(YearMonth mesFechamento) {
+        YearMonth mesVencimento = diaVencimento < diaFechamento ? mesFechamento.plusMonths(1) : mesFechamento;
+        return mesVencimento.atDay(Math.min(diaVencimento, mesVencimento.lengthOfMonth()));
+    }
+    
+    /**
+     * Cria uma cópia independente, que pode ser alterada sem afetar o original.
+     */
+    public CartaoCredito copiar() {
+        return new CartaoCredito(id, nome, bandeira, limite, diaFechamento, diaVencimento, cor);
     }
     
     @Override
@@ -51,6 +51,22 @@ public class CategoriaDespesa {
         this.subCategorias.add(subCategoria);
     }
     
+    /**
+     * Cria uma cópia independente, que pode ser alterada sem afetar o original,
+     * com cópias das subcategorias.
+     */
+    public CategoriaDespesa copiar() {
+        CategoriaDespesa copia = new CategoriaDespesa(id, nome);
+        if (subCategorias == null) {
+            copia.subCategorias = null;
+        } else {
+            for (SubCategoria subCategoria : subCategorias) {
+                copia.subCategorias.add(subCategoria.copiar());
+            }
+        }
+        return copia;
+    }
+    
     @Override
     public String toString() {
         return nome;
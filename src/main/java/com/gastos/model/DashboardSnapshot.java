@@ -0,0 +1,201 @@
+package com.gastos.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe que representa o resumo financeiro de um mês, usado pelo dashboard.
+ * Contém os totais gerais (total, pago e a pagar) e os totais por categoria e
+ * por responsável, todos obtidos de uma única consulta agrupada e acumulados
+ * em centavos.
+ *
+ * O resumo também pode ser mantido de forma incremental: acumular uma despesa com
+ * quantidade e valores negativos desfaz a sua contribuição, e os grupos que ficam
+ * sem despesas são removidos.
+ */
+public class DashboardSnapshot {
+    private final Integer responsavelId;
+    private final Totais totais = new Totais(null, "Total");
+    private final Map<Integer, Totais> porCategoria = new LinkedHashMap<>();
+    private final Map<Integer, Totais> porResponsavel = new LinkedHashMap<>();
+
+    /**
+     * Cria um resumo vazio.
+     *
+     * @param responsavelId responsável usado como filtro, ou null para todos
+     */
+    public DashboardSnapshot(Integer responsavelId) {
+        this.responsavelId = responsavelId;
+    }
+
+    /**
+     * Acumula uma linha da consulta agrupada por categoria e responsável, ou
+     * desfaz uma contribuição, se a quantidade e os valores forem negativos.
+     *
+     * @param categoriaId ID da categoria (pode ser null)
+     * @param categoriaNome nome da categoria
+     * @param responsavelId ID do responsável (pode ser null)
+     * @param responsavelNome nome do responsável
+     * @param quantidade quantidade de despesas do grupo
+     * @param totalCentavos valor total do grupo, em centavos
+     * @param totalPagoCentavos valor pago do grupo, em centavos
+     */
+    public void acumular(Integer categoriaId, String categoriaNome, Integer responsavelId, String responsavelNome,
+                         int quantidade, long totalCentavos, long totalPagoCentavos) {
+        totais.somar(quantidade, totalCentavos, totalPagoCentavos);
+        acumularGrupo(porCategoria, categoriaId, categoriaNome != null ? categoriaNome : "Sem categoria",
+                quantidade, totalCentavos, totalPagoCentavos);
+        acumularGrupo(porResponsavel, responsavelId, responsavelNome != null ? responsavelNome : "Sem responsável",
+                quantidade, totalCentavos, totalPagoCentavos);
+    }
+
+    /**
+     * Cria uma cópia independente do resumo.
+     */
+    public DashboardSnapshot copiar() {
+        DashboardSnapshot copia = new DashboardSnapshot(responsavelId);
+        copia.totais.somar(totais.quantidade, totais.totalCentavos, totais.totalPagoCentavos);
+        copiarGrupos(porCategoria, copia.porCategoria);
+        copiarGrupos(porResponsavel, copia.porResponsavel);
+        return copia;
+    }
+
+    private static void acumularGrupo(Map<Integer, Totais> grupos, Integer id, String nome,
+                                      int quantidade, long totalCentavos, long totalPagoCentavos) {
+        Totais grupo = grupos.computeIfAbsent(id, chave -> new Totais(chave, nome));
+        grupo.somar(quantidade, totalCentavos, totalPagoCentavos);
+        if (grupo.quantidade <= 0) {
+            grupos.remove(id);
+        }
+    }
+
+    private static void copiarGrupos(Map<Integer, Totais> origem, Map<Integer, Totais> destino) {
+        for (Totais grupo : origem.values()) {
+            Totais copia = new Totais(grupo.id, grupo.nome);
+            copia.somar(grupo.quantidade, grupo.totalCentavos, grupo.totalPagoCentavos);
+            destino.put(grupo.id, copia);
+        }
+    }
+
+    // Getters
+    public Integer getResponsavelId() {
+        return responsavelId;
+    }
+
+    public int getQuantidade() {
+        return totais.getQuantidade();
+    }
+
+    public Dinheiro getTotal() {
+        return totais.getTotal();
+    }
+
+    public Dinheiro getTotalPago() {
+        return totais.getTotalPago();
+    }
+
+    public Dinheiro getTotalAPagar() {
+        return totais.getTotalAPagar();
+    }
+
+    /**
+     * Retorna os totais por categoria, do maior para o menor.
+     */
+    public List<Totais> getPorCategoria() {
+        return ordenar(porCategoria);
+    }
+
+    /**
+     * Retorna os totais por responsável, do maior para o menor.
+     */
+    public List<Totais> getPorResponsavel() {
+        return ordenar(porResponsavel);
+    }
+
+    /**
+     * Retorna os totais por categoria no formato {nome, total} usado pelos gráficos.
+     */
+    public List<Object[]> getDadosGraficoPorCategoria() {
+        return paraDadosGrafico(getPorCategoria());
+    }
+
+    /**
+     * Retorna os totais por responsável no formato {nome, total} usado pelos gráficos.
+     */
+    public List<Object[]> getDadosGraficoPorResponsavel() {
+        return paraDadosGrafico(getPorResponsavel());
+    }
+
+    private static List<Totais> ordenar(Map<Integer, Totais> grupos) {
+        List<Totais> lista = new ArrayList<>(grupos.values());
+        lista.sort(Comparator.comparingLong(Totais::getTotalCentavos).reversed());
+        return Collections.unmodifiableList(lista);
+    }
+
+    private static List<Object[]> paraDadosGrafico(List<Totais> grupos) {
+        List<Object[]> dados = new ArrayList<>(grupos.size());
+        for (Totais grupo : grupos) {
+            dados.add(new Object[]{grupo.getNome(), grupo.getTotal().paraDouble()});
+        }
+        return dados;
+    }
+
+    /**
+     * Totais de um grupo (categoria, responsável ou o mês inteiro).
+     */
+    public static class Totais {
+        private final Integer id;
+        private final String nome;
+        private int quantidade;
+        private long totalCentavos;
+        private long totalPagoCentavos;
+
+        public Totais(Integer id, String nome) {
+            this.id = id;
+            this.nome = nome;
+        }
+
+        private void somar(int quantidade, long totalCentavos, long totalPagoCentavos) {
+            this.quantidade += quantidade;
+            this.totalCentavos += totalCentavos;
+            this.totalPagoCentavos += totalPagoCentavos;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        public Dinheiro getTotal() {
+            return Dinheiro.deCentavos(totalCentavos);
+        }
+
+        public Dinheiro getTotalPago() {
+            return Dinheiro.deCentavos(totalPagoCentavos);
+        }
+
+        public Dinheiro getTotalAPagar() {
+            return Dinheiro.deCentavos(totalCentavos - totalPagoCentavos);
+        }
+
+        @Override
+        public String toString() {
+            return nome + ": " + getTotal().formatar();
+        }
+    }
+}
@@ -8,7 +8,7 @@ import java.time.LocalDate;
 public class Despesa {
     private int id;
     private String descricao;
-    private double valor;
+    private Dinheiro valor;
     private LocalDate dataCompra;
     private LocalDate dataVencimento;
     private boolean pago;
@@ -21,6 +21,7 @@ public class Despesa {
     private Parcelamento parcelamento;
     
     public Despesa() {
+        this.valor = Dinheiro.ZERO;
         this.dataCompra = LocalDate.now();
         this.pago = false;
         this.fixo = false;
@@ -43,11 +44,11 @@ public class Despesa {
         this.descricao = descricao;
     }
     
-    public double getValor() {
+    public Dinheiro getValor() {
         return valor;
     }
     
-    public void setValor(double valor) {
+    public void setValor(Dinheiro valor) {
         this.valor = valor;
     }
     
@@ -149,6 +150,6 @@ public class Despesa {
     
     @Override
     public String toString() {
-        return descricao + " - R$ " + String.format("%.2f", valor);
+        return descricao + " - " + valor.formatar();
     }
 }
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.gastos.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classe que representa um valor monetário exato, guardado como um número inteiro
+ * de centavos. É imutável; as operações devolvem novas instâncias e os valores
+ * pequenos mais comuns são compartilhados.
+ *
+ * No banco os valores são gravados como INTEGER em centavos, de modo que as somas
+ * feitas pelo SQLite também são exatas.
+ */
+public final class Dinheiro implements Comparable<Dinheiro> {
+
+    // Valores de 0 a R$ 100,00 são compartilhados
+    private static final int LIMITE_CACHE = 10000;
+    private static final Dinheiro[] CACHE = new Dinheiro[LIMITE_CACHE + 1];
+
+    static {
+        for (int i = 0; i <= LIMITE_CACHE; i++) {
+            CACHE[i] = new Dinheiro(i);
+        }
+    }
+
+    public static final Dinheiro ZERO = CACHE[0];
+
+    // Formatação fixa em pt-BR, independente da localidade da máquina
+    private static final Locale LOCALE_BR = Locale.forLanguageTag("pt-BR");
+
+    // Só pontos agrupando milhares: "1.234", "12.345.678"; não "0.123" nem "1234.567"
+    private static final Pattern MILHARES_COM_PONTO = Pattern.compile("[-+]?[1-9]\\d{0,2}(\\.\\d{3})+");
+
+    private final long centavos;
+
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Cria um valor a partir de um número de centavos.
+     */
+    public static Dinheiro deCentavos(long centavos) {
+        if (centavos >= 0 && centavos <= LIMITE_CACHE) {
+            return CACHE[(int) centavos];
+        }
+        return new Dinheiro(centavos);
+    }
+
+    /**
+     * Cria um valor a partir de reais em ponto flutuante, arredondando para o
+     * centavo mais próximo (meio centavo arredonda para longe do zero). Usado apenas
+     * nas bordas do sistema, como a digitação de valores.
+     */
+    public static Dinheiro de(double reais) {
+        if (Double.isNaN(reais) || Double.isInfinite(reais)) {
+            throw new IllegalArgumentException("Valor monetário inválido: " + reais);
+        }
+        return de(BigDecimal.valueOf(reais));
+    }
+
+    /**
+     * Cria um valor a partir de reais, arredondando para o centavo mais próximo.
+     */
+    public static Dinheiro de(BigDecimal reais) {
+        return deCentavos(reais.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Interpreta um valor digitado, aceitando vírgula ou ponto como separador decimal
+     * (por exemplo "1234,56", "1.234,56" ou "1234.56"). Como em pt-BR, pontos que
+     * separam grupos de três dígitos, depois de um primeiro grupo de um a três dígitos
+     * que não começa com zero, agrupam milhares: "1.234" é mil duzentos e trinta e
+     * quatro reais e "1.234.567" mais de um milhão, mas "0.123" e "1234.567" são
+     * decimais. Uma vírgula sozinha é sempre decimal ("1,234" é R$ 1,23). Casas além
+     * dos centavos são arredondadas como em {@link #de(BigDecimal)}.
+     *
+     * @throws NumberFormatException se o texto não for um valor válido
+     */
+    public static Dinheiro parse(String texto) {
+        String limpo = texto.trim().replace("R$", "").replace(" ", "");
+        int virgula = limpo.lastIndexOf(',');
+        int ponto = limpo.lastIndexOf('.');
+        if (virgula >= 0 && ponto >= 0) {
+            // O último separador é o decimal; o outro agrupa milhares
+            limpo = virgula > ponto
+                    ? limpo.replace(".", "").replace(',', '.')
+                    : limpo.replace(",", "");
+        } else if (virgula >= 0) {
+            limpo = limpo.indexOf(',') != virgula ? limpo.replace(",", "") : limpo.replace(',', '.');
+        } else if (ponto >= 0 && MILHARES_COM_PONTO.matcher(limpo).matches()) {
+            limpo = limpo.replace(".", "");
+        }
+        return de(new BigDecimal(limpo));
+    }
+
+    public long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Retorna o valor em reais como double, para gráficos e outras bordas que
+     * exigem ponto flutuante.
+     */
+    public double paraDouble() {
+        return centavos / 100.0;
+    }
+
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    public Dinheiro somar(Dinheiro outro) {
+        return outro.centavos == 0 ? this : deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro subtrair(Dinheiro outro) {
+        return outro.centavos == 0 ? this : deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro multiplicar(long fator) {
+        return deCentavos(Math.multiplyExact(centavos, fator));
+    }
+
+    /**
+     * Reparte o valor em partes que somam exatamente o total: cada parte recebe o
+     * quociente arredondado para baixo, e o resto é distribuído um centavo por vez
+     * às primeiras partes. As partes diferem em no máximo um centavo, e nenhuma fica
+     * negativa quando o valor é positivo (R$ 0,05 em 10 partes dá 1 centavo às cinco
+     * primeiras e zero às demais).
+     *
+     * @param partes número de partes (maior que zero)
+     * @return as partes, da maior para a menor
+     */
+    public Dinheiro[] repartir(int partes) {
+        if (partes <= 0) {
+            throw new IllegalArgumentException("Número de partes deve ser maior que zero");
+        }
+        long quociente = Math.floorDiv(centavos, partes);
+        long resto = Math.floorMod(centavos, partes);
+        Dinheiro[] resultado = new Dinheiro[partes];
+        for (int i = 0; i < partes; i++) {
+            resultado[i] = deCentavos(i < resto ? quociente + 1 : quociente);
+        }
+        return resultado;
+    }
+
+    public boolean isZero() {
+        return centavos == 0;
+    }
+
+    public boolean isPositivo() {
+        return centavos > 0;
+    }
+
+    public boolean isNegativo() {
+        return centavos < 0;
+    }
+
+    /**
+     * Retorna o valor formatado sem o símbolo da moeda, por exemplo "1234,56".
+     */
+    public String formatarValor() {
+        return String.format(LOCALE_BR, "%.2f", paraBigDecimal());
+    }
+
+    /**
+     * Retorna o valor formatado com o símbolo da moeda, por exemplo "R$ 1234,56".
+     */
+    public String formatar() {
+        return "R$ " + formatarValor();
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Dinheiro)) return false;
+        return centavos == ((Dinheiro) o).centavos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+
+    @Override
+    public String toString() {
+        return formatar();
+    }
+}
@@ -0,0 +1,85 @@
+package com.gastos.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Classe que representa a fatura de um cartão de crédito em um ciclo de cobrança.
+ * A fatura é identificada pelo cartão e pelo mês de fechamento; os totais vêm da
+ * tabela faturas, mantida por gatilhos, e contam as despesas à vista e as parcelas
+ * lançadas no cartão.
+ */
+public class Fatura {
+    private final int cartaoId;
+    private final YearMonth mesFechamento;
+    private final LocalDate dataFechamento;
+    private final LocalDate dataVencimento;
+    private final int quantidade;
+    private final Dinheiro total;
+    private final Dinheiro totalPago;
+
+    public Fatura(CartaoCredito cartao, YearMonth mesFechamento, int quantidade, Dinheiro total, Dinheiro totalPago) {
+        this.cartaoId = cartao.getId();
+        this.mesFechamento = mesFechamento;
+        this.dataFechamento = cartao.calcularFechamento(mesFechamento);
+        this.dataVencimento = cartao.calcularVencimento(mesFechamento);
+        this.quantidade = quantidade;
+        this.total = total;
+        this.totalPago = totalPago;
+    }
+
+    /**
+     * Cria uma fatura sem lançamentos.
+     */
+    public static Fatura vazia(CartaoCredito cartao, YearMonth mesFechamento) {
+        return new Fatura(cartao, mesFechamento, 0, Dinheiro.ZERO, Dinheiro.ZERO);
+    }
+
+    public int getCartaoId() {
+        return cartaoId;
+    }
+
+    public YearMonth getMesFechamento() {
+        return mesFechamento;
+    }
+
+    public LocalDate getDataFechamento() {
+        return dataFechamento;
+    }
+
+    public LocalDate getDataVencimento() {
+        return dataVencimento;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public Dinheiro getTotal() {
+        return total;
+    }
+
+    public Dinheiro getTotalPago() {
+        return totalPago;
+    }
+
+    /**
+     * Retorna o valor ainda não pago da fatura.
+     */
+    public Dinheiro getEmAberto() {
+        return total.subtrair(totalPago);
+    }
+
+    /**
+     * Verifica se a fatura já está fechada na data informada. Compras feitas no dia
+     * do fechamento já entram na fatura seguinte.
+     */
+    public boolean isFechada(LocalDate data) {
+        return !data.isBefore(dataFechamento);
+    }
+
+    @Override
+    public String toString() {
+        return "Fatura " + mesFechamento + " (vence em " + dataVencimento + "): " + total.formatar();
+    }
+}
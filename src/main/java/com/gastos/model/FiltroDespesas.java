@@ -0,0 +1,143 @@
+package com.gastos.model;
+
+import java.time.LocalDate;
+
+/**
+ * Classe que representa os critérios de filtragem da listagem de despesas.
+ * Campos nulos (ou "Todos", no caso de tipo e status) não restringem a consulta.
+ */
+public class FiltroDespesas {
+    public static final String TODOS = "Todos";
+    public static final String TIPO_NORMAL = "Normal";
+    public static final String TIPO_FIXA = "Fixa";
+    public static final String TIPO_PARCELADA = "Parcelada";
+    public static final String STATUS_PAGO = "Pago";
+    public static final String STATUS_A_PAGAR = "A Pagar";
+
+    private final LocalDate dataInicio;
+    private final LocalDate dataFim;
+    private final String tipo;
+    private final String status;
+    private final String termoBusca;
+    private final Integer responsavelId;
+    private final Integer cartaoId;
+
+    /**
+     * Cria um filtro sem restrições.
+     */
+    public FiltroDespesas() {
+        this(null, null, TODOS, TODOS, null);
+    }
+
+    /**
+     * Cria um filtro com os critérios informados.
+     *
+     * @param dataInicio data inicial (compra ou vencimento)
+     * @param dataFim data final (compra ou vencimento)
+     * @param tipo Todos, Normal, Fixa ou Parcelada
+     * @param status Todos, Pago ou A Pagar
+     * @param termoBusca texto buscado na descrição ou na categoria
+     */
+    public FiltroDespesas(LocalDate dataInicio, LocalDate dataFim, String tipo, String status, String termoBusca) {
+        this(dataInicio, dataFim, tipo, status, termoBusca, null, null);
+    }
+
+    /**
+     * Cria um filtro com os critérios informados, restrito a um responsável e a um cartão.
+     *
+     * @param responsavelId ID do responsável (null para todos)
+     * @param cartaoId ID do cartão de crédito (null para todos)
+     */
+    public FiltroDespesas(LocalDate dataInicio, LocalDate dataFim, String tipo, String status, String termoBusca,
+                          Integer responsavelId, Integer cartaoId) {
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+        this.tipo = tipo;
+        this.status = status;
+        this.termoBusca = termoBusca != null && !termoBusca.trim().isEmpty() ? termoBusca.trim() : null;
+        this.responsavelId = responsavelId;
+        this.cartaoId = cartaoId;
+    }
+
+    // Getters
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getTermoBusca() {
+        return termoBusca;
+    }
+
+    public Integer getResponsavelId() {
+        return responsavelId;
+    }
+
+    public Integer getCartaoId() {
+        return cartaoId;
+    }
+
+    /**
+     * Verifica, em memória, se a despesa atende aos critérios do filtro, da mesma forma
+     * que a consulta paginada do DespesaDAO. O termo de busca não é avaliado, pois
+     * depende do índice textual do banco.
+     *
+     * @param despesa a despesa
+     * @return true se a despesa atende a todos os critérios, exceto o termo de busca
+     */
+    public boolean aceita(Despesa despesa) {
+        if (dataInicio != null && dataFim != null
+                && !dentroDoPeriodo(despesa.getDataCompra()) && !dentroDoPeriodo(despesa.getDataVencimento())) {
+            return false;
+        }
+
+        if (TIPO_NORMAL.equals(tipo) && (despesa.isFixo() || despesa.isParcelada())) {
+            return false;
+        } else if (TIPO_FIXA.equals(tipo) && !despesa.isFixo()) {
+            return false;
+        } else if (TIPO_PARCELADA.equals(tipo) && !despesa.isParcelada()) {
+            return false;
+        }
+
+        if (STATUS_PAGO.equals(status) && !despesa.isPago()) {
+            return false;
+        } else if (STATUS_A_PAGAR.equals(status) && despesa.isPago()) {
+            return false;
+        }
+
+        if (responsavelId != null
+                && (despesa.getResponsavel() == null || despesa.getResponsavel().getId() != responsavelId)) {
+            return false;
+        }
+
+        return cartaoId == null
+                || (despesa.getCartaoCredito() != null && despesa.getCartaoCredito().getId() == cartaoId);
+    }
+
+    private boolean dentroDoPeriodo(LocalDate data) {
+        return data != null && !data.isBefore(dataInicio) && !data.isAfter(dataFim);
+    }
+
+    /**
+     * Verifica se o filtro não restringe nenhum critério.
+     */
+    public boolean isVazio() {
+        return (dataInicio == null || dataFim == null)
+                && (tipo == null || TODOS.equals(tipo))
+                && (status == null || TODOS.equals(status))
+                && termoBusca == null
+                && responsavelId == null
+                && cartaoId == null;
+    }
+}
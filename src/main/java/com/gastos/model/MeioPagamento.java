@@ -42,6 +42,13 @@ public class MeioPagamento {
         this.isCartaoCredito = isCartaoCredito;
     }
     
+    /**
+     * Cria uma cópia independente, que pode ser alterada sem afetar o original.
+     */
+    public MeioPagamento copiar() {
+        return new MeioPagamento(id, nome, isCartaoCredito);
+    }
+    
     @Override
     public String toString() {
         return nome;
@@ -9,7 +9,7 @@ import java.util.List;
  */
 public class Parcelamento {
     private int id;
-    private double valorTotal;
+    private Dinheiro valorTotal;
     private int totalParcelas;
     private int parcelasRestantes;
     private LocalDate dataInicio;
@@ -19,6 +19,7 @@ public class Parcelamento {
      * Construtor padrão que inicializa a lista de parcelas e a data de início.
      */
     public Parcelamento() {
+        this.valorTotal = Dinheiro.ZERO;
         this.parcelas = new ArrayList<>();
         this.dataInicio = LocalDate.now();
     }
@@ -26,7 +27,7 @@ public class Parcelamento {
     /**
      * Construtor completo.
      */
-    public Parcelamento(int id, double valorTotal, int totalParcelas, LocalDate dataInicio) {
+    public Parcelamento(int id, Dinheiro valorTotal, int totalParcelas, LocalDate dataInicio) {
         this.id = id;
         this.valorTotal = valorTotal;
         this.totalParcelas = totalParcelas;
@@ -35,6 +36,21 @@ public class Parcelamento {
         this.parcelas = new ArrayList<>();
     }
     
+    /**
+     * Cria um parcelamento recorrente: {@code meses} parcelas mensais de mesmo valor.
+     * As parcelas já são geradas.
+     * @param valorMensal o valor de cada parcela
+     * @param dataInicio o vencimento da primeira parcela
+     * @param meses o número de parcelas
+     * @param cartao o cartão usado, para o cálculo dos vencimentos (pode ser null)
+     */
+    public static Parcelamento recorrente(Dinheiro valorMensal, LocalDate dataInicio, int meses, CartaoCredito cartao) {
+        Parcelamento parcelamento = new Parcelamento(0, valorMensal.multiplicar(meses), meses, dataInicio);
+        parcelamento.gerarParcelas(cartao);
+        parcelamento.atualizarParcelasRestantes();
+        return parcelamento;
+    }
+    
     // Getters e Setters
     public int getId() {
         return id;
@@ -44,11 +60,11 @@ public class Parcelamento {
         this.id = id;
     }
     
-    public double getValorTotal() {
+    public Dinheiro getValorTotal() {
         return valorTotal;
     }
     
-    public void setValorTotal(double valorTotal) {
+    public void setValorTotal(Dinheiro valorTotal) {
         this.valorTotal = valorTotal;
     }
     
@@ -94,11 +110,11 @@ public class Parcelamento {
     
     /**
      * Calcula o valor de cada parcela
-     * @return o valor de cada parcela
+     * @return o valor da primeira parcela; as seguintes podem ter um centavo a menos
      */
-    public double getValorParcela() {
-        if (totalParcelas <= 0) return 0;
-        return Math.round((valorTotal / totalParcelas) * 100.0) / 100.0; // Arredondamento para 2 casas decimais
+    public Dinheiro getValorParcela() {
+        if (totalParcelas <= 0) return Dinheiro.ZERO;
+        return valorTotal.repartir(totalParcelas)[0];
     }
     
     /**
@@ -112,17 +128,13 @@ public class Parcelamento {
         // Validar parâmetros
         validarParametrosParcelamento();
         
-        double valorParcela = getValorParcela();
+        // Os centavos que sobram da divisão vão um a um para as primeiras parcelas
+        Dinheiro[] valores = valorTotal.repartir(totalParcelas);
         
         for (int i = 1; i <= totalParcelas; i++) {
             Parcela parcela = new Parcela();
             parcela.setNumeroParcela(i);
-            parcela.setValor(valorParcela);
-            
-            // Para a última parcela, ajustar o valor para garantir soma exata
-            if (i == totalParcelas) {
-                ajustarValorUltimaParcela(parcela, valorParcela);
-            }
+            parcela.setValor(valores[i - 1]);
             
             // Cálculo da data de vencimento
             calcularDataVencimento(parcela, i, cartao);
@@ -140,28 +152,22 @@ public class Parcelamento {
             throw new IllegalArgumentException("Número de parcelas deve ser maior que zero");
         }
         
-        if (valorTotal <= 0) {
+        if (!valorTotal.isPositivo()) {
             System.err.println("ERRO: Valor total deve ser maior que zero!");
             throw new IllegalArgumentException("Valor total deve ser maior que zero");
         }
         
+        if (valorTotal.getCentavos() < totalParcelas) {
+            System.err.println("ERRO: Valor total menor que um centavo por parcela!");
+            throw new IllegalArgumentException("Valor total deve ser de pelo menos um centavo por parcela");
+        }
+        
         if (dataInicio == null) {
             System.err.println("ERRO: Data de início não pode ser nula!");
             dataInicio = LocalDate.now();
         }
     }
     
-    /**
-     * Ajusta o valor da última parcela para garantir que a soma seja exatamente o valor total
-     */
-    private void ajustarValorUltimaParcela(Parcela parcela, double valorParcela) {
-        double somaAnterior = valorParcela * (totalParcelas - 1);
-        double valorUltimaParcela = valorTotal - somaAnterior;
-        // Arredondar para 2 casas decimais
-        valorUltimaParcela = Math.round(valorUltimaParcela * 100.0) / 100.0;
-        parcela.setValor(valorUltimaParcela);
-    }
-    
     /**
      * Calcula a data de vencimento de uma parcela
      */
@@ -242,14 +248,14 @@ public class Parcelamento {
      */
     public String getResumo() {
         StringBuilder sb = new StringBuilder();
-        sb.append(totalParcelas).append("x de R$ ").append(String.format("%.2f", getValorParcela()));
+        sb.append(totalParcelas).append("x de ").append(getValorParcela().formatar());
         sb.append(" (").append(parcelasRestantes).append(" restante(s))");
         return sb.toString();
     }
     
     @Override
     public String toString() {
-        return totalParcelas + "x de R$ " + String.format("%.2f", getValorParcela());
+        return totalParcelas + "x de " + getValorParcela().formatar();
     }
     
     /**
@@ -258,12 +264,13 @@ public class Parcelamento {
     public static class Parcela {
         private int id;
         private int numeroParcela;
-        private double valor;
+        private Dinheiro valor;
         private LocalDate dataVencimento;
         private boolean paga;
         private int parcelamentoId; // Campo adicional para facilitar operações
         
         public Parcela() {
+            this.valor = Dinheiro.ZERO;
             this.paga = false;
         }
         
@@ -284,11 +291,11 @@ public class Parcelamento {
             this.numeroParcela = numeroParcela;
         }
         
-        public double getValor() {
+        public Dinheiro getValor() {
             return valor;
         }
         
-        public void setValor(double valor) {
+        public void setValor(Dinheiro valor) {
             this.valor = valor;
         }
         
@@ -318,7 +325,7 @@ public class Parcelamento {
         
         @Override
         public String toString() {
-            return numeroParcela + "/" + " - R$ " + String.format("%.2f", valor) + 
+            return numeroParcela + "/" + " - " + valor.formatar() + 
                    (paga ? " [PAGA]" : " [A PAGAR]") + 
                    " - Venc.: " + dataVencimento;
         }
@@ -32,6 +32,13 @@ public class Responsavel {
         this.nome = nome;
     }
     
+    /**
+     * Cria uma cópia independente, que pode ser alterada sem afetar o original.
+     */
+    public Responsavel copiar() {
+        return new Responsavel(id, nome);
+    }
+    
     @Override
     public String toString() {
         return nome;
@@ -43,6 +43,13 @@ public class SubCategoria {
         this.categoriaId = categoriaId;
     }
     
+    /**
+     * Cria uma cópia independente, que pode ser alterada sem afetar o original.
+     */
+    public SubCategoria copiar() {
+        return new SubCategoria(id, nome, categoriaId);
+    }
+    
     @Override
     public String toString() {
         return nome;
@@ -1,185 +1,154 @@
 package com.gastos.service;
 
-import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 import com.gastos.controller.ResponsavelController;
 import com.gastos.model.Responsavel;
 
-import javafx.collections.ObservableList;
-import javafx.geometry.Insets;
+import javafx.application.Platform;
+import javafx.css.PseudoClass;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tooltip;
-import javafx.scene.effect.DropShadow;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 
 /**
  * Serviço para gerenciamento de avatares dos responsáveis.
  * Adaptado da classe GerenciadorAvatares existente.
+ *
+ * Os avatares são mantidos por ID do responsável: a cada atualização só são criados,
+ * removidos ou alterados os avatares das pessoas que mudaram, e uma atualização com
+ * a mesma lista de pessoas não cria nenhum nó. A seleção e o efeito de hover são
+ * feitos pelas pseudo-classes da folha de estilos css/avatares.css, e não por estilos
+ * inline.
  */
 public class AvatarService {
-    
-    // Constantes para estilo
-    private static final String STYLE_AVATAR_SELECTED = "-fx-effect: dropshadow(three-pass-box, #3498db, 10, 0.5, 0, 0);";
-    
+
+    private static final String FOLHA_ESTILOS = "/css/avatares.css";
+    private static final PseudoClass SELECIONADO = PseudoClass.getPseudoClass("selecionado");
+    private static final int TAMANHO = 50;
+
     private final HBox avatarContainer;
     private final ResponsavelController responsavelController;
+    private final CacheAvatares cacheAvatares;
+    private final Map<Integer, Avatar> avatares = new LinkedHashMap<>();
     private Integer responsavelSelecionadoId = null;
     private Consumer<Responsavel> aoSelecionarCallback;
-    
+    private int geracao = 0;
+
     /**
      * Construtor que inicializa o serviço de avatares.
-     * 
+     *
      * @param container Container onde os avatares serão exibidos
      * @param aoSelecionar Callback executado quando um avatar é selecionado
      */
     public AvatarService(HBox container, Consumer<Responsavel> aoSelecionar) {
         this.avatarContainer = container;
         this.responsavelController = new ResponsavelController();
+        this.cacheAvatares = CacheAvatares.getInstancia();
         this.aoSelecionarCallback = aoSelecionar;
-        
+
         // Configurar o container
         avatarContainer.setSpacing(15);
         avatarContainer.setAlignment(Pos.CENTER_LEFT);
+        avatarContainer.getStylesheets().add(AvatarService.class.getResource(FOLHA_ESTILOS).toExternalForm());
+
+        // Fotos salvas ou excluídas (o processamento termina em segundo plano) redesenham o avatar
+        cacheAvatares.adicionarOuvinte(id -> Platform.runLater(() -> recarregarFoto(id)));
     }
-    
+
     /**
      * Carrega e exibe os avatares das pessoas cadastradas.
+     * Consulta o banco na thread atual; para carregar fora da thread FX,
+     * use {@link #buscarResponsaveis()} seguido de {@link #exibirAvatares(List)}.
      */
     public void carregarAvatares() {
-        try {
-            ObservableList<Responsavel> responsaveis = responsavelController.listarTodosResponsaveis();
-            
-            if (responsaveis != null && !responsaveis.isEmpty()) {
-                // Limpar o container antes de adicionar
-                avatarContainer.getChildren().clear();
-                
-                // Criar um avatar para cada pessoa
-                for (Responsavel responsavel : responsaveis) {
-                    StackPane avatar = criarAvatar(responsavel);
-                    avatarContainer.getChildren().add(avatar);
-                }
-                
-                // Atualizar o estado visual dos avatares
-                atualizarAvatares(responsavelSelecionadoId);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        exibirAvatares(buscarResponsaveis());
     }
-    
+
     /**
-     * Cria um avatar para uma pessoa.
+     * Busca as pessoas cadastradas. Não toca na interface.
+     *
+     * @return a lista de responsáveis
      */
-    private StackPane criarAvatar(Responsavel responsavel) {
-        StackPane avatarCircle = new StackPane();
-        avatarCircle.setPrefSize(50, 50);
-        avatarCircle.setId("avatar-" + responsavel.getId());
-        
-        // Usar imagem de perfil ou uma imagem padrão
-        ImageView imageView = new ImageView();
-        imageView.setFitWidth(50);
-        imageView.setFitHeight(50);
-        
-        // Aplicar clip circular
-        Circle clip = new Circle(25, 25, 25);
-        imageView.setClip(clip);
-        
-        // Tentar carregar a imagem do usuário
-        String caminhoImagem = "images/profile_" + responsavel.getId() + ".png";
-        File arquivo = new File(caminhoImagem);
-        
-        if (arquivo.exists()) {
-            try {
-                Image imagem = new Image(arquivo.toURI().toString());
-                imageView.setImage(imagem);
-                avatarCircle.getChildren().add(imageView);
-            } catch (Exception e) {
-                // Se falhar, usar avatar padrão com iniciais
-                usarAvatarPadrao(avatarCircle, responsavel);
-            }
-        } else {
-            // Se não existir imagem, usar avatar padrão com iniciais
-            usarAvatarPadrao(avatarCircle, responsavel);
+    public List<Responsavel> buscarResponsaveis() {
+        return responsavelController.listarTodosResponsaveis();
+    }
+
+    /**
+     * Exibe os avatares das pessoas informadas, aplicando só as diferenças em relação
+     * aos avatares já exibidos. Deve ser chamado na thread FX.
+     *
+     * @param responsaveis as pessoas a exibir
+     */
+    public void exibirAvatares(List<Responsavel> responsaveis) {
+        if (responsaveis == null) {
+            return;
         }
-        
-        // Adicionar sombra
-        DropShadow sombra = new DropShadow();
-        sombra.setRadius(5.0);
-        sombra.setOffsetX(0);
-        sombra.setOffsetY(2.0);
-        sombra.setColor(Color.rgb(0, 0, 0, 0.3));
-        avatarCircle.setEffect(sombra);
-        
-        // Adicionar tooltip com o nome da pessoa
-        Tooltip tooltip = new Tooltip(responsavel.getNome());
-        Tooltip.install(avatarCircle, tooltip);
-        
-        // Adicionar evento de clique
-        avatarCircle.setOnMouseClicked(e -> selecionarPessoa(responsavel));
-        
-        // Adicionar efeito hover
-        avatarCircle.setOnMouseEntered(e -> {
-            if (responsavelSelecionadoId == null || responsavelSelecionadoId != responsavel.getId()) {
-                avatarCircle.setStyle("-fx-cursor: hand; -fx-effect: dropshadow(three-pass-box, #2980b9, 10, 0.3, 0, 0);");
+
+        try {
+            geracao++;
+            boolean mesmaOrdem = avatarContainer.getChildren().size() == responsaveis.size();
+            int posicao = 0;
+
+            for (Responsavel responsavel : responsaveis) {
+                Avatar avatar = avatares.get(responsavel.getId());
+                if (avatar == null) {
+                    avatar = new Avatar(responsavel.getId());
+                    avatares.put(responsavel.getId(), avatar);
+                    mesmaOrdem = false;
+                } else if (mesmaOrdem && avatarContainer.getChildren().get(posicao) != avatar.no) {
+                    mesmaOrdem = false;
+                }
+                avatar.geracao = geracao;
+                avatar.atualizar(responsavel);
+                posicao++;
             }
-        });
-        
-        avatarCircle.setOnMouseExited(e -> {
-            if (responsavelSelecionadoId == null || responsavelSelecionadoId != responsavel.getId()) {
-                avatarCircle.setStyle("-fx-cursor: hand;");
+
+            // Remover os avatares de pessoas que não estão mais na lista
+            Iterator<Avatar> iterator = avatares.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().geracao != geracao) {
+                    iterator.remove();
+                }
             }
-        });
-        
-        return avatarCircle;
+
+            if (!mesmaOrdem) {
+                Node[] nos = new Node[responsaveis.size()];
+                for (int i = 0; i < nos.length; i++) {
+                    nos[i] = avatares.get(responsaveis.get(i).getId()).no;
+                }
+                avatarContainer.getChildren().setAll(nos);
+            }
+
+            // Atualizar o estado visual dos avatares
+            atualizarAvatares(responsavelSelecionadoId);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
-    
+
     /**
-     * Usa um avatar padrão com as iniciais da pessoa.
+     * Relê do cache a foto de um avatar exibido, depois que ela foi trocada ou excluída.
      */
-    private void usarAvatarPadrao(StackPane avatarCircle, Responsavel responsavel) {
-        // Limpar avatar existente
-        avatarCircle.getChildren().clear();
-        
-        // Gerar iniciais da pessoa
-        String[] partes = responsavel.getNome().split(" ");
-        String iniciais = "";
-        
-        if (partes.length > 0) {
-            iniciais += partes[0].charAt(0);
-            if (partes.length > 1) {
-                iniciais += partes[partes.length - 1].charAt(0);
-            }
-        } else {
-            iniciais = "??";
+    private void recarregarFoto(int responsavelId) {
+        Avatar avatar = avatares.get(responsavelId);
+        if (avatar != null && avatar.responsavel != null) {
+            avatar.atualizar(avatar.responsavel);
         }
-        
-        // Gerar cor baseada no hash do nome
-        int hash = responsavel.getNome().hashCode();
-        double hue = Math.abs(hash % 360);
-        Color cor = Color.hsb(hue, 0.7, 0.8);
-        
-        // Criar círculo colorido
-        Circle circulo = new Circle(25);
-        circulo.setFill(cor);
-        
-        // Texto com as iniciais
-        Label lblIniciais = new Label(iniciais.toUpperCase());
-        lblIniciais.setFont(Font.font("Arial", FontWeight.BOLD, 16));
-        lblIniciais.setTextFill(Color.WHITE);
-        
-        avatarCircle.getChildren().addAll(circulo, lblIniciais);
     }
-    
+
     /**
      * Seleciona uma pessoa e notifica o callback.
      */
@@ -198,31 +167,17 @@ public class AvatarService {
             }
         }
     }
-    
+
     /**
      * Atualiza a aparência dos avatares conforme seleção.
      */
     public void atualizarAvatares(Integer responsavelSelecionadoId) {
-        for (Node node : avatarContainer.getChildren()) {
-            if (node instanceof StackPane) {
-                StackPane avatarCircle = (StackPane) node;
-                String id = avatarCircle.getId();
-                
-                if (id != null && id.startsWith("avatar-")) {
-                    int avatarId = Integer.parseInt(id.substring(7)); // Extrair o ID do avatar
-                    
-                    if (responsavelSelecionadoId != null && avatarId == responsavelSelecionadoId) {
-                        // Avatar selecionado
-                        avatarCircle.setStyle(STYLE_AVATAR_SELECTED);
-                    } else {
-                        // Avatar não selecionado
-                        avatarCircle.setStyle("");
-                    }
-                }
-            }
+        for (Avatar avatar : avatares.values()) {
+            avatar.no.pseudoClassStateChanged(SELECIONADO,
+                    responsavelSelecionadoId != null && avatar.id == responsavelSelecionadoId);
         }
     }
-    
+
     /**
      * Define o ID do responsável selecionado e atualiza os avatares.
      */
@@ -230,18 +185,120 @@ public class AvatarService {
         this.responsavelSelecionadoId = id;
         atualizarAvatares(id);
     }
-    
+
     /**
      * Retorna o ID do responsável selecionado atualmente.
      */
     public Integer getResponsavelSelecionadoId() {
         return responsavelSelecionadoId;
     }
-    
+
     /**
      * Define o callback a ser chamado quando um avatar é selecionado.
      */
     public void setAoSelecionarCallback(Consumer<Responsavel> callback) {
         this.aoSelecionarCallback = callback;
     }
-}
\ No newline at end of file
+
+    /**
+     * Avatar de um responsável: o nó exibido e os dados com que foi desenhado, para
+     * que uma atualização só refaça o conteúdo se o nome ou a foto mudaram.
+     */
+    private final class Avatar {
+        private final int id;
+        private final StackPane no = new StackPane();
+        private final Tooltip tooltip = new Tooltip();
+        private Responsavel responsavel;
+        private String nome;
+        private Image imagem;
+        private boolean exibindoImagem;
+        private int geracao;
+
+        Avatar(int id) {
+            this.id = id;
+            no.setPrefSize(TAMANHO, TAMANHO);
+            no.setId("avatar-" + id);
+            no.getStyleClass().add("avatar");
+            Tooltip.install(no, tooltip);
+            no.setOnMouseClicked(e -> selecionarPessoa(responsavel));
+        }
+
+        /**
+         * Atualiza o avatar com os dados atuais da pessoa, se algo mudou.
+         */
+        void atualizar(Responsavel atual) {
+            responsavel = atual;
+            Image novaImagem = cacheAvatares.obter(id, TAMANHO);
+            String novoNome = atual.getNome();
+            if (exibindoImagem == (novaImagem != null) && novaImagem == imagem && Objects.equals(novoNome, nome)) {
+                return;
+            }
+
+            if (!Objects.equals(novoNome, nome)) {
+                tooltip.setText(novoNome);
+            }
+            nome = novoNome;
+            imagem = novaImagem;
+
+            if (novaImagem != null) {
+                usarImagem(novaImagem);
+            } else {
+                usarIniciais();
+            }
+        }
+
+        /**
+         * Exibe a foto da pessoa, recortada em círculo.
+         */
+        private void usarImagem(Image foto) {
+            ImageView imageView = new ImageView(foto);
+            imageView.setFitWidth(TAMANHO);
+            imageView.setFitHeight(TAMANHO);
+            imageView.setClip(new Circle(TAMANHO / 2.0, TAMANHO / 2.0, TAMANHO / 2.0));
+            no.getChildren().setAll(imageView);
+            exibindoImagem = true;
+
+            if (foto.getProgress() < 1) {
+                // Se a decodificação falhar, usar avatar padrão com iniciais
+                foto.errorProperty().addListener((obs, antes, erro) -> {
+                    if (erro && imagem == foto) {
+                        usarIniciais();
+                    }
+                });
+            }
+        }
+
+        /**
+         * Usa um avatar padrão com as iniciais da pessoa.
+         */
+        private void usarIniciais() {
+            // Gerar iniciais da pessoa
+            String[] partes = nome.split(" ");
+            String iniciais = "";
+
+            if (partes.length > 0) {
+                iniciais += partes[0].charAt(0);
+                if (partes.length > 1) {
+                    iniciais += partes[partes.length - 1].charAt(0);
+                }
+            } else {
+                iniciais = "??";
+            }
+
+            // Gerar cor baseada no hash do nome
+            int hash = nome.hashCode();
+            double hue = Math.abs(hash % 360);
+            Color cor = Color.hsb(hue, 0.7, 0.8);
+
+            // Círculo colorido com as iniciais
+            Circle circulo = new Circle(TAMANHO / 2.0);
+            circulo.setFill(cor);
+
+            Label lblIniciais = new Label(iniciais.toUpperCase());
+            lblIniciais.getStyleClass().add("avatar-iniciais");
+
+            no.getChildren().setAll(circulo, lblIniciais);
+            exibindoImagem = false;
+        }
+    }
+}
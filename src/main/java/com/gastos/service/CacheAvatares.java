@@ -0,0 +1,194 @@
+package com.gastos.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+
+import javafx.scene.image.Image;
+
+/**
+ * Cache compartilhado das fotos de perfil dos responsáveis (images/profile_&lt;id&gt;.png).
+ *
+ * Cada foto é decodificada uma única vez por tamanho, em segundo plano e já no
+ * tamanho pedido ({@link Image} com backgroundLoading e requestedWidth/Height), em vez
+ * de ser lida e decodificada no tamanho original a cada atualização do dashboard.
+ * O cache guarda uma entrada por responsável, com a data de modificação do arquivo
+ * lida na carga; a data só é conferida de novo depois de {@value #INTERVALO_VERIFICACAO_MS} ms,
+ * para perceber fotos trocadas fora do aplicativo sem acessar o disco a cada
+ * atualização. {@link ResponsavelService#salvarFoto} e {@link ResponsavelService#excluirFoto}
+ * descartam a entrada na hora, e os ouvintes registrados são avisados para redesenhar
+ * a foto, já que o processamento termina depois que a tela de cadastro salvou a pessoa.
+ */
+public final class CacheAvatares {
+
+    private static final CacheAvatares INSTANCIA = new CacheAvatares();
+
+    private static final String PASTA_IMAGENS = "images";
+    private static final long INTERVALO_VERIFICACAO_MS = 10_000;
+    private static final long SEM_ARQUIVO = -1;
+
+    private final Map<Integer, Entrada> entradas = new HashMap<>();
+    private final List<IntConsumer> ouvintes = new CopyOnWriteArrayList<>();
+    private long acertos;
+    private long faltas;
+
+    private CacheAvatares() {
+    }
+
+    /**
+     * Retorna a instância compartilhada do cache.
+     */
+    public static CacheAvatares getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Obtém a foto de um responsável no tamanho pedido. Na primeira chamada para um
+     * tamanho, a imagem começa a ser decodificada em segundo plano e é devolvida
+     * ainda carregando; o ImageView a exibe quando a carga terminar.
+     *
+     * @param responsavelId o ID do responsável
+     * @param tamanho largura e altura da imagem, em pixels
+     * @return a imagem, ou null se o responsável não tiver foto ou se ela não puder
+     *         ser decodificada
+     */
+    public synchronized Image obter(int responsavelId, int tamanho) {
+        long agora = System.currentTimeMillis();
+        Entrada entrada = entradas.get(responsavelId);
+
+        if (entrada != null && agora - entrada.verificadaEm >= INTERVALO_VERIFICACAO_MS) {
+            if (lerDataModificacao(responsavelId) != entrada.dataModificacao) {
+                entrada = null;
+            } else {
+                entrada.verificadaEm = agora;
+            }
+        }
+        if (entrada == null) {
+            entrada = new Entrada(lerDataModificacao(responsavelId), agora);
+            entradas.put(responsavelId, entrada);
+        }
+        if (entrada.dataModificacao == SEM_ARQUIVO) {
+            acertos++;
+            return null;
+        }
+
+        Image imagem = entrada.imagens.get(tamanho);
+        if (imagem == null) {
+            faltas++;
+            imagem = new Image(escolherArquivo(responsavelId, tamanho).toUri().toString(), tamanho, tamanho, false, true, true);
+            entrada.imagens.put(tamanho, imagem);
+        } else {
+            acertos++;
+        }
+        return imagem.isError() ? null : imagem;
+    }
+
+    /**
+     * Descarta as imagens de um responsável, depois que a foto foi trocada ou excluída,
+     * e avisa os ouvintes, na thread atual.
+     *
+     * @param responsavelId o ID do responsável
+     */
+    public void invalidar(int responsavelId) {
+        synchronized (this) {
+            entradas.remove(responsavelId);
+        }
+        for (IntConsumer ouvinte : ouvintes) {
+            ouvinte.accept(responsavelId);
+        }
+    }
+
+    /**
+     * Registra um ouvinte que recebe o ID do responsável cuja foto foi invalidada.
+     * Ele é chamado na thread que invalidou, em geral fora da thread FX.
+     */
+    public void adicionarOuvinte(IntConsumer ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(IntConsumer ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Descarta todas as imagens do cache.
+     */
+    public synchronized void invalidarTodos() {
+        entradas.clear();
+    }
+
+    /**
+     * Retorna um resumo das estatísticas do cache.
+     */
+    public synchronized String getEstatisticas() {
+        return String.format("Cache de avatares: %d acertos, %d faltas, %d responsáveis em cache",
+                acertos, faltas, entradas.size());
+    }
+
+    /**
+     * Retorna o caminho da foto de um responsável, exista ela ou não.
+     */
+    public static Path getCaminhoFoto(int responsavelId) {
+        return Paths.get(PASTA_IMAGENS, "profile_" + responsavelId + ".png");
+    }
+
+    /**
+     * Retorna o caminho de uma variante reduzida da foto gerada pelo
+     * {@link ProcessadorFotos}; a variante de {@value ProcessadorFotos#TAMANHO_MAXIMO} px
+     * é o próprio arquivo principal.
+     */
+    public static Path getCaminhoFoto(int responsavelId, int tamanho) {
+        if (tamanho == ProcessadorFotos.TAMANHO_MAXIMO) {
+            return getCaminhoFoto(responsavelId);
+        }
+        return Paths.get(PASTA_IMAGENS, "profile_" + responsavelId + "_" + tamanho + ".png");
+    }
+
+    /**
+     * Escolhe a menor variante que não seja menor que o tamanho pedido; fotos gravadas
+     * antes das variantes só têm o arquivo principal.
+     */
+    private static Path escolherArquivo(int responsavelId, int tamanho) {
+        for (int variante : ProcessadorFotos.TAMANHOS) {
+            if (variante >= tamanho && variante != ProcessadorFotos.TAMANHO_MAXIMO) {
+                Path caminho = getCaminhoFoto(responsavelId, variante);
+                if (Files.exists(caminho)) {
+                    return caminho;
+                }
+            }
+        }
+        return getCaminhoFoto(responsavelId);
+    }
+
+    private static long lerDataModificacao(int responsavelId) {
+        try {
+            return Files.getLastModifiedTime(getCaminhoFoto(responsavelId)).toMillis();
+        } catch (NoSuchFileException e) {
+            return SEM_ARQUIVO;
+        } catch (IOException e) {
+            System.err.println("Erro ao verificar foto do responsável " + responsavelId + ": " + e.getMessage());
+            return SEM_ARQUIVO;
+        }
+    }
+
+    /**
+     * Imagens de um responsável, por tamanho, e a data de modificação do arquivo.
+     */
+    private static final class Entrada {
+        private final long dataModificacao;
+        private final Map<Integer, Image> imagens = new HashMap<>();
+        private long verificadaEm;
+
+        Entrada(long dataModificacao, long verificadaEm) {
+            this.dataModificacao = dataModificacao;
+            this.verificadaEm = verificadaEm;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.gastos.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.concurrent.Task;
+
+/**
+ * Executa carregamentos de dados fora da thread da interface (FX).
+ *
+ * Todas as telas compartilham um único executor limitado, de poucas threads daemon,
+ * para não disputar as conexões de leitura do banco. Cada carregamento é identificado
+ * por uma chave: iniciar um novo carregamento com a mesma chave cancela o anterior,
+ * cujo resultado é descartado. O resultado é entregue de uma só vez na thread FX,
+ * de modo que a tela é atualizada em um único lote.
+ *
+ * Cada tela deve ter a sua própria instância; os métodos de instância devem ser
+ * chamados apenas na thread FX.
+ */
+public class CarregadorAssincrono {
+
+    private static final int MAX_THREADS = 2;
+    private static final int MAX_FILA = 32;
+
+    private static final ThreadPoolExecutor EXECUTOR = criarExecutor();
+
+    private final Map<String, Task<?>> tarefasAtivas = new HashMap<>();
+
+    /**
+     * Cria o executor compartilhado, com número de threads e fila limitados.
+     */
+    private static ThreadPoolExecutor criarExecutor() {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = r -> {
+            Thread thread = new Thread(r, "carregador-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(MAX_FILA), fabrica);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Inicia um carregamento em segundo plano, cancelando o anterior de mesma chave.
+     *
+     * @param chave identificador do carregamento dentro da tela
+     * @param carga trabalho executado fora da thread FX; não deve tocar na interface
+     * @param aoConcluir recebe o resultado na thread FX
+     * @param aoFalhar recebe o erro na thread FX (opcional)
+     * @return a tarefa criada
+     */
+    public <T> Task<T> carregar(String chave, Callable<T> carga, Consumer<T> aoConcluir, Consumer<Throwable> aoFalhar) {
+        cancelar(chave);
+
+        Task<T> tarefa = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return carga.call();
+            }
+        };
+
+        tarefa.setOnSucceeded(e -> {
+            tarefasAtivas.remove(chave, tarefa);
+            aoConcluir.accept(tarefa.getValue());
+        });
+
+        tarefa.setOnFailed(e -> {
+            tarefasAtivas.remove(chave, tarefa);
+            Throwable erro = tarefa.getException();
+            System.err.println("Erro no carregamento '" + chave + "': " + erro);
+            if (aoFalhar != null) {
+                aoFalhar.accept(erro);
+            }
+        });
+
+        tarefasAtivas.put(chave, tarefa);
+
+        try {
+            EXECUTOR.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            tarefasAtivas.remove(chave, tarefa);
+            System.err.println("Carregamento '" + chave + "' rejeitado: fila de carregamentos cheia.");
+            if (aoFalhar != null) {
+                aoFalhar.accept(e);
+            }
+        }
+
+        return tarefa;
+    }
+
+    /**
+     * Inicia um carregamento em segundo plano sem tratamento de erro específico.
+     *
+     * @see #carregar(String, Callable, Consumer, Consumer)
+     */
+    public <T> Task<T> carregar(String chave, Callable<T> carga, Consumer<T> aoConcluir) {
+        return carregar(chave, carga, aoConcluir, null);
+    }
+
+    /**
+     * Cancela o carregamento em andamento com a chave informada, se houver.
+     *
+     * @param chave identificador do carregamento
+     */
+    public void cancelar(String chave) {
+        Task<?> anterior = tarefasAtivas.remove(chave);
+        if (anterior != null) {
+            anterior.cancel(true);
+        }
+    }
+
+    /**
+     * Cancela todos os carregamentos em andamento desta instância.
+     * Deve ser chamado quando a tela é fechada.
+     */
+    public void cancelarTodos() {
+        for (Task<?> tarefa : tarefasAtivas.values()) {
+            tarefa.cancel(true);
+        }
+        tarefasAtivas.clear();
+    }
+
+    /**
+     * Verifica se há um carregamento em andamento com a chave informada.
+     *
+     * @param chave identificador do carregamento
+     * @return true se o carregamento ainda não terminou
+     */
+    public boolean isCarregando(String chave) {
+        return tarefasAtivas.containsKey(chave);
+    }
+
+    /**
+     * Encerra o executor compartilhado. Chamado no encerramento da aplicação.
+     */
+    public static void encerrar() {
+        EXECUTOR.shutdownNow();
+    }
+}
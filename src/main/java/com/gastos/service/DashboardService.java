@@ -1,16 +1,16 @@
 package com.gastos.service;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.time.LocalDate;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 
 import com.gastos.controller.DespesaController;
-import com.gastos.db.ConexaoBanco;
-import com.gastos.model.CategoriaDespesa;
+import com.gastos.controller.ResponsavelController;
+import com.gastos.db.ResumoMensalDAO;
+import com.gastos.model.DashboardSnapshot;
 import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
 import com.gastos.model.Responsavel;
 
 import javafx.collections.FXCollections;
@@ -23,271 +23,131 @@ import javafx.collections.ObservableList;
 public class DashboardService {
     
     private final DespesaController despesaController;
+    private final ResponsavelController responsavelController;
+    private final RepositorioDespesas repositorio;
+    private final ResumoMensalDAO resumoMensalDAO;
     
     /**
      * Construtor padrão.
      */
     public DashboardService() {
         this.despesaController = new DespesaController();
+        this.responsavelController = new ResponsavelController();
+        this.repositorio = RepositorioDespesas.getInstancia();
+        this.resumoMensalDAO = new ResumoMensalDAO();
     }
     
     /**
-     * Calcula o total de despesas do mês.
+     * Carrega de uma só vez todos os dados exibidos no dashboard, a partir do
+     * repositório de despesas do mês (que só consulta o banco na primeira vez).
+     * Não toca na interface, podendo ser executado fora da thread FX.
      * 
      * @param responsavelId ID do responsável para filtro (opcional)
-     * @return Valor total das despesas
+     * @return os dados do dashboard
+     * @throws SQLException se for preciso carregar o mês e ocorrer um erro de SQL
      */
-    public double calcularTotalDespesasDoMes(Integer responsavelId) {
-        if (responsavelId != null) {
-            return calcularTotalDespesasPorResponsavel(responsavelId);
-        } else {
-            return despesaController.calcularTotalDespesasDoMes();
-        }
+    public DadosDashboard carregarDados(Integer responsavelId) throws SQLException {
+        DadosDashboard dados = new DadosDashboard();
+        dados.responsaveis = responsavelController.listarTodosResponsaveis();
+        dados.despesas = FXCollections.observableArrayList(repositorio.listarDespesasDoMes(responsavelId));
+        dados.aplicarResumo(repositorio.obterResumoDoMes(responsavelId));
+        return dados;
     }
     
     /**
-     * Calcula o total de despesas pagas do mês.
+     * Carrega os totais mensais do gráfico de tendência: os {@value GraficoService#MESES_TENDENCIA}
+     * meses terminados no mês informado, lidos do resumo mensal materializado.
      * 
      * @param responsavelId ID do responsável para filtro (opcional)
-     * @return Valor total das despesas pagas
+     * @param ate o último mês da tendência
+     * @return mapa de mês para total em centavos, em ordem cronológica
+     * @throws SQLException se ocorrer um erro de SQL
      */
-    public double calcularTotalDespesasPagasDoMes(Integer responsavelId) {
-        if (responsavelId != null) {
-            return calcularTotalDespesasPagasPorResponsavel(responsavelId);
-        } else {
-            return despesaController.calcularTotalDespesasPagasDoMes();
-        }
+    public Map<YearMonth, Long> carregarTendencia(Integer responsavelId, YearMonth ate) throws SQLException {
+        return resumoMensalDAO.obterTotaisPorMes(ate.minusMonths(GraficoService.MESES_TENDENCIA - 1L), ate, responsavelId);
     }
     
     /**
-     * Calcula o total de despesas a pagar do mês.
+     * Obtém o resumo do mês atual: totais gerais, por categoria e por responsável,
+     * lidos do resumo mensal materializado (tabela resumo_mensal).
      * 
      * @param responsavelId ID do responsável para filtro (opcional)
-     * @return Valor total das despesas a pagar
+     * @return O resumo do mês
      */
-    public double calcularTotalDespesasAPagarDoMes(Integer responsavelId) {
-        if (responsavelId != null) {
-            return calcularTotalDespesasAPagarPorResponsavel(responsavelId);
-        } else {
-            return despesaController.calcularTotalDespesasAPagarDoMes();
-        }
+    public DashboardSnapshot obterResumoDoMes(Integer responsavelId) {
+        return despesaController.obterResumoDoMes(responsavelId);
     }
     
     /**
-     * Obtém as despesas do mês atual, com opção de filtro por responsável.
+     * Calcula o total de despesas do mês.
      * 
      * @param responsavelId ID do responsável para filtro (opcional)
-     * @return Lista observável de despesas
+     * @return Valor total das despesas
      */
-    public ObservableList<Despesa> obterDespesasDoMes(Integer responsavelId) {
-        ObservableList<Despesa> despesas;
-        
-        // Se tiver filtro ativo, buscar apenas despesas da pessoa selecionada
-        if (responsavelId != null) {
-            despesas = despesaController.listarDespesasPorResponsavel(responsavelId);
-        } else {
-            despesas = despesaController.listarDespesasDoMes();
-        }
-        
-        // Se não conseguiu, buscar diretamente
-        if (despesas == null || despesas.isEmpty()) {
-            despesas = buscarDespesasDiretamente();
-            
-            // Se tiver filtro, aplicar filtro manualmente
-            if (responsavelId != null) {
-                despesas = filtrarDespesasPorResponsavel(despesas, responsavelId);
-            }
-        }
-        
-        return despesas;
+    public Dinheiro calcularTotalDespesasDoMes(Integer responsavelId) {
+        return obterResumoDoMes(responsavelId).getTotal();
     }
     
     /**
-     * Obtém dados para o gráfico por categoria.
+     * Calcula o total de despesas pagas do mês.
      * 
      * @param responsavelId ID do responsável para filtro (opcional)
-     * @return Lista de dados para o gráfico
+     * @return Valor total das despesas pagas
      */
-    public List<Object[]> obterDadosGrafico(Integer responsavelId) {
-        if (responsavelId != null) {
-            return buscarDadosGraficoPorResponsavel(responsavelId);
-        } else {
-            return despesaController.obterDadosGraficoPorCategoria();
-        }
+    public Dinheiro calcularTotalDespesasPagasDoMes(Integer responsavelId) {
+        return obterResumoDoMes(responsavelId).getTotalPago();
     }
     
     /**
-     * Calcula o total de despesas para um responsável específico.
+     * Calcula o total de despesas a pagar do mês.
+     * 
+     * @param responsavelId ID do responsável para filtro (opcional)
+     * @return Valor total das despesas a pagar
      */
-    private double calcularTotalDespesasPorResponsavel(int responsavelId) {
-        ObservableList<Despesa> despesas = despesaController.listarDespesasPorResponsavel(responsavelId);
-        if (despesas == null || despesas.isEmpty()) {
-            return 0.0;
-        }
-        
-        return despesas.stream()
-                .filter(d -> d.getDataVencimento() != null && 
-                        d.getDataVencimento().getMonth() == LocalDate.now().getMonth() &&
-                        d.getDataVencimento().getYear() == LocalDate.now().getYear())
-                .mapToDouble(Despesa::getValor)
-                .sum();
+    public Dinheiro calcularTotalDespesasAPagarDoMes(Integer responsavelId) {
+        return obterResumoDoMes(responsavelId).getTotalAPagar();
     }
     
     /**
-     * Calcula o total de despesas pagas para um responsável específico.
+     * Dados do dashboard carregados em conjunto, aplicados à tela em um único lote.
      */
-    private double calcularTotalDespesasPagasPorResponsavel(int responsavelId) {
-        ObservableList<Despesa> despesas = despesaController.listarDespesasPorResponsavel(responsavelId);
-        if (despesas == null || despesas.isEmpty()) {
-            return 0.0;
+    public static class DadosDashboard {
+        private List<Responsavel> responsaveis;
+        private Dinheiro totalDespesas;
+        private Dinheiro totalPago;
+        private Dinheiro totalAPagar;
+        private ObservableList<Despesa> despesas;
+        private List<Object[]> dadosGrafico;
+        
+        private void aplicarResumo(DashboardSnapshot resumo) {
+            totalDespesas = resumo.getTotal();
+            totalPago = resumo.getTotalPago();
+            totalAPagar = resumo.getTotalAPagar();
+            dadosGrafico = resumo.getDadosGraficoPorCategoria();
         }
         
-        return despesas.stream()
-                .filter(d -> d.isPago() && d.getDataVencimento() != null && 
-                        d.getDataVencimento().getMonth() == LocalDate.now().getMonth() &&
-                        d.getDataVencimento().getYear() == LocalDate.now().getYear())
-                .mapToDouble(Despesa::getValor)
-                .sum();
-    }
-    
-    /**
-     * Calcula o total de despesas a pagar para um responsável específico.
-     */
-    private double calcularTotalDespesasAPagarPorResponsavel(int responsavelId) {
-        ObservableList<Despesa> despesas = despesaController.listarDespesasPorResponsavel(responsavelId);
-        if (despesas == null || despesas.isEmpty()) {
-            return 0.0;
+        public List<Responsavel> getResponsaveis() {
+            return responsaveis;
         }
         
-        return despesas.stream()
-                .filter(d -> !d.isPago() && d.getDataVencimento() != null && 
-                        d.getDataVencimento().getMonth() == LocalDate.now().getMonth() &&
-                        d.getDataVencimento().getYear() == LocalDate.now().getYear())
-                .mapToDouble(Despesa::getValor)
-                .sum();
-    }
-    
-    /**
-     * Filtra a lista de despesas pelo responsável.
-     */
-    private ObservableList<Despesa> filtrarDespesasPorResponsavel(ObservableList<Despesa> despesas, int responsavelId) {
-        if (despesas == null || despesas.isEmpty()) {
-            return FXCollections.observableArrayList();
+        public Dinheiro getTotalDespesas() {
+            return totalDespesas;
         }
         
-        return FXCollections.observableArrayList(
-            despesas.stream()
-                .filter(d -> d.getResponsavel() != null && d.getResponsavel().getId() == responsavelId)
-                .toList()
-        );
-    }
-    
-    /**
-     * Busca despesas diretamente do banco em caso de falha.
-     */
-    private ObservableList<Despesa> buscarDespesasDiretamente() {
-        List<Despesa> despesas = new ArrayList<>();
-
-        try (Connection conn = ConexaoBanco.getConexao()) {
-            String sql = "SELECT d.id, d.descricao, d.valor, d.data_compra, d.data_vencimento, d.pago, "
-                    + "c.id as categoria_id, c.nome as categoria_nome, "
-                    + "r.id as responsavel_id, r.nome as responsavel_nome "
-                    + "FROM despesas d "
-                    + "LEFT JOIN categorias c ON d.categoria_id = c.id "
-                    + "LEFT JOIN responsaveis r ON d.responsavel_id = r.id "
-                    + "ORDER BY d.id DESC LIMIT 20";
-
-            try (PreparedStatement stmt = conn.prepareStatement(sql); 
-                 ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    Despesa despesa = new Despesa();
-                    despesa.setId(rs.getInt("id"));
-                    despesa.setDescricao(rs.getString("descricao"));
-                    despesa.setValor(rs.getDouble("valor"));
-
-                    // Data de compra
-                    String dataCompraStr = rs.getString("data_compra");
-                    if (dataCompraStr != null && !dataCompraStr.isEmpty()) {
-                        despesa.setDataCompra(LocalDate.parse(dataCompraStr));
-                    } else {
-                        despesa.setDataCompra(LocalDate.now());
-                    }
-
-                    // Data de vencimento (opcional)
-                    String dataVencimentoStr = rs.getString("data_vencimento");
-                    if (dataVencimentoStr != null && !dataVencimentoStr.isEmpty()) {
-                        despesa.setDataVencimento(LocalDate.parse(dataVencimentoStr));
-                    }
-
-                    despesa.setPago(rs.getBoolean("pago"));
-
-                    // Categoria
-                    int categoriaId = rs.getInt("categoria_id");
-                    if (!rs.wasNull()) {
-                        CategoriaDespesa categoria = new CategoriaDespesa();
-                        categoria.setId(categoriaId);
-                        categoria.setNome(rs.getString("categoria_nome"));
-                        despesa.setCategoria(categoria);
-                    }
-                    
-                    // Responsável
-                    int responsavelId = rs.getInt("responsavel_id");
-                    if (!rs.wasNull()) {
-                        Responsavel responsavel = new Responsavel();
-                        responsavel.setId(responsavelId);
-                        responsavel.setNome(rs.getString("responsavel_nome"));
-                        despesa.setResponsavel(responsavel);
-                    }
-
-                    despesas.add(despesa);
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        public Dinheiro getTotalPago() {
+            return totalPago;
         }
-
-        return FXCollections.observableArrayList(despesas);
-    }
-    
-    /**
-     * Busca dados para o gráfico por responsável específico.
-     */
-    private List<Object[]> buscarDadosGraficoPorResponsavel(int responsavelId) {
-        List<Object[]> resultado = new ArrayList<>();
         
-        try (Connection conn = ConexaoBanco.getConexao()) {
-            String sql = "SELECT c.nome, SUM(d.valor) as total " +
-                "FROM despesas d " +
-                "JOIN categorias c ON d.categoria_id = c.id " +
-                "WHERE d.responsavel_id = ? " +
-                "AND ((d.data_vencimento BETWEEN ? AND ?) OR " +
-                "(d.data_vencimento IS NULL AND d.data_compra BETWEEN ? AND ?)) " +
-                "GROUP BY c.nome " +
-                "ORDER BY total DESC";
-            
-            LocalDate inicio = LocalDate.now().withDayOfMonth(1);
-            LocalDate fim = inicio.plusMonths(1).minusDays(1);
-            
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, responsavelId);
-                stmt.setString(2, inicio.toString());
-                stmt.setString(3, fim.toString());
-                stmt.setString(4, inicio.toString());
-                stmt.setString(5, fim.toString());
-                
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        String nome = rs.getString(1);
-                        double total = rs.getDouble("total");
-                        resultado.add(new Object[]{nome, total});
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        public Dinheiro getTotalAPagar() {
+            return totalAPagar;
         }
         
-        return resultado;
+        public ObservableList<Despesa> getDespesas() {
+            return despesas;
+        }
+        
+        public List<Object[]> getDadosGrafico() {
+            return dadosGrafico;
+        }
     }
 }
\ No newline at end of file
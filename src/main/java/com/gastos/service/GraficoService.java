@@ -1,48 +1,109 @@
 package com.gastos.service;
 
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.CategoryLabelPositions;
 import org.jfree.chart.fx.ChartViewer;
+import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.chart.plot.PiePlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.util.SortOrder;
+import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
+import org.jfree.fx.FXGraphics2D;
+
+import com.gastos.service.ProjecaoFluxoCaixaService.Projecao;
+
+import javafx.scene.canvas.Canvas;
 
 /**
  * Serviço para criação e gerenciamento de gráficos.
+ *
+ * Os gráficos do dashboard (despesas por categoria e tendência mensal) são criados
+ * uma única vez e reaproveitados: a cada atualização, só os valores dos datasets
+ * mudam, com uma única notificação por lote. Cada filtro (mês e responsável) tem
+ * os seus próprios datasets, guardados em um cache LRU de {@value #CAPACIDADE_CACHE}
+ * filtros, de modo que voltar a um filtro recente apenas troca o dataset do gráfico.
+ * O gráfico de projeção mostra as saídas previstas pelo {@link ProjecaoFluxoCaixaService},
+ * empilhadas por componente, e também é atualizado no lugar.
+ * Os métodos dos gráficos do dashboard devem ser chamados na thread FX.
  */
 public class GraficoService {
-    
+
+    public static final int MESES_TENDENCIA = 6;
+
+    private static final int CAPACIDADE_CACHE = 8;
+    private static final String SERIE_TENDENCIA = "Total";
+    private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("MM/yyyy");
+    private static final DateTimeFormatter FORMATO_MES_CURTO = DateTimeFormatter.ofPattern("MM/yy");
+    // Séries do gráfico de projeção, na ordem dos componentes do ProjecaoFluxoCaixaService
+    private static final String[] SERIES_PROJECAO = { "Despesas fixas", "Parcelas", "Faturas de cartão" };
+
+    private final LinkedHashMap<Filtro, DadosGraficos> cache =
+        new LinkedHashMap<Filtro, DadosGraficos>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Filtro, DadosGraficos> maisAntigo) {
+                return size() > CAPACIDADE_CACHE;
+            }
+        };
+
+    private JFreeChart graficoCategorias;
+    private JFreeChart graficoTendencia;
+    private ChartViewer visualizadorCategorias;
+    private ChartViewer visualizadorTendencia;
+    private final DefaultCategoryDataset projecao = new DefaultCategoryDataset();
+    private ChartViewer visualizadorProjecao;
+
+    /**
+     * Carrega e inicializa as classes do JFreeChart e do FXGraphics2D usadas pelos
+     * gráficos do dashboard, criando um gráfico de pizza e um de barras e desenhando-os
+     * em um Canvas fora da cena. Usado na inicialização, em paralelo com a abertura do
+     * banco, para que o primeiro gráfico não pague esse custo na thread FX. Pode ser
+     * chamado fora da thread FX, depois que o toolkit JavaFX foi iniciado.
+     */
+    public static void aquecer() {
+        DefaultPieDataset<String> pizza = new DefaultPieDataset<>();
+        pizza.setValue("A", 1.0);
+        pizza.setValue("B", 2.0);
+        DefaultCategoryDataset barras = new DefaultCategoryDataset();
+        barras.setValue(1.0, SERIE_TENDENCIA, "01/2000");
+
+        JFreeChart[] graficos = {
+            ChartFactory.createPieChart("", pizza, true, true, false),
+            ChartFactory.createBarChart("", "", "", barras, PlotOrientation.VERTICAL, false, true, false)
+        };
+
+        Canvas canvas = new Canvas(200, 150);
+        FXGraphics2D g2 = new FXGraphics2D(canvas.getGraphicsContext2D());
+        for (JFreeChart grafico : graficos) {
+            grafico.draw(g2, new java.awt.geom.Rectangle2D.Double(0, 0, 200, 150));
+        }
+    }
+
     /**
      * Cria um gráfico de pizza com os dados fornecidos.
-     * 
+     *
      * @param titulo Título do gráfico
      * @param dados Lista de dados no formato [nome, valor]
      * @return JFreeChart configurado
      */
-    @SuppressWarnings("unchecked")
     public JFreeChart criarGraficoPizza(String titulo, List<Object[]> dados) {
         DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
-
-        for (Object[] dado : dados) {
-            String categoria = (String) dado[0];
-            double valor = (double) dado[1];
-            dataset.setValue(categoria, valor);
-        }
-
-        JFreeChart chart = ChartFactory.createPieChart(titulo, dataset, true, true, false);
-
-        // Personalizar o gráfico
-        PiePlot<String> plot = (PiePlot<String>) chart.getPlot();
-        plot.setBackgroundPaint((java.awt.Paint) java.awt.Color.WHITE);
-        plot.setOutlinePaint(null);
-
-        return chart;
+        atualizarPizza(dataset, dados);
+        return criarGraficoPizza(titulo, dataset);
     }
-    
+
     /**
      * Cria um visualizador de gráfico a partir de um JFreeChart.
-     * 
+     *
      * @param chart O gráfico JFreeChart
      * @param largura Largura do visualizador
      * @param altura Altura do visualizador
@@ -53,19 +114,285 @@ public class GraficoService {
         viewer.setPrefSize(largura, altura);
         return viewer;
     }
-    
+
     /**
      * Cria um gráfico de pizza e seu visualizador em uma única chamada.
-     * 
+     *
      * @param titulo Título do gráfico
      * @param dados Lista de dados no formato [nome, valor]
      * @param largura Largura do visualizador
      * @param altura Altura do visualizador
      * @return ChartViewer configurado com o gráfico
      */
-    public ChartViewer criarGraficoPizzaComVisualizador(String titulo, List<Object[]> dados, 
+    public ChartViewer criarGraficoPizzaComVisualizador(String titulo, List<Object[]> dados,
                                                       double largura, double altura) {
         JFreeChart chart = criarGraficoPizza(titulo, dados);
         return criarVisualizadorGrafico(chart, largura, altura);
     }
-}
\ No newline at end of file
+
+    /**
+     * Retorna o visualizador do gráfico de despesas por categoria do dashboard,
+     * criado na primeira chamada.
+     */
+    public ChartViewer getVisualizadorCategorias(double largura, double altura) {
+        if (visualizadorCategorias == null) {
+            graficoCategorias = criarGraficoPizza("Despesas por Categoria", new DefaultPieDataset<>());
+            visualizadorCategorias = criarVisualizadorGrafico(graficoCategorias, largura, altura);
+        }
+        return visualizadorCategorias;
+    }
+
+    /**
+     * Retorna o visualizador do gráfico de tendência mensal do dashboard, criado na
+     * primeira chamada.
+     */
+    public ChartViewer getVisualizadorTendencia(double largura, double altura) {
+        if (visualizadorTendencia == null) {
+            graficoTendencia = ChartFactory.createBarChart("Tendência Mensal", "Mês", "Total (R$)",
+                    new DefaultCategoryDataset(), PlotOrientation.VERTICAL, false, true, false);
+            CategoryPlot plot = graficoTendencia.getCategoryPlot();
+            plot.setBackgroundPaint(java.awt.Color.WHITE);
+            plot.setOutlinePaint(null);
+            plot.setRangeGridlinePaint(java.awt.Color.LIGHT_GRAY);
+            visualizadorTendencia = criarVisualizadorGrafico(graficoTendencia, largura, altura);
+        }
+        return visualizadorTendencia;
+    }
+
+    /**
+     * Retorna o visualizador do gráfico de projeção de saídas do dashboard, criado na
+     * primeira chamada.
+     */
+    public ChartViewer getVisualizadorProjecao(double largura, double altura) {
+        if (visualizadorProjecao == null) {
+            JFreeChart grafico = ChartFactory.createStackedBarChart(
+                    "Projeção de Saídas (" + ProjecaoFluxoCaixaService.HORIZONTE_MESES + " meses)",
+                    "Mês", "Total (R$)", projecao, PlotOrientation.VERTICAL, true, true, false);
+            CategoryPlot plot = grafico.getCategoryPlot();
+            plot.setBackgroundPaint(java.awt.Color.WHITE);
+            plot.setOutlinePaint(null);
+            plot.setRangeGridlinePaint(java.awt.Color.LIGHT_GRAY);
+            plot.getDomainAxis().setCategoryLabelPositions(CategoryLabelPositions.UP_90);
+            visualizadorProjecao = criarVisualizadorGrafico(grafico, largura, altura);
+        }
+        return visualizadorProjecao;
+    }
+
+    /**
+     * Preenche o gráfico de projeção, com uma única notificação e só se algum valor mudou.
+     *
+     * @param dados a projeção lida do {@link ProjecaoFluxoCaixaService}
+     */
+    public void atualizarProjecao(Projecao dados) {
+        boolean mudou = projecao.getColumnCount() != ProjecaoFluxoCaixaService.HORIZONTE_MESES
+                || !dados.getMesInicial().format(FORMATO_MES_CURTO).equals(projecao.getColumnKey(0));
+        for (int c = 0; c < SERIES_PROJECAO.length && !mudou; c++) {
+            for (int mes = 0; mes < ProjecaoFluxoCaixaService.HORIZONTE_MESES && !mudou; mes++) {
+                mudou = projecao.getValue(c, mes).doubleValue() != dados.getValor(c, mes) / 100.0;
+            }
+        }
+        if (!mudou) {
+            return;
+        }
+
+        projecao.setNotify(false);
+        try {
+            projecao.clear();
+            for (int c = 0; c < SERIES_PROJECAO.length; c++) {
+                for (int mes = 0; mes < ProjecaoFluxoCaixaService.HORIZONTE_MESES; mes++) {
+                    projecao.setValue(dados.getValor(c, mes) / 100.0, SERIES_PROJECAO[c],
+                            dados.getMesInicial().plusMonths(mes).format(FORMATO_MES_CURTO));
+                }
+            }
+        } finally {
+            projecao.setNotify(true);
+        }
+    }
+
+    /**
+     * Exibe no gráfico de categorias os dados de um filtro. O dataset do filtro é
+     * atualizado no lugar, e o gráfico só é redesenhado se algum valor mudou.
+     *
+     * @param mes o mês exibido
+     * @param responsavelId responsável do filtro, ou null para todos
+     * @param dados lista de dados no formato [nome, valor]
+     */
+    @SuppressWarnings("unchecked")
+    public void exibirCategorias(YearMonth mes, Integer responsavelId, List<Object[]> dados) {
+        getVisualizadorCategorias(450, 300);
+        DadosGraficos graficos = obterDados(mes, responsavelId);
+        atualizarPizza(graficos.categorias, dados);
+
+        PiePlot<String> plot = (PiePlot<String>) graficoCategorias.getPlot();
+        if (plot.getDataset() != graficos.categorias) {
+            plot.setDataset(graficos.categorias);
+        }
+        String titulo = responsavelId != null ? "Despesas por Categoria (Filtrado)" : "Despesas por Categoria";
+        if (!titulo.equals(graficoCategorias.getTitle().getText())) {
+            graficoCategorias.setTitle(titulo);
+        }
+    }
+
+    /**
+     * Exibe no gráfico de tendência o dataset de um filtro.
+     *
+     * @param mes o último mês da tendência
+     * @param responsavelId responsável do filtro, ou null para todos
+     * @return true se o dataset está atualizado; false se ainda precisa ser
+     *         carregado e preenchido com {@link #atualizarTendencia}
+     */
+    public boolean exibirTendencia(YearMonth mes, Integer responsavelId) {
+        getVisualizadorTendencia(450, 220);
+        DadosGraficos graficos = obterDados(mes, responsavelId);
+        CategoryPlot plot = graficoTendencia.getCategoryPlot();
+        if (plot.getDataset() != graficos.tendencia) {
+            plot.setDataset(graficos.tendencia);
+        }
+        return graficos.tendenciaAtualizada;
+    }
+
+    /**
+     * Preenche o dataset de tendência de um filtro com os totais mensais carregados.
+     * Se o filtro não for o exibido, o dataset só fica pronto no cache.
+     *
+     * @param mes o último mês da tendência
+     * @param responsavelId responsável do filtro, ou null para todos
+     * @param totais mapa de mês para total em centavos, em ordem cronológica
+     */
+    public void atualizarTendencia(YearMonth mes, Integer responsavelId, Map<YearMonth, Long> totais) {
+        DadosGraficos graficos = obterDados(mes, responsavelId);
+        DefaultCategoryDataset dataset = graficos.tendencia;
+
+        if (!mesmosTotais(dataset, totais)) {
+            dataset.setNotify(false);
+            try {
+                for (Map.Entry<YearMonth, Long> total : totais.entrySet()) {
+                    dataset.setValue(total.getValue() / 100.0, SERIE_TENDENCIA, total.getKey().format(FORMATO_MES));
+                }
+            } finally {
+                dataset.setNotify(true);
+            }
+        }
+        graficos.tendenciaAtualizada = true;
+    }
+
+    /**
+     * Marca como desatualizados os datasets de tendência de todos os filtros, depois
+     * de uma alteração de despesa. Os datasets continuam no cache e são atualizados
+     * no lugar na próxima carga.
+     */
+    public void invalidarTendencias() {
+        for (DadosGraficos graficos : cache.values()) {
+            graficos.tendenciaAtualizada = false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private JFreeChart criarGraficoPizza(String titulo, DefaultPieDataset<String> dataset) {
+        JFreeChart chart = ChartFactory.createPieChart(titulo, dataset, true, true, false);
+
+        // Personalizar o gráfico
+        PiePlot<String> plot = (PiePlot<String>) chart.getPlot();
+        plot.setBackgroundPaint((java.awt.Paint) java.awt.Color.WHITE);
+        plot.setOutlinePaint(null);
+        plot.setNoDataMessage("Nenhuma despesa no mês");
+
+        return chart;
+    }
+
+    private DadosGraficos obterDados(YearMonth mes, Integer responsavelId) {
+        return cache.computeIfAbsent(new Filtro(mes, responsavelId), filtro -> new DadosGraficos());
+    }
+
+    /**
+     * Atualiza um dataset de pizza no lugar, com uma única notificação ao gráfico
+     * e só se os dados mudaram. As fatias ficam do maior para o menor valor.
+     */
+    private static void atualizarPizza(DefaultPieDataset<String> dataset, List<Object[]> dados) {
+        if (mesmosDados(dataset, dados)) {
+            return;
+        }
+
+        dataset.setNotify(false);
+        try {
+            Map<String, Double> novos = new HashMap<>();
+            for (Object[] dado : dados) {
+                novos.put((String) dado[0], (double) dado[1]);
+            }
+            for (String chave : List.copyOf(dataset.getKeys())) {
+                if (!novos.containsKey(chave)) {
+                    dataset.remove(chave);
+                }
+            }
+            for (Map.Entry<String, Double> novo : novos.entrySet()) {
+                dataset.setValue(novo.getKey(), novo.getValue());
+            }
+            dataset.sortByValues(SortOrder.DESCENDING);
+        } finally {
+            dataset.setNotify(true);
+        }
+    }
+
+    private static boolean mesmosDados(DefaultPieDataset<String> dataset, List<Object[]> dados) {
+        if (dataset.getItemCount() != dados.size()) {
+            return false;
+        }
+        for (int i = 0; i < dados.size(); i++) {
+            Object[] dado = dados.get(i);
+            if (!dado[0].equals(dataset.getKey(i)) || dataset.getValue(i).doubleValue() != (double) dado[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mesmosTotais(DefaultCategoryDataset dataset, Map<YearMonth, Long> totais) {
+        if (dataset.getColumnCount() != totais.size()) {
+            return false;
+        }
+        int coluna = 0;
+        for (Map.Entry<YearMonth, Long> total : totais.entrySet()) {
+            if (!total.getKey().format(FORMATO_MES).equals(dataset.getColumnKey(coluna))
+                    || dataset.getValue(0, coluna).doubleValue() != total.getValue() / 100.0) {
+                return false;
+            }
+            coluna++;
+        }
+        return true;
+    }
+
+    /**
+     * Chave do cache: o mês e o responsável de um filtro do dashboard.
+     */
+    private static final class Filtro {
+        private final YearMonth mes;
+        private final Integer responsavelId;
+
+        Filtro(YearMonth mes, Integer responsavelId) {
+            this.mes = mes;
+            this.responsavelId = responsavelId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Filtro)) return false;
+            Filtro outro = (Filtro) o;
+            return mes.equals(outro.mes) && Objects.equals(responsavelId, outro.responsavelId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mes, responsavelId);
+        }
+    }
+
+    /**
+     * Datasets dos gráficos do dashboard para um filtro.
+     */
+    private static final class DadosGraficos {
+        private final DefaultPieDataset<String> categorias = new DefaultPieDataset<>();
+        private final DefaultCategoryDataset tendencia = new DefaultCategoryDataset();
+        private boolean tendenciaAtualizada = false;
+    }
+}
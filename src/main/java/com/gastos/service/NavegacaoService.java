@@ -11,19 +11,21 @@ import com.gastos.ui.TelaTodasDespesas;
 
 /**
  * Serviço para navegação entre telas e exibição de diálogos.
- * Versão atualizada com suporte à tela de cadastro de pessoas.
+ * As telas de despesas e parcelamentos não pedem atualização ao fechar: as
+ * alterações chegam ao dashboard como eventos do {@link RepositorioDespesas}.
  */
 public class NavegacaoService {
     
-    private final Runnable atualizarDashboardCallback;
+    private final Runnable atualizarCadastrosCallback;
     
     /**
-     * Construtor que recebe um callback para atualizar o dashboard após navegação.
+     * Construtor que recebe o callback executado após as telas de cadastro de
+     * categorias e pessoas, cujos nomes aparecem no dashboard.
      * 
-     * @param atualizarDashboardCallback Callback para atualizar o dashboard
+     * @param atualizarCadastrosCallback Callback para recarregar o dashboard
      */
-    public NavegacaoService(Runnable atualizarDashboardCallback) {
-        this.atualizarDashboardCallback = atualizarDashboardCallback;
+    public NavegacaoService(Runnable atualizarCadastrosCallback) {
+        this.atualizarCadastrosCallback = atualizarCadastrosCallback;
     }
     
     /**
@@ -32,7 +34,6 @@ public class NavegacaoService {
     public void abrirTelaNovaDespesa() {
         TelaCadastroDespesa telaNovaDespesa = new TelaCadastroDespesa();
         telaNovaDespesa.mostrar();
-        Platform.runLater(atualizarDashboardCallback);
     }
 
     /**
@@ -41,7 +42,7 @@ public class NavegacaoService {
     public void abrirTelaCategorias() {
         TelaCategorias telaCategorias = new TelaCategorias();
         telaCategorias.mostrar();
-        Platform.runLater(atualizarDashboardCallback);
+        Platform.runLater(atualizarCadastrosCallback);
     }
     
     /**
@@ -50,7 +51,7 @@ public class NavegacaoService {
     public void abrirTelaCadastroPessoa() {
         TelaCadastroPessoa telaPessoas = new TelaCadastroPessoa();
         telaPessoas.mostrar();
-        Platform.runLater(atualizarDashboardCallback);
+        Platform.runLater(atualizarCadastrosCallback);
     }
 
     /**
@@ -60,7 +61,6 @@ public class NavegacaoService {
         try {
             TelaParcelamentos telaParcelamentos = new TelaParcelamentos();
             telaParcelamentos.mostrar();
-            Platform.runLater(atualizarDashboardCallback);
         } catch (Exception e) {
             e.printStackTrace();
             mostrarErro("Erro ao abrir tela de parcelamentos", e.getMessage());
@@ -74,7 +74,6 @@ public class NavegacaoService {
         try {
             TelaTodasDespesas telaTodasDespesas = new TelaTodasDespesas();
             telaTodasDespesas.mostrar();
-            Platform.runLater(atualizarDashboardCallback);
         } catch (Exception e) {
             e.printStackTrace();
             mostrarErro("Erro ao abrir tela de todas as despesas", e.getMessage());
@@ -0,0 +1,210 @@
+package com.gastos.service;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.geometry.Rectangle2D;
+
+/**
+ * Processa as fotos de perfil dos responsáveis fora da thread FX: recorta, reduz
+ * para os tamanhos fixos de avatar ({@link #TAMANHOS}) e grava cada variante em PNG
+ * ao lado de images/profile_&lt;id&gt;.png, que passa a ser a variante de
+ * {@value #TAMANHO_MAXIMO} px.
+ *
+ * O arquivo de origem não é decodificado por inteiro: o leitor do ImageIO lê só a
+ * região recortada, já subamostrada para pouco mais que o dobro do maior tamanho, de
+ * modo que uma foto de celular de vários megabytes vira poucos kilobytes. A região é
+ * ajustada para um quadrado centrado no recorte, pois os avatares são circulares.
+ * Cada variante é gravada em um arquivo temporário e movida para o lugar, e a
+ * variante principal é a última, para que o cache de avatares, que confere a data
+ * dela, nunca veja um conjunto incompleto.
+ */
+public class ProcessadorFotos {
+
+    public static final int[] TAMANHOS = {50, 100, 200};
+    public static final int TAMANHO_MAXIMO = 200;
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "processador-fotos");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Processa a foto em segundo plano, em uma thread própria (e não na dos
+     * carregamentos de dados, para não atrasar as consultas das telas).
+     *
+     * @param responsavelId o ID do responsável
+     * @param origem o arquivo da foto original (PNG ou JPEG)
+     * @param recorte a região a usar, em frações da largura e da altura da imagem
+     *                (de 0 a 1), ou null para a imagem inteira
+     * @return futuro concluído quando todas as variantes estiverem gravadas
+     */
+    public CompletableFuture<Void> processarEmSegundoPlano(int responsavelId, File origem, Rectangle2D recorte) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                processar(responsavelId, origem, recorte);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * Processa a foto na thread atual.
+     *
+     * @see #processarEmSegundoPlano(int, File, Rectangle2D)
+     * @throws IOException se a foto não puder ser lida ou as variantes gravadas
+     */
+    public void processar(int responsavelId, File origem, Rectangle2D recorte) throws IOException {
+        long inicio = System.nanoTime();
+        BufferedImage imagem = lerRegiao(origem, recorte);
+
+        // Do maior para o menor, cada variante é reduzida a partir da anterior
+        BufferedImage[] variantes = new BufferedImage[TAMANHOS.length];
+        BufferedImage atual = imagem;
+        for (int i = TAMANHOS.length - 1; i >= 0; i--) {
+            atual = reduzir(atual, TAMANHOS[i]);
+            variantes[i] = atual;
+        }
+
+        Path principal = CacheAvatares.getCaminhoFoto(responsavelId);
+        Files.createDirectories(principal.getParent());
+        for (int i = 0; i < TAMANHOS.length; i++) {
+            if (TAMANHOS[i] != TAMANHO_MAXIMO) {
+                gravar(variantes[i], CacheAvatares.getCaminhoFoto(responsavelId, TAMANHOS[i]));
+            }
+        }
+        gravar(variantes[TAMANHOS.length - 1], principal);
+
+        System.out.printf("Foto do responsável %d processada em %d ms (%dx%d lidos de %s)%n",
+                responsavelId, (System.nanoTime() - inicio) / 1_000_000,
+                imagem.getWidth(), imagem.getHeight(), origem.getName());
+    }
+
+    /**
+     * Exclui as variantes reduzidas de uma foto (a principal é excluída pelo chamador).
+     */
+    public void excluirVariantes(int responsavelId) throws IOException {
+        for (int tamanho : TAMANHOS) {
+            if (tamanho != TAMANHO_MAXIMO) {
+                Files.deleteIfExists(CacheAvatares.getCaminhoFoto(responsavelId, tamanho));
+            }
+        }
+    }
+
+    /**
+     * Lê do arquivo só a região quadrada do recorte, subamostrada.
+     */
+    private BufferedImage lerRegiao(File origem, Rectangle2D recorte) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(origem)) {
+            if (entrada == null) {
+                throw new IOException("Não foi possível abrir a foto: " + origem);
+            }
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) {
+                throw new IOException("Formato de foto não suportado: " + origem.getName());
+            }
+
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                Rectangle regiao = calcularRegiao(recorte, leitor.getWidth(0), leitor.getHeight(0));
+                int passo = Math.max(1, regiao.width / (2 * TAMANHO_MAXIMO));
+
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                parametros.setSourceRegion(regiao);
+                parametros.setSourceSubsampling(passo, passo, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    /**
+     * Converte o recorte em frações para pixels e o ajusta para o maior quadrado
+     * centrado nele.
+     */
+    static Rectangle calcularRegiao(Rectangle2D recorte, int largura, int altura) {
+        double x = 0, y = 0, w = largura, h = altura;
+        if (recorte != null) {
+            x = recorte.getMinX() * largura;
+            y = recorte.getMinY() * altura;
+            w = recorte.getWidth() * largura;
+            h = recorte.getHeight() * altura;
+        }
+
+        int lado = (int) Math.max(1, Math.min(w, h));
+        int rx = (int) Math.round(x + (w - lado) / 2);
+        int ry = (int) Math.round(y + (h - lado) / 2);
+        lado = Math.min(lado, Math.min(largura, altura));
+        rx = Math.max(0, Math.min(rx, largura - lado));
+        ry = Math.max(0, Math.min(ry, altura - lado));
+        return new Rectangle(rx, ry, lado, lado);
+    }
+
+    /**
+     * Reduz a imagem para um quadrado do tamanho informado, pela metade a cada passo
+     * enquanto possível, para que a interpolação bilinear não perca detalhes.
+     */
+    private static BufferedImage reduzir(BufferedImage imagem, int tamanho) {
+        BufferedImage atual = imagem;
+        while (atual.getWidth() / 2 >= tamanho && atual.getHeight() / 2 >= tamanho) {
+            atual = redimensionar(atual, atual.getWidth() / 2, atual.getHeight() / 2);
+        }
+        if (atual.getWidth() == tamanho && atual.getHeight() == tamanho && atual.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return atual;
+        }
+        return redimensionar(atual, tamanho, tamanho);
+    }
+
+    private static BufferedImage redimensionar(BufferedImage imagem, int largura, int altura) {
+        BufferedImage destino = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(imagem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    /**
+     * Grava a imagem em PNG em um arquivo temporário da mesma pasta e o move para o destino.
+     */
+    private static void gravar(BufferedImage imagem, Path destino) throws IOException {
+        Path temporario = Files.createTempFile(destino.getParent(), "foto_", ".tmp");
+        try {
+            if (!ImageIO.write(imagem, "png", temporario.toFile())) {
+                throw new IOException("Nenhum gravador de PNG disponível");
+            }
+            try {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+}
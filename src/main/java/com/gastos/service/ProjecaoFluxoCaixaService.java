@@ -0,0 +1,387 @@
+package com.gastos.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.gastos.db.CartaoCreditoDAO;
+import com.gastos.db.ProjecaoFluxoCaixaDAO;
+import com.gastos.model.CartaoCredito;
+import com.gastos.service.RepositorioDespesas.EventoDespesa;
+import com.gastos.service.RepositorioDespesas.OuvinteDespesas;
+
+/**
+ * Serviço que projeta as saídas de caixa dos próximos {@value #HORIZONTE_MESES} meses,
+ * a partir do mês atual.
+ *
+ * A projeção tem três componentes, guardados em vetores de centavos indexados pelo
+ * deslocamento do mês (0 é o mês atual):
+ * <ul>
+ *   <li>{@link #FIXAS}: despesas fixas fora de cartão, que se repetem todo mês a partir
+ *       do mês do seu vencimento (ou da compra); no próprio mês só contam se não pagas;</li>
+ *   <li>{@link #PARCELAS}: parcelas não pagas fora de cartão, no mês do vencimento; as
+ *       atrasadas entram no mês atual;</li>
+ *   <li>{@link #FATURAS}: o valor em aberto das faturas de cartão, no mês do vencimento
+ *       da fatura, mais as próximas cobranças das despesas fixas lançadas em cartão.</li>
+ * </ul>
+ *
+ * A carga completa faz três consultas. Depois dela, a alteração de uma despesa é
+ * aplicada com {@link #atualizarDespesa(int)}: a contribuição anterior da despesa é
+ * subtraída dos vetores e a nova é somada, e as faturas em aberto (uma linha por
+ * cartão e mês) são relidas. Registrado como ouvinte do {@link RepositorioDespesas},
+ * o serviço aplica sozinho as alterações feitas em qualquer tela. Alterações nos
+ * cartões exigem {@link #recarregar()}. Os métodos são sincronizados, de modo que a
+ * projeção pode ser atualizada fora da thread FX e lida por ela.
+ */
+public class ProjecaoFluxoCaixaService implements OuvinteDespesas {
+
+    public static final int HORIZONTE_MESES = 24;
+
+    public static final int FIXAS = 0;
+    public static final int PARCELAS = 1;
+    public static final int FATURAS = 2;
+    private static final int COMPONENTES = 3;
+
+    // Faturas que fecham até dois meses antes do mês atual ainda podem vencer nele
+    private static final int MESES_FECHAMENTO_ANTERIORES = 2;
+
+    private final ProjecaoFluxoCaixaDAO projecaoDAO;
+    private final CartaoCreditoDAO cartaoDAO;
+
+    private final long[][] componentes = new long[COMPONENTES][HORIZONTE_MESES];
+    private final long[] faturasEmAberto = new long[HORIZONTE_MESES];
+    private final Map<Integer, Contribuicao> porDespesa = new HashMap<>();
+    private Map<Integer, CartaoCredito> cartoes = new HashMap<>();
+    private YearMonth mesInicial;
+    private int indiceMesInicial;
+
+    /**
+     * Construtor padrão. A projeção é carregada na primeira leitura.
+     */
+    public ProjecaoFluxoCaixaService() {
+        this.projecaoDAO = new ProjecaoFluxoCaixaDAO();
+        this.cartaoDAO = new CartaoCreditoDAO();
+    }
+
+    /**
+     * Refaz toda a projeção a partir do banco de dados.
+     *
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public synchronized void recarregar() throws SQLException {
+        mesInicial = YearMonth.now();
+        indiceMesInicial = indiceDoMes(mesInicial.getYear(), mesInicial.getMonthValue());
+        for (long[] componente : componentes) {
+            Arrays.fill(componente, 0L);
+        }
+        porDespesa.clear();
+
+        cartoes = new HashMap<>();
+        for (CartaoCredito cartao : cartaoDAO.listarTodos()) {
+            cartoes.put(cartao.getId(), cartao);
+        }
+
+        projecaoDAO.percorrerDespesasFixas(rs -> {
+            Contribuicao contribuicao = contribuicaoDaDespesa(rs);
+            porDespesa.put(rs.getInt("id"), contribuicao);
+            aplicar(contribuicao, 1);
+        });
+
+        Map<Integer, Contribuicao> parceladas = new HashMap<>();
+        projecaoDAO.percorrerParcelasAPagar(getUltimoDia(), rs -> acumularParcela(parceladas, rs));
+        for (Map.Entry<Integer, Contribuicao> entrada : parceladas.entrySet()) {
+            porDespesa.put(entrada.getKey(), entrada.getValue());
+            aplicar(entrada.getValue(), 1);
+        }
+
+        relerFaturas();
+    }
+
+    /**
+     * Atualiza a projeção depois da inclusão, alteração ou exclusão de uma despesa
+     * (ou das suas parcelas).
+     *
+     * @param despesaId o ID da despesa alterada
+     * @throws SQLException se ocorrer um erro de SQL
+     */
+    public synchronized void atualizarDespesa(int despesaId) throws SQLException {
+        if (!garantirMesAtual()) {
+            return;
+        }
+        substituirContribuicao(despesaId);
+        relerFaturas();
+    }
+
+    /**
+     * Aplica à projeção uma alteração publicada pelo {@link RepositorioDespesas}, na
+     * thread que fez a alteração. Parcelas alteradas atualizam as despesas dos seus
+     * parcelamentos; sem saber quais são, a projeção é refeita. Se a atualização
+     * falhar, a projeção é refeita na próxima leitura.
+     */
+    @Override
+    public synchronized void aoAlterar(EventoDespesa evento) {
+        // Ainda não carregada: a primeira leitura já vê a alteração
+        if (mesInicial == null) {
+            return;
+        }
+        try {
+            if (evento.getTipo() != EventoDespesa.Tipo.PARCELAS) {
+                atualizarDespesa(evento.getDespesaId());
+            } else if (evento.getParcelamentoIds().isEmpty()) {
+                recarregar();
+            } else if (garantirMesAtual()) {
+                Set<Integer> despesas = new HashSet<>();
+                for (int parcelamentoId : evento.getParcelamentoIds()) {
+                    projecaoDAO.percorrerDespesasDoParcelamento(parcelamentoId, rs -> despesas.add(rs.getInt("id")));
+                }
+                for (int despesaId : despesas) {
+                    substituirContribuicao(despesaId);
+                }
+                relerFaturas();
+            }
+        } catch (SQLException e) {
+            System.err.println("Erro ao atualizar a projeção de fluxo de caixa: " + e.getMessage());
+            mesInicial = null;
+        }
+    }
+
+    /**
+     * Troca a contribuição de uma despesa pela lida agora do banco, sem reler as faturas.
+     */
+    private void substituirContribuicao(int despesaId) throws SQLException {
+        aplicar(porDespesa.remove(despesaId), -1);
+
+        Contribuicao[] nova = new Contribuicao[1];
+        boolean[] parceladaForaDeCartao = new boolean[1];
+        projecaoDAO.percorrerDespesa(despesaId, rs -> {
+            if (isParcelada(rs)) {
+                rs.getInt("cartao_id");
+                parceladaForaDeCartao[0] = rs.wasNull();
+            } else if (rs.getBoolean("fixo")) {
+                nova[0] = contribuicaoDaDespesa(rs);
+            }
+        });
+        if (parceladaForaDeCartao[0]) {
+            Map<Integer, Contribuicao> parceladas = new HashMap<>();
+            projecaoDAO.percorrerParcelasAPagar(despesaId, getUltimoDia(), rs -> acumularParcela(parceladas, rs));
+            nova[0] = parceladas.get(despesaId);
+        }
+        if (nova[0] != null) {
+            porDespesa.put(despesaId, nova[0]);
+            aplicar(nova[0], 1);
+        }
+    }
+
+    /**
+     * Retorna o primeiro mês da projeção, recarregando-a se o mês tiver virado.
+     */
+    public synchronized YearMonth getMesInicial() throws SQLException {
+        garantirMesAtual();
+        return mesInicial;
+    }
+
+    /**
+     * Retorna uma cópia dos valores mensais de um componente, em centavos.
+     *
+     * @param componente {@link #FIXAS}, {@link #PARCELAS} ou {@link #FATURAS}
+     * @return vetor com {@value #HORIZONTE_MESES} posições, indexado pelo mês
+     * @throws SQLException se for preciso recarregar e ocorrer um erro de SQL
+     */
+    public synchronized long[] obterComponente(int componente) throws SQLException {
+        garantirMesAtual();
+        long[] valores = componentes[componente].clone();
+        if (componente == FATURAS) {
+            for (int i = 0; i < HORIZONTE_MESES; i++) {
+                valores[i] += faturasEmAberto[i];
+            }
+        }
+        return valores;
+    }
+
+    /**
+     * Retorna uma cópia de toda a projeção, lida de uma só vez, para exibição.
+     *
+     * @throws SQLException se for preciso recarregar e ocorrer um erro de SQL
+     */
+    public synchronized Projecao obterProjecao() throws SQLException {
+        garantirMesAtual();
+        return new Projecao(mesInicial, new long[][] {
+            obterComponente(FIXAS), obterComponente(PARCELAS), obterComponente(FATURAS)
+        });
+    }
+
+    /**
+     * Retorna os totais mensais projetados (a soma dos componentes), em centavos.
+     *
+     * @throws SQLException se for preciso recarregar e ocorrer um erro de SQL
+     */
+    public synchronized long[] obterTotais() throws SQLException {
+        garantirMesAtual();
+        long[] totais = faturasEmAberto.clone();
+        for (long[] componente : componentes) {
+            for (int i = 0; i < HORIZONTE_MESES; i++) {
+                totais[i] += componente[i];
+            }
+        }
+        return totais;
+    }
+
+    /**
+     * Recarrega a projeção se ela ainda não foi carregada ou se o mês virou.
+     *
+     * @return false se a projeção foi recarregada agora (não há o que atualizar)
+     */
+    private boolean garantirMesAtual() throws SQLException {
+        if (mesInicial != null && mesInicial.equals(YearMonth.now())) {
+            return true;
+        }
+        recarregar();
+        return false;
+    }
+
+    /**
+     * Calcula a contribuição de uma despesa fixa não parcelada: ela se repete todo
+     * mês; se for lançada em cartão, entra nas faturas a partir da cobrança seguinte,
+     * pois a própria já está na tabela faturas.
+     */
+    private Contribuicao contribuicaoDaDespesa(ResultSet rs) throws SQLException {
+        long valor = rs.getLong("valor");
+        String compra = rs.getString("data_compra");
+        CartaoCredito cartao = cartoes.get(rs.getInt("cartao_id"));
+
+        if (cartao != null) {
+            Contribuicao contribuicao = new Contribuicao(FATURAS);
+            LocalDate dataCompra = LocalDate.parse(compra);
+            long atraso = indiceMesInicial - indiceDoMes(dataCompra.getYear(), dataCompra.getMonthValue());
+            for (long k = Math.max(1, atraso - MESES_FECHAMENTO_ANTERIORES); ; k++) {
+                LocalDate vencimento = cartao.calcularVencimento(cartao.calcularMesFatura(dataCompra.plusMonths(k)));
+                int mes = indiceDoMes(vencimento.getYear(), vencimento.getMonthValue()) - indiceMesInicial;
+                if (mes >= HORIZONTE_MESES) {
+                    break;
+                }
+                if (mes >= 0) {
+                    contribuicao.valores[mes] += valor;
+                }
+            }
+            return contribuicao;
+        }
+
+        String vencimento = rs.getString("data_vencimento");
+        int inicio = deslocamento(vencimento != null && !vencimento.isEmpty() ? vencimento : compra);
+        boolean pago = rs.getBoolean("pago");
+        Contribuicao contribuicao = new Contribuicao(FIXAS);
+        for (int mes = Math.max(inicio, 0); mes < HORIZONTE_MESES; mes++) {
+            if (mes != inicio || !pago) {
+                contribuicao.valores[mes] = valor;
+            }
+        }
+        return contribuicao;
+    }
+
+    /**
+     * Acumula uma parcela a pagar na contribuição da sua despesa.
+     */
+    private void acumularParcela(Map<Integer, Contribuicao> parceladas, ResultSet rs) throws SQLException {
+        Contribuicao contribuicao = parceladas.computeIfAbsent(rs.getInt("despesa_id"), id -> new Contribuicao(PARCELAS));
+        int mes = Math.max(deslocamento(rs.getString("data_vencimento")), 0);
+        if (mes < HORIZONTE_MESES) {
+            contribuicao.valores[mes] += rs.getLong("valor");
+        }
+    }
+
+    private static boolean isParcelada(ResultSet rs) throws SQLException {
+        rs.getInt("parcelamento_id");
+        return !rs.wasNull();
+    }
+
+    /**
+     * Relê o valor em aberto das faturas, distribuído pelo mês de vencimento.
+     */
+    private void relerFaturas() throws SQLException {
+        Arrays.fill(faturasEmAberto, 0L);
+        YearMonth de = mesInicial.minusMonths(MESES_FECHAMENTO_ANTERIORES);
+        YearMonth ate = mesInicial.plusMonths(HORIZONTE_MESES - 1L);
+        projecaoDAO.percorrerFaturasEmAberto(de, ate, rs -> {
+            CartaoCredito cartao = cartoes.get(rs.getInt("cartao_id"));
+            if (cartao == null) {
+                return;
+            }
+            LocalDate vencimento = cartao.calcularVencimento(YearMonth.parse(rs.getString("mes_fechamento")));
+            int mes = indiceDoMes(vencimento.getYear(), vencimento.getMonthValue()) - indiceMesInicial;
+            if (mes >= 0 && mes < HORIZONTE_MESES) {
+                faturasEmAberto[mes] += rs.getLong("em_aberto");
+            }
+        });
+    }
+
+    private void aplicar(Contribuicao contribuicao, int sinal) {
+        if (contribuicao == null) {
+            return;
+        }
+        long[] destino = componentes[contribuicao.componente];
+        for (int i = 0; i < HORIZONTE_MESES; i++) {
+            destino[i] += sinal * contribuicao.valores[i];
+        }
+    }
+
+    private LocalDate getUltimoDia() {
+        return mesInicial.plusMonths(HORIZONTE_MESES - 1L).atEndOfMonth();
+    }
+
+    /**
+     * Deslocamento, em meses, de uma data ISO (AAAA-MM-DD) em relação ao mês inicial,
+     * lido direto dos caracteres da data.
+     */
+    private int deslocamento(String data) {
+        int ano = Integer.parseInt(data, 0, 4, 10);
+        int mes = Integer.parseInt(data, 5, 7, 10);
+        return indiceDoMes(ano, mes) - indiceMesInicial;
+    }
+
+    private static int indiceDoMes(int ano, int mes) {
+        return ano * 12 + mes - 1;
+    }
+
+    /**
+     * Cópia da projeção em um instante: o mês inicial e os valores mensais de cada
+     * componente, em centavos.
+     */
+    public static final class Projecao {
+        private final YearMonth mesInicial;
+        private final long[][] componentes;
+
+        Projecao(YearMonth mesInicial, long[][] componentes) {
+            this.mesInicial = mesInicial;
+            this.componentes = componentes;
+        }
+
+        public YearMonth getMesInicial() {
+            return mesInicial;
+        }
+
+        /**
+         * @param componente {@link #FIXAS}, {@link #PARCELAS} ou {@link #FATURAS}
+         */
+        public long getValor(int componente, int mes) {
+            return componentes[componente][mes];
+        }
+    }
+
+    /**
+     * Valores mensais com que uma despesa contribui para um componente.
+     */
+    private static final class Contribuicao {
+        private final int componente;
+        private final long[] valores = new long[HORIZONTE_MESES];
+
+        Contribuicao(int componente) {
+            this.componente = componente;
+        }
+    }
+}
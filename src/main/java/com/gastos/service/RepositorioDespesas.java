@@ -0,0 +1,428 @@
+package com.gastos.service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import com.gastos.db.DespesaDAO;
+import com.gastos.model.DashboardSnapshot;
+import com.gastos.model.Despesa;
+
+import javafx.application.Platform;
+
+/**
+ * Repositório em memória das despesas do mês atual, compartilhado por todas as telas,
+ * e canal dos eventos de alteração de despesas e parcelas.
+ *
+ * O conjunto de trabalho (as despesas compradas ou com vencimento no mês) é lido do
+ * banco uma única vez; os resumos do mês, geral e por responsável, são calculados a
+ * partir dele. O DespesaController e o ParcelamentoController avisam o repositório
+ * depois de cada inclusão, alteração ou exclusão. O repositório aplica a mudança ao
+ * conjunto de trabalho e aos resumos (desfazendo a contribuição anterior da despesa e
+ * somando a nova) e publica um {@link EventoDespesa} para os ouvintes, que atualizam
+ * apenas as linhas e os totais afetados, sem consultar o banco de novo.
+ *
+ * Os eventos são entregues na thread que fez a alteração; ouvintes da interface devem
+ * ser registrados com {@link #naThreadFX(OuvinteDespesas)}. Alterações feitas sem os
+ * controladores (importação, ferramentas de linha de comando) exigem {@link #invalidar()}.
+ */
+public final class RepositorioDespesas {
+
+    /**
+     * Ordem das listagens de despesas: compra mais recente primeiro e, na mesma data,
+     * o maior ID primeiro (a mesma ordem da paginação do DespesaDAO).
+     */
+    public static final Comparator<Despesa> MAIS_RECENTES_PRIMEIRO =
+            Comparator.comparing(Despesa::getDataCompra, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(Comparator.comparingInt(Despesa::getId).reversed());
+
+    private static final RepositorioDespesas INSTANCIA = new RepositorioDespesas();
+
+    private final DespesaDAO despesaDAO = new DespesaDAO();
+    private final List<OuvinteDespesas> ouvintes = new CopyOnWriteArrayList<>();
+
+    // Conjunto de trabalho: despesas compradas ou com vencimento no mês, por ID
+    private final Map<Integer, Despesa> despesasDoMes = new HashMap<>();
+    // Contribuição de cada despesa aos resumos, guardada à parte porque as telas
+    // alteram os objetos Despesa antes de salvá-los
+    private final Map<Integer, Contribuicao> contribuicoes = new HashMap<>();
+    // Resumos do mês, criados sob demanda: a chave null é o resumo geral
+    private final Map<Integer, DashboardSnapshot> resumos = new HashMap<>();
+    private YearMonth mes;
+
+    private RepositorioDespesas() {
+    }
+
+    /**
+     * Retorna o repositório compartilhado.
+     */
+    public static RepositorioDespesas getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Lista as despesas do mês atual, da compra mais recente para a mais antiga.
+     *
+     * @param responsavelId ID do responsável para filtro, ou null para todos
+     * @return uma nova lista, que pode ser alterada por quem chamou
+     * @throws SQLException se for preciso carregar o mês e ocorrer um erro de SQL
+     */
+    public synchronized List<Despesa> listarDespesasDoMes(Integer responsavelId) throws SQLException {
+        garantirMesAtual();
+        List<Despesa> despesas = new ArrayList<>();
+        for (Despesa despesa : despesasDoMes.values()) {
+            if (isDoResponsavel(despesa, responsavelId)) {
+                despesas.add(despesa);
+            }
+        }
+        despesas.sort(MAIS_RECENTES_PRIMEIRO);
+        return despesas;
+    }
+
+    /**
+     * Obtém o resumo do mês atual (totais gerais, por categoria e por responsável).
+     *
+     * @param responsavelId ID do responsável para filtro, ou null para todos
+     * @return uma cópia do resumo
+     * @throws SQLException se for preciso carregar o mês e ocorrer um erro de SQL
+     */
+    public synchronized DashboardSnapshot obterResumoDoMes(Integer responsavelId) throws SQLException {
+        garantirMesAtual();
+        DashboardSnapshot resumo = resumos.get(responsavelId);
+        if (resumo == null) {
+            resumo = new DashboardSnapshot(responsavelId);
+            for (Contribuicao contribuicao : contribuicoes.values()) {
+                if (responsavelId == null || responsavelId.equals(contribuicao.responsavelId)) {
+                    contribuicao.acumularEm(resumo, 1);
+                }
+            }
+            resumos.put(responsavelId, resumo);
+        }
+        return resumo.copiar();
+    }
+
+    /**
+     * Verifica se a despesa pertence ao conjunto de trabalho: comprada ou com
+     * vencimento no mês atual.
+     */
+    public static boolean isDoMesAtual(Despesa despesa) {
+        YearMonth atual = YearMonth.now();
+        return isNoMes(despesa.getDataCompra(), atual) || isNoMes(despesa.getDataVencimento(), atual);
+    }
+
+    /**
+     * Verifica se a despesa é do responsável informado (null aceita todas).
+     */
+    public static boolean isDoResponsavel(Despesa despesa, Integer responsavelId) {
+        return responsavelId == null
+                || (despesa.getResponsavel() != null && despesa.getResponsavel().getId() == responsavelId);
+    }
+
+    /**
+     * Descarta o conjunto de trabalho; a próxima leitura o recarrega do banco.
+     * Necessário depois de alterações que não passam pelos controladores, como a
+     * renomeação de categorias e responsáveis, cujos nomes aparecem nas despesas.
+     */
+    public synchronized void invalidar() {
+        mes = null;
+        despesasDoMes.clear();
+        contribuicoes.clear();
+        resumos.clear();
+    }
+
+    /**
+     * Registra um ouvinte dos eventos de despesas.
+     */
+    public void adicionarOuvinte(OuvinteDespesas ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Remove um ouvinte; telas que se fecham devem remover os seus.
+     */
+    public void removerOuvinte(OuvinteDespesas ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Adapta um ouvinte da interface para receber os eventos na thread FX.
+     */
+    public static OuvinteDespesas naThreadFX(OuvinteDespesas ouvinte) {
+        return evento -> {
+            if (Platform.isFxApplicationThread()) {
+                ouvinte.aoAlterar(evento);
+            } else {
+                Platform.runLater(() -> ouvinte.aoAlterar(evento));
+            }
+        };
+    }
+
+    /**
+     * Registra a inclusão de uma despesa. Chamado pelo DespesaController.
+     *
+     * @param despesa a despesa incluída, como gravada no banco
+     */
+    public void despesaIncluida(Despesa despesa) {
+        aplicar(despesa.getId(), despesa);
+        publicar(new EventoDespesa(EventoDespesa.Tipo.INCLUSAO, despesa.getId(), despesa, Collections.emptySet()));
+    }
+
+    /**
+     * Registra a alteração de uma despesa. Chamado pelo DespesaController.
+     *
+     * @param despesa a despesa alterada, como gravada no banco
+     */
+    public void despesaAlterada(Despesa despesa) {
+        aplicar(despesa.getId(), despesa);
+        publicar(new EventoDespesa(EventoDespesa.Tipo.ALTERACAO, despesa.getId(), despesa, Collections.emptySet()));
+    }
+
+    /**
+     * Registra a exclusão de uma despesa. Chamado pelo DespesaController.
+     *
+     * @param despesaId o ID da despesa excluída
+     * @param despesa a despesa como estava antes da exclusão, ou null se desconhecida
+     */
+    public void despesaExcluida(int despesaId, Despesa despesa) {
+        aplicar(despesaId, null);
+        publicar(new EventoDespesa(EventoDespesa.Tipo.EXCLUSAO, despesaId, despesa, Collections.emptySet()));
+    }
+
+    /**
+     * Registra a alteração de parcelas (pagamento, alteração ou exclusão de um
+     * parcelamento). As despesas em si não mudam. Chamado pelo ParcelamentoController.
+     *
+     * @param parcelamentoIds os parcelamentos afetados; vazio se não forem conhecidos
+     */
+    public void parcelasAlteradas(Collection<Integer> parcelamentoIds) {
+        Set<Integer> ids = Collections.unmodifiableSet(new LinkedHashSet<>(parcelamentoIds));
+        publicar(new EventoDespesa(EventoDespesa.Tipo.PARCELAS, 0, null, ids));
+    }
+
+    /**
+     * Substitui a despesa no conjunto de trabalho e nos resumos; null a remove.
+     */
+    private synchronized void aplicar(int despesaId, Despesa nova) {
+        if (mes == null) {
+            return;
+        }
+        if (!mes.equals(YearMonth.now())) {
+            invalidar();
+            return;
+        }
+
+        despesasDoMes.remove(despesaId);
+        acumular(contribuicoes.remove(despesaId), -1);
+
+        if (nova != null && isDoMesAtual(nova)) {
+            despesasDoMes.put(despesaId, nova);
+            Contribuicao contribuicao = Contribuicao.da(nova, mes);
+            if (contribuicao != null) {
+                contribuicoes.put(despesaId, contribuicao);
+                acumular(contribuicao, 1);
+            }
+        }
+    }
+
+    private void acumular(Contribuicao contribuicao, int sinal) {
+        if (contribuicao == null) {
+            return;
+        }
+        for (Map.Entry<Integer, DashboardSnapshot> resumo : resumos.entrySet()) {
+            if (resumo.getKey() == null || resumo.getKey().equals(contribuicao.responsavelId)) {
+                contribuicao.acumularEm(resumo.getValue(), sinal);
+            }
+        }
+    }
+
+    /**
+     * Carrega o conjunto de trabalho se ainda não foi carregado ou se o mês virou.
+     */
+    private void garantirMesAtual() throws SQLException {
+        YearMonth atual = YearMonth.now();
+        if (atual.equals(mes)) {
+            return;
+        }
+
+        invalidar();
+        for (Despesa despesa : despesaDAO.listarDespesasDoMes()) {
+            despesasDoMes.put(despesa.getId(), despesa);
+            Contribuicao contribuicao = Contribuicao.da(despesa, atual);
+            if (contribuicao != null) {
+                contribuicoes.put(despesa.getId(), contribuicao);
+            }
+        }
+        mes = atual;
+    }
+
+    private void publicar(EventoDespesa evento) {
+        for (OuvinteDespesas ouvinte : ouvintes) {
+            try {
+                ouvinte.aoAlterar(evento);
+            } catch (RuntimeException e) {
+                System.err.println("Erro ao notificar alteração de despesa: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static boolean isNoMes(LocalDate data, YearMonth mes) {
+        return data != null && data.getYear() == mes.getYear() && data.getMonthValue() == mes.getMonthValue();
+    }
+
+    /**
+     * Recebe os eventos de alteração de despesas e parcelas.
+     */
+    @FunctionalInterface
+    public interface OuvinteDespesas {
+        void aoAlterar(EventoDespesa evento);
+    }
+
+    /**
+     * Alteração de uma despesa, ou de parcelas de parcelamentos.
+     */
+    public static final class EventoDespesa {
+
+        public enum Tipo { INCLUSAO, ALTERACAO, EXCLUSAO, PARCELAS }
+
+        private final Tipo tipo;
+        private final int despesaId;
+        private final Despesa despesa;
+        private final Set<Integer> parcelamentoIds;
+
+        EventoDespesa(Tipo tipo, int despesaId, Despesa despesa, Set<Integer> parcelamentoIds) {
+            this.tipo = tipo;
+            this.despesaId = despesaId;
+            this.despesa = despesa;
+            this.parcelamentoIds = parcelamentoIds;
+        }
+
+        public Tipo getTipo() {
+            return tipo;
+        }
+
+        /**
+         * Retorna o ID da despesa, ou 0 em eventos de parcelas.
+         */
+        public int getDespesaId() {
+            return despesaId;
+        }
+
+        /**
+         * Retorna a despesa como gravada no banco; na exclusão, como estava antes dela
+         * (pode ser null). Em eventos de parcelas, é sempre null.
+         */
+        public Despesa getDespesa() {
+            return despesa;
+        }
+
+        /**
+         * Retorna os parcelamentos cujas parcelas mudaram; vazio em eventos de
+         * despesas, ou se os parcelamentos não forem conhecidos.
+         */
+        public Set<Integer> getParcelamentoIds() {
+            return parcelamentoIds;
+        }
+
+        /**
+         * Aplica o evento a uma lista de despesas exibida por uma tela, alterando só a
+         * linha afetada. A despesa é substituída na mesma posição, movida, incluída ou
+         * removida, conforme continue ou não atendendo ao critério da lista.
+         *
+         * @param lista a lista exibida
+         * @param pertence critério das despesas da lista
+         * @param ordem ordem da lista; null se for desconhecida (por exemplo, por
+         *              relevância), caso em que despesas novas não são incluídas
+         * @param listaCompleta false se a lista é paginada e ainda há páginas a carregar;
+         *                      despesas que ficariam depois da última linha são deixadas
+         *                      para a próxima página
+         * @return true se a lista foi alterada
+         */
+        public boolean aplicarNaLista(List<Despesa> lista, Predicate<Despesa> pertence,
+                                      Comparator<Despesa> ordem, boolean listaCompleta) {
+            if (tipo == Tipo.PARCELAS) {
+                return false;
+            }
+
+            Despesa nova = tipo != Tipo.EXCLUSAO && despesa != null && pertence.test(despesa) ? despesa : null;
+            int indice = indiceDe(lista, despesaId);
+
+            if (indice >= 0 && nova != null && (ordem == null || isNaOrdem(lista, indice, nova, ordem))) {
+                lista.set(indice, nova);
+                return true;
+            }
+            if (indice >= 0) {
+                lista.remove(indice);
+            }
+            if (nova == null || ordem == null) {
+                return indice >= 0;
+            }
+
+            int posicao = Collections.binarySearch(lista, nova, ordem);
+            posicao = posicao < 0 ? -posicao - 1 : posicao;
+            if (posicao == lista.size() && !listaCompleta) {
+                return indice >= 0;
+            }
+            lista.add(posicao, nova);
+            return true;
+        }
+
+        private static int indiceDe(List<Despesa> lista, int despesaId) {
+            for (int i = 0; i < lista.size(); i++) {
+                if (lista.get(i).getId() == despesaId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isNaOrdem(List<Despesa> lista, int indice, Despesa despesa, Comparator<Despesa> ordem) {
+            return (indice == 0 || ordem.compare(lista.get(indice - 1), despesa) <= 0)
+                    && (indice == lista.size() - 1 || ordem.compare(despesa, lista.get(indice + 1)) <= 0);
+        }
+    }
+
+    /**
+     * O que uma despesa soma ao resumo do mês. Só existe para as despesas cujo mês no
+     * resumo (o do vencimento ou, sem vencimento, o da compra) é o mês atual, como na
+     * tabela resumo_mensal.
+     */
+    private static final class Contribuicao {
+        private final Integer categoriaId;
+        private final String categoriaNome;
+        private final Integer responsavelId;
+        private final String responsavelNome;
+        private final long valor;
+        private final boolean pago;
+
+        private Contribuicao(Despesa despesa) {
+            this.categoriaId = despesa.getCategoria() != null ? despesa.getCategoria().getId() : null;
+            this.categoriaNome = despesa.getCategoria() != null ? despesa.getCategoria().getNome() : null;
+            this.responsavelId = despesa.getResponsavel() != null ? despesa.getResponsavel().getId() : null;
+            this.responsavelNome = despesa.getResponsavel() != null ? despesa.getResponsavel().getNome() : null;
+            this.valor = despesa.getValor() != null ? despesa.getValor().getCentavos() : 0L;
+            this.pago = despesa.isPago();
+        }
+
+        static Contribuicao da(Despesa despesa, YearMonth mes) {
+            LocalDate data = despesa.getDataVencimento() != null ? despesa.getDataVencimento() : despesa.getDataCompra();
+            return isNoMes(data, mes) ? new Contribuicao(despesa) : null;
+        }
+
+        void acumularEm(DashboardSnapshot resumo, int sinal) {
+            resumo.acumular(categoriaId, categoriaNome, responsavelId, responsavelNome,
+                    sinal, sinal * valor, pago ? sinal * valor : 0L);
+        }
+    }
+}
@@ -5,12 +5,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
 
 import com.gastos.controller.ResponsavelController;
 import com.gastos.model.Responsavel;
 
 import javafx.collections.ObservableList;
+import javafx.geometry.Rectangle2D;
 
 /**
  * Serviço para gerenciamento de responsáveis/pessoas.
@@ -21,12 +22,14 @@ public class ResponsavelService {
     private static final String PASTA_IMAGENS = "images";
     
     private final ResponsavelController responsavelController;
+    private final ProcessadorFotos processadorFotos;
     
     /**
      * Construtor padrão.
      */
     public ResponsavelService() {
         this.responsavelController = new ResponsavelController();
+        this.processadorFotos = new ProcessadorFotos();
         inicializarPastaImagens();
     }
     
@@ -112,40 +115,52 @@ public class ResponsavelService {
     }
     
     /**
-     * Salva a foto do responsável.
+     * Salva a foto do responsável, inteira, esperando o processamento terminar.
      * 
      * @param responsavelId ID do responsável
      * @param arquivoFoto Arquivo de foto selecionado
      * @return true se a foto foi salva com sucesso
+     * @see #salvarFoto(int, File, Rectangle2D)
      */
     public boolean salvarFoto(int responsavelId, File arquivoFoto) {
+        return salvarFoto(responsavelId, arquivoFoto, null).join();
+    }
+    
+    /**
+     * Salva a foto do responsável em segundo plano: a foto é recortada, reduzida para
+     * os tamanhos de avatar e gravada na pasta de imagens pelo {@link ProcessadorFotos}.
+     * O arquivo original não é copiado.
+     * 
+     * @param responsavelId ID do responsável
+     * @param arquivoFoto Arquivo de foto selecionado
+     * @param recorte região da foto em frações da largura e altura, ou null para a foto inteira
+     * @return futuro com true se a foto foi salva com sucesso
+     */
+    public CompletableFuture<Boolean> salvarFoto(int responsavelId, File arquivoFoto, Rectangle2D recorte) {
         if (arquivoFoto == null || !arquivoFoto.exists()) {
             System.err.println("Arquivo de foto inválido ou inexistente");
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         
-        try {
-            // Determinar o caminho e nome do arquivo
-            String nomeArquivo = "profile_" + responsavelId + ".png";
-            Path destino = Paths.get(PASTA_IMAGENS, nomeArquivo);
-            
-            // Garantir que a pasta de imagens exista
-            inicializarPastaImagens();
-            
-            // Copiar o arquivo para a pasta de imagens
-            Files.copy(arquivoFoto.toPath(), destino, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Foto salva com sucesso em: " + destino.toAbsolutePath());
-            
-            return true;
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar foto: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        // Garantir que a pasta de imagens exista
+        inicializarPastaImagens();
+        
+        return processadorFotos.processarEmSegundoPlano(responsavelId, arquivoFoto, recorte)
+            .handle((ok, erro) -> {
+                CacheAvatares.getInstancia().invalidar(responsavelId);
+                if (erro != null) {
+                    System.err.println("Erro ao salvar foto: " + erro.getMessage());
+                    erro.printStackTrace();
+                    return false;
+                }
+                System.out.println("Foto salva com sucesso em: "
+                        + CacheAvatares.getCaminhoFoto(responsavelId).toAbsolutePath());
+                return true;
+            });
     }
     
     /**
-     * Exclui a foto de um responsável.
+     * Exclui a foto de um responsável e as suas variantes reduzidas.
      * 
      * @param responsavelId ID do responsável
      * @return true se a foto foi excluída ou não existia
@@ -155,10 +170,12 @@ public class ResponsavelService {
         Path caminhoFoto = Paths.get(PASTA_IMAGENS, nomeArquivo);
         
         try {
+            processadorFotos.excluirVariantes(responsavelId);
             if (Files.exists(caminhoFoto)) {
                 Files.delete(caminhoFoto);
                 System.out.println("Foto excluída: " + caminhoFoto);
             }
+            CacheAvatares.getInstancia().invalidar(responsavelId);
             return true;
         } catch (IOException e) {
             System.err.println("Erro ao excluir foto: " + e.getMessage());
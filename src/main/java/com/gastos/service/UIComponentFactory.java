@@ -6,6 +6,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
@@ -213,4 +214,24 @@ public class UIComponentFactory {
         painel.getChildren().addAll(botoes);
         return painel;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Cria um indicador de carregamento, usado como placeholder enquanto
+     * os dados são carregados em segundo plano.
+     * 
+     * @param texto Texto exibido abaixo do indicador
+     * @return VBox com o indicador de progresso e o texto
+     */
+    public VBox criarIndicadorCarregamento(String texto) {
+        ProgressIndicator indicador = new ProgressIndicator();
+        indicador.setMaxSize(40, 40);
+
+        Label lblTexto = new Label(texto);
+        lblTexto.setTextFill(Color.GRAY);
+
+        VBox painel = new VBox(10, indicador, lblTexto);
+        painel.setAlignment(Pos.CENTER);
+        painel.setPadding(new Insets(20));
+        return painel;
+    }
+}
@@ -2,6 +2,7 @@ package com.gastos.ui;
 
 import com.gastos.controller.ResponsavelController;
 import com.gastos.model.Responsavel;
+import com.gastos.service.CacheAvatares;
 
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -20,7 +21,6 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 
-import java.io.File;
 import java.util.function.Consumer;
 
 /**
@@ -143,18 +143,10 @@ public class GerenciadorAvatares {
         imageView.setFitWidth(70);
         imageView.setFitHeight(70);
         
-        // Tenta carregar a imagem do usuário se existir
-        String caminhoImagem = "images/profile_" + responsavel.getId() + ".png";
-        File arquivo = new File(caminhoImagem);
-        
-        if (arquivo.exists()) {
-            try {
-                Image imagem = new Image(arquivo.toURI().toString());
-                imageView.setImage(imagem);
-            } catch (Exception e) {
-                // Se falhar, usa imagem padrão
-                usarImagemPadrao(imageView, responsavel);
-            }
+        // A foto vem do cache compartilhado, decodificada em segundo plano já em 70x70
+        Image imagem = CacheAvatares.getInstancia().obter(responsavel.getId(), 70);
+        if (imagem != null) {
+            imageView.setImage(imagem);
         } else {
             // Se não existir, usa imagem padrão
             usarImagemPadrao(imageView, responsavel);
@@ -286,16 +286,16 @@ public class TelaCadastroDespesa extends BaseTelaModal {
      */
     private void atualizarValorParcela() {
         try {
-            double valorTotal = Double.parseDouble(txtValor.getText().replace(",", "."));
+            Dinheiro valorTotal = Dinheiro.parse(txtValor.getText());
             int numeroParcelas = spinnerParcelas.getValue();
 
-            if (valorTotal > 0 && numeroParcelas > 0) {
-                double valorParcela = Math.round((valorTotal / numeroParcelas) * 100.0) / 100.0;
-                lblValorParcela.setText("Valor de cada parcela: R$ " + String.format("%.2f", valorParcela));
+            if (valorTotal.isPositivo() && numeroParcelas > 0) {
+                Dinheiro valorParcela = valorTotal.repartir(numeroParcelas)[0];
+                lblValorParcela.setText("Valor de cada parcela: " + valorParcela.formatar());
             } else {
                 lblValorParcela.setText("Valor de cada parcela: R$ 0,00");
             }
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | ArithmeticException e) {
             lblValorParcela.setText("Valor de cada parcela: R$ 0,00");
         }
     }
@@ -366,7 +366,7 @@ public class TelaCadastroDespesa extends BaseTelaModal {
     private void carregarDadosParaEdicao() {
         if (despesaAtual != null) {
             txtDescricao.setText(despesaAtual.getDescricao());
-            txtValor.setText(String.format("%.2f", despesaAtual.getValor()));
+            txtValor.setText(despesaAtual.getValor().formatarValor());
 
             if (despesaAtual.getDataCompra() != null) {
                 datePicker.setValue(despesaAtual.getDataCompra());
@@ -459,8 +459,8 @@ public class TelaCadastroDespesa extends BaseTelaModal {
         despesaAtual.setDescricao(txtDescricao.getText().trim());
         
         try {
-            despesaAtual.setValor(Double.parseDouble(txtValor.getText().replace(",", ".")));
-        } catch (NumberFormatException e) {
+            despesaAtual.setValor(Dinheiro.parse(txtValor.getText()));
+        } catch (NumberFormatException | ArithmeticException e) {
             throw new IllegalArgumentException("O valor informado não é válido.");
         }
         
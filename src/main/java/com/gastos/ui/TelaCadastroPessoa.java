@@ -5,9 +5,11 @@ import com.gastos.service.ResponsavelService;
 import com.gastos.ui.base.BaseTelaModal;
 import com.gastos.ui.util.ImageCropperDialog;
 
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -31,6 +33,9 @@ import java.util.Optional;
  */
 public class TelaCadastroPessoa extends BaseTelaModal {
     
+    private static final double LARGURA_PREVIA = 700;
+    private static final double ALTURA_PREVIA = 500;
+    
     private final ResponsavelService responsavelService;
     
     // Componentes da interface
@@ -39,7 +44,7 @@ public class TelaCadastroPessoa extends BaseTelaModal {
     private ImageView imgFoto;
     private StackPane fotoContainer;
     private File arquivoFotoSelecionado;
-    private Image imagemRecortada;
+    private Rectangle2D recorte; // Região da foto em frações da imagem, ou null para a foto inteira
     private Responsavel responsavelSelecionado;
     private Label lblLimite;
     private Button btnEditarFoto;
@@ -258,7 +263,8 @@ public class TelaCadastroPessoa extends BaseTelaModal {
     private void selecionarResponsavel(Responsavel responsavel) {
         responsavelSelecionado = responsavel;
         arquivoFotoSelecionado = null;
-        imagemRecortada = null;
+        recorte = null;
+        imgFoto.setViewport(null);
         
         if (responsavel != null) {
             // Preencher o campo de nome
@@ -317,7 +323,8 @@ public class TelaCadastroPessoa extends BaseTelaModal {
         responsavelSelecionado = new Responsavel();
         txtNome.clear();
         arquivoFotoSelecionado = null;
-        imagemRecortada = null;
+        recorte = null;
+        imgFoto.setViewport(null);
         atualizarImagemPlaceholder();
         txtNome.requestFocus();
         
@@ -342,8 +349,10 @@ public class TelaCadastroPessoa extends BaseTelaModal {
         
         if (arquivo != null) {
             try {
-                // Carregar e exibir a imagem selecionada
-                Image imagem = new Image(arquivo.toURI().toString());
+                // Carregar em segundo plano, já reduzida, só para a pré-visualização e o recorte;
+                // a foto final é gerada a partir do arquivo original ao salvar
+                Image imagem = new Image(arquivo.toURI().toString(), LARGURA_PREVIA, ALTURA_PREVIA, true, true, true);
+                imgFoto.setViewport(null);
                 imgFoto.setImage(imagem);
                 
                 // Limpar container e adicionar imagem
@@ -352,7 +361,7 @@ public class TelaCadastroPessoa extends BaseTelaModal {
                 
                 // Guardar referência ao arquivo
                 arquivoFotoSelecionado = arquivo;
-                imagemRecortada = null; // Limpar imagem recortada anterior
+                recorte = null; // Limpar recorte anterior
                 
                 // Habilitar botão de recorte
                 btnEditarFoto.setDisable(false);
@@ -364,67 +373,50 @@ public class TelaCadastroPessoa extends BaseTelaModal {
     }
     
     /**
-     * Abre o diálogo para recortar a foto atual.
+     * Abre o diálogo para recortar a foto atual. O recorte só é aplicado à
+     * pré-visualização (como viewport); a foto é recortada ao salvar.
      */
     private void recortarFoto() {
         // Verificar se há imagem para recortar
-        Image imagemAtual = null;
-        if (imagemRecortada != null) {
-            imagemAtual = imagemRecortada;
-        } else if (imgFoto.getImage() != null) {
-            imagemAtual = imgFoto.getImage();
-        } else if (arquivoFotoSelecionado != null) {
-            try {
-                imagemAtual = new Image(arquivoFotoSelecionado.toURI().toString());
-            } catch (Exception e) {
-                System.err.println("Erro ao carregar imagem do arquivo: " + e.getMessage());
-            }
-        } else if (responsavelSelecionado != null && responsavelSelecionado.getId() > 0) {
-            // Tentar carregar a imagem do responsável selecionado
+        Image imagemAtual = imgFoto.getImage();
+        File arquivoOrigem = arquivoFotoSelecionado;
+        if (arquivoOrigem == null && responsavelSelecionado != null && responsavelSelecionado.getId() > 0) {
+            // Recortar a foto já salva do responsável selecionado
             String caminhoFoto = responsavelService.getCaminhoFoto(responsavelSelecionado.getId());
             if (caminhoFoto != null) {
-                try {
-                    imagemAtual = new Image(new File(caminhoFoto).toURI().toString());
-                } catch (Exception e) {
-                    System.err.println("Erro ao carregar imagem para recorte: " + e.getMessage());
+                arquivoOrigem = new File(caminhoFoto);
+                if (imagemAtual == null) {
+                    imagemAtual = new Image(arquivoOrigem.toURI().toString());
                 }
             }
         }
         
-        if (imagemAtual == null) {
+        if (imagemAtual == null || arquivoOrigem == null || imagemAtual.isError()) {
             exibirAlerta(Alert.AlertType.WARNING, "Aviso", "Nenhuma imagem disponível para recorte!");
             return;
         }
+        if (imagemAtual.getProgress() < 1) {
+            exibirAlerta(Alert.AlertType.INFORMATION, "Aviso", "A imagem ainda está sendo carregada. Tente novamente.");
+            return;
+        }
         
         // Abrir diálogo de recorte
-        ImageCropperDialog cropper = new ImageCropperDialog(imagemAtual);
-        Image imagemRecortadaResult = cropper.showAndWait();
+        ImageCropperDialog cropper = new ImageCropperDialog(imagemAtual, recorte);
+        Rectangle2D novoRecorte = cropper.showAndWait();
         
-        if (imagemRecortadaResult != null) {
-            // Atualizar a imagem exibida
-            imgFoto.setImage(imagemRecortadaResult);
+        if (novoRecorte != null) {
+            recorte = novoRecorte;
+            arquivoFotoSelecionado = arquivoOrigem;
+            
+            // Exibir só a região recortada
+            imgFoto.setImage(imagemAtual);
+            imgFoto.setViewport(new Rectangle2D(
+                novoRecorte.getMinX() * imagemAtual.getWidth(), novoRecorte.getMinY() * imagemAtual.getHeight(),
+                novoRecorte.getWidth() * imagemAtual.getWidth(), novoRecorte.getHeight() * imagemAtual.getHeight()));
             
             // Limpar container e adicionar imagem
             fotoContainer.getChildren().clear();
             fotoContainer.getChildren().add(imgFoto);
-            
-            // Armazenar a imagem recortada
-            imagemRecortada = imagemRecortadaResult;
-            
-            // Salvar a imagem recortada em um arquivo temporário
-            try {
-                // Criar arquivo temporário para a imagem recortada
-                File tempFile = File.createTempFile("cropped_", ".png");
-                tempFile.deleteOnExit(); // Será excluído ao fechar a aplicação
-                
-                // TODO: Implementar lógica para salvar imagem recortada no arquivo
-                
-                // Atualizar a referência do arquivo
-                arquivoFotoSelecionado = tempFile;
-            } catch (Exception e) {
-                System.err.println("Erro ao salvar imagem recortada: " + e.getMessage());
-                exibirAlerta(Alert.AlertType.ERROR, "Erro", "Não foi possível salvar a imagem recortada.");
-            }
         }
     }
     
@@ -513,25 +505,23 @@ public class TelaCadastroPessoa extends BaseTelaModal {
         }
         
         // Atualizar dados
+        String nomeAnterior = responsavelSelecionado.getNome();
         responsavelSelecionado.setNome(nome);
+        boolean sucesso = false;
         
         try {
-            boolean sucesso = responsavelService.salvar(responsavelSelecionado);
+            sucesso = responsavelService.salvar(responsavelSelecionado);
             
             if (sucesso) {
-                // Salvar foto
+                // Salvar foto: recortada e reduzida em segundo plano; o dashboard é
+                // avisado pelo CacheAvatares quando ela estiver pronta
                 if (arquivoFotoSelecionado != null) {
-                    boolean fotoSalva = responsavelService.salvarFoto(
-                        responsavelSelecionado.getId(),
-                        arquivoFotoSelecionado
-                    );
-                    
-                    if (!fotoSalva) {
-                        System.err.println("Aviso: Falha ao salvar a foto.");
-                    }
+                    int id = responsavelSelecionado.getId();
+                    responsavelService.salvarFoto(id, arquivoFotoSelecionado, recorte)
+                        .thenAccept(fotoSalva -> Platform.runLater(() -> aoSalvarFoto(id, fotoSalva)));
                     
                     arquivoFotoSelecionado = null;
-                    imagemRecortada = null;
+                    recorte = null;
                 }
                 
                 exibirAlerta(Alert.AlertType.INFORMATION, "Sucesso", "Pessoa salva com sucesso!");
@@ -548,6 +538,29 @@ public class TelaCadastroPessoa extends BaseTelaModal {
         } catch (Exception e) {
             exibirAlerta(Alert.AlertType.ERROR, "Erro", "Erro ao salvar: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            // O formulário mantém o nome digitado; a linha da tabela volta ao nome gravado
+            if (!sucesso) {
+                responsavelSelecionado.setNome(nomeAnterior);
+                tabelaResponsaveis.refresh();
+            }
+        }
+    }
+    
+    /**
+     * Atualiza a tela quando o processamento de uma foto termina.
+     */
+    private void aoSalvarFoto(int responsavelId, boolean fotoSalva) {
+        if (!fotoSalva) {
+            System.err.println("Aviso: Falha ao salvar a foto.");
+            exibirAlerta(Alert.AlertType.WARNING, "Aviso", "Não foi possível salvar a foto.");
+        }
+        tabelaResponsaveis.refresh();
+        
+        // Recarregar a foto exibida, se o responsável ainda estiver selecionado sem outra foto escolhida
+        if (responsavelSelecionado != null && responsavelSelecionado.getId() == responsavelId
+                && arquivoFotoSelecionado == null) {
+            selecionarResponsavel(responsavelSelecionado);
         }
     }
     
@@ -239,6 +239,7 @@ public class TelaCategorias extends BaseTelaModal {
         Optional<String> resultado = dialog.showAndWait();
         if (resultado.isPresent() && !resultado.get().trim().isEmpty()) {
             String novoNome = resultado.get().trim();
+            String nomeAnterior = categoriaSelecionada.getNome();
             categoriaSelecionada.setNome(novoNome);
             if (categoriaController.salvarCategoria(categoriaSelecionada)) {
                 atualizarTabelaCategorias();
@@ -249,6 +250,9 @@ public class TelaCategorias extends BaseTelaModal {
                     .ifPresent(c -> tabelaCategorias.getSelectionModel().select(c));
                 exibirInformacao("Sucesso", "Categoria atualizada com sucesso!");
             } else {
+                // A categoria é uma cópia da tela: desfazer o nome não gravado
+                categoriaSelecionada.setNome(nomeAnterior);
+                tabelaCategorias.refresh();
                 exibirErro("Erro", "Erro ao atualizar categoria. Tente novamente.");
             }
         }
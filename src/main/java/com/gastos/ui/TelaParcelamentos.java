@@ -5,12 +5,24 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
+import com.gastos.controller.CartaoCreditoController;
+import com.gastos.controller.ParcelamentoController;
 import com.gastos.db.ConexaoBanco;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Fatura;
+import com.gastos.service.RepositorioDespesas;
+import com.gastos.service.RepositorioDespesas.EventoDespesa;
+import com.gastos.service.RepositorioDespesas.OuvinteDespesas;
 import com.gastos.ui.base.BaseTelaModal;
 
 import javafx.collections.FXCollections;
@@ -23,6 +35,8 @@ import javafx.scene.control.Alert.AlertType;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.WindowEvent;
+import javafx.util.StringConverter;
 
 /**
  * Tela para gerenciar parcelamentos.
@@ -31,12 +45,15 @@ import javafx.scene.text.FontWeight;
 public class TelaParcelamentos extends BaseTelaModal {
     
     // Constantes para SQL
-    private static final String SQL_LOAD_PARCELAMENTOS = 
+    private static final String SQL_LOAD_PARCELAMENTOS_BASE = 
             "SELECT p.id, p.valor_total, p.total_parcelas, p.parcelas_restantes, p.data_inicio, " +
             "d.descricao, d.id as despesa_id " +
             "FROM parcelamentos p " +
-            "LEFT JOIN despesas d ON d.parcelamento_id = p.id " +
-            "ORDER BY p.id DESC";
+            "LEFT JOIN despesas d ON d.parcelamento_id = p.id ";
+    
+    private static final String SQL_LOAD_PARCELAMENTOS = SQL_LOAD_PARCELAMENTOS_BASE + "ORDER BY p.id DESC";
+    
+    private static final String SQL_LOAD_PARCELAMENTO = SQL_LOAD_PARCELAMENTOS_BASE + "WHERE p.id = ?";
     
     private static final String SQL_LOAD_PARCELAS = 
             "SELECT id, numero_parcela, valor, data_vencimento, paga " +
@@ -44,17 +61,16 @@ public class TelaParcelamentos extends BaseTelaModal {
             "WHERE parcelamento_id = ? " +
             "ORDER BY numero_parcela";
     
-    private static final String SQL_UPDATE_PARCELA_STATUS = 
-            "UPDATE parcelas SET paga = ? WHERE id = ?";
-    
-    private static final String SQL_GET_PARCELAMENTO_ID = 
-            "SELECT parcelamento_id FROM parcelas WHERE id = ?";
+    // Chaves dos carregamentos em segundo plano
+    private static final String CARREGAMENTO_PARCELAMENTOS = "parcelamentos";
+    private static final String CARREGAMENTO_PARCELAS = "parcelas";
     
-    private static final String SQL_COUNT_UNPAID_PARCELAS = 
-            "SELECT COUNT(*) as restantes FROM parcelas WHERE parcelamento_id = ? AND paga = 0";
+    // Faturas oferecidas para pagamento: as já fechadas, até um ano atrás, e a atual
+    private static final int MESES_FATURAS_ANTERIORES = 12;
+    private static final DateTimeFormatter FORMATO_MES_FATURA = DateTimeFormatter.ofPattern("MM/yyyy");
     
-    private static final String SQL_UPDATE_PARCELAS_RESTANTES = 
-            "UPDATE parcelamentos SET parcelas_restantes = ? WHERE id = ?";
+    private final ParcelamentoController parcelamentoController = new ParcelamentoController();
+    private final CartaoCreditoController cartaoController = new CartaoCreditoController();
     
     // Componentes da interface
     private TableView<ParcelamentoInfo> tabelaParcelamentos;
@@ -66,6 +82,12 @@ public class TelaParcelamentos extends BaseTelaModal {
     public TelaParcelamentos() {
         super("Gerenciar Parcelamentos", 900, 600);
         
+        // Pagamentos de parcelas e alterações de despesas atualizam só os parcelamentos afetados
+        OuvinteDespesas ouvinte = RepositorioDespesas.naThreadFX(this::aplicarEvento);
+        RepositorioDespesas.getInstancia().adicionarOuvinte(ouvinte);
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN,
+                e -> RepositorioDespesas.getInstancia().removerOuvinte(ouvinte));
+        
         // Carregar dados
         carregarParcelamentos();
     }
@@ -96,9 +118,10 @@ public class TelaParcelamentos extends BaseTelaModal {
     @Override
     protected Node criarPainelBotoes() {
         Button btnAtualizar = uiFactory.criarBotaoSucesso("Atualizar", e -> carregarParcelamentos());
+        Button btnPagarFatura = uiFactory.criarBotaoPrimario("Pagar Fatura do Cartão", e -> pagarFaturaCartao());
         Button btnFechar = uiFactory.criarBotaoPerigo("Fechar", e -> fechar());
         
-        return uiFactory.criarPainelBotoes(btnAtualizar, btnFechar);
+        return uiFactory.criarPainelBotoes(btnAtualizar, btnPagarFatura, btnFechar);
     }
     
     /**
@@ -148,6 +171,7 @@ public class TelaParcelamentos extends BaseTelaModal {
                     if (newValue != null) {
                         carregarParcelas(newValue.getId());
                     } else {
+                        carregador.cancelar(CARREGAMENTO_PARCELAS);
                         tabelaParcelas.getItems().clear();
                     }
                 });
@@ -172,6 +196,7 @@ public class TelaParcelamentos extends BaseTelaModal {
         // Tabela de parcelas
         tabelaParcelas = new TableView<>();
         tabelaParcelas.setPrefHeight(400);
+        tabelaParcelas.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         
         // Configurar colunas
         TableColumn<ParcelaInfo, String> colunaNumeroParcela = new TableColumn<>("Nº");
@@ -212,58 +237,179 @@ public class TelaParcelamentos extends BaseTelaModal {
     }
     
     /**
-     * Carrega todos os parcelamentos.
+     * Carrega todos os parcelamentos, em segundo plano.
      */
     private void carregarParcelamentos() {
+        tabelaParcelamentos.setPlaceholder(uiFactory.criarIndicadorCarregamento("Carregando parcelamentos..."));
+        carregador.carregar(CARREGAMENTO_PARCELAMENTOS,
+            this::buscarParcelamentos,
+            itens -> {
+                tabelaParcelamentos.setPlaceholder(new Label("Nenhum parcelamento cadastrado"));
+                tabelaParcelamentos.setItems(itens);
+                
+                // Se houver itens, selecionar o primeiro
+                if (!itens.isEmpty()) {
+                    tabelaParcelamentos.getSelectionModel().selectFirst();
+                }
+            },
+            erro -> {
+                tabelaParcelamentos.setPlaceholder(new Label("Erro ao carregar parcelamentos"));
+                exibirErro("Erro ao carregar parcelamentos", erro.getMessage());
+            });
+    }
+    
+    /**
+     * Busca os parcelamentos no banco. Não toca na interface.
+     */
+    private ObservableList<ParcelamentoInfo> buscarParcelamentos() throws SQLException {
         ObservableList<ParcelamentoInfo> itens = FXCollections.observableArrayList();
         
-        try (Connection conn = ConexaoBanco.getConexao();
+        try (Connection conn = ConexaoBanco.getConexaoLeitura();
              PreparedStatement stmt = conn.prepareStatement(SQL_LOAD_PARCELAMENTOS);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                int id = rs.getInt("id");
-                double valorTotal = rs.getDouble("valor_total");
-                int totalParcelas = rs.getInt("total_parcelas");
-                int parcelasRestantes = rs.getInt("parcelas_restantes");
-                String descricao = rs.getString("descricao");
-                
-                // Se a descrição for nula, usar descrição padrão
-                if (descricao == null || descricao.isEmpty()) {
-                    descricao = "Parcelamento #" + id;
-                }
-                
-                ParcelamentoInfo item = new ParcelamentoInfo(
-                    id,
-                    descricao,
-                    "R$ " + String.format("%.2f", valorTotal),
-                    totalParcelas + "x",
-                    String.valueOf(parcelasRestantes),
-                    parcelasRestantes > 0 ? "Em Andamento" : "Quitado"
-                );
-                
-                itens.add(item);
+                itens.add(construirParcelamentoInfo(rs));
             }
+        }
+        
+        return itens;
+    }
+    
+    /**
+     * Busca um único parcelamento no banco. Não toca na interface.
+     * 
+     * @return o parcelamento, ou vazio se tiver sido excluído
+     */
+    private Optional<ParcelamentoInfo> buscarParcelamento(int parcelamentoId) throws SQLException {
+        try (Connection conn = ConexaoBanco.getConexaoLeitura();
+             PreparedStatement stmt = conn.prepareStatement(SQL_LOAD_PARCELAMENTO)) {
+            stmt.setInt(1, parcelamentoId);
             
-            tabelaParcelamentos.setItems(itens);
-            
-            // Se houver itens, selecionar o primeiro
-            if (!itens.isEmpty()) {
-                tabelaParcelamentos.getSelectionModel().selectFirst();
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(construirParcelamentoInfo(rs)) : Optional.empty();
+            }
+        }
+    }
+    
+    /**
+     * Constrói um objeto ParcelamentoInfo a partir do ResultSet.
+     */
+    private ParcelamentoInfo construirParcelamentoInfo(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        Dinheiro valorTotal = Dinheiro.deCentavos(rs.getLong("valor_total"));
+        int totalParcelas = rs.getInt("total_parcelas");
+        int parcelasRestantes = rs.getInt("parcelas_restantes");
+        String descricao = rs.getString("descricao");
+        
+        // Se a descrição for nula, usar descrição padrão
+        if (descricao == null || descricao.isEmpty()) {
+            descricao = "Parcelamento #" + id;
+        }
+        
+        return new ParcelamentoInfo(
+            id,
+            rs.getInt("despesa_id"),
+            descricao,
+            valorTotal.formatar(),
+            totalParcelas + "x",
+            String.valueOf(parcelasRestantes),
+            parcelasRestantes > 0 ? "Em Andamento" : "Quitado"
+        );
+    }
+    
+    /**
+     * Aplica a alteração de despesas ou parcelas: só os parcelamentos afetados são
+     * relidos, e as parcelas apenas se o parcelamento selecionado for um deles.
+     */
+    private void aplicarEvento(EventoDespesa evento) {
+        // Sem saber quais parcelamentos mudaram, ou com a lista ainda carregando, recarregar tudo
+        if (carregador.isCarregando(CARREGAMENTO_PARCELAMENTOS)
+                || (evento.getTipo() == EventoDespesa.Tipo.PARCELAS && evento.getParcelamentoIds().isEmpty())) {
+            carregarParcelamentos();
+            return;
+        }
+        
+        Set<Integer> afetados = new HashSet<>(evento.getParcelamentoIds());
+        if (evento.getTipo() != EventoDespesa.Tipo.PARCELAS) {
+            Despesa despesa = evento.getDespesa();
+            if (despesa != null && despesa.getParcelamento() != null) {
+                afetados.add(despesa.getParcelamento().getId());
+            }
+            for (ParcelamentoInfo item : tabelaParcelamentos.getItems()) {
+                if (item.getDespesaId() == evento.getDespesaId()) {
+                    afetados.add(item.getId());
+                }
             }
-            
-        } catch (SQLException e) {
-            exibirErro("Erro ao carregar parcelamentos", e.getMessage());
+        }
+        
+        for (int parcelamentoId : afetados) {
+            carregador.carregar(CARREGAMENTO_PARCELAMENTOS + "-" + parcelamentoId,
+                () -> buscarParcelamento(parcelamentoId),
+                item -> substituirParcelamento(parcelamentoId, item.orElse(null)),
+                erro -> System.err.println("Erro ao recarregar parcelamento: " + erro.getMessage()));
         }
     }
     
     /**
-     * Carrega as parcelas de um parcelamento.
+     * Substitui, inclui ou remove (se null) a linha de um parcelamento, mantendo a
+     * ordem por ID decrescente e a seleção.
+     */
+    private void substituirParcelamento(int parcelamentoId, ParcelamentoInfo novo) {
+        ObservableList<ParcelamentoInfo> itens = tabelaParcelamentos.getItems();
+        ParcelamentoInfo selecionado = tabelaParcelamentos.getSelectionModel().getSelectedItem();
+        boolean eraSelecionado = selecionado != null && selecionado.getId() == parcelamentoId;
+        
+        int indice = 0;
+        while (indice < itens.size() && itens.get(indice).getId() > parcelamentoId) {
+            indice++;
+        }
+        boolean existe = indice < itens.size() && itens.get(indice).getId() == parcelamentoId;
+        
+        if (novo == null) {
+            if (existe) {
+                itens.remove(indice);
+            }
+            return;
+        }
+        if (existe) {
+            itens.set(indice, novo);
+        } else {
+            itens.add(indice, novo);
+        }
+        
+        if (eraSelecionado) {
+            tabelaParcelamentos.getSelectionModel().select(novo);
+            carregarParcelas(parcelamentoId);
+        }
+    }
+    
+    /**
+     * Carrega as parcelas de um parcelamento, em segundo plano.
+     * Trocar de parcelamento antes do fim do carregamento cancela o anterior.
      */
     private void carregarParcelas(int parcelamentoId) {
+        tabelaParcelas.getItems().clear();
+        tabelaParcelas.setPlaceholder(uiFactory.criarIndicadorCarregamento("Carregando parcelas..."));
+        carregador.carregar(CARREGAMENTO_PARCELAS,
+            () -> buscarParcelas(parcelamentoId),
+            itens -> {
+                tabelaParcelas.setPlaceholder(new Label("Nenhuma parcela"));
+                tabelaParcelas.setItems(itens);
+            },
+            erro -> {
+                tabelaParcelas.setPlaceholder(new Label("Erro ao carregar parcelas"));
+                exibirErro("Erro ao carregar parcelas", erro.getMessage());
+            });
+    }
+    
+    /**
+     * Busca as parcelas de um parcelamento no banco. Não toca na interface.
+     */
+    private ObservableList<ParcelaInfo> buscarParcelas(int parcelamentoId) throws SQLException {
         ObservableList<ParcelaInfo> itens = FXCollections.observableArrayList();
         
-        try (Connection conn = ConexaoBanco.getConexao()) {
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
             // Buscar o número total de parcelas
             int totalParcelas = obterTotalParcelas(conn, parcelamentoId);
             
@@ -278,12 +424,9 @@ public class TelaParcelamentos extends BaseTelaModal {
                     }
                 }
             }
-            
-            tabelaParcelas.setItems(itens);
-            
-        } catch (SQLException e) {
-            exibirErro("Erro ao carregar parcelas", e.getMessage());
         }
+        
+        return itens;
     }
     
     /**
@@ -311,7 +454,7 @@ public class TelaParcelamentos extends BaseTelaModal {
     private ParcelaInfo construirParcelaInfo(ResultSet rs, int totalParcelas) throws SQLException {
         int id = rs.getInt("id");
         int numeroParcela = rs.getInt("numero_parcela");
-        double valor = rs.getDouble("valor");
+        Dinheiro valor = Dinheiro.deCentavos(rs.getLong("valor"));
         String dataVencimentoStr = rs.getString("data_vencimento");
         boolean paga = rs.getBoolean("paga");
         
@@ -328,54 +471,49 @@ public class TelaParcelamentos extends BaseTelaModal {
         return new ParcelaInfo(
             id,
             numeroParcela + "/" + totalParcelas,
-            "R$ " + String.format("%.2f", valor),
+            valor.formatar(),
             dataFormatada,
             paga ? "Paga" : "A Pagar"
         );
     }
     
     /**
-     * Marca uma parcela como paga ou não paga.
+     * Marca as parcelas selecionadas como pagas ou não pagas, em uma única operação.
      */
     private void marcarParcelaPaga(boolean paga) {
-        ParcelaInfo parcelaSelecionada = tabelaParcelas.getSelectionModel().getSelectedItem();
+        List<ParcelaInfo> selecionadas = new ArrayList<>(tabelaParcelas.getSelectionModel().getSelectedItems());
         
-        if (parcelaSelecionada == null) {
+        if (selecionadas.isEmpty()) {
             exibirAviso("Seleção Vazia", 
                       "Por favor, selecione uma parcela para alterar o status.");
             return;
         }
         
         // Confirmar operação
+        String alvo = selecionadas.size() == 1
+                ? "a parcela " + selecionadas.get(0).getNumeroParcela()
+                : "as " + selecionadas.size() + " parcelas selecionadas";
         Alert confirmacao = new Alert(AlertType.CONFIRMATION);
         confirmacao.setTitle("Confirmação");
-        confirmacao.setHeaderText("Alterar Status da Parcela");
-        confirmacao.setContentText("Deseja marcar a parcela " + parcelaSelecionada.getNumeroParcela() + 
-                                  " como " + (paga ? "PAGA" : "NÃO PAGA") + "?");
+        confirmacao.setHeaderText(selecionadas.size() == 1 ? "Alterar Status da Parcela" : "Alterar Status das Parcelas");
+        confirmacao.setContentText("Deseja marcar " + alvo + " como " + (paga ? "PAGA" : "NÃO PAGA") + "?");
         confirmacao.initOwner(stage);
         
         Optional<ButtonType> resultado = confirmacao.showAndWait();
         
         if (resultado.isPresent() && resultado.get() == ButtonType.OK) {
-            try (Connection conn = ConexaoBanco.getConexao()) {
-                // 1. Atualizar o status da parcela
-                try (PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE_PARCELA_STATUS)) {
-                    stmt.setBoolean(1, paga);
-                    stmt.setInt(2, parcelaSelecionada.getId());
-                    stmt.executeUpdate();
-                }
-                
-                // 2. Atualizar o número de parcelas restantes
-                atualizarParcelasRestantes(conn, parcelaSelecionada.getId());
-                
-                // 3. Recarregar os dados
-                ParcelamentoInfo parcelamentoSelecionado = tabelaParcelamentos.getSelectionModel().getSelectedItem();
-                if (parcelamentoSelecionado != null) {
-                    carregarParcelas(parcelamentoSelecionado.getId());
-                    carregarParcelamentos(); // Atualizar também a lista de parcelamentos
+            try {
+                // As parcelas restantes do parcelamento são mantidas pelo banco
+                List<Integer> ids = new ArrayList<>(selecionadas.size());
+                for (ParcelaInfo parcela : selecionadas) {
+                    ids.add(parcela.getId());
                 }
+                // O parcelamento e as suas parcelas são relidos pelo evento do repositório
+                int alteradas = parcelamentoController.marcarParcelasPagas(ids, paga);
                 
-                exibirInformacao("Sucesso", "Parcela atualizada com sucesso!");
+                exibirInformacao("Sucesso", alteradas == 1
+                        ? "Parcela atualizada com sucesso!"
+                        : alteradas + " parcelas atualizadas com sucesso!");
                 
             } catch (SQLException e) {
                 exibirErro("Erro ao atualizar parcela", e.getMessage());
@@ -384,44 +522,82 @@ public class TelaParcelamentos extends BaseTelaModal {
     }
     
     /**
-     * Atualiza o número de parcelas restantes de um parcelamento.
+     * Marca como pagas todas as parcelas que entram em uma fatura de cartão, escolhida
+     * pelo cartão e pelo mês de fechamento. A fatura de cada parcela segue o ciclo do
+     * cartão (data da compra e dia de fechamento), o mesmo da tabela de faturas.
      */
-    private void atualizarParcelasRestantes(Connection conn, int parcelaId) throws SQLException {
-        // 1. Obter o ID do parcelamento
-        int parcelamentoId = 0;
-        
-        try (PreparedStatement stmt = conn.prepareStatement(SQL_GET_PARCELAMENTO_ID)) {
-            stmt.setInt(1, parcelaId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    parcelamentoId = rs.getInt("parcelamento_id");
-                }
-            }
-        }
-        
-        if (parcelamentoId == 0) {
-            throw new SQLException("Não foi possível encontrar o parcelamento da parcela ID " + parcelaId);
+    private void pagarFaturaCartao() {
+        ObservableList<CartaoCredito> cartoes = cartaoController.listarTodosCartoes();
+        if (cartoes.isEmpty()) {
+            exibirAviso("Nenhum Cartão", "Não há cartões de crédito cadastrados.");
+            return;
         }
         
-        // 2. Contar parcelas não pagas
-        int parcelasRestantes = 0;
-        
-        try (PreparedStatement stmt = conn.prepareStatement(SQL_COUNT_UNPAID_PARCELAS)) {
-            stmt.setInt(1, parcelamentoId);
+        ComboBox<CartaoCredito> cmbCartao = new ComboBox<>(cartoes);
+        ComboBox<YearMonth> cmbMes = new ComboBox<>();
+        cmbMes.setConverter(new StringConverter<YearMonth>() {
+            @Override
+            public String toString(YearMonth mes) {
+                return mes == null ? "" : mes.format(FORMATO_MES_FATURA);
+            }
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    parcelasRestantes = rs.getInt("restantes");
+            @Override
+            public YearMonth fromString(String texto) {
+                return YearMonth.parse(texto, FORMATO_MES_FATURA);
+            }
+        });
+        Label lblFatura = new Label();
+        
+        // Ao trocar de cartão, oferecer as faturas dele e sugerir a última fechada
+        cmbCartao.valueProperty().addListener((obs, anterior, cartao) -> {
+            cmbMes.getItems().clear();
+            if (cartao != null) {
+                YearMonth atual = cartao.calcularMesFatura(LocalDate.now());
+                for (YearMonth mes = atual; !mes.isBefore(atual.minusMonths(MESES_FATURAS_ANTERIORES)); mes = mes.minusMonths(1)) {
+                    cmbMes.getItems().add(mes);
                 }
+                cmbMes.setValue(atual.minusMonths(1));
             }
+        });
+        cmbMes.valueProperty().addListener((obs, anterior, mes) -> {
+            CartaoCredito cartao = cmbCartao.getValue();
+            Fatura fatura = cartao != null && mes != null ? cartaoController.buscarFatura(cartao, mes) : null;
+            lblFatura.setText(fatura == null ? "" : "Total da fatura: " + fatura.getTotal().formatar()
+                    + " | Em aberto: " + fatura.getEmAberto().formatar());
+        });
+        cmbCartao.setValue(cartoes.get(0));
+        
+        GridPane grade = new GridPane();
+        grade.setHgap(10);
+        grade.setVgap(10);
+        grade.setPadding(new Insets(10));
+        grade.addRow(0, new Label("Cartão:"), cmbCartao);
+        grade.addRow(1, new Label("Fatura (fechamento):"), cmbMes);
+        grade.add(lblFatura, 0, 2, 2, 1);
+        
+        Dialog<ButtonType> dialogo = new Dialog<>();
+        dialogo.setTitle("Pagar Fatura do Cartão");
+        dialogo.setHeaderText("Marcar como pagas as parcelas da fatura");
+        dialogo.getDialogPane().setContent(grade);
+        dialogo.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialogo.initOwner(stage);
+        
+        Optional<ButtonType> resultado = dialogo.showAndWait();
+        CartaoCredito cartao = cmbCartao.getValue();
+        YearMonth mes = cmbMes.getValue();
+        if (resultado.isEmpty() || resultado.get() != ButtonType.OK || cartao == null || mes == null) {
+            return;
         }
         
-        // 3. Atualizar o parcelamento
-        try (PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE_PARCELAS_RESTANTES)) {
-            stmt.setInt(1, parcelasRestantes);
-            stmt.setInt(2, parcelamentoId);
-            stmt.executeUpdate();
+        try {
+            // Os parcelamentos e as faturas são atualizados pelo banco e pelo evento do repositório
+            int alteradas = parcelamentoController.marcarParcelasDoCartaoPagas(cartao.getId(), mes, true);
+            String fatura = cartao.getNome() + " " + mes.format(FORMATO_MES_FATURA);
+            exibirInformacao("Fatura Paga", alteradas == 0
+                    ? "Nenhuma parcela em aberto na fatura " + fatura + "."
+                    : alteradas + " parcela(s) da fatura " + fatura + " marcada(s) como paga(s).");
+        } catch (SQLException e) {
+            exibirErro("Erro ao pagar fatura", e.getMessage());
         }
     }
     
@@ -430,15 +606,17 @@ public class TelaParcelamentos extends BaseTelaModal {
      */
     public static class ParcelamentoInfo {
         private final int id;
+        private final int despesaId;
         private final String descricao;
         private final String valorTotal;
         private final String parcelas;
         private final String restantes;
         private final String status;
         
-        public ParcelamentoInfo(int id, String descricao, String valorTotal, String parcelas, 
+        public ParcelamentoInfo(int id, int despesaId, String descricao, String valorTotal, String parcelas, 
                               String restantes, String status) {
             this.id = id;
+            this.despesaId = despesaId;
             this.descricao = descricao;
             this.valorTotal = valorTotal;
             this.parcelas = parcelas;
@@ -450,6 +628,10 @@ public class TelaParcelamentos extends BaseTelaModal {
             return id;
         }
         
+        public int getDespesaId() {
+            return despesaId;
+        }
+        
         public String getDescricao() {
             return descricao;
         }
@@ -1,17 +1,21 @@
 package com.gastos.ui;
 
 import com.gastos.GerenciadorFinanceiroApp;
+import com.gastos.model.DashboardSnapshot;
 import com.gastos.model.Despesa;
 import com.gastos.model.Responsavel;
 import com.gastos.service.AvatarService;
+import com.gastos.service.CarregadorAssincrono;
 import com.gastos.service.DashboardService;
+import com.gastos.service.DashboardService.DadosDashboard;
 import com.gastos.service.GraficoService;
+import com.gastos.service.ProjecaoFluxoCaixaService;
 import com.gastos.service.NavegacaoService;
+import com.gastos.service.RepositorioDespesas;
+import com.gastos.service.RepositorioDespesas.EventoDespesa;
 import com.gastos.service.UIComponentFactory;
 
 import javafx.application.Application;
-import javafx.application.Platform;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -26,8 +30,11 @@ import org.jfree.chart.JFreeChart;
 import org.jfree.chart.fx.ChartViewer;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Classe que representa a tela principal do aplicativo.
@@ -40,14 +47,21 @@ public class TelaPrincipal {
     private static final String STYLE_HEADER = "-fx-background-color: #3498db;";
     private static final String STYLE_SIDEBAR = "-fx-background-color: #2c3e50;";
     private static final String STYLE_FOOTER = "-fx-background-color: #ecf0f1;";
+    private static final String CARREGAMENTO_DASHBOARD = "dashboard";
+    private static final String CARREGAMENTO_RESUMO = "resumo";
+    private static final String CARREGAMENTO_TENDENCIA = "tendencia";
+    private static final String CARREGAMENTO_PROJECAO = "projecao";
 
     private Scene scene;
     
     // Serviços
     private final DashboardService dashboardService;
     private final GraficoService graficoService;
+    private final ProjecaoFluxoCaixaService projecaoService;
     private final UIComponentFactory uiFactory;
     private final NavegacaoService navegacaoService;
+    private final CarregadorAssincrono carregador;
+    private final RepositorioDespesas repositorio;
     private AvatarService avatarService;
 
     // Componentes da interface
@@ -83,11 +97,19 @@ public class TelaPrincipal {
         // Inicializar serviços
         this.dashboardService = new DashboardService();
         this.graficoService = new GraficoService();
+        this.projecaoService = new ProjecaoFluxoCaixaService();
         this.uiFactory = new UIComponentFactory();
-        this.navegacaoService = new NavegacaoService(this::atualizarDashboard);
+        this.carregador = new CarregadorAssincrono();
+        this.repositorio = RepositorioDespesas.getInstancia();
+        this.navegacaoService = new NavegacaoService(this::recarregarDashboard);
         
         // Criar interface
         criarInterface();
+        
+        // Alterações de despesas feitas em qualquer tela atualizam só o que mudou; a
+        // projeção se atualiza na thread da alteração, antes que o dashboard a releia
+        repositorio.adicionarOuvinte(projecaoService);
+        repositorio.adicionarOuvinte(RepositorioDespesas.naThreadFX(this::aplicarEvento));
     }
 
     /**
@@ -273,9 +295,6 @@ public class TelaPrincipal {
         scrollPane.setFitToWidth(true);
         scrollPane.setFitToHeight(true);
 
-        // Carregar os dados iniciais após a interface estar pronta
-        Platform.runLater(this::atualizarDashboard);
-
         return scrollPane;
     }
 
@@ -323,6 +342,7 @@ public class TelaPrincipal {
         VBox painel = uiFactory.criarPainelComTitulo("Despesas Recentes");
 
         tabelaDespesasRecentes = new TableView<>();
+        tabelaDespesasRecentes.setPlaceholder(uiFactory.criarIndicadorCarregamento("Carregando despesas..."));
         configurarTabelaDespesas();
 
         Button btnVerTodas = uiFactory.criarBotaoPrimario("Ver Todas as Despesas", e -> navegacaoService.abrirTelaTodasDespesas());
@@ -342,7 +362,7 @@ public class TelaPrincipal {
 
         TableColumn<Despesa, String> colunaValor = new TableColumn<>("Valor");
         colunaValor.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
-                String.format("R$ %.2f", cellData.getValue().getValor())));
+                cellData.getValue().getValor().formatar()));
         colunaValor.setPrefWidth(100);
 
         TableColumn<Despesa, String> colunaCategoria = new TableColumn<>("Categoria");
@@ -377,6 +397,7 @@ public class TelaPrincipal {
      */
     private VBox criarPainelGraficos() {
         VBox painel = uiFactory.criarPainelComTitulo("Análise de Gastos");
+        painel.getChildren().add(uiFactory.criarIndicadorCarregamento("Carregando gráfico..."));
         return painel;
     }
 
@@ -397,29 +418,114 @@ public class TelaPrincipal {
         return rodape;
     }
 
+    /**
+     * Carrega os dados do dashboard pela primeira vez. A tela é construída e exibida
+     * sem dados; a inicialização chama este método quando o banco está pronto.
+     * 
+     * @param aoConcluir executado na thread FX quando os dados forem aplicados
+     * @param aoFalhar executado na thread FX, com o erro, se a carga falhar
+     *        (nenhum dos dois é executado se a carga for substituída por outra)
+     */
+    public void carregarDadosIniciais(Runnable aoConcluir, Consumer<Throwable> aoFalhar) {
+        atualizarDashboard(aoConcluir, aoFalhar);
+    }
+    
     /**
      * Atualiza os dados do dashboard.
+     * Os dados são carregados em segundo plano e aplicados à tela de uma só vez;
+     * uma nova atualização cancela a que ainda estiver em andamento.
      */
     public void atualizarDashboard() {
+        atualizarDashboard(() -> { }, erro -> { });
+    }
+    
+    private void atualizarDashboard(Runnable aoConcluir, Consumer<Throwable> aoFalhar) {
+        Integer filtro = responsavelSelecionadoId;
+        carregador.cancelar(CARREGAMENTO_RESUMO);
+        atualizarTendencia(filtro);
+        atualizarProjecao();
+        carregador.carregar(CARREGAMENTO_DASHBOARD,
+            () -> dashboardService.carregarDados(filtro),
+            dados -> {
+                aplicarDadosDashboard(dados, filtro);
+                aoConcluir.run();
+            },
+            erro -> {
+                tabelaDespesasRecentes.setPlaceholder(new Label("Erro ao carregar despesas"));
+                aoFalhar.accept(erro);
+            });
+    }
+    
+    /**
+     * Relê as despesas do mês do banco e atualiza o dashboard. Usado depois dos
+     * cadastros de categorias e pessoas, cujos nomes aparecem nas despesas.
+     */
+    private void recarregarDashboard() {
+        repositorio.invalidar();
+        atualizarDashboard();
+    }
+    
+    /**
+     * Aplica ao dashboard a alteração de uma despesa: só a linha afetada da tabela
+     * muda, e os totais e o gráfico vêm do resumo mantido em memória pelo repositório.
+     */
+    private void aplicarEvento(EventoDespesa evento) {
+        atualizarProjecao();
+        if (evento.getTipo() == EventoDespesa.Tipo.PARCELAS) {
+            return;
+        }
+        
+        // Uma carga completa em andamento pode ter lido o repositório antes da alteração
+        if (carregador.isCarregando(CARREGAMENTO_DASHBOARD)) {
+            atualizarDashboard();
+            return;
+        }
+        
+        Integer filtro = responsavelSelecionadoId;
+        graficoService.invalidarTendencias();
+        atualizarTendencia(filtro);
+        evento.aplicarNaLista(tabelaDespesasRecentes.getItems(),
+            despesa -> RepositorioDespesas.isDoMesAtual(despesa) && RepositorioDespesas.isDoResponsavel(despesa, filtro),
+            RepositorioDespesas.MAIS_RECENTES_PRIMEIRO, true);
+        
+        carregador.carregar(CARREGAMENTO_RESUMO,
+            () -> repositorio.obterResumoDoMes(filtro),
+            resumo -> {
+                if (Objects.equals(filtro, responsavelSelecionadoId)) {
+                    aplicarResumo(resumo, filtro);
+                }
+            });
+    }
+    
+    /**
+     * Atualiza os totais e o gráfico a partir de um resumo do mês.
+     */
+    private void aplicarResumo(DashboardSnapshot resumo, Integer filtro) {
+        lblTotalDespesasMes.setText(resumo.getTotal().formatar());
+        lblTotalPago.setText(resumo.getTotalPago().formatar());
+        lblTotalAPagar.setText(resumo.getTotalAPagar().formatar());
+        atualizarGraficos(resumo.getDadosGraficoPorCategoria(), filtro);
+    }
+    
+    /**
+     * Aplica à tela os dados carregados do dashboard.
+     */
+    private void aplicarDadosDashboard(DadosDashboard dados, Integer filtro) {
         try {
             // Atualizar avatares
-            avatarService.carregarAvatares();
+            avatarService.exibirAvatares(dados.getResponsaveis());
             
             // Atualizar os totais financeiros
-            double totalDespesas = dashboardService.calcularTotalDespesasDoMes(responsavelSelecionadoId);
-            double totalPago = dashboardService.calcularTotalDespesasPagasDoMes(responsavelSelecionadoId);
-            double totalAPagar = dashboardService.calcularTotalDespesasAPagarDoMes(responsavelSelecionadoId);
-
-            lblTotalDespesasMes.setText(String.format("R$ %.2f", totalDespesas));
-            lblTotalPago.setText(String.format("R$ %.2f", totalPago));
-            lblTotalAPagar.setText(String.format("R$ %.2f", totalAPagar));
+            lblTotalDespesasMes.setText(dados.getTotalDespesas().formatar());
+            lblTotalPago.setText(dados.getTotalPago().formatar());
+            lblTotalAPagar.setText(dados.getTotalAPagar().formatar());
 
             // Atualizar a tabela
-            ObservableList<Despesa> despesas = dashboardService.obterDespesasDoMes(responsavelSelecionadoId);
-            tabelaDespesasRecentes.setItems(despesas);
+            tabelaDespesasRecentes.setItems(dados.getDespesas());
+            tabelaDespesasRecentes.setPlaceholder(new Label("Nenhuma despesa no mês"));
 
             // Atualizar os gráficos
-            atualizarGraficos();
+            atualizarGraficos(dados.getDadosGrafico(), filtro);
         } catch (Exception e) {
             System.err.println("Erro ao atualizar dashboard: " + e.getMessage());
             e.printStackTrace();
@@ -427,29 +533,53 @@ public class TelaPrincipal {
     }
     
     /**
-     * Atualiza os gráficos do dashboard.
+     * Atualiza o gráfico de categorias do dashboard. O gráfico é criado uma única vez;
+     * as atualizações só trocam ou alteram o dataset do filtro.
      */
-    private void atualizarGraficos() {
-        // Limpar gráficos antigos
-        if (painelGraficos.getChildren().size() > 1) {
-            painelGraficos.getChildren().remove(1, painelGraficos.getChildren().size());
+    private void atualizarGraficos(List<Object[]> dadosGrafico, Integer filtro) {
+        exibirGraficos();
+        graficoService.exibirCategorias(YearMonth.now(), filtro, dadosGrafico);
+    }
+    
+    /**
+     * Exibe a tendência mensal do filtro; se o dataset do filtro não estiver no cache
+     * ou estiver desatualizado, os totais são carregados em segundo plano.
+     */
+    private void atualizarTendencia(Integer filtro) {
+        YearMonth mes = YearMonth.now();
+        exibirGraficos();
+        if (graficoService.exibirTendencia(mes, filtro)) {
+            carregador.cancelar(CARREGAMENTO_TENDENCIA);
+            return;
         }
-
-        // Obter dados para o gráfico
-        List<Object[]> dadosGrafico = dashboardService.obterDadosGrafico(responsavelSelecionadoId);
-        
-        // Criar gráfico de despesas por categoria
-        String tituloGrafico = responsavelSelecionadoId != null ? 
-                "Despesas por Categoria (Filtrado)" : "Despesas por Categoria";
-        
-        ChartViewer viewerCategoria = graficoService.criarGraficoPizzaComVisualizador(
-            tituloGrafico,
-            dadosGrafico,
-            450, 300
-        );
-
-        // Adicionar os gráficos ao painel
-        painelGraficos.getChildren().add(viewerCategoria);
+        carregador.carregar(CARREGAMENTO_TENDENCIA,
+            () -> dashboardService.carregarTendencia(filtro, mes),
+            totais -> graficoService.atualizarTendencia(mes, filtro, totais));
+    }
+    
+    /**
+     * Exibe a projeção de saídas dos próximos meses. A projeção é mantida pelo serviço
+     * a cada alteração; aqui ela só é copiada, em segundo plano, e levada ao gráfico.
+     */
+    private void atualizarProjecao() {
+        exibirGraficos();
+        carregador.carregar(CARREGAMENTO_PROJECAO,
+            projecaoService::obterProjecao,
+            graficoService::atualizarProjecao,
+            erro -> System.err.println("Erro ao carregar a projeção de fluxo de caixa: " + erro.getMessage()));
+    }
+    
+    /**
+     * Substitui o indicador de carregamento pelos gráficos, na primeira exibição.
+     */
+    private void exibirGraficos() {
+        ChartViewer viewerCategoria = graficoService.getVisualizadorCategorias(450, 300);
+        if (viewerCategoria.getParent() == painelGraficos) {
+            return;
+        }
+        painelGraficos.getChildren().remove(1, painelGraficos.getChildren().size());
+        painelGraficos.getChildren().addAll(viewerCategoria, graficoService.getVisualizadorTendencia(450, 220),
+                graficoService.getVisualizadorProjecao(450, 260));
     }
     
     /**
@@ -2,12 +2,18 @@ package com.gastos.ui;
 
 import com.gastos.controller.DespesaController;
 import com.gastos.model.Despesa;
+import com.gastos.model.FiltroDespesas;
 import com.gastos.service.DespesaFiltroService;
+import com.gastos.service.RepositorioDespesas;
+import com.gastos.service.RepositorioDespesas.EventoDespesa;
+import com.gastos.service.RepositorioDespesas.OuvinteDespesas;
 import com.gastos.ui.base.BaseTelaModal;
 import com.gastos.db.ConexaoBanco;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -17,6 +23,8 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.stage.WindowEvent;
+import javafx.util.Duration;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -33,6 +41,14 @@ public class TelaTodasDespesas extends BaseTelaModal {
     
     // Constante para formatação de data
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String CARREGAMENTO_DESPESAS = "despesas";
+    private static final String CARREGAMENTO_RESTAURACAO = "restauracao";
+    
+    // Quantas linhas antes do fim da lista a próxima página começa a ser carregada
+    private static final int MARGEM_PROXIMA_PAGINA = 20;
+    
+    // Pausa na digitação antes de executar a busca
+    private static final Duration ATRASO_BUSCA = Duration.millis(250);
     
     // Serviços
     private final DespesaFiltroService despesaFiltroService;
@@ -45,6 +61,15 @@ public class TelaTodasDespesas extends BaseTelaModal {
     private ComboBox<String> cmbStatus;
     private TextField txtBusca;
     
+    // Estado da listagem paginada
+    private final ObservableList<Despesa> despesasCarregadas = FXCollections.observableArrayList();
+    private FiltroDespesas filtroAtual = new FiltroDespesas();
+    private boolean fimDaLista = false;
+    
+    // Despesa aberta para edição e se a edição chegou a ser salva
+    private int despesaEmEdicao;
+    private boolean edicaoSalva;
+    
     /**
      * Construtor da tela de todas as despesas.
      */
@@ -55,6 +80,12 @@ public class TelaTodasDespesas extends BaseTelaModal {
         // Inicializar serviços
         this.despesaFiltroService = new DespesaFiltroService();
         
+        // Alterações de despesas atualizam só as linhas afetadas, enquanto a tela estiver aberta
+        OuvinteDespesas ouvinte = RepositorioDespesas.naThreadFX(this::aplicarEvento);
+        RepositorioDespesas.getInstancia().adicionarOuvinte(ouvinte);
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN,
+                e -> RepositorioDespesas.getInstancia().removerOuvinte(ouvinte));
+        
         // Carregar as despesas
         carregarDespesas();
     }
@@ -149,9 +180,14 @@ public class TelaTodasDespesas extends BaseTelaModal {
         
         Label lblBusca = new Label("Buscar:");
         txtBusca = new TextField();
-        txtBusca.setPromptText("Digite para buscar por descrição");
+        txtBusca.setPromptText("Digite para buscar por descrição, categoria ou pessoa");
         txtBusca.setPrefWidth(300);
         
+        // Buscar enquanto digita, depois de uma pequena pausa
+        PauseTransition pausaBusca = new PauseTransition(ATRASO_BUSCA);
+        pausaBusca.setOnFinished(e -> filtrarDespesas());
+        txtBusca.textProperty().addListener((obs, antigo, novo) -> pausaBusca.playFromStart());
+        
         Button btnFiltrar = uiFactory.criarBotaoPrimario("Filtrar", e -> filtrarDespesas());
         
         linha.getChildren().addAll(lblStatus, cmbStatus, lblBusca, txtBusca, btnFiltrar);
@@ -170,6 +206,8 @@ public class TelaTodasDespesas extends BaseTelaModal {
         // Tabela de despesas
         tabelaDespesas = new TableView<>();
         tabelaDespesas.setPrefHeight(400);
+        tabelaDespesas.setPlaceholder(new Label("Nenhuma despesa encontrada"));
+        tabelaDespesas.setItems(despesasCarregadas);
         
         configurarColunas();
         configurarMenuContexto();
@@ -190,6 +228,18 @@ public class TelaTodasDespesas extends BaseTelaModal {
                 editarDespesa();
             }
         });
+        
+        // A tabela só cria linhas para a área visível; quando uma linha perto do fim
+        // da lista é exibida, a próxima página é carregada
+        tabelaDespesas.setRowFactory(tabela -> new TableRow<>() {
+            @Override
+            public void updateIndex(int indice) {
+                super.updateIndex(indice);
+                if (indice >= 0 && indice >= despesasCarregadas.size() - MARGEM_PROXIMA_PAGINA) {
+                    carregarProximaPagina();
+                }
+            }
+        });
     }
     
     /**
@@ -205,7 +255,7 @@ public class TelaTodasDespesas extends BaseTelaModal {
         // Coluna de valor
         TableColumn<Despesa, String> colunaValor = new TableColumn<>("Valor");
         colunaValor.setCellValueFactory(cellData -> 
-                new SimpleStringProperty(String.format("R$ %.2f", cellData.getValue().getValor())));
+                new SimpleStringProperty(cellData.getValue().getValor().formatar()));
         colunaValor.setPrefWidth(100);
         
         // Coluna de categoria
@@ -278,61 +328,148 @@ public class TelaTodasDespesas extends BaseTelaModal {
     }
     
     /**
-     * Carrega todas as despesas na tabela.
+     * Recarrega a listagem desde a primeira página, mantendo o filtro atual.
      */
     private void carregarDespesas() {
-        ObservableList<Despesa> despesas = despesaFiltroService.carregarTodasDespesas();
-        tabelaDespesas.setItems(despesas);
-        
-        // Se não tiver resultados, mostrar alerta
-        if (despesas.isEmpty()) {
-            Platform.runLater(() -> {
-                exibirInformacao("Sem Dados", "Não há despesas cadastradas no sistema.");
-            });
-        }
+        reiniciarListagem();
     }
     
     /**
-     * Filtra as despesas conforme os critérios selecionados.
+     * Aplica os critérios selecionados e recarrega a listagem desde a primeira página.
+     * Um novo filtro cancela o carregamento anterior ainda em andamento.
      */
     private void filtrarDespesas() {
-        ObservableList<Despesa> despesasFiltradas = despesaFiltroService.filtrarDespesas(
+        filtroAtual = new FiltroDespesas(
             dpDataInicio.getValue(),
             dpDataFim.getValue(),
             cmbTipo.getValue(),
             cmbStatus.getValue(),
             txtBusca.getText()
         );
+        reiniciarListagem();
+    }
+    
+    /**
+     * Limpa a tabela e carrega a primeira página com o filtro atual.
+     */
+    private void reiniciarListagem() {
+        despesasCarregadas.clear();
+        fimDaLista = false;
+        tabelaDespesas.setPlaceholder(uiFactory.criarIndicadorCarregamento("Carregando despesas..."));
+        carregarPagina(null);
+    }
+    
+    /**
+     * Carrega a página seguinte, se houver e se nenhuma estiver sendo carregada.
+     */
+    private void carregarProximaPagina() {
+        if (fimDaLista || despesasCarregadas.isEmpty() || carregador.isCarregando(CARREGAMENTO_DESPESAS)) {
+            return;
+        }
+        carregarPagina(despesasCarregadas.get(despesasCarregadas.size() - 1));
+    }
+    
+    /**
+     * Carrega em segundo plano a página que começa após a despesa informada.
+     * Com termo de busca, carrega de uma vez os resultados mais relevantes.
+     */
+    private void carregarPagina(Despesa ultima) {
+        FiltroDespesas filtro = filtroAtual;
+        boolean buscaTextual = filtro.getTermoBusca() != null;
+        
+        carregador.carregar(CARREGAMENTO_DESPESAS,
+            () -> buscaTextual
+                    ? despesaFiltroService.buscarPorTexto(filtro)
+                    : despesaFiltroService.buscarPagina(filtro, ultima),
+            pagina -> {
+                despesasCarregadas.addAll(pagina);
+                fimDaLista = buscaTextual || pagina.size() < DespesaFiltroService.TAMANHO_PAGINA;
+                
+                if (ultima == null) {
+                    tabelaDespesas.setPlaceholder(new Label("Nenhuma despesa encontrada"));
+                    
+                    // Se não tiver resultados sem filtro, mostrar alerta
+                    if (pagina.isEmpty() && filtro.isVazio()) {
+                        Platform.runLater(() -> {
+                            exibirInformacao("Sem Dados", "Não há despesas cadastradas no sistema.");
+                        });
+                    }
+                }
+            },
+            erro -> {
+                fimDaLista = true;
+                tabelaDespesas.setPlaceholder(new Label("Erro ao carregar despesas"));
+            });
+    }
+    
+    /**
+     * Aplica à listagem a alteração de uma despesa, sem recarregá-la.
+     * Com termo de busca, a ordem é por relevância: despesas novas não entram na
+     * lista e as alteradas ficam na mesma posição.
+     */
+    private void aplicarEvento(EventoDespesa evento) {
+        if (evento.getDespesaId() == despesaEmEdicao) {
+            edicaoSalva = true;
+        }
         
-        tabelaDespesas.setItems(despesasFiltradas);
+        FiltroDespesas filtro = filtroAtual;
+        boolean buscaTextual = filtro.getTermoBusca() != null;
+        evento.aplicarNaLista(despesasCarregadas, filtro::aceita,
+                buscaTextual ? null : RepositorioDespesas.MAIS_RECENTES_PRIMEIRO, fimDaLista);
     }
     
     /**
      * Abre a tela de cadastro de nova despesa.
+     * A despesa salva entra na tabela pelo evento do repositório.
      */
     private void novaDespesa() {
         TelaCadastroDespesa telaCadastroDespesa = new TelaCadastroDespesa();
         telaCadastroDespesa.mostrar();
-        
-        // Atualizar a tabela após o cadastro
-        carregarDespesas();
     }
     
     /**
      * Abre a tela de edição da despesa selecionada.
+     * Se a edição for salva, a linha é atualizada pelo evento do repositório; caso
+     * contrário, a linha é relida do banco, pois o formulário altera o objeto da
+     * tabela antes de validá-lo.
      */
     private void editarDespesa() {
         Despesa despesaSelecionada = obterDespesaSelecionada();
         
         if (despesaSelecionada != null) {
+            despesaEmEdicao = despesaSelecionada.getId();
+            edicaoSalva = false;
+            
             TelaCadastroDespesa telaCadastroDespesa = new TelaCadastroDespesa(despesaSelecionada, true);
             telaCadastroDespesa.mostrar();
             
-            // Atualizar a tabela após a edição
-            carregarDespesas();
+            if (!edicaoSalva) {
+                restaurarDespesa(despesaSelecionada.getId());
+            }
+            despesaEmEdicao = 0;
         }
     }
     
+    /**
+     * Relê uma despesa do banco e substitui a sua linha na tabela.
+     */
+    private void restaurarDespesa(int despesaId) {
+        carregador.carregar(CARREGAMENTO_RESTAURACAO,
+            () -> despesaFiltroService.buscarDespesaPorId(despesaId),
+            original -> {
+                for (int i = 0; i < despesasCarregadas.size(); i++) {
+                    if (despesasCarregadas.get(i).getId() == despesaId) {
+                        if (original != null) {
+                            despesasCarregadas.set(i, original);
+                        } else {
+                            despesasCarregadas.remove(i);
+                        }
+                        return;
+                    }
+                }
+            });
+    }
+    
     /**
      * Obtém a despesa selecionada na tabela ou exibe um alerta se não houver seleção.
      */
@@ -368,7 +505,6 @@ public class TelaTodasDespesas extends BaseTelaModal {
                     boolean sucesso = despesaFiltroService.excluirDespesa(despesaSelecionada.getId());
                     
                     if (sucesso) {
-                        carregarDespesas();
                         exibirInformacao("Sucesso", "Despesa excluída com sucesso!");
                     } else {
                         exibirErro("Erro", "Erro ao excluir a despesa. Por favor, tente novamente.");
@@ -441,9 +577,11 @@ public class TelaTodasDespesas extends BaseTelaModal {
                     despesaFiltroService.marcarStatusPagamento(despesaSelecionada, paga);
                 
                 if (resultadoSalvar.isSucesso()) {
-                    carregarDespesas();
                     exibirInformacao("Sucesso", "Status da despesa alterado com sucesso!");
                 } else {
+                    // O status foi alterado no objeto da tabela antes de salvar
+                    despesaSelecionada.setPago(!paga);
+                    tabelaDespesas.refresh();
                     exibirErro("Erro", "Erro ao alterar o status da despesa: " + 
                               resultadoSalvar.getMensagem());
                 }
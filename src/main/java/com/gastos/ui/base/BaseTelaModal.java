@@ -1,5 +1,6 @@
 package com.gastos.ui.base; // Crie um novo pacote ui.base
 
+import com.gastos.service.CarregadorAssincrono;
 import com.gastos.service.UIComponentFactory; // Assume que UIComponentFactory está acessível
 import javafx.geometry.Insets;
 import javafx.scene.Node;
@@ -19,6 +20,7 @@ public abstract class BaseTelaModal {
     protected final Stage stage;
     protected final BorderPane rootPane;
     protected final UIComponentFactory uiFactory; // Para consistência na criação de botões
+    protected final CarregadorAssincrono carregador; // Carregamentos fora da thread FX
 
     /**
      * Construtor da tela modal base.
@@ -29,6 +31,7 @@ public abstract class BaseTelaModal {
      */
     public BaseTelaModal(String titulo, double minLargura, double minAltura) {
         this.uiFactory = new UIComponentFactory(); // Instancia a fábrica de componentes
+        this.carregador = new CarregadorAssincrono();
 
         this.stage = new Stage();
         stage.initModality(Modality.APPLICATION_MODAL);
@@ -47,6 +50,9 @@ public abstract class BaseTelaModal {
         // Cria a cena
         Scene scene = new Scene(rootPane);
         stage.setScene(scene);
+
+        // Carregamentos pendentes não têm mais onde ser exibidos após o fechamento
+        stage.setOnHidden(e -> carregador.cancelarTodos());
     }
 
     /**
@@ -5,13 +5,12 @@ import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -24,10 +23,16 @@ import javafx.stage.Stage;
 
 /**
  * Diálogo para recortar imagens.
+ *
+ * O diálogo não copia pixels: ele devolve a região escolhida em frações da largura e
+ * da altura da imagem (de 0 a 1), que vale para qualquer resolução em que a imagem
+ * seja decodificada. A tela usa a região como viewport da pré-visualização, e o
+ * {@link com.gastos.service.ProcessadorFotos} faz o recorte de verdade fora da thread FX.
  */
 public class ImageCropperDialog {
     private final Stage stage;
     private final Image originalImage;
+    private final Rectangle2D currentCrop;
     private ImageView imageView;
     
     // Propriedades para a seleção da área de recorte
@@ -37,7 +42,7 @@ public class ImageCropperDialog {
     private final DoubleProperty endY = new SimpleDoubleProperty();
     
     private Rectangle selectionRect;
-    private Image croppedImage = null;
+    private Rectangle2D cropArea = null;
     
     /**
      * Construtor do diálogo de recorte de imagem.
@@ -45,7 +50,19 @@ public class ImageCropperDialog {
      * @param originalImage Imagem original a ser recortada
      */
     public ImageCropperDialog(Image originalImage) {
+        this(originalImage, null);
+    }
+    
+    /**
+     * Construtor do diálogo de recorte de uma imagem já recortada.
+     * 
+     * @param originalImage Imagem original
+     * @param currentCrop Recorte atual em frações da imagem, ou null para a imagem inteira;
+     *                    o novo recorte é feito dentro dele
+     */
+    public ImageCropperDialog(Image originalImage, Rectangle2D currentCrop) {
         this.originalImage = originalImage;
+        this.currentCrop = currentCrop != null ? currentCrop : new Rectangle2D(0, 0, 1, 1);
         
         this.stage = new Stage();
         stage.initModality(Modality.APPLICATION_MODAL);
@@ -70,6 +87,9 @@ public class ImageCropperDialog {
         // Container da imagem
         Pane imageContainer = new Pane();
         imageView = new ImageView(originalImage);
+        imageView.setViewport(new Rectangle2D(
+                currentCrop.getMinX() * originalImage.getWidth(), currentCrop.getMinY() * originalImage.getHeight(),
+                currentCrop.getWidth() * originalImage.getWidth(), currentCrop.getHeight() * originalImage.getHeight()));
         
         // Ajustar tamanho da imagem para caber na tela
         fitImageToScreen();
@@ -132,8 +152,8 @@ public class ImageCropperDialog {
         double maxWidth = 700; // Máxima largura que a imagem pode ter
         double maxHeight = 500; // Máxima altura que a imagem pode ter
         
-        double width = originalImage.getWidth();
-        double height = originalImage.getHeight();
+        double width = imageView.getViewport().getWidth();
+        double height = imageView.getViewport().getHeight();
         
         double scale = 1.0;
         
@@ -184,43 +204,36 @@ public class ImageCropperDialog {
     }
     
     /**
-     * Realiza o recorte da imagem com base na área selecionada.
+     * Calcula a área de recorte, em frações da imagem original, com base na área selecionada.
      */
     private void performCrop() {
         // Verificar se há uma área selecionada
         if (selectionRect.getWidth() <= 0 || selectionRect.getHeight() <= 0) {
-            croppedImage = originalImage; // Usar a imagem original se não houver seleção
+            cropArea = currentCrop; // Manter o recorte atual se não houver seleção
             stage.close();
             return;
         }
         
-        // Calcular coordenadas reais na imagem original
-        double imageViewWidth = imageView.getFitWidth();
-        double imageViewHeight = imageView.getFitHeight();
-        
-        double imageWidth = originalImage.getWidth();
-        double imageHeight = originalImage.getHeight();
-        
-        // Calcular fator de escala
-        double scaleX = imageWidth / imageViewWidth;
-        double scaleY = imageHeight / imageViewHeight;
-        
-        // Calcular coordenadas na imagem original
-        int x = (int) (Math.min(startX.get(), endX.get()) * scaleX);
-        int y = (int) (Math.min(startY.get(), endY.get()) * scaleY);
-        int width = (int) (Math.abs(endX.get() - startX.get()) * scaleX);
-        int height = (int) (Math.abs(endY.get() - startY.get()) * scaleY);
-        
-        // Garantir que as coordenadas estão dentro dos limites da imagem
-        x = Math.max(0, Math.min(x, (int) imageWidth - 1));
-        y = Math.max(0, Math.min(y, (int) imageHeight - 1));
-        width = Math.min(width, (int) imageWidth - x);
-        height = Math.min(height, (int) imageHeight - y);
-        
-        // Realizar o recorte
-        PixelReader reader = originalImage.getPixelReader();
-        WritableImage croppedImg = new WritableImage(reader, x, y, width, height);
-        croppedImage = croppedImg;
+        // Frações do recorte atual por pixel da imagem exibida
+        double scaleX = currentCrop.getWidth() / imageView.getFitWidth();
+        double scaleY = currentCrop.getHeight() / imageView.getFitHeight();
+        
+        double x = currentCrop.getMinX() + selectionRect.getX() * scaleX;
+        double y = currentCrop.getMinY() + selectionRect.getY() * scaleY;
+        double width = selectionRect.getWidth() * scaleX;
+        double height = selectionRect.getHeight() * scaleY;
+        
+        // Garantir que a área está dentro dos limites do recorte atual
+        x = Math.max(currentCrop.getMinX(), Math.min(x, currentCrop.getMaxX()));
+        y = Math.max(currentCrop.getMinY(), Math.min(y, currentCrop.getMaxY()));
+        width = Math.min(width, currentCrop.getMaxX() - x);
+        height = Math.min(height, currentCrop.getMaxY() - y);
+        
+        if (width > 0 && height > 0) {
+            cropArea = new Rectangle2D(x, y, width, height);
+        } else {
+            cropArea = currentCrop;
+        }
         
         // Fechar o diálogo
         stage.close();
@@ -229,10 +242,11 @@ public class ImageCropperDialog {
     /**
      * Exibe o diálogo e aguarda o recorte.
      * 
-     * @return A imagem recortada ou null se o usuário cancelar
+     * @return A área recortada em frações da imagem original (de 0 a 1), ou null se o
+     *         usuário cancelar
      */
-    public Image showAndWait() {
+    public Rectangle2D showAndWait() {
         stage.showAndWait();
-        return croppedImage;
+        return cropArea;
     }
-}
\ No newline at end of file
+}
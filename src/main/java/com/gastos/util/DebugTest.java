@@ -3,6 +3,7 @@ package com.gastos.util;
 import com.gastos.db.ConexaoBanco;
 import com.gastos.model.CategoriaDespesa;
 import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
 import com.gastos.controller.CategoriaController;
 import com.gastos.controller.DespesaController;
 
@@ -78,12 +79,13 @@ public class DebugTest {
     private static void verificarConexao() throws SQLException {
         System.out.println("\n--- Verificando conexão com o banco de dados ---");
         
-        Connection conn = ConexaoBanco.getConexao();
-        if (conn != null && !conn.isClosed()) {
-            System.out.println("✅ Conexão com o banco estabelecida com sucesso!");
-        } else {
-            System.out.println("❌ Falha ao conectar ao banco de dados!");
-            throw new SQLException("Não foi possível estabelecer conexão com o banco de dados");
+        try (Connection conn = ConexaoBanco.getConexao()) {
+            if (conn != null && !conn.isClosed()) {
+                System.out.println("✅ Conexão com o banco estabelecida com sucesso!");
+            } else {
+                System.out.println("❌ Falha ao conectar ao banco de dados!");
+                throw new SQLException("Não foi possível estabelecer conexão com o banco de dados");
+            }
         }
     }
     
@@ -132,7 +134,7 @@ public class DebugTest {
     private static Despesa criarDespesaTeste(CategoriaDespesa categoria) {
         Despesa despesa = new Despesa();
         despesa.setDescricao("Teste diagnóstico - " + System.currentTimeMillis());
-        despesa.setValor(100.00);
+        despesa.setValor(Dinheiro.deCentavos(10000));
         despesa.setDataCompra(LocalDate.now());
         despesa.setDataVencimento(LocalDate.now().plusDays(10));
         despesa.setPago(false);
@@ -151,7 +153,7 @@ public class DebugTest {
              PreparedStatement stmt = conn.prepareStatement(SQL_INSERIR_DESPESA, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, despesa.getDescricao() + " (INSERÇÃO DIRETA)");
-            stmt.setDouble(2, despesa.getValor());
+            stmt.setLong(2, despesa.getValor().getCentavos());
             stmt.setString(3, despesa.getDataCompra().toString());
             stmt.setString(4, despesa.getDataVencimento().toString());
             stmt.setBoolean(5, despesa.isPago());
@@ -185,7 +187,7 @@ public class DebugTest {
     private static void testarListagemDespesas() {
         System.out.println("\n--- Testando listagem de despesas ---");
         
-        try (Connection conn = ConexaoBanco.getConexao();
+        try (Connection conn = ConexaoBanco.getConexaoLeitura();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(SQL_LISTAR_DESPESAS)) {
             
@@ -196,7 +198,7 @@ public class DebugTest {
                 if (contador <= 5) {
                     System.out.println(contador + ". ID: " + rs.getInt("id") + 
                                       ", Descrição: " + rs.getString("descricao") + 
-                                      ", Valor: R$ " + rs.getDouble("valor") + 
+                                      ", Valor: " + Dinheiro.deCentavos(rs.getLong("valor")) + 
                                       ", Categoria: " + rs.getString("categoria_nome"));
                 }
             }
@@ -244,8 +246,8 @@ public class DebugTest {
             System.out.println("✅ listarDespesasDoMes() retornou " + totalMes + " despesas");
             
             // Testar calcularTotalDespesasDoMes
-            double totalValor = controller.calcularTotalDespesasDoMes();
-            System.out.println("✅ calcularTotalDespesasDoMes() retornou R$ " + totalValor);
+            Dinheiro totalValor = controller.calcularTotalDespesasDoMes();
+            System.out.println("✅ calcularTotalDespesasDoMes() retornou " + totalValor);
             
         } catch (Exception e) {
             System.err.println("❌ Erro ao testar DespesaController: " + e.getMessage());
@@ -1,6 +1,7 @@
 package com.gastos.util;
 
 import com.gastos.db.ConexaoBanco;
+import com.gastos.model.Dinheiro;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -49,7 +50,7 @@ public class DiagnosticoParcelamentos {
     public static void main(String[] args) {
         System.out.println("\n===== DIAGNÓSTICO DE PARCELAMENTOS =====\n");
         
-        try (Connection conn = ConexaoBanco.getConexao()) {
+        try (Connection conn = ConexaoBanco.getConexaoLeitura()) {
             // Executar diagnósticos
             verificarTabelaParcelamentos(conn);
             verificarDespesasComParcelamentos(conn);
@@ -88,7 +89,7 @@ public class DiagnosticoParcelamentos {
             while (rs.next()) {
                 contador++;
                 System.out.println(contador + ". ID: " + rs.getInt("id") +
-                                  ", Valor: R$ " + rs.getDouble("valor_total") +
+                                  ", Valor: " + Dinheiro.deCentavos(rs.getLong("valor_total")) +
                                   ", Parcelas: " + rs.getInt("total_parcelas") +
                                   ", Restantes: " + rs.getInt("parcelas_restantes") +
                                   ", Data início: " + formatarData(rs.getString("data_inicio")));
@@ -111,7 +112,7 @@ public class DiagnosticoParcelamentos {
                 DespesaParcelada despesa = new DespesaParcelada(
                     rs.getInt("id"),
                     rs.getString("descricao"),
-                    rs.getDouble("valor"),
+                    Dinheiro.deCentavos(rs.getLong("valor")),
                     rs.getInt("parcelamento_id")
                 );
                 despesasParceladas.add(despesa);
@@ -130,7 +131,7 @@ public class DiagnosticoParcelamentos {
                 DespesaParcelada d = despesasParceladas.get(i);
                 System.out.println((i+1) + ". Despesa ID: " + d.id +
                                   ", Descrição: " + d.descricao +
-                                  ", Valor: R$ " + d.valor +
+                                  ", Valor: " + d.valor +
                                   ", Parcelamento ID: " + d.parcelamentoId);
             }
             
@@ -188,7 +189,7 @@ public class DiagnosticoParcelamentos {
         
         for (Parcelamento p : parcelamentos) {
             System.out.println("\nParcelamento #" + p.id + 
-                              " (Valor: R$ " + p.valorTotal + 
+                              " (Valor: " + p.valorTotal + 
                               ", Parcelas: " + p.totalParcelas + ")");
             
             // Buscar parcelas
@@ -212,7 +213,7 @@ public class DiagnosticoParcelamentos {
                 for (int i = 0; i < limite; i++) {
                     Parcela parcela = parcelas.get(i);
                     System.out.println("  - Parcela #" + parcela.numero + 
-                                      " (Valor: R$ " + parcela.valor + 
+                                      " (Valor: " + parcela.valor + 
                                       ", Vencimento: " + formatarData(parcela.dataVencimento) + 
                                       ", Paga: " + (parcela.paga ? "Sim" : "Não") + ")");
                 }
@@ -254,7 +255,7 @@ public class DiagnosticoParcelamentos {
             while (rs.next()) {
                 Parcelamento p = new Parcelamento(
                     rs.getInt("id"),
-                    rs.getDouble("valor_total"),
+                    Dinheiro.deCentavos(rs.getLong("valor_total")),
                     rs.getInt("total_parcelas")
                 );
                 parcelamentos.add(p);
@@ -278,7 +279,7 @@ public class DiagnosticoParcelamentos {
                     Parcela p = new Parcela(
                         rs.getInt("id"),
                         rs.getInt("numero_parcela"),
-                        rs.getDouble("valor"),
+                        Dinheiro.deCentavos(rs.getLong("valor")),
                         rs.getString("data_vencimento"),
                         rs.getBoolean("paga")
                     );
@@ -356,10 +357,10 @@ public class DiagnosticoParcelamentos {
      */
     private static class Parcelamento {
         final int id;
-        final double valorTotal;
+        final Dinheiro valorTotal;
         final int totalParcelas;
         
-        Parcelamento(int id, double valorTotal, int totalParcelas) {
+        Parcelamento(int id, Dinheiro valorTotal, int totalParcelas) {
             this.id = id;
             this.valorTotal = valorTotal;
             this.totalParcelas = totalParcelas;
@@ -372,11 +373,11 @@ public class DiagnosticoParcelamentos {
     private static class Parcela {
         final int id;
         final int numero;
-        final double valor;
+        final Dinheiro valor;
         final String dataVencimento;
         final boolean paga;
         
-        Parcela(int id, int numero, double valor, String dataVencimento, boolean paga) {
+        Parcela(int id, int numero, Dinheiro valor, String dataVencimento, boolean paga) {
             this.id = id;
             this.numero = numero;
             this.valor = valor;
@@ -404,10 +405,10 @@ public class DiagnosticoParcelamentos {
     private static class DespesaParcelada {
         final int id;
         final String descricao;
-        final double valor;
+        final Dinheiro valor;
         final int parcelamentoId;
         
-        DespesaParcelada(int id, String descricao, double valor, int parcelamentoId) {
+        DespesaParcelada(int id, String descricao, Dinheiro valor, int parcelamentoId) {
             this.id = id;
             this.descricao = descricao;
             this.valor = valor;
@@ -0,0 +1,94 @@
+package com.gastos.util;
+
+import com.gastos.db.ConexaoBanco;
+import com.gastos.exportacao.ExportadorDados;
+import com.gastos.exportacao.FormatoExportacao;
+import com.gastos.exportacao.LeitorColunar;
+import com.gastos.model.FiltroDespesas;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Utilitário de linha de comando para exportar despesas ou parcelas.
+ *
+ * Uso: java ... com.gastos.util.ExportarDados despesas|parcelas arquivo.(csv|ndjson|gfc)
+ *      [inicio=AAAA-MM-DD fim=AAAA-MM-DD] [responsavel=ID] [cartao=ID]
+ *
+ * Um arquivo colunar (.gfc) já exportado pode ser convertido para CSV ou NDJSON:
+ *      java ... com.gastos.util.ExportarDados converter origem.gfc destino.(csv|ndjson)
+ */
+public class ExportarDados {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: ExportarDados <despesas|parcelas> <arquivo.csv|.ndjson|.gfc> "
+                    + "[inicio=AAAA-MM-DD fim=AAAA-MM-DD] [responsavel=ID] [cartao=ID]");
+            return;
+        }
+
+        System.out.println("\n===== EXPORTAÇÃO DE DADOS =====\n");
+
+        if (args[0].equals("converter")) {
+            converter(args);
+            return;
+        }
+
+        try {
+            ExportadorDados.Conjunto conjunto = ExportadorDados.Conjunto.valueOf(args[0].toUpperCase(Locale.ROOT));
+            FormatoExportacao formato = FormatoExportacao.porArquivo(args[1]);
+
+            LocalDate inicio = null;
+            LocalDate fim = null;
+            Integer responsavel = null;
+            Integer cartao = null;
+            for (int i = 2; i < args.length; i++) {
+                String[] opcao = args[i].split("=", 2);
+                String valor = opcao.length > 1 ? opcao[1] : "";
+                switch (opcao[0]) {
+                    case "inicio": inicio = LocalDate.parse(valor); break;
+                    case "fim": fim = LocalDate.parse(valor); break;
+                    case "responsavel": responsavel = Integer.valueOf(valor); break;
+                    case "cartao": cartao = Integer.valueOf(valor); break;
+                    default: throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+                }
+            }
+            FiltroDespesas filtro = new FiltroDespesas(inicio, fim, FiltroDespesas.TODOS, FiltroDespesas.TODOS,
+                    null, responsavel, cartao);
+
+            ConexaoBanco.inicializarBancoDeDados();
+            try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])))) {
+                long linhas = new ExportadorDados().exportar(conjunto, filtro, formato, saida);
+                System.out.println(linhas + " linha(s) gravada(s) em " + args[1]);
+            }
+        } catch (Exception e) {
+            System.err.println("Erro ao exportar dados: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ConexaoBanco.fecharConexao();
+        }
+    }
+
+    /**
+     * Converte um arquivo colunar para o formato indicado pela extensão do destino.
+     */
+    private static void converter(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Uso: ExportarDados converter <origem.gfc> <destino.csv|.ndjson>");
+            return;
+        }
+        try (LeitorColunar leitor = new LeitorColunar(Paths.get(args[1]));
+             OutputStream saida = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[2])))) {
+            FormatoExportacao formato = FormatoExportacao.porArquivo(args[2]);
+            long linhas = leitor.copiarPara(formato.criarEscritor(saida));
+            System.out.println(linhas + " linha(s) convertida(s) de " + args[1] + " para " + args[2]);
+        } catch (Exception e) {
+            System.err.println("Erro ao converter arquivo: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.gastos.util;
+
+import com.gastos.db.ConexaoBanco;
+import com.gastos.importacao.ImportadorDespesas;
+import com.gastos.importacao.LeitorExtrato;
+import com.gastos.importacao.ResultadoImportacao;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Utilitário de linha de comando para importar um extrato CSV ou OFX.
+ *
+ * Uso: java ... com.gastos.util.ImportarExtrato arquivo.csv|arquivo.ofx [charset]
+ * A codificação padrão é UTF-8 para CSV e windows-1252 para OFX.
+ */
+public class ImportarExtrato {
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Uso: ImportarExtrato <arquivo.csv|arquivo.ofx> [charset]");
+            return;
+        }
+
+        System.out.println("\n===== IMPORTAÇÃO DE EXTRATO =====\n");
+
+        Path arquivo = Paths.get(args[0]);
+        Charset charset = args.length > 1 ? Charset.forName(args[1])
+                : args[0].toLowerCase().endsWith(".ofx") ? Charset.forName("windows-1252") : StandardCharsets.UTF_8;
+
+        try {
+            ConexaoBanco.inicializarBancoDeDados();
+            ResultadoImportacao resultado;
+            try (LeitorExtrato leitor = LeitorExtrato.abrir(arquivo, charset)) {
+                resultado = new ImportadorDespesas().importar(leitor, parcial ->
+                        System.out.println("  ... " + parcial.getLidas() + " lida(s), "
+                                + parcial.getImportadas() + " importada(s)"));
+            }
+
+            System.out.println("\n" + resultado);
+            if (!resultado.getCategoriasCriadas().isEmpty()) {
+                System.out.println("Categorias criadas: " + resultado.getCategoriasCriadas());
+            }
+            for (String aviso : resultado.getAvisos()) {
+                System.out.println("  Ignorada - " + aviso);
+            }
+        } catch (Exception e) {
+            System.err.println("Erro ao importar extrato: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ConexaoBanco.fecharConexao();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gastos.util;
+
+import com.gastos.db.ConexaoBanco;
+import com.gastos.db.FaturaDAO;
+import com.gastos.db.ResumoMensalDAO;
+
+/**
+ * Utilitário para reconstruir o resumo mensal e as faturas de cartão materializados
+ * a partir das despesas e parcelas.
+ * Normalmente não é necessário, pois os gatilhos mantêm as tabelas atualizadas; serve
+ * para corrigir bancos alterados por ferramentas externas.
+ */
+public class ReconstruirResumoMensal {
+
+    public static void main(String[] args) {
+        System.out.println("\n===== RECONSTRUÇÃO DO RESUMO MENSAL =====\n");
+
+        try {
+            ConexaoBanco.inicializarBancoDeDados();
+            long inicio = System.nanoTime();
+            int grupos = new ResumoMensalDAO().reconstruir();
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("Resumo mensal reconstruído: " + grupos + " grupo(s) em " + ms + " ms.");
+
+            inicio = System.nanoTime();
+            int faturas = new FaturaDAO().reconstruir();
+            ms = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("Faturas de cartão reconstruídas: " + faturas + " fatura(s) em " + ms + " ms.");
+        } catch (Exception e) {
+            System.err.println("Erro ao reconstruir o resumo mensal: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            ConexaoBanco.fecharConexao();
+        }
+    }
+}
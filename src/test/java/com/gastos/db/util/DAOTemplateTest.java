@@ -0,0 +1,121 @@
+package com.gastos.db.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.gastos.db.CategoriaDespesaDAO;
+import com.gastos.db.ConexaoBanco;
+import com.gastos.db.DespesaDAO;
+import com.gastos.db.ParcelamentoDAO;
+import com.gastos.model.CategoriaDespesa;
+import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Parcelamento;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Transações aninhadas: um DAO chamado dentro da transação de outro não pode
+ * confirmar a transação externa.
+ */
+class DAOTemplateTest {
+
+    private static final String PROPRIEDADE_BANCO = "gastos.banco";
+
+    @TempDir
+    Path pasta;
+
+    private final DAOTemplate daoTemplate = new DAOTemplate();
+    private CategoriaDespesa categoria;
+
+    @BeforeEach
+    void abrirBanco() throws SQLException {
+        System.setProperty(PROPRIEDADE_BANCO, pasta.resolve("transacoes.db").toString());
+        ConexaoBanco.inicializarBancoDeDados();
+
+        categoria = new CategoriaDespesa(0, "Casa");
+        categoria.setId(new CategoriaDespesaDAO().inserir(categoria));
+    }
+
+    @AfterEach
+    void fecharBanco() {
+        ConexaoBanco.fecharConexao();
+        System.clearProperty(PROPRIEDADE_BANCO);
+    }
+
+    @Test
+    void rollbackExternoDesfazEscritasAninhadas() throws SQLException {
+        assertThrows(IllegalStateException.class, () -> daoTemplate.executarEmTransacao(conn -> {
+            try {
+                new ParcelamentoDAO().inserir(novoParcelamento());
+                daoTemplate.executarUpdate("UPDATE categorias SET nome = ? WHERE id = ?", "Moradia", categoria.getId());
+                daoTemplate.inserirEObterChave("INSERT INTO categorias (nome) VALUES (?)", "Lazer");
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            throw new IllegalStateException("falha depois das escritas aninhadas");
+        }));
+
+        assertEquals(0, contar("SELECT COUNT(*) FROM parcelamentos"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM parcelas"));
+        assertEquals(1, contar("SELECT COUNT(*) FROM categorias"));
+        assertEquals(1, contar("SELECT COUNT(*) FROM categorias WHERE nome = 'Casa'"));
+    }
+
+    @Test
+    void despesaRejeitadaNaoDeixaParcelamentoOrfao() throws SQLException {
+        Despesa despesa = new Despesa();
+        despesa.setDescricao("Geladeira");
+        despesa.setValor(Dinheiro.deCentavos(360_000));
+        despesa.setDataCompra(LocalDate.of(2024, 5, 10));
+        despesa.setDataVencimento(LocalDate.of(2024, 5, 10));
+        // Categoria inexistente: a chave estrangeira rejeita a despesa depois do parcelamento
+        despesa.setCategoria(new CategoriaDespesa(categoria.getId() + 100, "Inexistente"));
+        despesa.setParcelamento(novoParcelamento());
+
+        assertThrows(SQLException.class, () -> new DespesaDAO().inserir(despesa));
+
+        assertEquals(0, contar("SELECT COUNT(*) FROM despesas"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM parcelamentos"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM parcelas"));
+    }
+
+    @Test
+    void falhaAninhadaDesfazSoAParteAninhada() throws SQLException {
+        daoTemplate.executarEmTransacao(conn -> {
+            try {
+                daoTemplate.executarUpdate("INSERT INTO categorias (nome) VALUES (?)", "Lazer");
+                assertThrows(SQLException.class, () -> daoTemplate.executarEmTransacao(aninhada -> {
+                    try {
+                        daoTemplate.executarUpdate("INSERT INTO categorias (nome) VALUES (?)", "Saúde");
+                    } catch (SQLException e) {
+                        throw new RuntimeException(e);
+                    }
+                    throw new RuntimeException(new SQLException("falha na transação aninhada"));
+                }));
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(1, contar("SELECT COUNT(*) FROM categorias WHERE nome = 'Lazer'"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM categorias WHERE nome = 'Saúde'"));
+    }
+
+    private Parcelamento novoParcelamento() {
+        Parcelamento parcelamento = new Parcelamento(0, Dinheiro.deCentavos(360_000), 6, LocalDate.of(2024, 5, 10));
+        parcelamento.gerarParcelas(null);
+        return parcelamento;
+    }
+
+    private long contar(String sql) throws SQLException {
+        return daoTemplate.buscar(sql, rs -> rs.getLong(1)).orElse(0L);
+    }
+}
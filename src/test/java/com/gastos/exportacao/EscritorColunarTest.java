@@ -0,0 +1,162 @@
+package com.gastos.exportacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.gastos.exportacao.ColunaExportacao.Tipo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Ida e volta do formato colunar: o que o {@link EscritorColunar} grava, o
+ * {@link LeitorColunar} devolve igual.
+ */
+class EscritorColunarTest {
+
+    private static final List<ColunaExportacao> COLUNAS = List.of(
+        new ColunaExportacao("id", Tipo.INTEIRO),
+        new ColunaExportacao("valor", Tipo.DINHEIRO),
+        new ColunaExportacao("data", Tipo.DATA),
+        new ColunaExportacao("pago", Tipo.BOOLEANO),
+        new ColunaExportacao("categoria", Tipo.TEXTO),
+        new ColunaExportacao("descricao", Tipo.TEXTO)
+    );
+
+    private static final String[] CATEGORIAS = { "Alimentação", "Transporte", "Moradia", "Lazer" };
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void idaEVoltaComVariosGruposNulosEDicionario() throws IOException {
+        // Mais de dois grupos, com o último incompleto
+        int linhas = EscritorColunar.LINHAS_POR_GRUPO * 2 + 123;
+        Path arquivo = gravar(linhas, 20240501L);
+
+        try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+            assertEquals(COLUNAS.size(), leitor.getColunas().size());
+            for (int c = 0; c < COLUNAS.size(); c++) {
+                assertEquals(COLUNAS.get(c).getNome(), leitor.getColunas().get(c).getNome());
+                assertEquals(COLUNAS.get(c).getTipo(), leitor.getColunas().get(c).getTipo());
+            }
+            assertEquals(linhas, leitor.getTotalLinhas());
+
+            Random esperado = new Random(20240501L);
+            for (int i = 0; i < linhas; i++) {
+                assertTrue(leitor.proximaLinha(), "linha " + i);
+                Object[] linha = gerarLinha(esperado, i);
+                for (int c = 0; c < linha.length; c++) {
+                    if (linha[c] == null) {
+                        assertTrue(leitor.isNulo(c), "nulo na linha " + i + ", coluna " + c);
+                    } else if (linha[c] instanceof String) {
+                        assertFalse(leitor.isNulo(c));
+                        assertEquals(linha[c], leitor.getTexto(c), "linha " + i + ", coluna " + c);
+                    } else {
+                        assertFalse(leitor.isNulo(c));
+                        assertEquals((long) linha[c], leitor.getNumero(c), "linha " + i + ", coluna " + c);
+                    }
+                }
+            }
+            assertFalse(leitor.proximaLinha());
+        }
+    }
+
+    @Test
+    void arquivoVazio() throws IOException {
+        Path arquivo = gravar(0, 1L);
+        try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+            assertEquals(0, leitor.getTotalLinhas());
+            assertFalse(leitor.proximaLinha());
+        }
+    }
+
+    @Test
+    void conversaoParaCsv() throws IOException {
+        Path arquivo = pasta.resolve("curto.gfc");
+        try (OutputStream saida = Files.newOutputStream(arquivo)) {
+            EscritorColunar escritor = new EscritorColunar(saida);
+            escritor.iniciar(List.of(new ColunaExportacao("valor", Tipo.DINHEIRO),
+                    new ColunaExportacao("descricao", Tipo.TEXTO)));
+            escritor.escreverNumero(-123405);
+            escritor.escreverTexto("Mercado; centro");
+            escritor.fimLinha();
+            escritor.escreverNumero(99);
+            escritor.escreverNulo();
+            escritor.fimLinha();
+            escritor.concluir();
+        }
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+            assertEquals(2, leitor.copiarPara(FormatoExportacao.CSV.criarEscritor(csv)));
+        }
+
+        ByteArrayOutputStream esperado = new ByteArrayOutputStream();
+        EscritorExportacao direto = FormatoExportacao.CSV.criarEscritor(esperado);
+        direto.iniciar(List.of(new ColunaExportacao("valor", Tipo.DINHEIRO),
+                new ColunaExportacao("descricao", Tipo.TEXTO)));
+        direto.escreverNumero(-123405);
+        direto.escreverTexto("Mercado; centro");
+        direto.fimLinha();
+        direto.escreverNumero(99);
+        direto.escreverNulo();
+        direto.fimLinha();
+        direto.concluir();
+        assertEquals(esperado.toString(StandardCharsets.UTF_8), csv.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejeitaArquivoDeOutroFormato() throws IOException {
+        Path arquivo = pasta.resolve("outro.gfc");
+        Files.write(arquivo, "data;descricao;valor\n01/01/2024;x;1,00\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> new LeitorColunar(arquivo).close());
+    }
+
+    private Path gravar(int linhas, long semente) throws IOException {
+        Path arquivo = pasta.resolve("dados-" + linhas + ".gfc");
+        Random random = new Random(semente);
+        try (OutputStream saida = Files.newOutputStream(arquivo)) {
+            EscritorColunar escritor = new EscritorColunar(saida);
+            escritor.iniciar(COLUNAS);
+            for (int i = 0; i < linhas; i++) {
+                for (Object valor : gerarLinha(random, i)) {
+                    if (valor == null) {
+                        escritor.escreverNulo();
+                    } else if (valor instanceof String) {
+                        escritor.escreverTexto((String) valor);
+                    } else {
+                        escritor.escreverNumero((long) valor);
+                    }
+                }
+                escritor.fimLinha();
+            }
+            escritor.concluir();
+        }
+        return arquivo;
+    }
+
+    /**
+     * Linha determinística: IDs crescentes, valores com sinal trocado e grandes
+     * saltos, datas nulas de vez em quando, textos repetidos e únicos.
+     */
+    private static Object[] gerarLinha(Random random, int i) {
+        long valor = random.nextInt(5) == 0 ? -random.nextInt(1_000_000) : random.nextInt(Integer.MAX_VALUE);
+        Long data = random.nextInt(7) == 0 ? null : 19000L + random.nextInt(2000);
+        Long pago = random.nextInt(11) == 0 ? null : (long) random.nextInt(2);
+        String categoria = random.nextInt(13) == 0 ? null : CATEGORIAS[random.nextInt(CATEGORIAS.length)];
+        String descricao = "Compra " + i + (i % 3 == 0 ? " ç ã 😀" : "");
+        return new Object[] { (long) i + 1, valor, data, pago, categoria, descricao };
+    }
+}
@@ -0,0 +1,92 @@
+package com.gastos.importacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.gastos.db.CartaoCreditoDAO;
+import com.gastos.db.CategoriaDespesaDAO;
+import com.gastos.db.ConexaoBanco;
+import com.gastos.db.util.DAOTemplate;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.CategoriaDespesa;
+import com.gastos.model.Dinheiro;
+
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Importação de um extrato para um banco temporário: créditos e linhas inválidas
+ * não viram despesa, e os nomes são resolvidos sem diferenciar acentos.
+ */
+class ImportadorDespesasTest {
+
+    private static final String PROPRIEDADE_BANCO = "gastos.banco";
+
+    @TempDir
+    Path pasta;
+
+    private final DAOTemplate daoTemplate = new DAOTemplate();
+    private int categoriaId;
+    private int cartaoId;
+
+    @BeforeEach
+    void abrirBanco() throws SQLException {
+        System.setProperty(PROPRIEDADE_BANCO, pasta.resolve("importacao.db").toString());
+        ConexaoBanco.inicializarBancoDeDados();
+
+        categoriaId = new CategoriaDespesaDAO().inserir(new CategoriaDespesa(0, "Alimentação"));
+        cartaoId = new CartaoCreditoDAO().inserir(
+                new CartaoCredito(0, "Nubank", "Mastercard", Dinheiro.deCentavos(500_000), 3, 10, "#8A05BE"));
+    }
+
+    @AfterEach
+    void fecharBanco() {
+        ConexaoBanco.fecharConexao();
+        System.clearProperty(PROPRIEDADE_BANCO);
+    }
+
+    @Test
+    void importaDebitosEIgnoraCreditosELinhasInvalidas() throws Exception {
+        String csv = "data;descricao;valor;categoria;cartao\n"
+                + "05/03/2024;Mercado;150,00;ALIMENTACAO;nubank\n"
+                + "06/03/2024;Estorno do mercado;-20,00;Alimentação;Nubank\n"
+                + "32/03/2024;Data inválida;10,00;;\n"
+                + "07/03/2024;Passagem;450,10;Viagem;\n"
+                + "08/03/2024;Sem categoria;9,90;;Outro cartão\n";
+
+        List<Integer> progresso = new ArrayList<>();
+        ResultadoImportacao resultado;
+        try (LeitorCsv leitor = new LeitorCsv(new StringReader(csv))) {
+            // Lotes de 2, para gravar em mais de uma transação
+            resultado = new ImportadorDespesas(2).importar(leitor, r -> progresso.add(r.getImportadas()));
+        }
+
+        assertEquals(5, resultado.getLidas());
+        assertEquals(3, resultado.getImportadas());
+        assertEquals(1, resultado.getCreditos());
+        assertEquals(1, resultado.getIgnoradas());
+        assertEquals(1, resultado.getAvisos().size());
+        assertTrue(resultado.getAvisos().get(0).startsWith("Linha 4:"), resultado.getAvisos().get(0));
+        assertEquals(Dinheiro.deCentavos(61_000), resultado.getTotalImportado());
+        assertEquals(List.of("Viagem", ImportadorDespesas.CATEGORIA_PADRAO), resultado.getCategoriasCriadas());
+        assertEquals(List.of(2, 3), progresso);
+
+        assertEquals(3, contar("SELECT COUNT(*) FROM despesas"));
+        assertEquals(61_000, contar("SELECT SUM(valor) FROM despesas"));
+        assertEquals(1, contar("SELECT COUNT(*) FROM despesas WHERE descricao = 'Mercado' AND categoria_id = "
+                + categoriaId + " AND cartao_id = " + cartaoId));
+        assertEquals(1, contar("SELECT COUNT(*) FROM despesas WHERE descricao = 'Sem categoria' AND cartao_id IS NULL"));
+    }
+
+    private long contar(String sql) throws SQLException {
+        return daoTemplate.buscar(sql, rs -> rs.getLong(1)).orElse(0L);
+    }
+}
@@ -0,0 +1,121 @@
+package com.gastos.importacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.gastos.model.Dinheiro;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Leitura de extratos CSV: separador, aspas, formatos de data, sinal do valor e
+ * coluna tipo.
+ */
+class LeitorCsvTest {
+
+    @Test
+    void pontoEVirgulaComValoresBrasileiros() throws Exception {
+        try (LeitorCsv leitor = abrir(
+                "﻿Data;Histórico;Valor (R$);Categoria;Pago\n"
+                + "05/03/2024;Mercado;1.234,56;Alimentação;sim\n"
+                + "\n"
+                + "6/3/24;Padaria;12,5;;não\n")) {
+            LancamentoExtrato mercado = leitor.proximo();
+            assertEquals(2, mercado.getLinha());
+            assertEquals(LocalDate.of(2024, 3, 5), mercado.getData());
+            assertEquals("Mercado", mercado.getDescricao());
+            assertEquals(Dinheiro.deCentavos(123_456), mercado.getValor());
+            assertEquals("Alimentação", mercado.getCategoria());
+            assertEquals(Boolean.TRUE, mercado.getPago());
+            assertFalse(mercado.isCredito());
+
+            // A linha em branco conta na numeração, mas não vira lançamento
+            LancamentoExtrato padaria = leitor.proximo();
+            assertEquals(4, padaria.getLinha());
+            assertEquals(LocalDate.of(2024, 3, 6), padaria.getData());
+            assertEquals(Dinheiro.deCentavos(1_250), padaria.getValor());
+            assertNull(padaria.getCategoria());
+            assertEquals(Boolean.FALSE, padaria.getPago());
+
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void virgulaComCamposEntreAspasEDataIso() throws Exception {
+        try (LeitorCsv leitor = abrir(
+                "date,description,amount\n"
+                + "2024-03-05,\"Padaria \"\"Pão Quente\"\", centro\",\"1,234.56\"\n"
+                + "2024-03-07,Farmácia,19.90\n")) {
+            LancamentoExtrato padaria = leitor.proximo();
+            assertEquals(LocalDate.of(2024, 3, 5), padaria.getData());
+            assertEquals("Padaria \"Pão Quente\", centro", padaria.getDescricao());
+            assertEquals(Dinheiro.deCentavos(123_456), padaria.getValor());
+
+            LancamentoExtrato farmacia = leitor.proximo();
+            assertEquals(Dinheiro.deCentavos(1_990), farmacia.getValor());
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void valorNegativoECreditoEOTipoDecide() throws Exception {
+        try (LeitorCsv leitor = abrir(
+                "data;descricao;valor;tipo\n"
+                + "01/03/2024;Estorno;-45,90;\n"
+                + "02/03/2024;Compra;-10,00;D\n"
+                + "03/03/2024;Pagamento da fatura;300,00;Crédito\n"
+                + "04/03/2024;Assinatura;39,90;débito\n")) {
+            LancamentoExtrato estorno = leitor.proximo();
+            assertTrue(estorno.isCredito());
+            assertEquals(Dinheiro.deCentavos(4_590), estorno.getValor());
+
+            LancamentoExtrato compra = leitor.proximo();
+            assertFalse(compra.isCredito());
+            assertEquals(Dinheiro.deCentavos(1_000), compra.getValor());
+
+            LancamentoExtrato pagamento = leitor.proximo();
+            assertTrue(pagamento.isCredito());
+            assertEquals(Dinheiro.deCentavos(30_000), pagamento.getValor());
+
+            assertFalse(leitor.proximo().isCredito());
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void linhaInvalidaNaoInterrompeALeitura() throws Exception {
+        try (LeitorCsv leitor = abrir(
+                "data;descricao;valor;tipo\n"
+                + "31/02/2024;Data impossível;10,00;\n"
+                + "01/03/2024;Valor ruim;dez reais;\n"
+                + "01/03/2024;Zerado;0,00;\n"
+                + "01/03/2024;;10,00;\n"
+                + "01/03/2024;Tipo ruim;10,00;X\n"
+                + "02/03/2024;Válida;10,00;\n")) {
+            for (int linha = 2; linha <= 6; linha++) {
+                LinhaInvalidaException erro = assertThrows(LinhaInvalidaException.class, leitor::proximo);
+                assertEquals(linha, erro.getLinha());
+            }
+            assertEquals("Válida", leitor.proximo().getDescricao());
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void cabecalhoSemColunaObrigatoria() {
+        assertThrows(IOException.class, () -> abrir("data;descricao\n01/03/2024;Mercado\n"));
+        assertThrows(IOException.class, () -> abrir(""));
+    }
+
+    private static LeitorCsv abrir(String conteudo) throws IOException {
+        return new LeitorCsv(new StringReader(conteudo));
+    }
+}
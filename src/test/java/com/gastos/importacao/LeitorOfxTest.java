@@ -0,0 +1,126 @@
+package com.gastos.importacao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.gastos.model.Dinheiro;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Leitura de extratos OFX 1.x (SGML, sem fechamento dos elementos) e 2.x (XML).
+ */
+class LeitorOfxTest {
+
+    @Test
+    void sgml() throws Exception {
+        String ofx = "OFXHEADER:100\n"
+                + "DATA:OFXSGML\n"
+                + "VERSION:102\n"
+                + "\n"
+                + "<OFX>\n"
+                + "<BANKMSGSRSV1><STMTTRNRS><STMTRS>\n"
+                + "<BANKTRANLIST>\n"
+                + "<STMTTRN>\n"
+                + "<TRNTYPE>DEBIT\n"
+                + "<DTPOSTED>20240305120000[-3:BRT]\n"
+                + "<TRNAMT>-45.90\n"
+                + "<FITID>1\n"
+                + "<MEMO>PADARIA &amp; CAFE\n"
+                + "</STMTTRN>\n"
+                + "<STMTTRN>\n"
+                + "<TRNTYPE>CREDIT\n"
+                + "<DTPOSTED>20240306\n"
+                + "<TRNAMT>100,00\n"
+                + "<NAME>ESTORNO LOJA\n"
+                + "</STMTTRN>\n"
+                + "<STMTTRN>\n"
+                + "<DTPOSTED>20240307\n"
+                + "<TRNAMT>-1234.5\n"
+                + "<MEMO>\n"
+                + "<NAME>SEM FECHAMENTO\n";
+
+        try (LeitorOfx leitor = new LeitorOfx(new StringReader(ofx))) {
+            LancamentoExtrato padaria = leitor.proximo();
+            assertEquals(1, padaria.getLinha());
+            assertEquals(LocalDate.of(2024, 3, 5), padaria.getData());
+            assertEquals("PADARIA & CAFE", padaria.getDescricao());
+            assertEquals(Dinheiro.deCentavos(4_590), padaria.getValor());
+            assertFalse(padaria.isCredito());
+
+            LancamentoExtrato estorno = leitor.proximo();
+            assertEquals("ESTORNO LOJA", estorno.getDescricao());
+            assertEquals(Dinheiro.deCentavos(10_000), estorno.getValor());
+            assertTrue(estorno.isCredito());
+
+            // Último bloco sem </STMTTRN>, com MEMO vazio: vale o NAME
+            LancamentoExtrato ultimo = leitor.proximo();
+            assertEquals("SEM FECHAMENTO", ultimo.getDescricao());
+            assertEquals(Dinheiro.deCentavos(123_450), ultimo.getValor());
+            assertFalse(ultimo.isCredito());
+
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void xml() throws Exception {
+        String ofx = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<?OFX OFXHEADER=\"200\" VERSION=\"220\"?>\n"
+                + "<OFX><CREDITCARDMSGSRSV1><CCSTMTTRNRS><CCSTMTRS><BANKTRANLIST>\n"
+                + "  <STMTTRN>\n"
+                + "    <TRNTYPE>DEBIT</TRNTYPE>\n"
+                + "    <DTPOSTED>20240310000000</DTPOSTED>\n"
+                + "    <TRNAMT>-12.34</TRNAMT>\n"
+                + "    <MEMO>Farmácia &lt;Centro&gt;</MEMO>\n"
+                + "  </STMTTRN>\n"
+                + "  <STMTTRN>\n"
+                + "    <TRNTYPE>CREDIT</TRNTYPE>\n"
+                + "    <DTPOSTED>20240311</DTPOSTED>\n"
+                + "    <TRNAMT>500.00</TRNAMT>\n"
+                + "    <NAME>Pagamento recebido</NAME>\n"
+                + "  </STMTTRN>\n"
+                + "</BANKTRANLIST></CCSTMTRS></CCSTMTTRNRS></CREDITCARDMSGSRSV1></OFX>\n";
+
+        try (LeitorOfx leitor = new LeitorOfx(new StringReader(ofx))) {
+            LancamentoExtrato farmacia = leitor.proximo();
+            assertEquals(LocalDate.of(2024, 3, 10), farmacia.getData());
+            assertEquals("Farmácia <Centro>", farmacia.getDescricao());
+            assertEquals(Dinheiro.deCentavos(1_234), farmacia.getValor());
+            assertFalse(farmacia.isCredito());
+
+            LancamentoExtrato pagamento = leitor.proximo();
+            assertEquals("Pagamento recebido", pagamento.getDescricao());
+            assertTrue(pagamento.isCredito());
+
+            assertNull(leitor.proximo());
+        }
+    }
+
+    @Test
+    void transacaoInvalidaNaoInterrompeALeitura() throws Exception {
+        String ofx = "<OFX><BANKTRANLIST>"
+                + "<STMTTRN><TRNAMT>-1.00</TRNAMT><MEMO>Sem data</MEMO></STMTTRN>"
+                + "<STMTTRN><DTPOSTED>20240301</DTPOSTED><TRNAMT>abc</TRNAMT><MEMO>Valor ruim</MEMO></STMTTRN>"
+                + "<STMTTRN><DTPOSTED>20240301</DTPOSTED><TRNAMT>-1.00</TRNAMT></STMTTRN>"
+                + "<STMTTRN><DTPOSTED>20240302</DTPOSTED><TRNAMT>-2.00</TRNAMT><MEMO>Válida</MEMO></STMTTRN>"
+                + "</BANKTRANLIST></OFX>";
+
+        try (LeitorOfx leitor = new LeitorOfx(new StringReader(ofx))) {
+            for (int transacao = 1; transacao <= 3; transacao++) {
+                LinhaInvalidaException erro = assertThrows(LinhaInvalidaException.class, leitor::proximo);
+                assertEquals(transacao, erro.getLinha());
+            }
+            LancamentoExtrato valida = leitor.proximo();
+            assertEquals(4, valida.getLinha());
+            assertEquals("Válida", valida.getDescricao());
+            assertNull(leitor.proximo());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.gastos.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Interpretação de valores digitados, arredondamento e repartição em parcelas,
+ * de que dependem todos os valores gravados.
+ */
+class DinheiroTest {
+
+    @Test
+    void parseSeparadores() {
+        assertParse(123_456, "1234,56");
+        assertParse(123_456, "1.234,56");
+        assertParse(123_456, "1234.56");
+        assertParse(123_456, "1,234.56");
+        assertParse(123_456_789, "1.234.567,89");
+        assertParse(123_456_789, "1,234,567.89");
+        assertParse(1_250, "12,5");
+        assertParse(1_200, "12");
+    }
+
+    @Test
+    void parsePontoDeMilharesOuDecimal() {
+        // Ponto seguido de um grupo de três dígitos agrupa milhares
+        assertParse(123_400, "1.234");
+        assertParse(123_456_700, "1.234.567");
+        assertParse(-123_400, "-1.234");
+        // Primeiro grupo começando com zero ou com mais de três dígitos: decimal
+        assertParse(12, "0.123");
+        assertParse(123_457, "1234.567");
+        assertParse(150, "1.5");
+        assertParse(123, "1.23");
+        // Vírgula sozinha é sempre decimal; a terceira casa é arredondada
+        assertParse(123, "1,234");
+        assertParse(124, "1,235");
+        // Vírgulas repetidas agrupam milhares
+        assertParse(123_456_700, "1,234,567");
+    }
+
+    @Test
+    void parseSimboloSinalEEspacos() {
+        assertParse(4_590, "R$ 45,90");
+        assertParse(4_590, "  R$45,90  ");
+        assertParse(-4_590, "R$ -45,90");
+        assertParse(-4_590, "-45,90");
+        assertParse(123_456, "R$ 1 234,56");
+        assertParse(0, "0,00");
+    }
+
+    @Test
+    void parseTextoInvalido() {
+        for (String texto : new String[] { "", "   ", "R$", "R$ ", "abc", "12,34,5x", "1.23.4" }) {
+            assertThrows(NumberFormatException.class, () -> Dinheiro.parse(texto), "'" + texto + "'");
+        }
+    }
+
+    @Test
+    void deDoubleArredondaMeioCentavoParaLongeDoZero() {
+        assertEquals(1, Dinheiro.de(0.005).getCentavos());
+        assertEquals(-1, Dinheiro.de(-0.005).getCentavos());
+        assertEquals(0, Dinheiro.de(0.004).getCentavos());
+        assertEquals(13, Dinheiro.de(0.125).getCentavos());
+        // O double é lido pela sua representação decimal mais curta, e não pelo binário
+        assertEquals(101, Dinheiro.de(1.005).getCentavos());
+        assertEquals(268, Dinheiro.de(2.675).getCentavos());
+        assertEquals(30, Dinheiro.de(0.1 + 0.2).getCentavos());
+        assertEquals(-123_457, Dinheiro.de(-1234.565).getCentavos());
+        assertEquals(123_456, Dinheiro.de(new BigDecimal("1234.564")).getCentavos());
+
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.de(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.de(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void repartirDistribuiOResto() {
+        assertCentavos(new long[] { 34, 33, 33 }, Dinheiro.deCentavos(100).repartir(3));
+        assertCentavos(new long[] { 1, 1, 1, 1, 1, 0, 0, 0, 0, 0 }, Dinheiro.deCentavos(5).repartir(10));
+        assertCentavos(new long[] { 0, 0, 0, 0 }, Dinheiro.ZERO.repartir(4));
+        assertCentavos(new long[] { 999 }, Dinheiro.deCentavos(999).repartir(1));
+        // Negativos: o arredondamento para baixo deixa a parte mais negativa no fim
+        assertCentavos(new long[] { -33, -33, -34 }, Dinheiro.deCentavos(-100).repartir(3));
+        assertCentavos(new long[] { 0, 0, -1, -1 }, Dinheiro.deCentavos(-2).repartir(4));
+    }
+
+    @Test
+    void repartirPreservaOTotal() {
+        Random random = new Random(20240501L);
+        for (int i = 0; i < 10_000; i++) {
+            long centavos = random.nextInt(2_000_001) - 1_000_000;
+            int partes = 1 + random.nextInt(60);
+            Dinheiro[] resultado = Dinheiro.deCentavos(centavos).repartir(partes);
+
+            assertEquals(partes, resultado.length);
+            long soma = 0;
+            for (int p = 0; p < partes; p++) {
+                soma += resultado[p].getCentavos();
+                // Da maior para a menor, com no máximo um centavo de diferença
+                if (p > 0) {
+                    assertTrue(resultado[p - 1].compareTo(resultado[p]) >= 0);
+                }
+            }
+            assertEquals(centavos, soma, centavos + " em " + partes);
+            assertTrue(resultado[0].getCentavos() - resultado[partes - 1].getCentavos() <= 1);
+        }
+    }
+
+    @Test
+    void repartirEmZeroPartes() {
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.deCentavos(100).repartir(0));
+        assertThrows(IllegalArgumentException.class, () -> Dinheiro.deCentavos(100).repartir(-1));
+    }
+
+    private static void assertParse(long centavosEsperados, String texto) {
+        assertEquals(centavosEsperados, Dinheiro.parse(texto).getCentavos(), "'" + texto + "'");
+    }
+
+    private static void assertCentavos(long[] esperados, Dinheiro[] partes) {
+        long[] centavos = new long[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            centavos[i] = partes[i].getCentavos();
+        }
+        assertArrayEquals(esperados, centavos);
+    }
+}
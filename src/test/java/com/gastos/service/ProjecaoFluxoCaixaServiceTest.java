@@ -0,0 +1,150 @@
+package com.gastos.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.gastos.controller.ParcelamentoController;
+import com.gastos.db.CartaoCreditoDAO;
+import com.gastos.db.CategoriaDespesaDAO;
+import com.gastos.db.ConexaoBanco;
+import com.gastos.db.DespesaDAO;
+import com.gastos.model.CartaoCredito;
+import com.gastos.model.CategoriaDespesa;
+import com.gastos.model.Despesa;
+import com.gastos.model.Dinheiro;
+import com.gastos.model.Parcelamento;
+import com.gastos.service.ProjecaoFluxoCaixaService.Projecao;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A projeção mantida pelos eventos do {@link RepositorioDespesas} deve ser sempre
+ * igual à projeção recalculada do zero sobre o mesmo banco.
+ */
+class ProjecaoFluxoCaixaServiceTest {
+
+    private static final String PROPRIEDADE_BANCO = "gastos.banco";
+
+    @TempDir
+    Path pasta;
+
+    private final RepositorioDespesas repositorio = RepositorioDespesas.getInstancia();
+    private final DespesaDAO despesaDAO = new DespesaDAO();
+    private final ParcelamentoController parcelamentoController = new ParcelamentoController();
+    private ProjecaoFluxoCaixaService projecao;
+    private CategoriaDespesa categoria;
+    private CartaoCredito cartao;
+
+    @BeforeEach
+    void abrirBanco() throws SQLException {
+        System.setProperty(PROPRIEDADE_BANCO, pasta.resolve("projecao.db").toString());
+        ConexaoBanco.inicializarBancoDeDados();
+
+        categoria = new CategoriaDespesa(0, "Casa");
+        categoria.setId(new CategoriaDespesaDAO().inserir(categoria));
+        cartao = new CartaoCredito(0, "Cartão", "Visa", Dinheiro.deCentavos(1_000_000), 10, 20, "#000000");
+        cartao.setId(new CartaoCreditoDAO().inserir(cartao));
+
+        projecao = new ProjecaoFluxoCaixaService();
+        projecao.obterProjecao();
+        repositorio.adicionarOuvinte(projecao);
+    }
+
+    @AfterEach
+    void fecharBanco() {
+        repositorio.removerOuvinte(projecao);
+        repositorio.invalidar();
+        ConexaoBanco.fecharConexao();
+        System.clearProperty(PROPRIEDADE_BANCO);
+    }
+
+    @Test
+    void atualizacoesIncrementaisIguaisAoRecalculo() throws SQLException {
+        LocalDate hoje = LocalDate.now();
+
+        Despesa aluguel = incluir("Aluguel", 150_000, hoje.minusMonths(1), true, null, null);
+        assertIgualAoRecalculo();
+        Despesa assinatura = incluir("Assinatura", 3_990, hoje.minusMonths(2), true, cartao, null);
+        assertIgualAoRecalculo();
+        Despesa geladeira = incluir("Geladeira", 360_000, hoje, false, null, 6);
+        assertIgualAoRecalculo();
+        incluir("Notebook", 500_000, hoje.minusMonths(1), false, cartao, 10);
+        assertIgualAoRecalculo();
+        Despesa mercado = incluir("Mercado", 45_000, hoje, false, cartao, null);
+        assertIgualAoRecalculo();
+
+        // Alteração de valor e de status
+        aluguel.setValor(Dinheiro.deCentavos(160_000));
+        aluguel.setPago(true);
+        despesaDAO.atualizar(aluguel);
+        repositorio.despesaAlterada(aluguel);
+        assertIgualAoRecalculo();
+
+        // Despesa fixa que sai do cartão
+        assinatura.setCartaoCredito(null);
+        despesaDAO.atualizar(assinatura);
+        repositorio.despesaAlterada(assinatura);
+        assertIgualAoRecalculo();
+
+        // Pagamento de parcelas, com os parcelamentos conhecidos
+        List<Parcelamento.Parcela> parcelas = geladeira.getParcelamento().getParcelas();
+        parcelamentoController.marcarParcelasPagas(
+                List.of(parcelas.get(0).getId(), parcelas.get(1).getId()), true);
+        assertIgualAoRecalculo();
+
+        // Pagamento da fatura atual do cartão, sem os parcelamentos conhecidos
+        parcelamentoController.marcarParcelasDoCartaoPagas(cartao.getId(), cartao.calcularMesFatura(hoje), true);
+        assertIgualAoRecalculo();
+
+        despesaDAO.excluir(mercado.getId());
+        repositorio.despesaExcluida(mercado.getId(), mercado);
+        assertIgualAoRecalculo();
+        despesaDAO.excluir(geladeira.getId());
+        repositorio.despesaExcluida(geladeira.getId(), geladeira);
+        assertIgualAoRecalculo();
+    }
+
+    private Despesa incluir(String descricao, long centavos, LocalDate data, boolean fixo,
+                            CartaoCredito cartaoDespesa, Integer parcelas) throws SQLException {
+        Despesa despesa = new Despesa();
+        despesa.setDescricao(descricao);
+        despesa.setValor(Dinheiro.deCentavos(centavos));
+        despesa.setDataCompra(data);
+        despesa.setDataVencimento(data);
+        despesa.setFixo(fixo);
+        despesa.setCategoria(categoria);
+        despesa.setCartaoCredito(cartaoDespesa);
+        if (parcelas != null) {
+            Parcelamento parcelamento = new Parcelamento(0, despesa.getValor(), parcelas, data);
+            parcelamento.gerarParcelas(cartaoDespesa);
+            despesa.setParcelamento(parcelamento);
+        }
+        despesa.setId(despesaDAO.inserir(despesa));
+        repositorio.despesaIncluida(despesa);
+        return despesa;
+    }
+
+    private void assertIgualAoRecalculo() throws SQLException {
+        Projecao incremental = projecao.obterProjecao();
+        Projecao recalculada = new ProjecaoFluxoCaixaService().obterProjecao();
+
+        assertEquals(recalculada.getMesInicial(), incremental.getMesInicial());
+        long total = 0;
+        for (int componente = 0; componente <= ProjecaoFluxoCaixaService.FATURAS; componente++) {
+            for (int mes = 0; mes < ProjecaoFluxoCaixaService.HORIZONTE_MESES; mes++) {
+                assertEquals(recalculada.getValor(componente, mes), incremental.getValor(componente, mes),
+                        "componente " + componente + ", mês " + mes);
+                total += recalculada.getValor(componente, mes);
+            }
+        }
+        assertNotEquals(0, total);
+    }
+}